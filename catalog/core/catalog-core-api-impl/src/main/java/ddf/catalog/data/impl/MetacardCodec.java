@@ -0,0 +1,589 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary encoding of {@link Metacard}s and attribute values, used in place of Java
+ * serialization where metacards are stored or exchanged in bulk.
+ *
+ * <p>An encoded stream starts with a magic byte and a format version followed by any number of
+ * metacards or values. The first time a {@link MetacardType} is written to a stream its name and
+ * descriptors are written and it is assigned the next type id; later metacards of the same type
+ * only write that id and refer to their attributes by descriptor index rather than by name.
+ * Attributes of a {@link MetacardImpl} that its type does not declare follow, written by name.
+ * Lengths, counts and integral values are written as variable length integers and each value is
+ * tagged with its primitive type, so only values that are not one of the {@link
+ * ddf.catalog.data.AttributeType.AttributeFormat} bindings fall back to Java serialization.
+ *
+ * <p>The magic byte cannot start a Java serialization stream, so {@link #isEncoded(byte[])} can be
+ * used to tell encoded values apart from previously serialized ones.
+ */
+public final class MetacardCodec {
+
+  /** Version of the format written by this codec. */
+  public static final int VERSION = 2;
+
+  /** First version that writes the attributes a metacard's type does not declare. */
+  private static final int UNDECLARED_ATTRIBUTES_VERSION = 2;
+
+  private static final int MAGIC = 0xDC;
+
+  private static final int NULL_TAG = 0;
+
+  private static final int STRING_TAG = 1;
+
+  private static final int BOOLEAN_TAG = 2;
+
+  private static final int SHORT_TAG = 3;
+
+  private static final int INTEGER_TAG = 4;
+
+  private static final int LONG_TAG = 5;
+
+  private static final int FLOAT_TAG = 6;
+
+  private static final int DOUBLE_TAG = 7;
+
+  private static final int DATE_TAG = 8;
+
+  private static final int BINARY_TAG = 9;
+
+  private static final int SERIALIZED_TAG = 10;
+
+  private static final int INDEXED_FLAG = 1;
+
+  private static final int STORED_FLAG = 1 << 1;
+
+  private static final int TOKENIZED_FLAG = 1 << 2;
+
+  private static final int MULTIVALUED_FLAG = 1 << 3;
+
+  private MetacardCodec() {}
+
+  /**
+   * @param bytes bytes to check, may be {@code null}
+   * @return {@code true} if {@code bytes} starts with the header written by this codec
+   */
+  public static boolean isEncoded(byte[] bytes) {
+    return bytes != null && bytes.length >= 2 && (bytes[0] & 0xFF) == MAGIC;
+  }
+
+  /**
+   * Encodes a single metacard.
+   *
+   * @param metacard metacard to encode
+   * @return encoded metacard
+   * @throws IOException if an attribute value could not be encoded
+   */
+  public static byte[] encode(Metacard metacard) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Encoder encoder = new Encoder(bytes);
+    encoder.writeMetacard(metacard);
+    encoder.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a metacard encoded with {@link #encode(Metacard)}.
+   *
+   * @param bytes encoded metacard
+   * @return decoded metacard
+   * @throws IOException if {@code bytes} is not a valid encoding
+   */
+  public static Metacard decode(byte[] bytes) throws IOException {
+    return new Decoder(new ByteArrayInputStream(bytes)).readMetacard();
+  }
+
+  /**
+   * Encodes a single attribute value.
+   *
+   * @param value value to encode, may be {@code null}
+   * @return encoded value
+   * @throws IOException if the value could not be serialized
+   */
+  public static byte[] encodeValue(Serializable value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Encoder encoder = new Encoder(bytes);
+    encoder.writeValue(value);
+    encoder.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes a value encoded with {@link #encodeValue(Serializable)}. Bytes that were not written by
+   * this codec are read as a Java serialized object so that previously stored values can still be
+   * read.
+   *
+   * @param bytes encoded or Java serialized value
+   * @return decoded value, may be {@code null}
+   * @throws IOException if the value could not be decoded
+   */
+  public static Serializable decodeValue(byte[] bytes) throws IOException {
+    if (!isEncoded(bytes)) {
+      return deserialize(bytes);
+    }
+    return new Decoder(new ByteArrayInputStream(bytes)).readValue();
+  }
+
+  private static Serializable deserialize(byte[] bytes) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Serializable) in.readObject();
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException("Could not deserialize value.", e);
+    }
+  }
+
+  /**
+   * Writes metacards and values to an {@link OutputStream}. Metacard types are only written once
+   * per encoder, so a single encoder should be used for every metacard written to the same stream.
+   *
+   * <p>This class is not thread-safe.
+   */
+  public static final class Encoder {
+
+    private final DataOutputStream out;
+
+    private final Map<MetacardType, EncodedType> types = new HashMap<>();
+
+    private final Map<MetacardType, EncodedType> typesByIdentity = new IdentityHashMap<>();
+
+    /**
+     * Creates an encoder and writes the stream header.
+     *
+     * @param outputStream stream to write to
+     * @throws IOException if the header could not be written
+     */
+    public Encoder(OutputStream outputStream) throws IOException {
+      this.out = new DataOutputStream(outputStream);
+      out.writeByte(MAGIC);
+      out.writeByte(VERSION);
+    }
+
+    public void writeMetacard(Metacard metacard) throws IOException {
+      EncodedType type = writeType(metacard.getMetacardType());
+      writeString(metacard.getSourceId());
+
+      List<Attribute> attributes = new ArrayList<>(type.descriptors.size());
+      List<Integer> indexes = new ArrayList<>(type.descriptors.size());
+      for (int i = 0; i < type.descriptors.size(); i++) {
+        Attribute attribute = metacard.getAttribute(type.descriptors.get(i).getName());
+        if (attribute != null) {
+          attributes.add(attribute);
+          indexes.add(i);
+        }
+      }
+
+      writeVarInt(attributes.size());
+      for (int i = 0; i < attributes.size(); i++) {
+        writeVarInt(indexes.get(i));
+        writeValues(attributes.get(i));
+      }
+
+      List<Attribute> undeclared = new ArrayList<>();
+      if (metacard instanceof MetacardImpl) {
+        for (Attribute attribute : ((MetacardImpl) metacard).getSetAttributes()) {
+          if (attribute != null && !type.names.contains(attribute.getName())) {
+            undeclared.add(attribute);
+          }
+        }
+      }
+      writeVarInt(undeclared.size());
+      for (Attribute attribute : undeclared) {
+        writeString(attribute.getName());
+        writeValues(attribute);
+      }
+    }
+
+    public void writeValue(Serializable value) throws IOException {
+      if (value == null) {
+        out.writeByte(NULL_TAG);
+      } else if (value instanceof String) {
+        out.writeByte(STRING_TAG);
+        writeString((String) value);
+      } else if (value instanceof Boolean) {
+        out.writeByte(BOOLEAN_TAG);
+        out.writeBoolean((Boolean) value);
+      } else if (value instanceof Short) {
+        out.writeByte(SHORT_TAG);
+        writeVarLong(zigZag((Short) value));
+      } else if (value instanceof Integer) {
+        out.writeByte(INTEGER_TAG);
+        writeVarLong(zigZag((Integer) value));
+      } else if (value instanceof Long) {
+        out.writeByte(LONG_TAG);
+        writeVarLong(zigZag((Long) value));
+      } else if (value instanceof Float) {
+        out.writeByte(FLOAT_TAG);
+        out.writeFloat((Float) value);
+      } else if (value instanceof Double) {
+        out.writeByte(DOUBLE_TAG);
+        out.writeDouble((Double) value);
+      } else if (value.getClass() == Date.class) {
+        // Subclasses such as java.sql.Timestamp carry more than the time and are serialized
+        out.writeByte(DATE_TAG);
+        writeVarLong(zigZag(((Date) value).getTime()));
+      } else if (value instanceof byte[]) {
+        out.writeByte(BINARY_TAG);
+        writeBytes((byte[]) value);
+      } else {
+        out.writeByte(SERIALIZED_TAG);
+        writeBytes(serialize(value));
+      }
+    }
+
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    private void writeValues(Attribute attribute) throws IOException {
+      List<Serializable> values = attribute.getValues();
+      if (values == null) {
+        writeVarInt(0);
+        return;
+      }
+      writeVarInt(values.size());
+      for (Serializable value : values) {
+        writeValue(value);
+      }
+    }
+
+    private EncodedType writeType(MetacardType metacardType) throws IOException {
+      // Most metacards share their type instance, so avoid hashing the descriptors when possible
+      EncodedType type = typesByIdentity.get(metacardType);
+      if (type == null) {
+        type = types.get(metacardType);
+      }
+      if (type != null) {
+        typesByIdentity.put(metacardType, type);
+        writeVarInt(type.id);
+        return type;
+      }
+
+      Set<AttributeDescriptor> descriptors = metacardType.getAttributeDescriptors();
+      type =
+          new EncodedType(
+              types.size(),
+              descriptors == null ? Collections.emptyList() : new ArrayList<>(descriptors));
+      types.put(metacardType, type);
+      typesByIdentity.put(metacardType, type);
+
+      writeVarInt(type.id);
+      writeString(metacardType.getName());
+      writeVarInt(type.descriptors.size());
+      for (AttributeDescriptor descriptor : type.descriptors) {
+        writeString(descriptor.getName());
+        writeString(descriptor.getType().getAttributeFormat().name());
+        out.writeByte(flags(descriptor));
+      }
+      return type;
+    }
+
+    private void writeString(String value) throws IOException {
+      if (value == null) {
+        writeVarInt(0);
+        return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length + 1);
+      out.write(bytes);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+      writeVarInt(bytes.length);
+      out.write(bytes);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+      writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+      while ((value & ~0x7FL) != 0) {
+        out.writeByte((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      out.writeByte((int) value);
+    }
+
+    private static long zigZag(long value) {
+      return (value << 1) ^ (value >> 63);
+    }
+
+    private static int flags(AttributeDescriptor descriptor) {
+      int flags = 0;
+      if (descriptor.isIndexed()) {
+        flags |= INDEXED_FLAG;
+      }
+      if (descriptor.isStored()) {
+        flags |= STORED_FLAG;
+      }
+      if (descriptor.isTokenized()) {
+        flags |= TOKENIZED_FLAG;
+      }
+      if (descriptor.isMultiValued()) {
+        flags |= MULTIVALUED_FLAG;
+      }
+      return flags;
+    }
+
+    private static byte[] serialize(Serializable value) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+        objectOut.writeObject(value);
+      }
+      return bytes.toByteArray();
+    }
+  }
+
+  /**
+   * Reads metacards and values written by an {@link Encoder}.
+   *
+   * <p>This class is not thread-safe.
+   */
+  public static final class Decoder {
+
+    private final DataInputStream in;
+
+    private final int version;
+
+    private final List<DecodedType> types = new ArrayList<>();
+
+    /**
+     * Creates a decoder and reads the stream header.
+     *
+     * @param inputStream stream to read from
+     * @throws IOException if the stream was not written by a compatible {@link Encoder}
+     */
+    public Decoder(InputStream inputStream) throws IOException {
+      this.in = new DataInputStream(inputStream);
+      int magic = in.readUnsignedByte();
+      if (magic != MAGIC) {
+        throw new StreamCorruptedException("Not an encoded metacard stream.");
+      }
+      version = in.readUnsignedByte();
+      if (version > VERSION) {
+        throw new StreamCorruptedException("Unsupported metacard encoding version " + version);
+      }
+    }
+
+    /**
+     * @return the next metacard in the stream
+     * @throws java.io.EOFException if there are no more metacards in the stream
+     * @throws IOException if the metacard could not be decoded
+     */
+    public Metacard readMetacard() throws IOException {
+      DecodedType type = readType();
+      MetacardImpl metacard = new MetacardImpl(type.metacardType);
+
+      String sourceId = readString();
+      if (sourceId != null) {
+        metacard.setSourceId(sourceId);
+      }
+
+      int attributeCount = readVarInt();
+      for (int i = 0; i < attributeCount; i++) {
+        int index = readVarInt();
+        if (index >= type.descriptors.size()) {
+          throw new StreamCorruptedException("Invalid attribute descriptor index " + index);
+        }
+        metacard.setAttribute(
+            new AttributeImpl(type.descriptors.get(index).getName(), readValues()));
+      }
+
+      if (version >= UNDECLARED_ATTRIBUTES_VERSION) {
+        int undeclaredCount = readVarInt();
+        for (int i = 0; i < undeclaredCount; i++) {
+          String name = readString();
+          if (name == null) {
+            throw new StreamCorruptedException("Missing attribute name.");
+          }
+          metacard.setAttribute(new AttributeImpl(name, readValues()));
+        }
+      }
+      return metacard;
+    }
+
+    private List<Serializable> readValues() throws IOException {
+      int valueCount = readVarInt();
+      List<Serializable> values = new ArrayList<>(valueCount);
+      for (int i = 0; i < valueCount; i++) {
+        values.add(readValue());
+      }
+      return values;
+    }
+
+    public Serializable readValue() throws IOException {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case NULL_TAG:
+          return null;
+        case STRING_TAG:
+          return readString();
+        case BOOLEAN_TAG:
+          return in.readBoolean();
+        case SHORT_TAG:
+          return (short) unZigZag(readVarLong());
+        case INTEGER_TAG:
+          return (int) unZigZag(readVarLong());
+        case LONG_TAG:
+          return unZigZag(readVarLong());
+        case FLOAT_TAG:
+          return in.readFloat();
+        case DOUBLE_TAG:
+          return in.readDouble();
+        case DATE_TAG:
+          return new Date(unZigZag(readVarLong()));
+        case BINARY_TAG:
+          return readBytes();
+        case SERIALIZED_TAG:
+          return deserialize(readBytes());
+        default:
+          throw new StreamCorruptedException("Invalid value tag " + tag);
+      }
+    }
+
+    private DecodedType readType() throws IOException {
+      int id = readVarInt();
+      if (id < types.size()) {
+        return types.get(id);
+      }
+      if (id > types.size()) {
+        throw new StreamCorruptedException("Invalid metacard type id " + id);
+      }
+
+      String name = readString();
+      int descriptorCount = readVarInt();
+      List<AttributeDescriptor> descriptors = new ArrayList<>(descriptorCount);
+      for (int i = 0; i < descriptorCount; i++) {
+        String descriptorName = readString();
+        AttributeType<?> attributeType = BasicTypes.getAttributeType(readString());
+        if (attributeType == null) {
+          throw new StreamCorruptedException("Invalid attribute format for " + descriptorName);
+        }
+        int flags = in.readUnsignedByte();
+        descriptors.add(
+            new AttributeDescriptorImpl(
+                descriptorName,
+                (flags & INDEXED_FLAG) != 0,
+                (flags & STORED_FLAG) != 0,
+                (flags & TOKENIZED_FLAG) != 0,
+                (flags & MULTIVALUED_FLAG) != 0,
+                attributeType));
+      }
+
+      DecodedType type =
+          new DecodedType(
+              new MetacardTypeImpl(name, new LinkedHashSet<>(descriptors)), descriptors);
+      types.add(type);
+      return type;
+    }
+
+    private String readString() throws IOException {
+      int length = readVarInt();
+      if (length == 0) {
+        return null;
+      }
+      byte[] bytes = new byte[length - 1];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes() throws IOException {
+      byte[] bytes = new byte[readVarInt()];
+      in.readFully(bytes);
+      return bytes;
+    }
+
+    private int readVarInt() throws IOException {
+      long value = readVarLong();
+      if (value < 0 || value > Integer.MAX_VALUE) {
+        throw new StreamCorruptedException("Invalid length " + value);
+      }
+      return (int) value;
+    }
+
+    private long readVarLong() throws IOException {
+      long value = 0;
+      for (int shift = 0; shift < 64; shift += 7) {
+        int b = in.readUnsignedByte();
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new StreamCorruptedException("Malformed variable length integer.");
+    }
+
+    private static long unZigZag(long value) {
+      return (value >>> 1) ^ -(value & 1);
+    }
+  }
+
+  private static class EncodedType {
+
+    private final int id;
+
+    private final List<AttributeDescriptor> descriptors;
+
+    private final Set<String> names = new HashSet<>();
+
+    EncodedType(int id, List<AttributeDescriptor> descriptors) {
+      this.id = id;
+      this.descriptors = descriptors;
+      for (AttributeDescriptor descriptor : descriptors) {
+        names.add(descriptor.getName());
+      }
+    }
+  }
+
+  private static class DecodedType {
+
+    private final MetacardType metacardType;
+
+    private final List<AttributeDescriptor> descriptors;
+
+    DecodedType(MetacardType metacardType, List<AttributeDescriptor> descriptors) {
+      this.metacardType = metacardType;
+      this.descriptors = descriptors;
+    }
+  }
+}
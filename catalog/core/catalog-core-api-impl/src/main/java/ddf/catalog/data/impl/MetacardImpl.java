@@ -30,6 +30,7 @@
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -735,6 +736,18 @@ public Attribute getAttribute(String name) {
     return (wrappedMetacard != null) ? wrappedMetacard.getAttribute(name) : map.get(name);
   }
 
+  /**
+   * @return every attribute set on this metacard, including attributes its {@link MetacardType}
+   *     does not declare, or an empty collection if this metacard wraps a metacard that is not a
+   *     {@link MetacardImpl}
+   */
+  Collection<Attribute> getSetAttributes() {
+    if (wrappedMetacard instanceof MetacardImpl) {
+      return ((MetacardImpl) wrappedMetacard).getSetAttributes();
+    }
+    return wrappedMetacard != null ? Collections.emptyList() : map.values();
+  }
+
   /**
    * Set an attribute via a name/value pair.
    *
@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import ddf.catalog.transform.InputTransformer;
+import ddf.catalog.util.Describable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.activation.MimeType;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.platform.util.XMLUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Orders the {@link InputTransformer}s matching a mime type so that the transformer most likely to
+ * create a metacard from a piece of content is attempted first.
+ *
+ * <p>Content is classified by a signature read from its first few kilobytes: the root element of
+ * XML, the top-level keys of JSON, or the leading bytes of anything else. For every mime type and
+ * signature the router remembers which transformers succeeded and which failed. Transformers that
+ * have failed repeatedly for a route without ever succeeding are attempted last; all others keep
+ * the order given by the {@code MimeTypeToTransformerMapper}, so a catch-all transformer that
+ * happened to succeed once does not outrank a more specific one.
+ */
+public class InputTransformerRouter implements InputTransformerRouterMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InputTransformerRouter.class);
+
+  private static final int CONTENT_PREFIX_SIZE = 8 * 1024;
+
+  private static final int MAX_ROUTES = 1000;
+
+  private static final int FAILURES_BEFORE_DEMOTION = 3;
+
+  private static final int MAX_JSON_KEYS = 8;
+
+  private static final int MAGIC_BYTE_COUNT = 4;
+
+  private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+  private final Map<String, Map<String, RouteHistory>> routes = new ConcurrentHashMap<>();
+
+  private final Map<String, TransformerStatistics> statistics = new ConcurrentHashMap<>();
+
+  private final String name;
+
+  private ObjectName objectName;
+
+  public InputTransformerRouter() {
+    this(null);
+  }
+
+  /** @param name name under which the router's statistics MBean is registered */
+  public InputTransformerRouter(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Classifies content for routing.
+   *
+   * @param mimeType mime type of the content, may be {@code null}
+   * @param content stream positioned at the start of the content; at most a few kilobytes are read
+   * @return the route key to pass to {@link #order} and {@link #recordAttempt}
+   * @throws IOException if the content cannot be read
+   */
+  public String getRouteKey(MimeType mimeType, InputStream content) throws IOException {
+    byte[] prefix = new byte[CONTENT_PREFIX_SIZE];
+    int length = IOUtils.read(content, prefix);
+    String baseType = mimeType == null ? "" : mimeType.getBaseType();
+    return baseType + "|" + getSignature(prefix, length);
+  }
+
+  /**
+   * Orders candidate transformers by their history for a route. Transformers that have failed
+   * repeatedly and never succeeded for the route are moved to the end.
+   *
+   * @param routeKey key returned by {@link #getRouteKey}
+   * @param candidates transformers in the order given by the mime type mapper
+   * @return a new list with the same transformers in routing order
+   */
+  public List<InputTransformer> order(String routeKey, List<InputTransformer> candidates) {
+    List<InputTransformer> ordered = new ArrayList<>(candidates);
+    Map<String, RouteHistory> history = routes.get(routeKey);
+    if (history == null || ordered.size() < 2) {
+      return ordered;
+    }
+
+    // List.sort is stable, so transformers that are not demoted keep the mapper's ranking
+    ordered.sort(
+        Comparator.<InputTransformer, Boolean>comparing(
+            transformer -> getHistory(history, transformer).isDemoted()));
+    return ordered;
+  }
+
+  /**
+   * Records the outcome of a transformer attempt.
+   *
+   * @param routeKey key returned by {@link #getRouteKey}
+   * @param transformer the transformer that was attempted
+   * @param success whether the transformer created a metacard
+   * @param elapsedNanos how long the attempt took
+   */
+  public void recordAttempt(
+      String routeKey, InputTransformer transformer, boolean success, long elapsedNanos) {
+    String transformerId = getTransformerId(transformer);
+    statistics
+        .computeIfAbsent(transformerId, id -> new TransformerStatistics())
+        .record(success, elapsedNanos);
+
+    Map<String, RouteHistory> history = routes.get(routeKey);
+    if (history == null) {
+      if (routes.size() >= MAX_ROUTES) {
+        LOGGER.debug("Not remembering route {}, the route limit has been reached.", routeKey);
+        return;
+      }
+      history = routes.computeIfAbsent(routeKey, key -> new ConcurrentHashMap<>());
+    }
+
+    RouteHistory transformerHistory =
+        history.computeIfAbsent(transformerId, id -> new RouteHistory());
+    if (success) {
+      transformerHistory.successes.incrementAndGet();
+    } else {
+      transformerHistory.failures.incrementAndGet();
+    }
+  }
+
+  /** Registers this router's statistics MBean if the router was given a name. */
+  public void registerMBean() {
+    if (name == null) {
+      return;
+    }
+    try {
+      objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+      MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+      try {
+        mbeanServer.registerMBean(
+            new StandardMBean(this, InputTransformerRouterMBean.class), objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        LOGGER.debug("Re-registering input transformer router MBean {}", objectName);
+        mbeanServer.unregisterMBean(objectName);
+        mbeanServer.registerMBean(
+            new StandardMBean(this, InputTransformerRouterMBean.class), objectName);
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not register input transformer router MBean.", e);
+    }
+  }
+
+  /** Unregisters this router's statistics MBean if it was registered. */
+  public void unregisterMBean() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (InstanceNotFoundException e) {
+      LOGGER.debug("Input transformer router MBean {} was not registered.", objectName, e);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister input transformer router MBean.", e);
+    }
+    objectName = null;
+  }
+
+  @Override
+  public String[] getTransformerIds() {
+    return new TreeSet<>(statistics.keySet()).toArray(new String[0]);
+  }
+
+  @Override
+  public long getAttemptCount(String transformerId) {
+    TransformerStatistics transformerStatistics = statistics.get(transformerId);
+    return transformerStatistics == null ? 0 : transformerStatistics.attempts.get();
+  }
+
+  @Override
+  public long getFailureCount(String transformerId) {
+    TransformerStatistics transformerStatistics = statistics.get(transformerId);
+    return transformerStatistics == null ? 0 : transformerStatistics.failures.get();
+  }
+
+  @Override
+  public double getAverageLatencyMillis(String transformerId) {
+    TransformerStatistics transformerStatistics = statistics.get(transformerId);
+    if (transformerStatistics == null || transformerStatistics.attempts.get() == 0) {
+      return 0;
+    }
+    return (double) TimeUnit.NANOSECONDS.toMicros(transformerStatistics.elapsedNanos.get())
+        / 1000
+        / transformerStatistics.attempts.get();
+  }
+
+  @Override
+  public int getRouteCount() {
+    return routes.size();
+  }
+
+  @Override
+  public void reset() {
+    routes.clear();
+    statistics.clear();
+  }
+
+  static String getTransformerId(InputTransformer transformer) {
+    if (transformer instanceof Describable && ((Describable) transformer).getId() != null) {
+      return ((Describable) transformer).getId();
+    }
+    return transformer.getClass().getName();
+  }
+
+  static String getSignature(byte[] prefix, int length) {
+    if (length <= 0) {
+      return "empty";
+    }
+
+    String text = new String(prefix, 0, length, StandardCharsets.UTF_8);
+    int start = 0;
+    while (start < text.length()
+        && (text.charAt(start) == BYTE_ORDER_MARK || Character.isWhitespace(text.charAt(start)))) {
+      start++;
+    }
+
+    if (text.startsWith("<", start)) {
+      String rootElement = getXmlRootElement(text.substring(start));
+      return rootElement == null ? "xml" : "xml:" + rootElement;
+    }
+    if (text.startsWith("{", start)) {
+      return "json:" + String.join(",", getJsonKeys(text.substring(start)));
+    }
+
+    StringBuilder magic = new StringBuilder("magic:");
+    for (int i = 0; i < Math.min(length, MAGIC_BYTE_COUNT); i++) {
+      magic.append(String.format("%02x", prefix[i]));
+    }
+    return magic.toString();
+  }
+
+  private static String getXmlRootElement(String xml) {
+    // The prefix may cut the document short, but processing stops at the root element
+    return XMLUtils.getInstance()
+        .processElements(
+            xml,
+            (result, xmlStreamReader) -> {
+              result.set(xmlStreamReader.getName().toString());
+              return false;
+            });
+  }
+
+  private static SortedSet<String> getJsonKeys(String json) {
+    SortedSet<String> keys = new TreeSet<>();
+    StringBuilder string = new StringBuilder();
+    String lastString = null;
+    boolean inString = false;
+    boolean escaped = false;
+    int depth = 0;
+
+    for (int i = 0; i < json.length() && keys.size() < MAX_JSON_KEYS; i++) {
+      char c = json.charAt(i);
+      if (inString) {
+        if (escaped) {
+          escaped = false;
+          string.append(c);
+        } else if (c == '\\') {
+          escaped = true;
+        } else if (c == '"') {
+          inString = false;
+          lastString = string.toString();
+        } else {
+          string.append(c);
+        }
+        continue;
+      }
+
+      switch (c) {
+        case '"':
+          inString = true;
+          string.setLength(0);
+          break;
+        case ':':
+          if (depth == 1 && lastString != null) {
+            keys.add(lastString);
+          }
+          lastString = null;
+          break;
+        case '{':
+        case '[':
+          depth++;
+          lastString = null;
+          break;
+        case '}':
+        case ']':
+          depth--;
+          lastString = null;
+          break;
+        default:
+          if (!Character.isWhitespace(c)) {
+            lastString = null;
+          }
+          break;
+      }
+    }
+    return keys;
+  }
+
+  private static RouteHistory getHistory(
+      Map<String, RouteHistory> history, InputTransformer transformer) {
+    return history.getOrDefault(getTransformerId(transformer), RouteHistory.NONE);
+  }
+
+  private static class RouteHistory {
+
+    private static final RouteHistory NONE = new RouteHistory();
+
+    private final AtomicLong successes = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private boolean isDemoted() {
+      return successes.get() == 0 && failures.get() >= FAILURES_BEFORE_DEMOTION;
+    }
+  }
+
+  private static class TransformerStatistics {
+
+    private final AtomicLong attempts = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong elapsedNanos = new AtomicLong();
+
+    private void record(boolean success, long nanos) {
+      attempts.incrementAndGet();
+      if (!success) {
+        failures.incrementAndGet();
+      }
+      elapsedNanos.addAndGet(nanos);
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+/** Reports how often, and how quickly, each routed input transformer creates a metacard. */
+public interface InputTransformerRouterMBean {
+
+  String OBJECT_NAME_PREFIX = "ddf.catalog.transform:type=InputTransformerRouter,name=";
+
+  /** @return ids of the transformers that have been attempted */
+  String[] getTransformerIds();
+
+  /** @return number of times the transformer was asked to create a metacard */
+  long getAttemptCount(String transformerId);
+
+  /** @return number of times the transformer failed to create a metacard */
+  long getFailureCount(String transformerId);
+
+  /** @return average time in milliseconds taken by an attempt, or 0 if there were none */
+  double getAverageLatencyMillis(String transformerId);
+
+  /** @return number of distinct mime type and content signature combinations remembered */
+  int getRouteCount();
+
+  /** Forgets all statistics and routing history. */
+  void reset();
+}
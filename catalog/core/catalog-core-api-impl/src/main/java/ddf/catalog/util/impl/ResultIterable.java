@@ -14,6 +14,8 @@
 package ddf.catalog.util.impl;
 
 import static com.google.common.collect.Iterators.limit;
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
@@ -28,12 +30,16 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.Spliterator;
@@ -50,6 +56,10 @@
  *
  * <p>Since the class may use the page size provided in the {@link Query} to fetch the results, its
  * value should be carefully set to avoid any memory or performance issues.
+ *
+ * <p>Requests that set {@link ddf.catalog.Constants#CURSOR_MARK_KEY} to {@code "*"} are paged with
+ * the cursor returned by the source, which avoids deep start offsets and the need to track the ids
+ * of every result returned. Sources that do not return a cursor are paged by start index.
  */
 public class ResultIterable implements Iterable<Result> {
   public static final int DEFAULT_PAGE_SIZE = 64;
@@ -162,6 +172,8 @@ private static class ResultIterator implements Iterator<Result> {
     private Iterator<Result> results = Collections.emptyIterator();
     private boolean finished = false;
 
+    private String cursorMark;
+
     ResultIterator(QueryFunction queryFunction, QueryRequest queryRequest) {
       this.queryFunction = queryFunction;
 
@@ -207,7 +219,11 @@ public Result next() {
 
     @SuppressWarnings("squid:CommentedOutCodeLine")
     private void fetchNextResults() {
-      queryCopy.setStartIndex(currentIndex);
+      if (cursorMark == null) {
+        queryCopy.setStartIndex(currentIndex);
+      } else {
+        queryRequestCopy.getProperties().put(CURSOR_MARK_KEY, cursorMark);
+      }
 
       try {
         SourceResponse response = queryFunction.query(queryRequestCopy);
@@ -238,6 +254,10 @@ private void fetchNextResults() {
         }
         currentIndex += actualResultSize;
 
+        if (cursorMark != null && handleCursorPage(response, resultList)) {
+          return;
+        }
+
         List<Result> dedupedResults = new ArrayList<>(resultList.size());
         for (Result result : resultList) {
           if (isDistinctResult(result)) {
@@ -259,6 +279,32 @@ private void fetchNextResults() {
       }
     }
 
+    /**
+     * @return {@code true} if the page was handled with a cursor, {@code false} if the source did
+     *     not return a cursor and paging should continue by start index
+     */
+    private boolean handleCursorPage(SourceResponse response, List<Result> resultList) {
+      Serializable nextCursorMark =
+          response.getProperties() == null
+              ? null
+              : response.getProperties().get(NEXT_CURSOR_MARK_KEY);
+
+      if (!(nextCursorMark instanceof String)) {
+        cursorMark = null;
+        queryRequestCopy.getProperties().remove(CURSOR_MARK_KEY);
+        return false;
+      }
+
+      // A cursor never returns the same result twice, so there is no need to track result ids
+      this.results = resultList.stream().filter(Objects::nonNull).iterator();
+
+      if (nextCursorMark.equals(cursorMark)) {
+        finished = true;
+      }
+      cursorMark = (String) nextCursorMark;
+      return true;
+    }
+
     private boolean isDistinctResult(@Nullable Result result) {
       return result != null
           && (result.getMetacard() == null
@@ -281,12 +327,20 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               // always get the hit count
               query.getTimeoutMillis());
 
+      Map<String, Serializable> properties = queryRequest.getProperties();
+      Serializable initialCursorMark = queryRequest.getPropertyValue(CURSOR_MARK_KEY);
+      if (initialCursorMark instanceof String) {
+        this.cursorMark = (String) initialCursorMark;
+        // The cursor changes with each page, so don't modify the caller's properties
+        properties = new HashMap<>(properties);
+      }
+
       this.queryRequestCopy =
           new QueryRequestImpl(
               queryCopy,
               queryRequest.isEnterprise(),
               queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              properties);
     }
   }
 }
@@ -14,6 +14,7 @@
 package ddf.catalog.util.impl
 
 import ddf.catalog.CatalogFramework
+import ddf.catalog.Constants
 import ddf.catalog.data.Metacard
 import ddf.catalog.data.Result
 import ddf.catalog.data.impl.ResultImpl
@@ -400,6 +401,63 @@ class ResultIterableSpec extends Specification {
         queryResults.size() == dedupedCount
     }
 
+    def "Pages with a cursor when the source returns one"() {
+        setup:
+        def actualResults = (1..5).collect { new ResultImpl() }
+        def sentCursorMarks = []
+        4 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest qr ->
+            sentCursorMarks << qr.getPropertyValue(Constants.CURSOR_MARK_KEY)
+            buildCursorQueryResponse(actualResults, 0..1, "a")
+        } >> { QueryRequest qr ->
+            sentCursorMarks << qr.getPropertyValue(Constants.CURSOR_MARK_KEY)
+            buildCursorQueryResponse(actualResults, 2..3, "b")
+        } >> { QueryRequest qr ->
+            sentCursorMarks << qr.getPropertyValue(Constants.CURSOR_MARK_KEY)
+            buildCursorQueryResponse(actualResults, 4..4, "c")
+        } >> { QueryRequest qr ->
+            sentCursorMarks << qr.getPropertyValue(Constants.CURSOR_MARK_KEY)
+            buildCursorQueryResponse([], null, "c")
+        }
+
+        Query queryMock = createQueryMock(1, 2)
+        def properties = [(Constants.CURSOR_MARK_KEY): "*"] as Map<String, Serializable>
+        QueryRequest queryRequest = new QueryRequestImpl(queryMock, properties)
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequest).stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+        sentCursorMarks == ["*", "a", "b", "c"]
+        queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY) == "*"
+    }
+
+    def "Falls back to start index paging when the source does not return a cursor"() {
+        setup:
+        def actualResults = (1..3).collect { new ResultImpl() }
+        def sentStartIndexes = []
+        2 * catalogFramework.query(_ as QueryRequest) >> { QueryRequest qr ->
+            sentStartIndexes << qr.getQuery().getStartIndex()
+            buildQueryResponse(actualResults, 0..1)
+        } >> { QueryRequest qr ->
+            sentStartIndexes << qr.getQuery().getStartIndex()
+            buildQueryResponse(actualResults, 2..2)
+        }
+
+        Query queryMock = createQueryMock(1, 2)
+        def properties = [(Constants.CURSOR_MARK_KEY): "*"] as Map<String, Serializable>
+        QueryRequest queryRequest = new QueryRequestImpl(queryMock, properties)
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequest).stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+        sentStartIndexes == [1, 3]
+    }
+
     def "next() when number of results from catalog varies"() {
         setup:
         def actualResults = (1..6).collect { new ResultImpl() }
@@ -618,6 +676,18 @@ class ResultIterableSpec extends Specification {
         return response
     }
 
+    private QueryResponse buildCursorQueryResponse(List<Result> resultList,
+                                                   Range resultRange,
+                                                   String nextCursorMark) {
+        def results = resultRange == null ? [] : resultList[resultRange]
+        return new QueryResponseImpl(new QueryRequestImpl(null),
+                results,
+                true,
+                (long) resultList.size(),
+                ["actualResultSize": results.size(),
+                 (Constants.NEXT_CURSOR_MARK_KEY): nextCursorMark])
+    }
+
     private buildQueryResponse(QueryRequest queryRequest, int resultListsSize, int totalResults) {
         int startIndex = queryRequest.getQuery()
                 .getStartIndex()
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.net.URI;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class MetacardCodecTest {
+
+  private static final String TYPE_NAME = "codec-test";
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    MetacardImpl metacard = createMetacard("1");
+
+    Metacard decoded = MetacardCodec.decode(MetacardCodec.encode(metacard));
+
+    assertEquals(metacard.getSourceId(), decoded.getSourceId());
+    assertEquals(metacard.getMetacardType(), decoded.getMetacardType());
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      String name = descriptor.getName();
+      if (metacard.getAttribute(name) == null) {
+        assertNull(decoded.getAttribute(name));
+      } else if (descriptor.getType().getAttributeFormat() == AttributeFormat.BINARY) {
+        assertArrayEquals(
+            (byte[]) metacard.getAttribute(name).getValue(),
+            (byte[]) decoded.getAttribute(name).getValue());
+      } else {
+        assertEquals(name, metacard.getAttribute(name), decoded.getAttribute(name));
+      }
+    }
+  }
+
+  @Test
+  public void testUndeclaredAttributeRoundTrip() throws Exception {
+    MetacardImpl metacard = createMetacard("1");
+    metacard.setAttribute(new AttributeImpl("undeclared", Arrays.asList("a", "b")));
+    MetacardImpl wrapper = new MetacardImpl(metacard);
+
+    for (Metacard original : Arrays.asList(metacard, wrapper)) {
+      Metacard decoded = MetacardCodec.decode(MetacardCodec.encode(original));
+
+      assertEquals(Arrays.asList("a", "b"), decoded.getAttribute("undeclared").getValues());
+      assertEquals("1", decoded.getId());
+    }
+  }
+
+  @Test
+  public void testReadsVersionOneMetacard() throws Exception {
+    byte[] bytes = MetacardCodec.encode(createMetacard("1"));
+    // version 1 had no undeclared attribute count after the declared attributes
+    byte[] versionOne = Arrays.copyOf(bytes, bytes.length - 1);
+    versionOne[1] = 1;
+
+    assertEquals("1", MetacardCodec.decode(versionOne).getId());
+  }
+
+  @Test
+  public void testTypeIsWrittenOncePerStream() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    MetacardCodec.Encoder encoder = new MetacardCodec.Encoder(bytes);
+    encoder.writeMetacard(createMetacard("1"));
+    encoder.flush();
+    int firstSize = bytes.size();
+    encoder.writeMetacard(createMetacard("2"));
+    encoder.flush();
+    int secondSize = bytes.size() - firstSize;
+
+    assertTrue(secondSize < firstSize / 2);
+
+    MetacardCodec.Decoder decoder =
+        new MetacardCodec.Decoder(new ByteArrayInputStream(bytes.toByteArray()));
+    Metacard first = decoder.readMetacard();
+    Metacard second = decoder.readMetacard();
+
+    assertEquals("1", first.getId());
+    assertEquals("2", second.getId());
+    assertSame(first.getMetacardType(), second.getMetacardType());
+  }
+
+  @Test(expected = EOFException.class)
+  public void testReadPastEndOfStream() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    MetacardCodec.Encoder encoder = new MetacardCodec.Encoder(bytes);
+    encoder.writeMetacard(createMetacard("1"));
+    encoder.flush();
+
+    MetacardCodec.Decoder decoder =
+        new MetacardCodec.Decoder(new ByteArrayInputStream(bytes.toByteArray()));
+    decoder.readMetacard();
+    decoder.readMetacard();
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws Exception {
+    MetacardImpl metacard = createMetacard("1");
+
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(metacard);
+    }
+
+    assertTrue(MetacardCodec.encode(metacard).length < serialized.size());
+  }
+
+  @Test
+  public void testValueRoundTrip() throws Exception {
+    Serializable[] values = {
+      null,
+      "",
+      "unicode \u00e9\u4e2d",
+      true,
+      (short) -3,
+      Integer.MIN_VALUE,
+      Long.MAX_VALUE,
+      -1.5f,
+      Math.PI,
+      new Date(-1000L),
+      URI.create("https://codice.org"),
+      new Timestamp(5L)
+    };
+
+    for (Serializable value : values) {
+      assertEquals(value, MetacardCodec.decodeValue(MetacardCodec.encodeValue(value)));
+    }
+    assertArrayEquals(
+        new byte[] {1, 2, 3},
+        (byte[]) MetacardCodec.decodeValue(MetacardCodec.encodeValue(new byte[] {1, 2, 3})));
+  }
+
+  @Test
+  public void testDecodeValueReadsJavaSerializedValues() throws Exception {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(new Date(42L));
+    }
+
+    assertFalse(MetacardCodec.isEncoded(serialized.toByteArray()));
+    assertEquals(new Date(42L), MetacardCodec.decodeValue(serialized.toByteArray()));
+  }
+
+  @Test(expected = StreamCorruptedException.class)
+  public void testDecodeRejectsUnknownInput() throws IOException {
+    MetacardCodec.decode(new byte[] {1, 2, 3});
+  }
+
+  private static MetacardImpl createMetacard(String id) {
+    Set<AttributeDescriptor> descriptors =
+        new HashSet<>(MetacardImpl.BASIC_METACARD.getAttributeDescriptors());
+    descriptors.add(descriptor("count", false, BasicTypes.INTEGER_TYPE));
+    descriptors.add(descriptor("size", false, BasicTypes.LONG_TYPE));
+    descriptors.add(descriptor("ratio", false, BasicTypes.DOUBLE_TYPE));
+    descriptors.add(descriptor("flag", false, BasicTypes.BOOLEAN_TYPE));
+    descriptors.add(descriptor("keywords", true, BasicTypes.STRING_TYPE));
+    descriptors.add(descriptor("object", false, BasicTypes.OBJECT_TYPE));
+    MetacardType type = new MetacardTypeImpl(TYPE_NAME, descriptors);
+
+    MetacardImpl metacard = new MetacardImpl(type);
+    metacard.setSourceId("ddf.distribution");
+    metacard.setId(id);
+    metacard.setTitle("Metacard " + id);
+    metacard.setCreatedDate(new Date(1500000000000L));
+    metacard.setModifiedDate(new Date(1500000001000L));
+    metacard.setLocation("POINT (1 2)");
+    metacard.setMetadata("<xml>metadata</xml>");
+    metacard.setThumbnail(new byte[] {1, 2, 3, 4});
+    metacard.setAttribute("count", 42);
+    metacard.setAttribute("size", 1L << 40);
+    metacard.setAttribute("ratio", 0.25);
+    metacard.setAttribute("flag", true);
+    metacard.setAttribute(new AttributeImpl("keywords", Arrays.asList("a", "b", "c")));
+    metacard.setAttribute("object", URI.create("https://codice.org"));
+    return metacard;
+  }
+
+  private static AttributeDescriptor descriptor(
+      String name, boolean multivalued, AttributeType<?> type) {
+    return new AttributeDescriptorImpl(name, true, true, false, multivalued, type);
+  }
+}
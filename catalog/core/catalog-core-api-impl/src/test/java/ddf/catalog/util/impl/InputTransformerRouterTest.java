@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.mock;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.transform.InputTransformer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.activation.MimeType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InputTransformerRouterTest {
+
+  private static final String CSW_RECORD =
+      "<?xml version=\"1.0\"?>\n"
+          + "<csw:Record xmlns:csw=\"http://www.opengis.net/cat/csw/2.0.2\"><title/></csw:Record>";
+
+  private static final String METACARD =
+      "<metacard xmlns=\"urn:catalog:metacard\"><string name=\"title\"/></metacard>";
+
+  private InputTransformerRouter router;
+
+  private InputTransformer xmlTransformer;
+
+  private InputTransformer cswTransformer;
+
+  private InputTransformer tikaTransformer;
+
+  private List<InputTransformer> candidates;
+
+  private MimeType xmlMimeType;
+
+  @Before
+  public void setUp() throws Exception {
+    router = new InputTransformerRouter();
+    xmlTransformer = new TestTransformer();
+    cswTransformer = new OtherTestTransformer();
+    tikaTransformer = mock(InputTransformer.class);
+    candidates = Arrays.asList(xmlTransformer, cswTransformer, tikaTransformer);
+    xmlMimeType = new MimeType("application/xml");
+  }
+
+  @Test
+  public void testSignatureOfXmlIsRootElement() {
+    assertThat(signature(CSW_RECORD), is("xml:{http://www.opengis.net/cat/csw/2.0.2}Record"));
+    assertThat(signature("\uFEFF  " + METACARD), is("xml:{urn:catalog:metacard}metacard"));
+  }
+
+  @Test
+  public void testSignatureOfJsonIsTopLevelKeys() {
+    assertThat(
+        signature("{\"type\": \"Feature\", \"properties\": {\"title\": 1}, \"geometry\": []}"),
+        is("json:geometry,properties,type"));
+  }
+
+  @Test
+  public void testSignatureOfBinaryIsMagicBytes() {
+    assertThat(
+        InputTransformerRouter.getSignature(new byte[] {'N', 'I', 'T', 'F', '0', '2'}, 6),
+        is("magic:4e495446"));
+    assertThat(InputTransformerRouter.getSignature(new byte[0], 0), is("empty"));
+  }
+
+  @Test
+  public void testOrderWithoutHistoryKeepsCandidateOrder() throws IOException {
+    String routeKey = routeKey(CSW_RECORD);
+
+    assertThat(
+        router.order(routeKey, candidates),
+        contains(xmlTransformer, cswTransformer, tikaTransformer));
+  }
+
+  @Test
+  public void testOrderDemotesTransformerThatKeepsFailingForRoute() throws IOException {
+    String routeKey = routeKey(CSW_RECORD);
+    for (int i = 0; i < 3; i++) {
+      router.recordAttempt(routeKey, xmlTransformer, false, 10);
+      router.recordAttempt(routeKey, cswTransformer, true, 10);
+    }
+
+    assertThat(
+        router.order(routeKey, candidates),
+        contains(cswTransformer, tikaTransformer, xmlTransformer));
+  }
+
+  @Test
+  public void testOrderKeepsRankingAfterSingleFailure() throws IOException {
+    String routeKey = routeKey(CSW_RECORD);
+    router.recordAttempt(routeKey, cswTransformer, false, 10);
+    router.recordAttempt(routeKey, tikaTransformer, true, 10);
+
+    assertThat(
+        router.order(routeKey, candidates),
+        contains(xmlTransformer, cswTransformer, tikaTransformer));
+  }
+
+  @Test
+  public void testOrderKeepsRankingOfTransformerThatHasSucceeded() throws IOException {
+    String routeKey = routeKey(CSW_RECORD);
+    router.recordAttempt(routeKey, xmlTransformer, true, 10);
+    for (int i = 0; i < 5; i++) {
+      router.recordAttempt(routeKey, xmlTransformer, false, 10);
+      router.recordAttempt(routeKey, tikaTransformer, true, 10);
+    }
+
+    assertThat(
+        router.order(routeKey, candidates),
+        contains(xmlTransformer, cswTransformer, tikaTransformer));
+  }
+
+  @Test
+  public void testHistoryIsKeptPerRoute() throws IOException {
+    String cswRouteKey = routeKey(CSW_RECORD);
+    String metacardRouteKey = routeKey(METACARD);
+    router.recordAttempt(cswRouteKey, xmlTransformer, false, 10);
+    router.recordAttempt(cswRouteKey, cswTransformer, true, 10);
+
+    assertThat(cswRouteKey, is(not(metacardRouteKey)));
+    assertThat(
+        router.order(metacardRouteKey, candidates),
+        contains(xmlTransformer, cswTransformer, tikaTransformer));
+  }
+
+  @Test
+  public void testStatistics() throws IOException {
+    String routeKey = routeKey(CSW_RECORD);
+    router.recordAttempt(routeKey, xmlTransformer, false, TimeUnit.MILLISECONDS.toNanos(4));
+    router.recordAttempt(routeKey, cswTransformer, true, TimeUnit.MILLISECONDS.toNanos(2));
+    router.recordAttempt(routeKey, cswTransformer, true, TimeUnit.MILLISECONDS.toNanos(4));
+
+    String cswId = OtherTestTransformer.class.getName();
+    String xmlId = TestTransformer.class.getName();
+    assertThat(router.getTransformerIds(), arrayContaining(cswId, xmlId));
+    assertThat(router.getAttemptCount(cswId), is(2L));
+    assertThat(router.getFailureCount(cswId), is(0L));
+    assertThat(router.getAttemptCount(xmlId), is(1L));
+    assertThat(router.getFailureCount(xmlId), is(1L));
+    assertThat(router.getAverageLatencyMillis(cswId), closeTo(3.0, 0.001));
+    assertThat(router.getRouteCount(), is(1));
+
+    router.reset();
+
+    assertThat(router.getRouteCount(), is(0));
+    assertThat(router.getAttemptCount(cswId), is(0L));
+  }
+
+  private String routeKey(String content) throws IOException {
+    return router.getRouteKey(
+        xmlMimeType, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static String signature(String content) {
+    byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    return InputTransformerRouter.getSignature(bytes, bytes.length);
+  }
+
+  private static class TestTransformer implements InputTransformer {
+    @Override
+    public Metacard transform(InputStream input) {
+      return null;
+    }
+
+    @Override
+    public Metacard transform(InputStream input, String id) {
+      return null;
+    }
+  }
+
+  private static class OtherTestTransformer extends TestTransformer {}
+}
@@ -133,6 +133,12 @@ public final class Constants {
 
   public static final String CONTENT_PATHS = "content-paths";
 
+  /**
+   * Request property holding the values produced by {@link
+   * ddf.catalog.content.plugin.ContentStreamObserver}s, keyed by content item id.
+   */
+  public static final String CONTENT_OBSERVATIONS = "content-observations";
+
   public static final String ATTRIBUTE_OVERRIDES_KEY = "attributeOverrides";
 
   public static final String ATTRIBUTE_UPDATE_MAP_KEY = "attributeUpdateMap";
@@ -154,4 +160,14 @@ public final class Constants {
   public static final String SUGGESTION_BUILD_KEY = "suggestion-build";
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
+
+  /**
+   * Query request property used to page with a cursor instead of a start index. Requests that set
+   * it to {@code "*"} get the first page, and sources that support cursors return the cursor for
+   * the next page in the {@link #NEXT_CURSOR_MARK_KEY} response property.
+   */
+  public static final String CURSOR_MARK_KEY = "cursorMark";
+
+  /** Query response property holding the cursor to set as {@link #CURSOR_MARK_KEY} next. */
+  public static final String NEXT_CURSOR_MARK_KEY = "nextCursorMark";
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.content.plugin;
+
+import ddf.catalog.content.data.ContentItem;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Services implementing this interface are handed the bytes of incoming content while the catalog
+ * framework spools it to its temporary location, so that values derived from the raw content (such
+ * as checksums) can be computed without reading the content again. Only original content is
+ * observed; derived (qualified) content items are not handed to observers.
+ *
+ * <p>The values produced by each {@link Observation} are made available to the storage plugins in
+ * the request properties under {@link ddf.catalog.Constants#CONTENT_OBSERVATIONS}, keyed by the id
+ * of the generated content item.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface ContentStreamObserver {
+
+  /**
+   * Starts observing the content of the given {@link ContentItem}.
+   *
+   * @param contentItem the incoming {@link ContentItem} about to be spooled
+   * @return an {@link Observation} to receive the content bytes, or {@code null} if this observer
+   *     is not interested in the content item
+   */
+  Observation observe(ContentItem contentItem);
+
+  /** Receives the bytes of a single content item, in order, as they are spooled. */
+  interface Observation {
+
+    /**
+     * Observes the next chunk of content. Implementations must not modify or retain {@code bytes}.
+     *
+     * @param bytes the buffer holding the chunk
+     * @param offset the offset of the chunk in {@code bytes}
+     * @param length the number of bytes in the chunk
+     */
+    void update(byte[] bytes, int offset, int length);
+
+    /**
+     * Called once all content bytes have been observed.
+     *
+     * @return the values derived from the content, never {@code null}
+     */
+    Map<String, Serializable> complete();
+  }
+}
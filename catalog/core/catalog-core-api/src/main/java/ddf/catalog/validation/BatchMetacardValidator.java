@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.validation;
+
+import ddf.catalog.data.Metacard;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A {@link MetacardValidator} that can validate several {@link Metacard}s as one operation, such
+ * as all of the {@link Metacard}s in a single create request, more efficiently than validating
+ * them one at a time.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface BatchMetacardValidator extends MetacardValidator {
+  /**
+   * Validates a list of {@link Metacard}s. The result for each {@link Metacard} is the same as
+   * calling {@link #validate(Metacard)} with it.
+   *
+   * @param metacards the {@link Metacard}s to validate, cannot be null
+   * @return a list with one element for each of the {@code metacards}, in the same order. Each
+   *     element contains the {@link ValidationException} that {@link #validate(Metacard)} would
+   *     have thrown for that {@link Metacard}, or is empty if the {@link Metacard} is valid.
+   * @throws IllegalArgumentException if {@code metacards} is null
+   */
+  List<Optional<ValidationException>> validateBatch(List<Metacard> metacards);
+}
@@ -64,6 +64,8 @@ public abstract class CatalogCommands extends SubjectCommands {
 
   protected static final String SERIALIZED_OBJECT_ID = "ser";
 
+  protected static final String ENCODED_METACARD_ID = "bin";
+
   // DDF-535: remove "-provider" alias in DDF 3.0
   @Option(
     name = "--provider",
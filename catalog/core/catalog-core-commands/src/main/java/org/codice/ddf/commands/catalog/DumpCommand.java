@@ -20,6 +20,7 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.filter.impl.SortByImpl;
@@ -156,7 +157,8 @@ public class DumpCommand extends CqlCommands {
     multiValued = false,
     description =
         "The metacard transformer ID to use to transform metacards into data files. "
-            + "The default metacard transformer is the XML transformer."
+            + "The default metacard transformer is the XML transformer. Use \"ser\" to write "
+            + "serialized metacards or \"bin\" to write compact binary encoded metacards."
   )
   String transformerId = DEFAULT_TRANSFORMER_ID;
 
@@ -229,7 +231,8 @@ protected final Object executeWithSubject() throws Exception {
       return null;
     }
 
-    if (!SERIALIZED_OBJECT_ID.matches(transformerId)) {
+    if (!SERIALIZED_OBJECT_ID.matches(transformerId)
+        && !ENCODED_METACARD_ID.matches(transformerId)) {
       transformers = getTransformers();
       if (transformers == null) {
         console.println(transformerId + " is an invalid metacard transformer.");
@@ -260,6 +263,8 @@ protected final Object executeWithSubject() throws Exception {
     Map<String, Serializable> props = new HashMap<>();
     // Avoid caching all results while dumping with native query mode
     props.put("mode", "native");
+    // Page with a cursor when the catalog supports it to avoid deep start offsets
+    props.put(Constants.CURSOR_MARK_KEY, "*");
 
     final AtomicLong resultCount = new AtomicLong(0);
     long start = System.currentTimeMillis();
@@ -372,6 +377,12 @@ private void exportMetacard(File dumpLocation, Metacard metacard, AtomicLong res
         oos.flush();
         resultCount.incrementAndGet();
       }
+    } else if (ENCODED_METACARD_ID.matches(transformerId)) {
+      try (FileOutputStream fos = new FileOutputStream(getOutputFile(dumpLocation, metacard))) {
+        fos.write(MetacardCodec.encode(metacard));
+        fos.flush();
+        resultCount.incrementAndGet();
+      }
     } else {
       BinaryContent binaryContent;
       if (metacard != null) {
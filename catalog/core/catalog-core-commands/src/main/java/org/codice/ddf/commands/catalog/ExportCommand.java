@@ -13,6 +13,7 @@
  */
 package org.codice.ddf.commands.catalog;
 
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.util.impl.ResultIterable.resultIterable;
 
 import ddf.catalog.CatalogFramework;
@@ -44,6 +45,7 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
@@ -370,7 +372,10 @@ private List<ExportItem> doMetacardExport(
     List<ExportItem> exportedItems = new ArrayList<>();
 
     QueryImpl query = new QueryImpl(filter);
-    QueryRequest queryRequest = new QueryRequestImpl(query);
+    // Page with a cursor when the catalog supports it to avoid deep start offsets
+    QueryRequest queryRequest =
+        new QueryRequestImpl(
+            query, Collections.<String, Serializable>singletonMap(CURSOR_MARK_KEY, "*"));
 
     query.setPageSize(PAGE_SIZE);
 
@@ -22,6 +22,7 @@
 import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.impl.CreateRequestImpl;
@@ -182,7 +183,8 @@ public class IngestCommand extends CatalogCommands {
     multiValued = false,
     description =
         "The metacard transformer ID to use to transform data file(s) into metacard(s). "
-            + "The default metacard transformer is the XML transformer."
+            + "The default metacard transformer is the XML transformer. Use \"ser\" to read "
+            + "serialized metacards or \"bin\" to read compact binary encoded metacards."
   )
   String transformerId = DEFAULT_TRANSFORMER_ID;
 
@@ -427,7 +429,8 @@ private File getInputFile() {
       batchSize = 1;
     }
 
-    if (!SERIALIZED_OBJECT_ID.matches(transformerId)) {
+    if (!SERIALIZED_OBJECT_ID.matches(transformerId)
+        && !ENCODED_METACARD_ID.matches(transformerId)) {
       transformer = getTransformer();
       if (!transformer.isPresent()) {
         console.println(transformerId + " is an invalid input transformer.");
@@ -508,6 +511,8 @@ private Metacard readMetacard(File file) throws IngestException {
         ois = new ObjectInputStream(new FileInputStream(file));
         result = (Metacard) ois.readObject();
         ois.close();
+      } else if (ENCODED_METACARD_ID.matches(transformerId)) {
+        result = MetacardCodec.decode(Files.readAllBytes(file.toPath()));
       } else {
         fis = new FileInputStream(file);
         result = generateMetacard(fis);
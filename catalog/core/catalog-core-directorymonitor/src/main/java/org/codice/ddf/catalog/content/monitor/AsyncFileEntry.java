@@ -96,6 +96,16 @@ public boolean isDirectory() {
     return directory;
   }
 
+  /** @return the last modified time of the file when it was last committed */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  /** @return the length of the file when it was last committed */
+  public long getLength() {
+    return length;
+  }
+
   public Optional<AsyncFileEntry> getParent() {
     return Optional.ofNullable(parent);
   }
@@ -91,6 +91,8 @@ public class ContentDirectoryMonitor implements DirectoryMonitor {
 
   private Integer readLockIntervalMilliseconds;
 
+  private boolean useFileSystemEvents = false;
+
   Processor systemSubjectBinder;
 
   /**
@@ -167,6 +169,18 @@ public Integer getReadLockIntervalMilliseconds() {
     return readLockIntervalMilliseconds;
   }
 
+  /**
+   * @param useFileSystemEvents - whether a directory monitored in place detects changes from file
+   *     system events instead of rescanning the directory on every poll. Ignored for WebDAV.
+   */
+  public void setUseFileSystemEvents(Boolean useFileSystemEvents) {
+    this.useFileSystemEvents = Boolean.TRUE.equals(useFileSystemEvents);
+  }
+
+  public Boolean getUseFileSystemEvents() {
+    return useFileSystemEvents;
+  }
+
   /**
    * Invoked after all of the setter methods have been called (for initial route creation), and also
    * called whenever an existing route is updated.
@@ -233,6 +247,7 @@ public void updateCallback(Map<String, Object> properties) {
       setProcessingMechanism((String) properties.get("processingMechanism"));
       setNumThreads((Integer) properties.get("numThreads"));
       setReadLockIntervalMilliseconds((Integer) properties.get("readLockIntervalMilliseconds"));
+      setUseFileSystemEvents((Boolean) properties.get("useFileSystemEvents"));
 
       String[] parameterArray = (String[]) properties.get(Constants.ATTRIBUTE_OVERRIDES_KEY);
       if (parameterArray != null) {
@@ -381,6 +396,8 @@ public void configure() throws Exception {
             stringBuilder = new StringBuilder("durable:" + monitoredDirectory);
             if (isDav) {
               stringBuilder.append("?isDav=true");
+            } else if (useFileSystemEvents) {
+              stringBuilder.append("?watch=true");
             }
             break;
         }
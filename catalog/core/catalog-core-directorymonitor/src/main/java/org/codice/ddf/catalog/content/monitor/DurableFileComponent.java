@@ -42,13 +42,16 @@ protected GenericFileEndpoint<File> buildFileEndpoint(
     boolean isDav = Boolean.parseBoolean(davParam);
     parameters.remove("isDav");
 
+    boolean isWatch = Boolean.parseBoolean(String.valueOf(parameters.get("watch")));
+    parameters.remove("watch");
+
     GenericFileConfiguration config = new GenericFileConfiguration();
     File file = new File(remaining);
     if (isDav) {
       file = new File("");
     }
     config.setDirectory(file.getCanonicalPath());
-    DurableFileEndpoint result = new DurableFileEndpoint(uri, remaining, isDav, this);
+    DurableFileEndpoint result = new DurableFileEndpoint(uri, remaining, isDav, isWatch, this);
     result.setFile(file);
     result.setConfiguration(config);
 
@@ -48,6 +48,8 @@ public class DurableFileEndpoint extends GenericFileEndpoint<File> {
 
   private final Boolean isDav;
 
+  private final boolean isWatch;
+
   private String remaining;
 
   @UriPath(name = "directoryName")
@@ -55,10 +57,15 @@ public class DurableFileEndpoint extends GenericFileEndpoint<File> {
   private File file;
 
   DurableFileEndpoint(
-      String uri, String remaining, boolean isDav, DurableFileComponent durableFileComponent) {
+      String uri,
+      String remaining,
+      boolean isDav,
+      boolean isWatch,
+      DurableFileComponent durableFileComponent) {
     super(uri, durableFileComponent);
     this.remaining = remaining;
     this.isDav = isDav;
+    this.isWatch = isWatch;
   }
 
   @Override
@@ -72,6 +79,13 @@ public GenericFileConsumer<File> createConsumer(Processor processor) throws Exce
           processor,
           new EventfulFileWrapperGenericFileOperations(),
           new GenericFileNoOpProcessStrategy());
+    } else if (isWatch) {
+      return new DurableWatchServiceFileConsumer(
+          this,
+          remaining,
+          processor,
+          new EventfulFileWrapperGenericFileOperations(),
+          new GenericFileNoOpProcessStrategy());
     } else {
       return new DurableFileSystemFileConsumer(
           this,
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import org.apache.camel.Processor;
+import org.apache.camel.component.file.GenericFileEndpoint;
+import org.apache.camel.component.file.GenericFileOperations;
+import org.apache.camel.component.file.GenericFileProcessStrategy;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.codice.ddf.catalog.content.monitor.FileStateJournal.FileState;
+import org.codice.ddf.configuration.AbsolutePathResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Monitors a directory in place using a {@link WatchServiceFileAlterationObserver}, which keeps the
+ * state of the processed files in a {@link FileStateJournal}.
+ */
+public class DurableWatchServiceFileConsumer extends AbstractDurableFileConsumer {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(DurableWatchServiceFileConsumer.class);
+
+  private static final String JOURNAL_SUFFIX = ".journal";
+
+  private DurableFileAlterationListener listener;
+
+  private WatchServiceFileAlterationObserver observer;
+
+  DurableWatchServiceFileConsumer(
+      GenericFileEndpoint<File> endpoint,
+      String remaining,
+      Processor processor,
+      GenericFileOperations<File> operations,
+      GenericFileProcessStrategy<File> processStrategy) {
+    super(endpoint, remaining, processor, operations, processStrategy);
+    listener = new DurableFileAlterationListener(this);
+  }
+
+  @Override
+  protected boolean doPoll(String sha1) {
+    if (observer != null) {
+      observer.setListener(listener);
+      observer.checkAndNotify();
+      observer.removeListener();
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  protected void initialize(String fileName) {
+    if (jsonSerializer == null) {
+      //  Reads the state left by a DurableFileSystemFileConsumer for the same directory
+      jsonSerializer = new JsonPersistantStore(DurableFileSystemFileConsumer.class.getSimpleName());
+    }
+
+    if (observer == null && fileName != null) {
+      FileStateJournal journal = new FileStateJournal(getJournalPath(fileName));
+      try {
+        journal.open();
+      } catch (IOException e) {
+        LOGGER.info("Error loading the state of the CDM for [{}]. retrying on next poll", fileName);
+        LOGGER.debug("Unable to open the file state journal", e);
+        return;
+      }
+
+      if (journal.isEmpty()) {
+        importObserverState(fileName, journal);
+      }
+      observer = new WatchServiceFileAlterationObserver(new File(fileName), journal);
+    }
+  }
+
+  private Path getJournalPath(String fileName) {
+    return Paths.get(
+        new AbsolutePathResolver("data").getPath(),
+        getClass().getSimpleName(),
+        DigestUtils.sha1Hex(fileName) + JOURNAL_SUFFIX);
+  }
+
+  /**
+   * Backwards Compatibility. Starts from the files already processed while the directory was
+   * monitored by an {@link AsyncFileAlterationObserver}, so they are not created again.
+   */
+  private void importObserverState(String fileName, FileStateJournal journal) {
+    AsyncFileEntry rootEntry =
+        jsonSerializer.load(new File(fileName).getName(), AsyncFileEntry.class);
+    if (rootEntry == null) {
+      return;
+    }
+
+    importEntries(rootEntry, journal);
+    journal.flush();
+    LOGGER.debug("Imported the state of {} files for [{}]", journal.size(), fileName);
+  }
+
+  private void importEntries(AsyncFileEntry parent, FileStateJournal journal) {
+    for (AsyncFileEntry child : parent.getChildren()) {
+      if (child.isDirectory()) {
+        importEntries(child, journal);
+      } else {
+        journal.put(child.getFile().toPath().toAbsolutePath(), getImportedState(child));
+      }
+    }
+  }
+
+  /**
+   * {@link File#lastModified()} may be less precise than the file attributes the observer compares,
+   * so an unchanged file uses its current attributes.
+   */
+  private FileState getImportedState(AsyncFileEntry entry) {
+    File file = entry.getFile();
+    if (file.lastModified() == entry.getLastModified() && file.length() == entry.getLength()) {
+      try {
+        return FileState.of(Files.readAttributes(file.toPath(), BasicFileAttributes.class));
+      } catch (IOException e) {
+        LOGGER.trace("Unable to read the attributes of [{}]", file, e);
+      }
+    }
+    return new FileState(entry.getLength(), entry.getLastModified());
+  }
+
+  @Override
+  public void shutdown() throws Exception {
+    super.shutdown();
+    if (observer != null) {
+      observer.destroy();
+    }
+    listener.destroy();
+  }
+}
@@ -0,0 +1,320 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The state of every file that a {@link WatchServiceFileAlterationObserver} has successfully
+ * processed, kept in memory and persisted as an append-only journal.
+ *
+ * <p>Each change is appended to the journal as a single record instead of re-serializing the whole
+ * state. Once the journal holds several times as many records as there are files, it is compacted
+ * by rewriting it with one record per file. A record that was only partially written when the
+ * system stopped is discarded when the journal is opened.
+ *
+ * <p>Appended records are buffered until {@link #flush()} is called.
+ *
+ * <p>This class is thread safe.
+ */
+public class FileStateJournal {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileStateJournal.class);
+
+  private static final int VERSION = 1;
+
+  private static final byte PUT = 1;
+
+  private static final byte REMOVE = 2;
+
+  private static final int MIN_COMPACTION_RECORDS = 10_000;
+
+  private final Path journalFile;
+
+  /** The files in each directory, keyed by directory and then by file name. */
+  private final Map<Path, Map<String, FileState>> directories = new HashMap<>();
+
+  private int size = 0;
+
+  private long records = 0;
+
+  @Nullable private DataOutputStream output;
+
+  public FileStateJournal(Path journalFile) {
+    this.journalFile = journalFile;
+  }
+
+  /**
+   * Loads the journal, if one exists, and compacts it.
+   *
+   * @throws IOException if the journal can't be read or rewritten
+   */
+  public synchronized void open() throws IOException {
+    directories.clear();
+    size = 0;
+
+    if (Files.exists(journalFile)) {
+      read();
+    }
+
+    compact();
+  }
+
+  public synchronized boolean isEmpty() {
+    return size == 0;
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  /** @return the state of {@code file} when it was last processed, or {@code null} */
+  @Nullable
+  public synchronized FileState get(Path file) {
+    Map<String, FileState> files = directories.get(file.getParent());
+    return files == null ? null : files.get(file.getFileName().toString());
+  }
+
+  /** @return a copy of the states of the files directly within {@code directory}, by file name */
+  public synchronized Map<String, FileState> getFiles(Path directory) {
+    Map<String, FileState> files = directories.get(directory);
+    return files == null ? new HashMap<>() : new HashMap<>(files);
+  }
+
+  /** @return {@code directory} and its subdirectories that contain at least one file */
+  public synchronized List<Path> getDirectories(Path directory) {
+    List<Path> found = new ArrayList<>();
+    for (Path known : directories.keySet()) {
+      if (known.startsWith(directory)) {
+        found.add(known);
+      }
+    }
+    return found;
+  }
+
+  public synchronized void put(Path file, FileState state) {
+    FileState previous =
+        directories
+            .computeIfAbsent(file.getParent(), d -> new HashMap<>())
+            .put(file.getFileName().toString(), state);
+    if (previous == null) {
+      size++;
+    }
+    append(PUT, file, state);
+  }
+
+  public synchronized void remove(Path file) {
+    Map<String, FileState> files = directories.get(file.getParent());
+    if (files == null || files.remove(file.getFileName().toString()) == null) {
+      return;
+    }
+
+    if (files.isEmpty()) {
+      directories.remove(file.getParent());
+    }
+    size--;
+    append(REMOVE, file, null);
+  }
+
+  /**
+   * Writes the buffered records to the journal. If a previous write failed, the journal is
+   * rewritten from the state held in memory instead.
+   */
+  public synchronized void flush() {
+    try {
+      if (output == null) {
+        compact();
+      } else {
+        output.flush();
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to write the file state journal [{}]", journalFile, e);
+      closeOutput();
+    }
+  }
+
+  public synchronized void close() {
+    flush();
+    closeOutput();
+  }
+
+  private void read() throws IOException {
+    try (DataInputStream input =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+      int version = input.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported file state journal version " + version);
+      }
+
+      while (true) {
+        byte operation = input.readByte();
+        Path file = Paths.get(input.readUTF());
+        if (operation == PUT) {
+          FileState state = new FileState(input.readLong(), input.readLong());
+          Map<String, FileState> files =
+              directories.computeIfAbsent(file.getParent(), d -> new HashMap<>());
+          if (files.put(file.getFileName().toString(), state) == null) {
+            size++;
+          }
+        } else if (operation == REMOVE) {
+          Map<String, FileState> files = directories.get(file.getParent());
+          if (files != null && files.remove(file.getFileName().toString()) != null) {
+            size--;
+            if (files.isEmpty()) {
+              directories.remove(file.getParent());
+            }
+          }
+        } else {
+          LOGGER.info(
+              "The file state journal [{}] is corrupt. Ignoring the rest of the journal.",
+              journalFile);
+          return;
+        }
+      }
+    } catch (EOFException e) {
+      //  The end of the journal, or a record that was only partially written
+      LOGGER.trace("Finished reading the file state journal [{}]", journalFile);
+    }
+  }
+
+  private void append(byte operation, Path file, @Nullable FileState state) {
+    if (output == null) {
+      //  The journal is rewritten on the next flush
+      return;
+    }
+
+    try {
+      output.writeByte(operation);
+      output.writeUTF(file.toString());
+      if (state != null) {
+        output.writeLong(state.getLength());
+        output.writeLong(state.getLastModified());
+      }
+      records++;
+    } catch (IOException e) {
+      LOGGER.debug("Unable to append to the file state journal [{}]", journalFile, e);
+      closeOutput();
+      return;
+    }
+
+    if (records > Math.max(MIN_COMPACTION_RECORDS, 4L * size)) {
+      try {
+        compact();
+      } catch (IOException e) {
+        LOGGER.debug("Unable to compact the file state journal [{}]", journalFile, e);
+        closeOutput();
+      }
+    }
+  }
+
+  private void compact() throws IOException {
+    closeOutput();
+    Files.createDirectories(journalFile.getParent());
+    Path compacted = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+
+    try (DataOutputStream snapshot =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+      snapshot.writeInt(VERSION);
+      for (Entry<Path, Map<String, FileState>> directory : directories.entrySet()) {
+        for (Entry<String, FileState> file : directory.getValue().entrySet()) {
+          snapshot.writeByte(PUT);
+          snapshot.writeUTF(directory.getKey().resolve(file.getKey()).toString());
+          snapshot.writeLong(file.getValue().getLength());
+          snapshot.writeLong(file.getValue().getLastModified());
+        }
+      }
+    }
+
+    Files.move(
+        compacted,
+        journalFile,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    output =
+        new DataOutputStream(
+            new BufferedOutputStream(
+                Files.newOutputStream(journalFile, StandardOpenOption.APPEND)));
+    records = size;
+    LOGGER.trace("Compacted the file state journal [{}] to {} files", journalFile, size);
+  }
+
+  private void closeOutput() {
+    IOUtils.closeQuietly(output);
+    output = null;
+  }
+
+  /** The length and last modified time of a file when it was processed. */
+  public static final class FileState {
+
+    private final long length;
+
+    private final long lastModified;
+
+    public FileState(long length, long lastModified) {
+      this.length = length;
+      this.lastModified = lastModified;
+    }
+
+    public static FileState of(BasicFileAttributes attributes) {
+      return new FileState(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      FileState that = (FileState) o;
+      return length == that.length && lastModified == that.lastModified;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(length, lastModified);
+    }
+  }
+}
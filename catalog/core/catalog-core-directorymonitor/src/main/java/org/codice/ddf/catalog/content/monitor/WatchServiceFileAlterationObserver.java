@@ -0,0 +1,571 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+import org.apache.camel.Exchange;
+import org.apache.camel.spi.Synchronization;
+import org.apache.commons.io.IOUtils;
+import org.codice.ddf.catalog.content.monitor.FileStateJournal.FileState;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An alternative to the {@link AsyncFileAlterationObserver} that is driven by file system events
+ * instead of rescanning the whole monitored directory on every poll.
+ *
+ * <p>Every directory under the monitored directory is registered with a {@link WatchService}. Each
+ * call to {@code checkAndNotify()} drains the pending events, compares only the files they name to
+ * the {@link FileStateJournal}, and calls the {@link AsyncFileAlterationListener}'s corresponding
+ * methods. A file's state is only committed to the journal once the listener reports that it was
+ * processed successfully, and a file that failed is retried on the next poll.
+ *
+ * <p>Because events can be lost (for example when the event queue overflows), every directory is
+ * also reconciled against the journal periodically. Reconciliation is spread over several polls,
+ * listing at most {@link #MAX_DIRECTORIES_RECONCILED_PER_POLL} directories each time. The period
+ * is {@value #DEFAULT_RECONCILE_INTERVAL_MINUTES} minutes unless the system property {@code
+ * org.codice.ddf.cdm.reconcileIntervalMinutes} is set.
+ *
+ * <p>Changes are sent to the listener in parallel, with the files of each directory sent in order
+ * by a single thread. At most {@link #MAX_IN_FLIGHT} files are processed at a time; the rest wait
+ * for a later poll.
+ *
+ * @see AsyncFileAlterationListener
+ */
+public class WatchServiceFileAlterationObserver {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(WatchServiceFileAlterationObserver.class);
+
+  private static final String RECONCILE_INTERVAL_PROPERTY =
+      "org.codice.ddf.cdm.reconcileIntervalMinutes";
+
+  private static final long DEFAULT_RECONCILE_INTERVAL_MINUTES = 60;
+
+  private static final int MAX_DIRECTORIES_RECONCILED_PER_POLL = 64;
+
+  private static final int MAX_IN_FLIGHT = 10_000;
+
+  private static final int NOTIFY_THREADS = 4;
+
+  private final Path root;
+
+  private final FileStateJournal journal;
+
+  private final ExecutorService notifyExecutor;
+
+  private final long reconcileIntervalMillis;
+
+  private final Object listenerLock = new Object();
+
+  private final AtomicBoolean polling = new AtomicBoolean(false);
+
+  //  Files being processed by the listener, and files to check again on the next poll. These are
+  //  updated by the listener's callbacks.
+  private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+
+  private final Set<Path> retries = ConcurrentHashMap.newKeySet();
+
+  //  The remaining state is only used by the thread inside checkAndNotify()
+  private final Set<Path> dirty = new TreeSet<>();
+
+  private final Deque<Path> reconcileQueue = new ArrayDeque<>();
+
+  private final Map<WatchKey, Path> watchKeys = new HashMap<>();
+
+  private final Set<Path> directories = new HashSet<>();
+
+  @Nullable private WatchService watchService;
+
+  private long nextReconciliation;
+
+  private AsyncFileAlterationListener listener = null;
+
+  public WatchServiceFileAlterationObserver(File fileToObserve, FileStateJournal journal) {
+    this(
+        fileToObserve,
+        journal,
+        Executors.newFixedThreadPool(
+            NOTIFY_THREADS, StandardThreadFactoryBuilder.newThreadFactory("cdmNotifyThread")),
+        TimeUnit.MINUTES.toMillis(getReconcileIntervalOrDefault()));
+  }
+
+  @VisibleForTesting
+  WatchServiceFileAlterationObserver(
+      File fileToObserve,
+      FileStateJournal journal,
+      ExecutorService notifyExecutor,
+      long reconcileIntervalMillis) {
+    if (fileToObserve == null || journal == null) {
+      throw new IllegalArgumentException("Arguments can not be null");
+    }
+    this.root = fileToObserve.toPath().toAbsolutePath();
+    this.journal = journal;
+    this.notifyExecutor = notifyExecutor;
+    this.reconcileIntervalMillis = reconcileIntervalMillis;
+  }
+
+  public void setListener(final AsyncFileAlterationListener listener) {
+    synchronized (listenerLock) {
+      this.listener = listener;
+    }
+  }
+
+  public void removeListener() {
+    synchronized (listenerLock) {
+      this.listener = null;
+    }
+  }
+
+  /**
+   * Sends the changes found since the last poll to the listener.
+   *
+   * @return false if there is no listener, another thread is already polling, or the directory
+   *     could not be watched
+   */
+  public boolean checkAndNotify() {
+    if (!polling.compareAndSet(false, true)) {
+      LOGGER.debug("Another thread is currently running, returning until next poll");
+      return false;
+    }
+
+    try {
+      AsyncFileAlterationListener listenerCopy;
+      synchronized (listenerLock) {
+        listenerCopy = listener;
+      }
+      if (listenerCopy == null) {
+        return false;
+      }
+
+      if (!Files.isDirectory(root)) {
+        //  If we can't connect to the network then the files don't exist to us now.
+        LOGGER.debug("The monitored directory [{}] does not exist. Skipping this poll", root);
+        return true;
+      }
+
+      if (watchService == null && !startWatching()) {
+        return false;
+      }
+
+      drainEvents();
+      reconcile();
+      notify(listenerCopy);
+      journal.flush();
+      return true;
+    } finally {
+      polling.set(false);
+    }
+  }
+
+  public void destroy() {
+    notifyExecutor.shutdownNow();
+    IOUtils.closeQuietly(watchService);
+    watchService = null;
+    journal.close();
+  }
+
+  private boolean startWatching() {
+    try {
+      watchService = root.getFileSystem().newWatchService();
+      register(root);
+      //  Also reconcile the directories that were removed while the system was down
+      for (Path directory : journal.getDirectories(root)) {
+        if (!directories.contains(directory)) {
+          reconcileQueue.add(directory);
+        }
+      }
+      nextReconciliation = System.currentTimeMillis() + reconcileIntervalMillis;
+      LOGGER.debug("Watching {} directories under [{}]", watchKeys.size(), root);
+      return true;
+    } catch (IOException e) {
+      LOGGER.info("Unable to watch [{}]. Retrying on next poll", root, e);
+      stopWatching();
+      return false;
+    }
+  }
+
+  private void stopWatching() {
+    IOUtils.closeQuietly(watchService);
+    watchService = null;
+    watchKeys.clear();
+    directories.clear();
+    reconcileQueue.clear();
+  }
+
+  /**
+   * Watches {@code directory} and its subdirectories, and queues them to be reconciled so that
+   * files created before they were watched are found. A directory that can't be watched is still
+   * reconciled periodically.
+   */
+  private void register(Path directory) throws IOException {
+    Files.walkFileTree(
+        directory,
+        EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+        Integer.MAX_VALUE,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes)
+              throws IOException {
+            if (directories.add(dir)) {
+              reconcileQueue.add(dir);
+              try {
+                watchKeys.put(
+                    dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), dir);
+              } catch (IOException e) {
+                LOGGER.debug(
+                    "Unable to watch [{}]. Changes will be found by the periodic reconciliation",
+                    dir,
+                    e);
+              }
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            LOGGER.debug("Unable to read [{}]", file, e);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private void registerQuietly(Path directory) {
+    try {
+      register(directory);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read [{}]", directory, e);
+    }
+  }
+
+  private void drainEvents() {
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      Path directory = watchKeys.get(key);
+      if (directory == null) {
+        key.cancel();
+        continue;
+      }
+
+      for (WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == OVERFLOW) {
+          LOGGER.debug("Events were lost for [{}]. Reconciling the directory", directory);
+          reconcileQueue.add(directory);
+          continue;
+        }
+
+        Path child = directory.resolve((Path) event.context());
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(child)) {
+          registerQuietly(child);
+        } else {
+          dirty.add(child);
+        }
+      }
+
+      if (!key.reset()) {
+        //  The directory is no longer accessible, most likely because it was deleted
+        watchKeys.remove(key);
+        if (directory.equals(root)) {
+          LOGGER.debug("The monitored directory [{}] is no longer accessible", root);
+          stopWatching();
+          return;
+        }
+        dirty.add(directory);
+      }
+    }
+  }
+
+  /** Lists a bounded number of directories and marks the files that differ from the journal. */
+  private void reconcile() {
+    long now = System.currentTimeMillis();
+    if (reconcileQueue.isEmpty() && now >= nextReconciliation) {
+      Set<Path> toReconcile = new LinkedHashSet<>(directories);
+      toReconcile.addAll(journal.getDirectories(root));
+      reconcileQueue.addAll(toReconcile);
+      nextReconciliation = now + reconcileIntervalMillis;
+      LOGGER.debug("Reconciling {} directories under [{}]", toReconcile.size(), root);
+    }
+
+    for (int i = 0; i < MAX_DIRECTORIES_RECONCILED_PER_POLL && !reconcileQueue.isEmpty(); i++) {
+      reconcile(reconcileQueue.poll());
+    }
+  }
+
+  private void reconcile(Path directory) {
+    Map<String, FileState> known = journal.getFiles(directory);
+
+    if (Files.isDirectory(directory)) {
+      if (!directories.contains(directory)) {
+        registerQuietly(directory);
+      }
+
+      try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+        for (Path child : children) {
+          FileState previous = known.remove(child.getFileName().toString());
+          BasicFileAttributes attributes = readAttributes(child);
+          if (attributes == null || attributes.isDirectory()) {
+            if (attributes != null && !directories.contains(child)) {
+              registerQuietly(child);
+            }
+            if (previous != null) {
+              dirty.add(child);
+            }
+          } else if (!FileState.of(attributes).equals(previous)) {
+            dirty.add(child);
+          }
+        }
+      } catch (IOException | DirectoryIteratorException e) {
+        LOGGER.debug(
+            "Unable to list [{}]. It will be retried on the next reconciliation", directory, e);
+        return;
+      }
+    } else {
+      removeDirectory(directory, dirty);
+    }
+
+    for (String name : known.keySet()) {
+      dirty.add(directory.resolve(name));
+    }
+  }
+
+  /**
+   * Compares the dirty files to the journal and sends their changes to the listener, in parallel
+   * by directory.
+   */
+  private void notify(AsyncFileAlterationListener listenerCopy) {
+    for (Iterator<Path> iterator = retries.iterator(); iterator.hasNext(); ) {
+      dirty.add(iterator.next());
+      iterator.remove();
+    }
+
+    Map<Path, List<Operation>> operationsByDirectory = new LinkedHashMap<>();
+    List<Path> deletedDirectoryFiles = new ArrayList<>();
+    int available = MAX_IN_FLIGHT - inFlight.size();
+
+    for (Iterator<Path> iterator = dirty.iterator(); iterator.hasNext() && available > 0; ) {
+      Path path = iterator.next();
+      if (inFlight.contains(path)) {
+        //  Checked again once the current operation finishes
+        continue;
+      }
+      iterator.remove();
+
+      Operation operation = compare(path, deletedDirectoryFiles);
+      if (operation != null) {
+        inFlight.add(path);
+        available--;
+        operationsByDirectory
+            .computeIfAbsent(path.getParent(), p -> new ArrayList<>())
+            .add(operation);
+      }
+    }
+    dirty.addAll(deletedDirectoryFiles);
+
+    if (operationsByDirectory.isEmpty()) {
+      return;
+    }
+
+    LOGGER.trace(
+        "Sending changes for {} directories under [{}]", operationsByDirectory.size(), root);
+    List<CompletableFuture<Void>> sent = new ArrayList<>();
+    for (List<Operation> operations : operationsByDirectory.values()) {
+      try {
+        sent.add(
+            CompletableFuture.runAsync(
+                () -> operations.forEach(o -> o.send(listenerCopy)), notifyExecutor));
+      } catch (RejectedExecutionException e) {
+        LOGGER.debug("Unable to send changes for [{}]", root, e);
+        operations.forEach(o -> commit(o, false));
+      }
+    }
+
+    try {
+      CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      LOGGER.debug("Unable to send changes for [{}]", root, e);
+    }
+  }
+
+  /**
+   * @param deletedDirectoryFiles receives the files of {@code path} if it was a directory that no
+   *     longer exists
+   * @return the operation to send to the listener, or {@code null} if nothing changed
+   */
+  @Nullable
+  private Operation compare(Path path, List<Path> deletedDirectoryFiles) {
+    FileState previous = journal.get(path);
+    BasicFileAttributes attributes = readAttributes(path);
+
+    if (attributes == null && previous == null && directories.contains(path)) {
+      removeDirectory(path, deletedDirectoryFiles);
+    }
+
+    if (attributes == null || attributes.isDirectory()) {
+      return previous == null ? null : new Operation(Change.DELETE, path);
+    } else if (previous == null) {
+      return new Operation(Change.CREATE, path);
+    } else if (!previous.equals(FileState.of(attributes))) {
+      return new Operation(Change.MODIFY, path);
+    }
+    return null;
+  }
+
+  /** Forgets a directory that no longer exists, and collects the files that were within it. */
+  private void removeDirectory(Path directory, Collection<Path> removedFiles) {
+    directories.removeIf(known -> known.startsWith(directory));
+    for (Path known : journal.getDirectories(directory)) {
+      for (String name : journal.getFiles(known).keySet()) {
+        removedFiles.add(known.resolve(name));
+      }
+    }
+  }
+
+  /**
+   * Callback to allow the listener to commit a file's state once it has finished processing it.
+   * The state is read again at this point, the same way {@link AsyncFileEntry#commit()} takes a new
+   * snapshot.
+   */
+  private void commit(Operation operation, boolean success) {
+    LOGGER.debug("commit({},{}): Starting...", operation.path, success);
+    Path path = operation.path;
+
+    if (!success) {
+      retries.add(path);
+    } else if (operation.change == Change.DELETE) {
+      journal.remove(path);
+    } else {
+      BasicFileAttributes attributes = readAttributes(path);
+      if (attributes != null && !attributes.isDirectory()) {
+        journal.put(path, FileState.of(attributes));
+      } else {
+        retries.add(path);
+      }
+    }
+
+    inFlight.remove(path);
+  }
+
+  @Nullable
+  private static BasicFileAttributes readAttributes(Path path) {
+    try {
+      return Files.readAttributes(path, BasicFileAttributes.class);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private static long getReconcileIntervalOrDefault() {
+    try {
+      return Math.max(1, Long.parseLong(System.getProperty(RECONCILE_INTERVAL_PROPERTY)));
+    } catch (NumberFormatException e) {
+      LOGGER.debug(
+          "Invalid or no [{}] property as long. Defaulting to default interval [{}]",
+          RECONCILE_INTERVAL_PROPERTY,
+          DEFAULT_RECONCILE_INTERVAL_MINUTES);
+      return DEFAULT_RECONCILE_INTERVAL_MINUTES;
+    }
+  }
+
+  private enum Change {
+    CREATE,
+    MODIFY,
+    DELETE
+  }
+
+  /** A change to send to the listener, which reports back through its {@link Synchronization}. */
+  private class Operation implements Synchronization {
+
+    private final Change change;
+
+    private final Path path;
+
+    private Operation(Change change, Path path) {
+      this.change = change;
+      this.path = path;
+    }
+
+    private void send(AsyncFileAlterationListener listenerCopy) {
+      try {
+        LOGGER.trace("Sending {} Request for {}...", change, path);
+        if (change == Change.CREATE) {
+          listenerCopy.onFileCreate(path.toFile(), this);
+        } else if (change == Change.MODIFY) {
+          listenerCopy.onFileChange(path.toFile(), this);
+        } else {
+          listenerCopy.onFileDelete(path.toFile(), this);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.debug("Unable to send the change for [{}]", path, e);
+        commit(this, false);
+      }
+    }
+
+    @Override
+    public void onComplete(Exchange exchange) {
+      commit(this, true);
+    }
+
+    @Override
+    public void onFailure(Exchange exchange) {
+      commit(this, false);
+    }
+  }
+}
@@ -146,6 +146,24 @@ public void testRouteCreationWithKeepIngestedFiles() {
     testRouteCreationWithGivenCopyStatus(ContentDirectoryMonitor.IN_PLACE);
   }
 
+  @Test
+  public void testRouteCreationWithFileSystemEvents() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("monitoredDirectoryPath", monitoredDirectoryPath);
+    properties.put("processingMechanism", ContentDirectoryMonitor.IN_PLACE);
+    properties.put("numThreads", 1);
+    properties.put("readLockIntervalMilliseconds", 1000);
+    properties.put("useFileSystemEvents", true);
+    monitor.updateCallback(properties);
+
+    assertThat(monitor.getUseFileSystemEvents(), is(true));
+    assertThat(camelContext.getRouteDefinitions(), hasSize(1));
+    List<FromDefinition> fromDefinitions = camelContext.getRouteDefinitions().get(0).getInputs();
+    assertThat(
+        fromDefinitions.get(0).getUri(),
+        equalTo("durable:" + monitoredDirectoryPath + "?watch=true"));
+  }
+
   private void testRouteCreationWithGivenCopyStatus(String processingMechanism) {
     submitConfigOptions(monitor, monitoredDirectoryPath, processingMechanism);
     assertThat(
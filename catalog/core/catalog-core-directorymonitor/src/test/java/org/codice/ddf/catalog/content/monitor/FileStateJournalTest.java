@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.codice.ddf.catalog.content.monitor.FileStateJournal.FileState;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileStateJournalTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path journalFile;
+
+  private Path directory;
+
+  private FileStateJournal journal;
+
+  @Before
+  public void setup() throws Exception {
+    journalFile = temporaryFolder.getRoot().toPath().resolve("state").resolve("inbox.journal");
+    directory = temporaryFolder.newFolder("inbox").toPath();
+    journal = new FileStateJournal(journalFile);
+    journal.open();
+  }
+
+  @Test
+  public void testEmptyJournal() {
+    assertThat(journal.isEmpty(), is(true));
+    assertThat(journal.get(directory.resolve("file")), is(nullValue()));
+    assertThat(Files.exists(journalFile), is(true));
+  }
+
+  @Test
+  public void testPutAndRemove() {
+    journal.put(directory.resolve("a"), new FileState(1, 2));
+    journal.put(directory.resolve("b"), new FileState(3, 4));
+    journal.put(directory.resolve("a"), new FileState(5, 6));
+    journal.remove(directory.resolve("b"));
+    journal.remove(directory.resolve("missing"));
+
+    assertThat(journal.size(), is(1));
+    assertThat(journal.get(directory.resolve("a")), is(new FileState(5, 6)));
+    assertThat(journal.get(directory.resolve("b")), is(nullValue()));
+  }
+
+  @Test
+  public void testStateIsReloaded() throws Exception {
+    journal.put(directory.resolve("a"), new FileState(1, 2));
+    journal.put(directory.resolve("sub").resolve("b"), new FileState(3, 4));
+    journal.put(directory.resolve("c"), new FileState(5, 6));
+    journal.remove(directory.resolve("c"));
+    journal.close();
+
+    FileStateJournal reloaded = new FileStateJournal(journalFile);
+    reloaded.open();
+    assertThat(reloaded.size(), is(2));
+    assertThat(reloaded.get(directory.resolve("a")), is(new FileState(1, 2)));
+    assertThat(reloaded.get(directory.resolve("sub").resolve("b")), is(new FileState(3, 4)));
+    assertThat(reloaded.get(directory.resolve("c")), is(nullValue()));
+  }
+
+  @Test
+  public void testGetFilesAndDirectories() {
+    Path sub = directory.resolve("sub");
+    journal.put(directory.resolve("a"), new FileState(1, 2));
+    journal.put(sub.resolve("b"), new FileState(3, 4));
+    journal.put(sub.resolve("c"), new FileState(5, 6));
+    journal.put(temporaryFolder.getRoot().toPath().resolve("d"), new FileState(7, 8));
+
+    assertThat(journal.getFiles(sub).keySet(), containsInAnyOrder("b", "c"));
+    assertThat(journal.getDirectories(directory), containsInAnyOrder(directory, sub));
+    assertThat(journal.getDirectories(sub), containsInAnyOrder(sub));
+
+    journal.remove(sub.resolve("b"));
+    journal.remove(sub.resolve("c"));
+    assertThat(journal.getDirectories(directory), containsInAnyOrder(directory));
+  }
+
+  @Test
+  public void testJournalIsCompacted() throws Exception {
+    for (int i = 0; i < 50_000; i++) {
+      journal.put(directory.resolve("file" + i % 10), new FileState(i, i));
+    }
+    journal.flush();
+
+    //  50,000 appended records would take several megabytes
+    assertThat(Files.size(journalFile), lessThan(1_000_000L));
+    journal.close();
+
+    FileStateJournal reloaded = new FileStateJournal(journalFile);
+    reloaded.open();
+    assertThat(reloaded.size(), is(10));
+    assertThat(reloaded.get(directory.resolve("file9")), is(new FileState(49_999, 49_999)));
+  }
+
+  @Test
+  public void testPartiallyWrittenRecordIsIgnored() throws Exception {
+    journal.put(directory.resolve("a"), new FileState(1, 2));
+    journal.put(directory.resolve("b"), new FileState(3, 4));
+    journal.close();
+
+    byte[] bytes = Files.readAllBytes(journalFile);
+    Files.write(journalFile, Arrays.copyOf(bytes, bytes.length - 4));
+
+    FileStateJournal reloaded = new FileStateJournal(journalFile);
+    reloaded.open();
+    assertThat(reloaded.size(), is(1));
+    assertThat(reloaded.get(directory.resolve("a")), is(new FileState(1, 2)));
+  }
+}
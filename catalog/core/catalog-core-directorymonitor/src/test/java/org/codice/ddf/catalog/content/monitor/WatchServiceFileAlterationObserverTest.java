@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.camel.spi.Synchronization;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+
+public class WatchServiceFileAlterationObserverTest {
+
+  private static final long TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+  private static final String DUMMY_DATA = "The duck may swim on the lake...";
+
+  private static final String CHANGED_DATA = "the duck.";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicInteger timesToFail = new AtomicInteger(0);
+
+  private File monitoredDirectory;
+
+  private File journalFile;
+
+  private AsyncFileAlterationListener fileListener;
+
+  private WatchServiceFileAlterationObserver observer;
+
+  @Before
+  public void setup() throws Exception {
+    monitoredDirectory = temporaryFolder.newFolder("inbox");
+    journalFile = new File(temporaryFolder.newFolder("state"), "inbox.journal");
+
+    fileListener = mock(AsyncFileAlterationListener.class);
+    stubListener();
+
+    observer = createObserver();
+  }
+
+  private void stubListener() {
+    doAnswer(this::complete)
+        .when(fileListener)
+        .onFileCreate(any(File.class), any(Synchronization.class));
+    doAnswer(this::complete)
+        .when(fileListener)
+        .onFileChange(any(File.class), any(Synchronization.class));
+    doAnswer(this::complete)
+        .when(fileListener)
+        .onFileDelete(any(File.class), any(Synchronization.class));
+  }
+
+  @After
+  public void cleanUp() {
+    observer.destroy();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRoot() {
+    new WatchServiceFileAlterationObserver(null, null);
+  }
+
+  @Test
+  public void testNoListener() throws Exception {
+    createFile(monitoredDirectory, "file");
+    observer.removeListener();
+    assertThat(observer.checkAndNotify(), is(false));
+    verify(fileListener, never()).onFileCreate(any(File.class), any(Synchronization.class));
+  }
+
+  @Test
+  public void testExistingFilesAreCreated() throws Exception {
+    File file = createFile(monitoredDirectory, "file");
+    File nestedFile = createFile(new File(monitoredDirectory, "child/grandchild"), "nested");
+
+    pollUntil(
+        () -> {
+          verify(fileListener).onFileCreate(eq(file), any(Synchronization.class));
+          verify(fileListener).onFileCreate(eq(nestedFile), any(Synchronization.class));
+        });
+  }
+
+  @Test
+  public void testNewFile() throws Exception {
+    observer.checkAndNotify();
+    File file = createFile(monitoredDirectory, "file");
+
+    pollUntil(() -> verify(fileListener).onFileCreate(eq(file), any(Synchronization.class)));
+  }
+
+  @Test
+  public void testChangedFile() throws Exception {
+    File file = createFile(monitoredDirectory, "file");
+    pollUntil(() -> verify(fileListener).onFileCreate(eq(file), any(Synchronization.class)));
+
+    FileUtils.writeStringToFile(file, CHANGED_DATA, StandardCharsets.UTF_8);
+    pollUntil(() -> verify(fileListener).onFileChange(eq(file), any(Synchronization.class)));
+  }
+
+  @Test
+  public void testDeletedFile() throws Exception {
+    File file = createFile(monitoredDirectory, "file");
+    pollUntil(() -> verify(fileListener).onFileCreate(eq(file), any(Synchronization.class)));
+
+    FileUtils.forceDelete(file);
+    pollUntil(() -> verify(fileListener).onFileDelete(eq(file), any(Synchronization.class)));
+  }
+
+  @Test
+  public void testNewDirectory() throws Exception {
+    observer.checkAndNotify();
+    File childDirectory = new File(monitoredDirectory, "child");
+    File file = createFile(childDirectory, "file");
+    File nestedFile = createFile(new File(childDirectory, "grandchild"), "nested");
+
+    pollUntil(
+        () -> {
+          verify(fileListener).onFileCreate(eq(file), any(Synchronization.class));
+          verify(fileListener).onFileCreate(eq(nestedFile), any(Synchronization.class));
+        });
+  }
+
+  @Test
+  public void testDeletedDirectory() throws Exception {
+    File childDirectory = new File(monitoredDirectory, "child");
+    File file = createFile(childDirectory, "file");
+    File nestedFile = createFile(new File(childDirectory, "grandchild"), "nested");
+    pollUntil(
+        () ->
+            verify(fileListener, times(2))
+                .onFileCreate(any(File.class), any(Synchronization.class)));
+
+    FileUtils.deleteDirectory(childDirectory);
+    pollUntil(
+        () -> {
+          verify(fileListener).onFileDelete(eq(file), any(Synchronization.class));
+          verify(fileListener).onFileDelete(eq(nestedFile), any(Synchronization.class));
+        });
+  }
+
+  @Test
+  public void testFailedFileIsRetried() throws Exception {
+    timesToFail.set(2);
+    File file = createFile(monitoredDirectory, "file");
+
+    pollUntil(
+        () -> verify(fileListener, times(3)).onFileCreate(eq(file), any(Synchronization.class)));
+  }
+
+  @Test
+  public void testUnchangedFilesAreNotSentAgain() throws Exception {
+    File file = createFile(monitoredDirectory, "file");
+    pollUntil(() -> verify(fileListener).onFileCreate(eq(file), any(Synchronization.class)));
+
+    for (int i = 0; i < 5; i++) {
+      observer.checkAndNotify();
+    }
+    verify(fileListener).onFileCreate(eq(file), any(Synchronization.class));
+    verify(fileListener, never()).onFileChange(any(File.class), any(Synchronization.class));
+  }
+
+  @Test
+  public void testChangesWhileStoppedAreFound() throws Exception {
+    File unchanged = createFile(monitoredDirectory, "unchanged");
+    File changed = createFile(monitoredDirectory, "changed");
+    File deleted = createFile(new File(monitoredDirectory, "child"), "deleted");
+    pollUntil(
+        () ->
+            verify(fileListener, times(3))
+                .onFileCreate(any(File.class), any(Synchronization.class)));
+    observer.destroy();
+    reset(fileListener);
+    stubListener();
+
+    FileUtils.writeStringToFile(changed, CHANGED_DATA, StandardCharsets.UTF_8);
+    FileUtils.deleteDirectory(deleted.getParentFile());
+    File created = createFile(monitoredDirectory, "created");
+
+    observer = createObserver();
+    pollUntil(
+        () -> {
+          verify(fileListener).onFileCreate(eq(created), any(Synchronization.class));
+          verify(fileListener).onFileChange(eq(changed), any(Synchronization.class));
+          verify(fileListener).onFileDelete(eq(deleted), any(Synchronization.class));
+        });
+    verify(fileListener, never()).onFileCreate(eq(unchanged), any(Synchronization.class));
+    verify(fileListener, never()).onFileChange(eq(unchanged), any(Synchronization.class));
+  }
+
+  private WatchServiceFileAlterationObserver createObserver() throws Exception {
+    FileStateJournal journal = new FileStateJournal(journalFile.toPath());
+    journal.open();
+    WatchServiceFileAlterationObserver newObserver =
+        new WatchServiceFileAlterationObserver(
+            monitoredDirectory, journal, Executors.newFixedThreadPool(2), TIMEOUT);
+    newObserver.setListener(fileListener);
+    return newObserver;
+  }
+
+  private Object complete(InvocationOnMock invocation) {
+    Synchronization callback = (Synchronization) invocation.getArguments()[1];
+    if (timesToFail.getAndUpdate(i -> Math.max(0, i - 1)) > 0) {
+      callback.onFailure(null);
+    } else {
+      callback.onComplete(null);
+    }
+    return null;
+  }
+
+  private File createFile(File directory, String name) throws Exception {
+    File file = new File(directory, name);
+    FileUtils.writeStringToFile(file, DUMMY_DATA, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private void pollUntil(Runnable verification) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT;
+    while (true) {
+      observer.checkAndNotify();
+      try {
+        verification.run();
+        return;
+      } catch (AssertionError e) {
+        if (System.currentTimeMillis() > deadline) {
+          throw e;
+        }
+      }
+      Thread.sleep(50);
+    }
+  }
+}
@@ -30,27 +30,23 @@
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.plugin.PreSubscriptionPlugin;
 import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.internal.EventDispatcher;
 import ddf.catalog.pubsub.internal.PubSubConstants;
-import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
+import java.io.IOException;
 import java.net.URI;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import org.apache.lucene.store.Directory;
-import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.osgi.framework.BundleContext;
-import org.osgi.framework.ServiceRegistration;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
-import org.osgi.service.event.EventConstants;
 import org.osgi.service.event.EventHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,11 +70,10 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   protected CatalogFramework catalog;
 
-  private Map<String, ServiceRegistration> existingSubscriptions;
+  private final SubscriptionIndex<PublishedEventHandler> existingSubscriptions =
+      new SubscriptionIndex<>();
 
-  private final ExecutorService threadPool =
-      Executors.newCachedThreadPool(
-          StandardThreadFactoryBuilder.newThreadFactory("eventProcessorThread"));
+  private EventDispatcher eventDispatcher;
 
   public EventProcessorImpl() {
     LOGGER.debug("INSIDE: EventProcessorImpl default constructor");
@@ -97,7 +92,6 @@ public EventProcessorImpl(
     this.preSubscription = preSubscription;
     this.preDelivery = preDelivery;
     this.catalog = catalog;
-    this.existingSubscriptions = new HashMap<>();
 
     if (this.preSubscription == null) {
       LOGGER.debug("preSubscription plugins list is NULL");
@@ -126,6 +120,27 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
     String methodName = "processEntry";
     LOGGER.trace(ENTERING, methodName);
 
+    Event event = createPublishedEvent(metacard, operation);
+    if (event == null) {
+      LOGGER.debug("Unable to post null metacard.");
+    } else if (eventAdmin != null) {
+      eventAdmin.postEvent(event);
+    } else {
+      LOGGER.debug("Unable to post event since eventAdmin is null.");
+    }
+
+    LOGGER.trace(EXITING, methodName);
+  }
+
+  /**
+   * Creates the event evaluated by subscriptions for an entry, holding properties from the
+   * metacard.
+   *
+   * @param metacard - the metacard to process
+   * @param operation - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
+   * @return the event, or {@code null} if the metacard is {@code null}
+   */
+  public static Event createPublishedEvent(Metacard metacard, String operation) {
     if (metacard != null) {
       LOGGER.debug("Input Metacard:{}\n", metacard);
       LOGGER.debug("catalog ID = {}", metacard.getId());
@@ -174,47 +189,25 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
 
       // CONTEXTUAL INFORMATION
       if (metacard.getMetadata() != null) {
-        try {
-          // Build Lucene search index on entry's entire metadata using
-          // default XPaths (specified
-          // in ContextualEvaluator) - this index will be used by all
-          // contextual predicates that do
-          // *NOT* specify any textPaths. (Building index here optimizes
-          // code so that this index is
-          // not built for every contextual subscription that has no
-          // textPaths.)
-          Directory index = ContextualEvaluator.buildIndex(metacard.getMetadata());
-
-          // Build contextual info to be sent in event for this entry.
-          // Include the default Lucene search
-          // index and the entry's metadata (in case subscription has
-          // textPaths, then it can create Lucene
-          // search indices on the metadata using its textPaths)
-          Map<String, Object> contextualMap = new HashMap<>(2, 1);
-          contextualMap.put("DEFAULT_INDEX", index);
-          contextualMap.put("METADATA", metacard.getMetadata());
-          properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
-        } catch (Exception e) {
-          LOGGER.info("Exception updating context map", e);
-        }
+        // Build contextual info to be sent in event for this entry. Include the entry's metadata
+        // (in case subscription has textPaths, then it can create Lucene search indices on the
+        // metadata using its textPaths) and the default Lucene search index, which is only built
+        // once the first contextual predicate without textPaths asks for it.
+        properties.put(
+            PubSubConstants.HEADER_CONTEXTUAL_KEY, new ContextualMap(metacard.getMetadata()));
       }
 
-      if (eventAdmin != null) {
-        eventAdmin.postEvent(new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties));
-      } else {
-        LOGGER.debug("Unable to post event since eventAdmin is null.");
-      }
-    } else {
-      LOGGER.debug("Unable to post null metacard.");
+      return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
     }
-
-    LOGGER.trace(EXITING, methodName);
+    return null;
   }
 
   public void init() {
     String methodName = "init";
     LOGGER.trace(ENTERING, methodName);
 
+    getEventDispatcher().start();
+
     LOGGER.trace(EXITING, methodName);
   }
 
@@ -222,14 +215,20 @@ public void destroy() {
     String methodName = "destroy";
     LOGGER.trace(ENTERING, methodName);
 
+    synchronized (this) {
+      if (eventDispatcher != null) {
+        eventDispatcher.stop();
+      }
+    }
+
     LOGGER.trace(EXITING, methodName);
   }
 
   /**
    * By default the Felix EventAdmin implementation has a timeout of 5000 ms. Your event handler has
    * to return from the handle event method in this time frame. If it does not, it gets Blacklisted.
-   * Therefore, this method processes its events in a separate thread than the EventAdmin who called
-   * it.
+   * Therefore, this method queues its events to be processed by the {@link EventDispatcher}'s
+   * threads rather than the EventAdmin who called it.
    */
   public void handleEvent(Event event) {
     String methodName = "handleEvent";
@@ -242,7 +241,7 @@ public void handleEvent(Event event) {
       Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
       LOGGER.debug("metacard ID = {}", entry.getId());
 
-      new PubSubThread(entry, topic, eventAdmin).start();
+      getEventDispatcher().dispatch(topic, entry);
     } else {
       LOGGER.debug(
           "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -284,18 +283,10 @@ public void createSubscription(Subscription subscription, String subscriptionId)
       Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
       LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
-      String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
-
-      Dictionary<String, String[]> props = new Hashtable<>(1, 1);
-      props.put(EventConstants.EVENT_TOPIC, topics);
-      ServiceRegistration serviceRegistration =
-          bundleContext.registerService(
-              EventHandler.class.getName(),
-              new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
-              props);
-
-      existingSubscriptions.put(subscriptionId, serviceRegistration);
+      existingSubscriptions.add(
+          subscriptionId,
+          finalPredicate,
+          new PublishedEventHandler(finalPredicate, subscription, preDelivery, catalog));
 
       LOGGER.debug("Subscription {} created.", subscriptionId);
     } catch (Exception e) {
@@ -333,11 +324,8 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
 
     try {
       LOGGER.debug("Removing subscription: {}", subscriptionId);
-      ServiceRegistration sr = (ServiceRegistration) existingSubscriptions.get(subscriptionId);
-      if (sr != null) {
-        sr.unregister();
+      if (existingSubscriptions.remove(subscriptionId) != null) {
         LOGGER.debug("Removal complete");
-        existingSubscriptions.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
@@ -351,6 +339,13 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
     LOGGER.trace(EXITING, methodName);
   }
 
+  private synchronized EventDispatcher getEventDispatcher() {
+    if (eventDispatcher == null) {
+      eventDispatcher = EventDispatcher.fromSystemProperties(new SubscriptionDispatcher());
+    }
+    return eventDispatcher;
+  }
+
   @Override
   public void notifyCreated(Metacard newMetacard) {
     LOGGER.trace("ENTERING: notifyCreated");
@@ -432,6 +427,65 @@ public DeleteResponse process(DeleteResponse deleteResponse) throws PluginExecut
     return deleteResponse;
   }
 
+  /**
+   * Passes each published event to the subscriptions found by the {@link SubscriptionIndex}, rather
+   * than to every subscription. It is called on the {@link EventDispatcher}'s threads, so the
+   * subscriptions are evaluated there instead of being handed to yet another thread pool.
+   */
+  private class SubscriptionDispatcher implements EventHandler {
+
+    @Override
+    public void handleEvent(Event event) {
+      for (PublishedEventHandler handler : existingSubscriptions.getCandidates(event)) {
+        handler.handleEvent(event);
+      }
+    }
+  }
+
+  /**
+   * Contextual information sent with a published event. The default Lucene search index on the
+   * entry's entire metadata, built using the default XPaths specified in {@link
+   * ContextualEvaluator}, is used by all contextual predicates that do *NOT* specify any
+   * textPaths. It is built once, by the first predicate that asks for it, so events that are not
+   * evaluated by such a predicate do not pay for it.
+   */
+  private static class ContextualMap extends HashMap<String, Object> {
+
+    private static final String DEFAULT_INDEX = "DEFAULT_INDEX";
+
+    private final transient String metadata;
+
+    private transient Directory index;
+
+    private transient boolean indexBuilt = false;
+
+    ContextualMap(String metadata) {
+      super(2, 1);
+      this.metadata = metadata;
+      put("METADATA", metadata);
+    }
+
+    @Override
+    public Object get(Object key) {
+      if (DEFAULT_INDEX.equals(key)) {
+        return getIndex();
+      }
+      return super.get(key);
+    }
+
+    private synchronized Directory getIndex() {
+      if (!indexBuilt) {
+        indexBuilt = true;
+        try {
+          index = ContextualEvaluator.buildIndex(metadata);
+        } catch (IOException | RuntimeException e) {
+          LOGGER.info("Exception updating context map", e);
+        }
+      }
+      return index;
+    }
+  }
+
   /**
    * Enumeration of metacard Date attributes that can be used for subscriptions. In order to use
    * metacard attribute names for getting DateType values, {@link DateType#getDateType(String)}
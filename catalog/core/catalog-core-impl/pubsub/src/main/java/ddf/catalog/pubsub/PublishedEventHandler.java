@@ -23,7 +23,6 @@
 import ddf.catalog.pubsub.predicate.Predicate;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
 import org.apache.commons.collections.CollectionUtils;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
@@ -33,8 +32,6 @@
 public class PublishedEventHandler implements EventHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(PublishedEventHandler.class);
 
-  private final ExecutorService threadPool;
-
   private Predicate predicate;
 
   private Subscription subscription;
@@ -47,20 +44,18 @@ public PublishedEventHandler(
       Predicate finalPredicate,
       Subscription subscription,
       List<PreDeliveryPlugin> preDelivery,
-      CatalogFramework catalog,
-      ExecutorService threadPool) {
+      CatalogFramework catalog) {
     this.predicate = finalPredicate;
     this.subscription = subscription;
     this.preDelivery = preDelivery;
     this.catalog = catalog;
-    this.threadPool = threadPool;
   }
 
   public void handleEvent(Event event) {
-    threadPool.submit(new EventProcessor(event));
+    new EventProcessor(event).process();
   }
 
-  private class EventProcessor implements Runnable {
+  private class EventProcessor {
 
     private Event event;
 
@@ -68,8 +63,7 @@ public EventProcessor(Event event) {
       this.event = event;
     }
 
-    @Override
-    public void run() {
+    public void process() {
 
       String methodName = "handleEvent";
       LOGGER.trace("ENTERING: {}", methodName);
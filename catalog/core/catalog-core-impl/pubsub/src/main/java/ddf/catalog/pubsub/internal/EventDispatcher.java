@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.event.EventProcessor;
+import ddf.catalog.pubsub.EventProcessorImpl;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes created, updated and deleted metacards to subscriptions from a bounded queue using a
+ * fixed number of worker threads. Each worker takes up to a batch of queued events at a time and
+ * evaluates them against the subscriptions itself, so the number of threads doing that work is
+ * bounded too. When the queue is full, the {@link OverflowPolicy} decides what happens to the new
+ * event.
+ *
+ * <p>The queue size, number of workers, batch size and overflow policy can be set with the {@link
+ * #QUEUE_SIZE_PROPERTY}, {@link #THREADS_PROPERTY}, {@link #BATCH_SIZE_PROPERTY} and {@link
+ * #OVERFLOW_POLICY_PROPERTY} system properties. The default policy is {@link
+ * OverflowPolicy#DROP_NEWEST}.
+ */
+public class EventDispatcher implements EventDispatcherMBean {
+
+  public static final String QUEUE_SIZE_PROPERTY = "org.codice.ddf.catalog.pubsub.queueSize";
+
+  public static final String THREADS_PROPERTY = "org.codice.ddf.catalog.pubsub.threads";
+
+  public static final String BATCH_SIZE_PROPERTY = "org.codice.ddf.catalog.pubsub.batchSize";
+
+  public static final String OVERFLOW_POLICY_PROPERTY =
+      "org.codice.ddf.catalog.pubsub.overflowPolicy";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventDispatcher.class);
+
+  private static final int DEFAULT_QUEUE_SIZE = 10000;
+
+  private static final int DEFAULT_BATCH_SIZE = 100;
+
+  private static final long POLL_TIMEOUT_MILLIS = 500;
+
+  private static final long DROP_WARNING_INTERVAL = 1000;
+
+  private static final String THREAD_NAME = "pubSubDispatchThread";
+
+  /** What happens to an event that arrives when the queue is full. */
+  public enum OverflowPolicy {
+    /**
+     * Publish the event on the thread that posted it, slowing down the poster. Events are usually
+     * posted from an EventAdmin thread, and EventAdmin blacklists handlers that take longer than
+     * its timeout, so this should only be used with a generous EventAdmin timeout.
+     */
+    CALLER_RUNS,
+    /** Discard the new event. */
+    DROP_NEWEST,
+    /** Discard the oldest queued event to make room for the new one. */
+    DROP_OLDEST
+  }
+
+  private final EventHandler subscriptions;
+
+  private final BlockingQueue<PendingEvent> queue;
+
+  private final int queueCapacity;
+
+  private final int workerCount;
+
+  private final int batchSize;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final AtomicLong dispatchedCount = new AtomicLong();
+
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  private final AtomicLong callerRunsCount = new AtomicLong();
+
+  private ExecutorService workers;
+
+  private volatile boolean running = false;
+
+  private boolean stopped = false;
+
+  /**
+   * @param subscriptions handler that evaluates the published events against the subscriptions
+   * @param queueCapacity maximum number of events waiting to be published
+   * @param workerCount number of threads publishing events
+   * @param batchSize maximum number of events a worker takes from the queue at a time
+   * @param overflowPolicy what happens to an event that arrives when the queue is full
+   */
+  public EventDispatcher(
+      EventHandler subscriptions,
+      int queueCapacity,
+      int workerCount,
+      int batchSize,
+      OverflowPolicy overflowPolicy) {
+    if (queueCapacity < 1 || workerCount < 1 || batchSize < 1) {
+      throw new IllegalArgumentException(
+          "Queue capacity, worker count and batch size must be positive.");
+    }
+    this.subscriptions = subscriptions;
+    this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    this.queueCapacity = queueCapacity;
+    this.workerCount = workerCount;
+    this.batchSize = batchSize;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /**
+   * Creates a dispatcher configured by the system properties, using the defaults for any that are
+   * missing or invalid.
+   *
+   * @param subscriptions handler that evaluates the published events against the subscriptions
+   * @return a dispatcher that has not been started
+   */
+  public static EventDispatcher fromSystemProperties(EventHandler subscriptions) {
+    OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    String policyProperty = System.getProperty(OVERFLOW_POLICY_PROPERTY);
+    if (policyProperty != null) {
+      try {
+        overflowPolicy = OverflowPolicy.valueOf(policyProperty.trim().toUpperCase());
+      } catch (IllegalArgumentException e) {
+        LOGGER.info(
+            "Unable to use configured {}: {}, defaulting to: {}",
+            OVERFLOW_POLICY_PROPERTY,
+            policyProperty,
+            overflowPolicy);
+      }
+    }
+
+    return new EventDispatcher(
+        subscriptions,
+        getPositiveInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE),
+        getPositiveInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()),
+        getPositiveInteger(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE),
+        overflowPolicy);
+  }
+
+  private static int getPositiveInteger(String property, int defaultValue) {
+    String value = System.getProperty(property);
+    if (value != null) {
+      try {
+        int parsed = Integer.parseInt(value.trim());
+        if (parsed > 0) {
+          return parsed;
+        }
+      } catch (NumberFormatException e) {
+        LOGGER.debug("Invalid value for {}", property, e);
+      }
+      LOGGER.info(
+          "Unable to use configured {}: {}, defaulting to: {}", property, value, defaultValue);
+    }
+    return defaultValue;
+  }
+
+  /**
+   * Starts the worker threads and registers the metrics MBean. Does nothing if the dispatcher has
+   * already been started or stopped.
+   */
+  public synchronized void start() {
+    if (running || stopped) {
+      return;
+    }
+    running = true;
+    workers =
+        Executors.newFixedThreadPool(
+            workerCount, StandardThreadFactoryBuilder.newThreadFactory(THREAD_NAME));
+    for (int i = 0; i < workerCount; i++) {
+      workers.submit(this::work);
+    }
+    registerMBean();
+    LOGGER.debug(
+        "Started {} pubsub dispatch threads with a queue of {} events and {} overflow policy",
+        workerCount,
+        queueCapacity,
+        overflowPolicy);
+  }
+
+  /**
+   * Stops the worker threads. Events that have not been published yet, and any events dispatched
+   * afterwards, are discarded.
+   */
+  public synchronized void stop() {
+    if (!running) {
+      stopped = true;
+      return;
+    }
+    running = false;
+    stopped = true;
+    workers.shutdownNow();
+    try {
+      if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+        LOGGER.debug("Pubsub dispatch threads did not stop in time");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    int discarded = queue.size();
+    queue.clear();
+    if (discarded > 0) {
+      LOGGER.info("Discarded {} catalog events not yet published to subscriptions.", discarded);
+    }
+    unregisterMBean();
+  }
+
+  /**
+   * Queues a catalog event to be published to subscriptions.
+   *
+   * @param topic {@link EventProcessor} topic of the event
+   * @param entry metacard that was created, updated or deleted
+   */
+  public void dispatch(String topic, Metacard entry) {
+    if (!running) {
+      start();
+      if (!running) {
+        LOGGER.debug("Pubsub dispatcher is stopped, ignoring {} event", topic);
+        return;
+      }
+    }
+
+    PendingEvent event = new PendingEvent(topic, entry);
+    if (queue.offer(event)) {
+      return;
+    }
+
+    switch (overflowPolicy) {
+      case DROP_NEWEST:
+        dropped(event);
+        break;
+      case DROP_OLDEST:
+        while (!queue.offer(event)) {
+          PendingEvent oldest = queue.poll();
+          if (oldest != null) {
+            dropped(oldest);
+          }
+        }
+        break;
+      case CALLER_RUNS:
+      default:
+        callerRunsCount.incrementAndGet();
+        publish(event);
+        break;
+    }
+  }
+
+  private void dropped(PendingEvent event) {
+    long dropped = droppedCount.incrementAndGet();
+    if (dropped % DROP_WARNING_INTERVAL == 1) {
+      LOGGER.warn(
+          "Pubsub queue of {} events is full, dropping events ({} dropped in total).",
+          queueCapacity,
+          dropped);
+    }
+    LOGGER.debug(
+        "Pubsub queue is full, dropped {} event for metacard {} ({} dropped in total)",
+        event.topic,
+        event.entry.getId(),
+        dropped);
+  }
+
+  private void work() {
+    List<PendingEvent> batch = new ArrayList<>(batchSize);
+    while (running) {
+      try {
+        PendingEvent first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        for (PendingEvent event : batch) {
+          publish(event);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void publish(PendingEvent event) {
+    String operation = getOperation(event.topic);
+    if (operation == null) {
+      LOGGER.debug("Ignoring event on unsupported topic {}", event.topic);
+      return;
+    }
+    try {
+      Event published = EventProcessorImpl.createPublishedEvent(event.entry, operation);
+      if (published == null) {
+        LOGGER.debug("Ignoring {} event without a metacard", operation);
+        return;
+      }
+      subscriptions.handleEvent(published);
+      dispatchedCount.incrementAndGet();
+    } catch (RuntimeException e) {
+      LOGGER.info("Unable to publish {} event for metacard {}", operation, event.entry.getId(), e);
+    }
+  }
+
+  private static String getOperation(String topic) {
+    if (EventProcessor.EVENTS_TOPIC_CREATED.equals(topic)) {
+      return PubSubConstants.CREATE;
+    } else if (EventProcessor.EVENTS_TOPIC_UPDATED.equals(topic)) {
+      return PubSubConstants.UPDATE;
+    } else if (EventProcessor.EVENTS_TOPIC_DELETED.equals(topic)) {
+      return PubSubConstants.DELETE;
+    }
+    return null;
+  }
+
+  private void registerMBean() {
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName = new ObjectName(OBJECT_NAME);
+      try {
+        mbeanServer.registerMBean(new StandardMBean(this, EventDispatcherMBean.class), objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        LOGGER.debug("Re-registering pubsub event dispatcher MBean");
+        mbeanServer.unregisterMBean(objectName);
+        mbeanServer.registerMBean(new StandardMBean(this, EventDispatcherMBean.class), objectName);
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not register pubsub event dispatcher MBean.", e);
+    }
+  }
+
+  private void unregisterMBean() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+    } catch (InstanceNotFoundException e) {
+      LOGGER.debug("Pubsub event dispatcher MBean was not registered.", e);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister pubsub event dispatcher MBean.", e);
+    }
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  @Override
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  @Override
+  public long getLagMillis() {
+    PendingEvent oldest = queue.peek();
+    if (oldest == null) {
+      return 0;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.queuedAt);
+  }
+
+  @Override
+  public long getDispatchedCount() {
+    return dispatchedCount.get();
+  }
+
+  @Override
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+
+  @Override
+  public long getCallerRunsCount() {
+    return callerRunsCount.get();
+  }
+
+  @Override
+  public int getWorkerCount() {
+    return workerCount;
+  }
+
+  @Override
+  public String getOverflowPolicy() {
+    return overflowPolicy.name();
+  }
+
+  private static class PendingEvent {
+
+    private final String topic;
+
+    private final Metacard entry;
+
+    private final long queuedAt = System.nanoTime();
+
+    PendingEvent(String topic, Metacard entry) {
+      this.topic = topic;
+      this.entry = entry;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+/** Metrics of the queue of catalog events waiting to be published to subscriptions. */
+public interface EventDispatcherMBean {
+
+  String OBJECT_NAME = "ddf.catalog.pubsub.internal.EventDispatcher:service=event-dispatcher";
+
+  /** @return number of events waiting to be published */
+  int getQueueDepth();
+
+  /** @return maximum number of events that can wait to be published */
+  int getQueueCapacity();
+
+  /** @return milliseconds the oldest waiting event has been queued, or 0 if the queue is empty */
+  long getLagMillis();
+
+  /** @return number of events published since startup */
+  long getDispatchedCount();
+
+  /** @return number of events discarded because the queue was full */
+  long getDroppedCount();
+
+  /** @return number of events published on the posting thread because the queue was full */
+  long getCallerRunsCount();
+
+  /** @return number of threads publishing queued events */
+  int getWorkerCount();
+
+  /** @return what happens to an event that arrives when the queue is full */
+  String getOverflowPolicy();
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable centered interval tree used to find every closed interval that contains a point in
+ * {@code O(log n + k)} time.
+ *
+ * @param <T> type of the value stored with each interval
+ */
+class IntervalTree<T> {
+
+  private final Node<T> root;
+
+  private final int size;
+
+  /** @param intervals intervals to index, which must not change once the tree is built */
+  IntervalTree(List<Interval<T>> intervals) {
+    List<Interval<T>> sorted = new ArrayList<>(intervals);
+    sorted.sort(Comparator.comparingLong(Interval::getStart));
+    this.root = build(sorted);
+    this.size = intervals.size();
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Adds the value of every interval containing {@code point} to {@code values}.
+   *
+   * @param point point to look up
+   * @param values collection the values are added to
+   */
+  void query(long point, Collection<? super T> values) {
+    Node<T> node = root;
+    while (node != null) {
+      if (point < node.center) {
+        for (Interval<T> interval : node.byStart) {
+          if (interval.start > point) {
+            break;
+          }
+          values.add(interval.value);
+        }
+        node = node.left;
+      } else if (point > node.center) {
+        for (Interval<T> interval : node.byEnd) {
+          if (interval.end < point) {
+            break;
+          }
+          values.add(interval.value);
+        }
+        node = node.right;
+      } else {
+        for (Interval<T> interval : node.byStart) {
+          values.add(interval.value);
+        }
+        node = null;
+      }
+    }
+  }
+
+  /** @param sorted intervals sorted by start */
+  private static <T> Node<T> build(List<Interval<T>> sorted) {
+    if (sorted.isEmpty()) {
+      return null;
+    }
+
+    // The median interval always overlaps the center, so every node holds at least one interval
+    long center = sorted.get(sorted.size() / 2).start;
+    List<Interval<T>> left = new ArrayList<>();
+    List<Interval<T>> right = new ArrayList<>();
+    List<Interval<T>> overlapping = new ArrayList<>();
+    for (Interval<T> interval : sorted) {
+      if (interval.end < center) {
+        left.add(interval);
+      } else if (interval.start > center) {
+        right.add(interval);
+      } else {
+        overlapping.add(interval);
+      }
+    }
+
+    List<Interval<T>> byEnd = new ArrayList<>(overlapping);
+    byEnd.sort(Comparator.comparingLong((Interval<T> interval) -> interval.end).reversed());
+    return new Node<>(center, overlapping, byEnd, build(left), build(right));
+  }
+
+  /** A closed interval and its value. */
+  static class Interval<T> {
+
+    private final long start;
+
+    private final long end;
+
+    private final T value;
+
+    Interval(long start, long end, T value) {
+      this.start = start;
+      this.end = end;
+      this.value = value;
+    }
+
+    long getStart() {
+      return start;
+    }
+
+    long getEnd() {
+      return end;
+    }
+
+    T getValue() {
+      return value;
+    }
+  }
+
+  private static class Node<T> {
+
+    private final long center;
+
+    private final List<Interval<T>> byStart;
+
+    private final List<Interval<T>> byEnd;
+
+    private final Node<T> left;
+
+    private final Node<T> right;
+
+    Node(
+        long center,
+        List<Interval<T>> byStart,
+        List<Interval<T>> byEnd,
+        Node<T> left,
+        Node<T> right) {
+      this.center = center;
+      this.byStart = byStart;
+      this.byEnd = byEnd;
+      this.left = left;
+      this.right = right;
+    }
+  }
+}
@@ -0,0 +1,483 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.contextual.ContextualTokenizer;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.lucene.analysis.StopAnalyzer;
+import org.geotools.geometry.jts.WKTReader2;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Index of subscription predicates used to find the subscriptions that may match a published
+ * event without evaluating every predicate.
+ *
+ * <p>Each subscription is indexed by a single condition that its predicate cannot match without:
+ * the envelope of a geospatial criteria in an STR-tree, the period of an absolute temporal criteria
+ * in an interval tree, or a required term of a contextual criteria in an inverted index. Predicates
+ * that have no such condition, e.g. disjunctions or negations, are returned for every event. The
+ * candidates returned by {@link #getCandidates(Event)} are a superset of the matching
+ * subscriptions, so each candidate must still evaluate its full predicate.
+ *
+ * <p>Changes are batched: the index is rebuilt by the first lookup that follows a change.
+ *
+ * @param <T> type of the value stored for each subscription
+ */
+public class SubscriptionIndex<T> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  private static final int MAX_TOKEN_LENGTH = 255;
+
+  private static final Pattern INDEXABLE_PHRASE =
+      Pattern.compile("\\s*[A-Za-z0-9]+\\s*|\"\\s*[A-Za-z0-9]+(\\s+[A-Za-z0-9]+)*\\s*\"");
+
+  private final Map<String, Subscription<T>> subscriptions = new LinkedHashMap<>();
+
+  private volatile Snapshot<T> snapshot = new Snapshot<>(Collections.emptyList());
+
+  /**
+   * Adds a subscription, replacing any subscription with the same id.
+   *
+   * @param id subscription id
+   * @param predicate predicate of the subscription, or {@code null} if it matches every event
+   * @param value value returned for the subscription when it is a candidate
+   */
+  public synchronized void add(String id, Predicate predicate, T value) {
+    subscriptions.put(id, new Subscription<>(value, getGuard(predicate)));
+    snapshot = null;
+  }
+
+  /**
+   * @param id subscription id
+   * @return the value of the removed subscription, or {@code null} if it was not found
+   */
+  public synchronized T remove(String id) {
+    Subscription<T> removed = subscriptions.remove(id);
+    if (removed == null) {
+      return null;
+    }
+    snapshot = null;
+    return removed.value;
+  }
+
+  public synchronized boolean isEmpty() {
+    return subscriptions.isEmpty();
+  }
+
+  public synchronized int size() {
+    return subscriptions.size();
+  }
+
+  /**
+   * Finds the subscriptions that may match an event published on {@link
+   * PubSubConstants#PUBLISHED_EVENT_TOPIC_NAME}.
+   *
+   * @param event published event
+   * @return values of the candidate subscriptions
+   */
+  public List<T> getCandidates(Event event) {
+    Snapshot<T> current = getSnapshot();
+    if (current.all.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Metacard entry = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+    String operation = (String) event.getProperty(PubSubConstants.HEADER_OPERATION_KEY);
+    Map<String, Object> contextualMap =
+        (Map<String, Object>) event.getProperty(PubSubConstants.HEADER_CONTEXTUAL_KEY);
+    String metadata = contextualMap == null ? null : (String) contextualMap.get("METADATA");
+
+    // Deleted entries without metadata match every geospatial, temporal and contextual criteria
+    if (entry == null
+        || (PubSubConstants.DELETE.equals(operation)
+            && PubSubConstants.METADATA_DELETED.equals(metadata))) {
+      return current.all;
+    }
+
+    List<T> candidates = new ArrayList<>(current.unindexed);
+
+    if (!current.geospatial.isEmpty()) {
+      Geometry location = parseLocation(entry.getLocation());
+      if (location == null) {
+        candidates.addAll(current.geospatial);
+      } else {
+        for (Object candidate : current.geospatialIndex.query(location.getEnvelopeInternal())) {
+          candidates.add(((Subscription<T>) candidate).value);
+        }
+      }
+    }
+
+    for (Map.Entry<DateType, IntervalTree<T>> temporal : current.temporalIndex.entrySet()) {
+      Date date = getDate(entry, temporal.getKey());
+      if (date == null) {
+        candidates.addAll(current.temporal.get(temporal.getKey()));
+      } else {
+        temporal.getValue().query(date.getTime(), candidates);
+      }
+    }
+
+    if (!current.contextual.isEmpty()) {
+      Set<String> terms = metadata == null ? Collections.emptySet() : getTerms(metadata);
+      if (terms == null) {
+        candidates.addAll(current.contextual);
+      } else if (terms.size() < current.termIndex.size()) {
+        for (String term : terms) {
+          candidates.addAll(current.termIndex.getOrDefault(term, Collections.emptyList()));
+        }
+      } else {
+        for (Map.Entry<String, List<T>> term : current.termIndex.entrySet()) {
+          if (terms.contains(term.getKey())) {
+            candidates.addAll(term.getValue());
+          }
+        }
+      }
+    }
+
+    LOGGER.debug(
+        "{} of {} subscriptions are candidates for entry {}",
+        candidates.size(),
+        current.all.size(),
+        entry.getId());
+    return candidates;
+  }
+
+  private Snapshot<T> getSnapshot() {
+    Snapshot<T> current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null) {
+          current = new Snapshot<>(new ArrayList<>(subscriptions.values()));
+          snapshot = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Finds a condition that must hold for the predicate to match. Only one side of a conjunction
+   * needs to be indexed; disjunctions and negations are never indexed.
+   */
+  private static Guard getGuard(Predicate predicate) {
+    if (predicate instanceof AndPredicate) {
+      Guard left = getGuard(((AndPredicate) predicate).getLeft());
+      Guard right = getGuard(((AndPredicate) predicate).getRight());
+      if (left == null) {
+        return right;
+      } else if (right == null) {
+        return left;
+      }
+      // Terms are the most selective condition, followed by areas
+      return right.rank() > left.rank() ? right : left;
+    } else if (predicate instanceof GeospatialPredicate) {
+      return getGeospatialGuard((GeospatialPredicate) predicate);
+    } else if (predicate instanceof TemporalPredicate) {
+      return getTemporalGuard((TemporalPredicate) predicate);
+    } else if (predicate instanceof ContextualPredicate) {
+      return getContextualGuard((ContextualPredicate) predicate);
+    }
+    return null;
+  }
+
+  private static Guard getGeospatialGuard(GeospatialPredicate predicate) {
+    Geometry criteria = predicate.getGeoCriteria();
+    if (criteria == null || criteria.isEmpty()) {
+      return null;
+    }
+    Envelope envelope = new Envelope(criteria.getEnvelopeInternal());
+    envelope.expandBy(Math.max(0, predicate.getDistance()));
+    return new GeospatialGuard(envelope);
+  }
+
+  private static Guard getTemporalGuard(TemporalPredicate predicate) {
+    // Relative periods move with the current time
+    if (predicate.getOffset() > 0 || predicate.getType() == null) {
+      return null;
+    }
+    Date start = predicate.getStart();
+    Date end = predicate.getEnd();
+    if (start == null && end == null) {
+      return null;
+    }
+    return new TemporalGuard(
+        predicate.getType(),
+        start == null ? Long.MIN_VALUE : start.getTime(),
+        end == null ? Long.MAX_VALUE : end.getTime());
+  }
+
+  private static Guard getContextualGuard(ContextualPredicate predicate) {
+    String phrase = predicate.getSearchPhrase();
+    if (predicate.isFuzzy() || phrase == null || !INDEXABLE_PHRASE.matcher(phrase).matches()) {
+      return null;
+    }
+
+    // A single word or an exact phrase requires each of its words, so index the longest one
+    String term = null;
+    for (String word : phrase.replace('"', ' ').trim().split("\\s+")) {
+      String lowerCaseWord = toLowerCase(word);
+      if (!StopAnalyzer.ENGLISH_STOP_WORDS_SET.contains(lowerCaseWord)
+          && lowerCaseWord.length() <= MAX_TOKEN_LENGTH
+          && (term == null || lowerCaseWord.length() > term.length())) {
+        term = lowerCaseWord;
+      }
+    }
+    return term == null ? null : new ContextualGuard(term);
+  }
+
+  /**
+   * Splits metadata into the lower case terms that {@link ContextualTokenizer} would produce for
+   * any of its text. Tags and attributes are included, so the result is a superset of the indexed
+   * terms.
+   *
+   * @return the terms, or {@code null} if the text cannot be determined without parsing the XML
+   */
+  static Set<String> getTerms(String metadata) {
+    if (metadata.contains("&#") || metadata.contains("<!")) {
+      return null;
+    }
+
+    Set<String> terms = new HashSet<>();
+    StringBuilder token = new StringBuilder();
+    int length = metadata.length();
+    for (int i = 0; i < length; i++) {
+      char c = metadata.charAt(i);
+      if (c == '&') {
+        int end = metadata.indexOf(';', i);
+        if (end > i) {
+          Character entity = getEntity(metadata.substring(i + 1, end));
+          if (entity != null) {
+            c = entity;
+            i = end;
+          }
+        }
+      }
+
+      if (Character.isLetterOrDigit(c) || ContextualTokenizer.SPECIAL_CHARACTERS_SET.contains(c)) {
+        token.append(Character.toLowerCase(c));
+        if (token.length() == MAX_TOKEN_LENGTH) {
+          terms.add(token.toString());
+          token.setLength(0);
+        }
+      } else if (token.length() > 0) {
+        terms.add(token.toString());
+        token.setLength(0);
+      }
+    }
+    if (token.length() > 0) {
+      terms.add(token.toString());
+    }
+    return terms;
+  }
+
+  private static Character getEntity(String name) {
+    switch (name) {
+      case "lt":
+        return '<';
+      case "gt":
+        return '>';
+      case "amp":
+        return '&';
+      case "quot":
+        return '"';
+      case "apos":
+        return '\'';
+      default:
+        return null;
+    }
+  }
+
+  private static String toLowerCase(String word) {
+    StringBuilder lowerCase = new StringBuilder(word.length());
+    for (int i = 0; i < word.length(); i++) {
+      lowerCase.append(Character.toLowerCase(word.charAt(i)));
+    }
+    return lowerCase.toString();
+  }
+
+  private static Geometry parseLocation(String wkt) {
+    if (wkt == null) {
+      return null;
+    }
+    try {
+      Geometry location = new WKTReader2().read(wkt);
+      return location.isEmpty() ? null : location;
+    } catch (ParseException | RuntimeException e) {
+      LOGGER.debug("Unable to parse location {}, checking all geospatial subscriptions", wkt, e);
+      return null;
+    }
+  }
+
+  /** Reads the same date as {@link TemporalPredicate#matches(Event)}. */
+  private static Date getDate(Metacard entry, DateType type) {
+    switch (type) {
+      case MODIFIED:
+        return entry.getModifiedDate();
+      case EFFECTIVE:
+        return entry.getEffectiveDate();
+      case EXPIRATION:
+        return entry.getExpirationDate();
+      case CREATED:
+        return entry.getCreatedDate();
+      default:
+        Attribute attribute = entry.getAttribute(type.getAttributeName());
+        Serializable value = attribute == null ? null : attribute.getValue();
+        return value instanceof Date ? (Date) value : null;
+    }
+  }
+
+  private static class Subscription<T> {
+
+    private final T value;
+
+    private final Guard guard;
+
+    Subscription(T value, Guard guard) {
+      this.value = value;
+      this.guard = guard;
+    }
+  }
+
+  private interface Guard {
+    int rank();
+  }
+
+  private static class GeospatialGuard implements Guard {
+
+    private final Envelope envelope;
+
+    GeospatialGuard(Envelope envelope) {
+      this.envelope = envelope;
+    }
+
+    @Override
+    public int rank() {
+      return 1;
+    }
+  }
+
+  private static class TemporalGuard implements Guard {
+
+    private final DateType type;
+
+    private final long start;
+
+    private final long end;
+
+    TemporalGuard(DateType type, long start, long end) {
+      this.type = type;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public int rank() {
+      return 0;
+    }
+  }
+
+  private static class ContextualGuard implements Guard {
+
+    private final String term;
+
+    ContextualGuard(String term) {
+      this.term = term;
+    }
+
+    @Override
+    public int rank() {
+      return 2;
+    }
+  }
+
+  /** Immutable indexes of the subscriptions at the time of the last change. */
+  private static class Snapshot<T> {
+
+    private final List<T> all = new ArrayList<>();
+
+    private final List<T> unindexed = new ArrayList<>();
+
+    private final List<T> geospatial = new ArrayList<>();
+
+    private final STRtree geospatialIndex = new STRtree();
+
+    private final Map<DateType, List<T>> temporal = new EnumMap<>(DateType.class);
+
+    private final Map<DateType, IntervalTree<T>> temporalIndex = new EnumMap<>(DateType.class);
+
+    private final List<T> contextual = new ArrayList<>();
+
+    private final Map<String, List<T>> termIndex = new HashMap<>();
+
+    Snapshot(Collection<Subscription<T>> subscriptions) {
+      Map<DateType, List<IntervalTree.Interval<T>>> intervals = new EnumMap<>(DateType.class);
+
+      for (Subscription<T> subscription : subscriptions) {
+        T value = subscription.value;
+        Guard guard = subscription.guard;
+        all.add(value);
+        if (guard instanceof GeospatialGuard) {
+          geospatial.add(value);
+          geospatialIndex.insert(((GeospatialGuard) guard).envelope, subscription);
+        } else if (guard instanceof TemporalGuard) {
+          TemporalGuard temporalGuard = (TemporalGuard) guard;
+          temporal.computeIfAbsent(temporalGuard.type, type -> new ArrayList<>()).add(value);
+          intervals
+              .computeIfAbsent(temporalGuard.type, type -> new ArrayList<>())
+              .add(new IntervalTree.Interval<>(temporalGuard.start, temporalGuard.end, value));
+        } else if (guard instanceof ContextualGuard) {
+          contextual.add(value);
+          termIndex
+              .computeIfAbsent(((ContextualGuard) guard).term, term -> new ArrayList<>())
+              .add(value);
+        } else {
+          unindexed.add(value);
+        }
+      }
+
+      // Build the tree now since STRtree builds itself lazily and is not thread safe
+      geospatialIndex.build();
+      for (Map.Entry<DateType, List<IntervalTree.Interval<T>>> entry : intervals.entrySet()) {
+        temporalIndex.put(entry.getKey(), new IntervalTree<>(entry.getValue()));
+      }
+    }
+  }
+}
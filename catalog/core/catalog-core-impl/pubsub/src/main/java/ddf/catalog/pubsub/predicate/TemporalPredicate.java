@@ -156,6 +156,11 @@ public DateType getType() {
     return type;
   }
 
+  /** @return length of the time period ending now in milliseconds, or 0 for an absolute period */
+  public long getOffset() {
+    return offset;
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder();
 
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.event.EventProcessor;
+import ddf.catalog.pubsub.internal.EventDispatcher;
+import ddf.catalog.pubsub.internal.EventDispatcher.OverflowPolicy;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+
+public class EventDispatcherTest {
+
+  private final BlockingEventHandler subscriptions = new BlockingEventHandler();
+
+  private EventDispatcher dispatcher;
+
+  @After
+  public void tearDown() {
+    subscriptions.release.countDown();
+    if (dispatcher != null) {
+      dispatcher.stop();
+    }
+  }
+
+  @Test
+  public void testPublishesEvents() throws Exception {
+    subscriptions.release.countDown();
+    dispatcher = new EventDispatcher(subscriptions, 10, 2, 5, OverflowPolicy.DROP_NEWEST);
+
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("1"));
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_DELETED, metacard("2"));
+
+    subscriptions.awaitPublished(2);
+    assertThat(subscriptions.operations.contains(PubSubConstants.CREATE), is(true));
+    assertThat(subscriptions.operations.contains(PubSubConstants.DELETE), is(true));
+    assertThat(dispatcher.getDispatchedCount(), is(2L));
+    assertThat(dispatcher.getDroppedCount(), is(0L));
+  }
+
+  @Test
+  public void testDropNewest() throws Exception {
+    dispatcher = startBlocked(OverflowPolicy.DROP_NEWEST);
+
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("queued"));
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("dropped"));
+
+    assertThat(dispatcher.getQueueDepth(), is(1));
+    assertThat(dispatcher.getDroppedCount(), is(1L));
+
+    subscriptions.release.countDown();
+    subscriptions.awaitPublished(2);
+    assertThat(subscriptions.ids, contains("blocking", "queued"));
+  }
+
+  @Test
+  public void testDropOldest() throws Exception {
+    dispatcher = startBlocked(OverflowPolicy.DROP_OLDEST);
+
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("dropped"));
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("queued"));
+
+    assertThat(dispatcher.getQueueDepth(), is(1));
+    assertThat(dispatcher.getDroppedCount(), is(1L));
+
+    subscriptions.release.countDown();
+    subscriptions.awaitPublished(2);
+    assertThat(subscriptions.ids, contains("blocking", "queued"));
+  }
+
+  @Test
+  public void testCallerRuns() throws Exception {
+    dispatcher = startBlocked(OverflowPolicy.CALLER_RUNS);
+
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("queued"));
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_UPDATED, metacard("caller"));
+
+    assertThat(subscriptions.ids, contains("caller"));
+    assertThat(dispatcher.getCallerRunsCount(), is(1L));
+    assertThat(dispatcher.getDroppedCount(), is(0L));
+
+    subscriptions.release.countDown();
+    subscriptions.awaitPublished(3);
+    assertThat(subscriptions.ids, contains("caller", "blocking", "queued"));
+  }
+
+  @Test
+  public void testIgnoresEventsAfterStop() {
+    subscriptions.release.countDown();
+    dispatcher = new EventDispatcher(subscriptions, 1, 1, 1, OverflowPolicy.CALLER_RUNS);
+    dispatcher.start();
+    dispatcher.stop();
+
+    dispatcher.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("1"));
+
+    assertThat(dispatcher.getQueueDepth(), is(0));
+    assertThat(subscriptions.ids.isEmpty(), is(true));
+  }
+
+  @Test
+  public void testDefaultPolicyDoesNotRunOnCaller() {
+    System.clearProperty(EventDispatcher.OVERFLOW_POLICY_PROPERTY);
+
+    assertThat(
+        EventDispatcher.fromSystemProperties(subscriptions).getOverflowPolicy(),
+        is(OverflowPolicy.DROP_NEWEST.name()));
+  }
+
+  /** Starts a dispatcher with a single worker that is blocked publishing an event. */
+  private EventDispatcher startBlocked(OverflowPolicy overflowPolicy) throws Exception {
+    EventDispatcher blocked = new EventDispatcher(subscriptions, 1, 1, 1, overflowPolicy);
+    blocked.dispatch(EventProcessor.EVENTS_TOPIC_CREATED, metacard("blocking"));
+    assertTrue(subscriptions.blocked.await(5, TimeUnit.SECONDS));
+    return blocked;
+  }
+
+  private static Metacard metacard(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    return metacard;
+  }
+
+  /** Blocks the first event it receives until released. */
+  private static class BlockingEventHandler implements EventHandler {
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<String> ids = new CopyOnWriteArrayList<>();
+
+    private final List<String> operations = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void handleEvent(Event event) {
+      Metacard metacard = (Metacard) event.getProperty(PubSubConstants.HEADER_ENTRY_KEY);
+      if ("blocking".equals(metacard.getId())) {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      ids.add(metacard.getId());
+      operations.add((String) event.getProperty(PubSubConstants.HEADER_OPERATION_KEY));
+    }
+
+    void awaitPublished(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ids.size() < count && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertThat(ids.size(), is(count));
+    }
+  }
+}
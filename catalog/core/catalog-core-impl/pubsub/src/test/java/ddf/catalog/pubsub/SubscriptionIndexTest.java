@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.SubscriptionIndex;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.NotPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+public class SubscriptionIndexTest {
+
+  private static final String METADATA =
+      "<Resource><title>Dogs &amp; cats</title><description>Sighting</description></Resource>";
+
+  private SubscriptionIndex<String> index;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex<>();
+  }
+
+  @Test
+  public void testUnindexedSubscriptionsAreAlwaysCandidates() {
+    index.add("all", null, "all");
+    index.add("or", new OrPredicate(contextual("cat"), contextual("bird")), "or");
+    index.add("not", new NotPredicate(contextual("dogs")), "not");
+    index.add("fuzzy", new ContextualPredicate("bird", true, false, null), "fuzzy");
+    index.add("any", new ContextualPredicate("bird fish", false, false, null), "any");
+
+    assertThat(
+        index.getCandidates(event("POINT (0 0)", new Date(0), METADATA)),
+        containsInAnyOrder("all", "or", "not", "fuzzy", "any"));
+  }
+
+  @Test
+  public void testGeospatialCandidates() {
+    index.add("inside", geospatial("POLYGON ((0 0, 0 10, 10 10, 10 0, 0 0))", 0), "inside");
+    index.add("outside", geospatial("POLYGON ((20 20, 20 30, 30 30, 30 20, 20 20))", 0), "outside");
+    index.add("near", geospatial("POINT (12 5)", 2.5), "near");
+
+    assertThat(
+        index.getCandidates(event("POINT (10 5)", null, null)),
+        containsInAnyOrder("inside", "near"));
+    assertThat(index.getCandidates(event("POINT (40 40)", null, null)), is(empty()));
+  }
+
+  @Test
+  public void testUnknownLocationChecksAllGeospatialSubscriptions() {
+    index.add("inside", geospatial("POLYGON ((0 0, 0 10, 10 10, 10 0, 0 0))", 0), "inside");
+    index.add("outside", geospatial("POLYGON ((20 20, 20 30, 30 30, 30 20, 20 20))", 0), "outside");
+
+    assertThat(
+        index.getCandidates(event(null, null, null)), containsInAnyOrder("inside", "outside"));
+    assertThat(
+        index.getCandidates(event("not wkt", null, null)),
+        containsInAnyOrder("inside", "outside"));
+  }
+
+  @Test
+  public void testTemporalCandidates() {
+    index.add("before", temporal(null, 100L), "before");
+    index.add("during", temporal(100L, 200L), "during");
+    index.add("after", temporal(200L, null), "after");
+    index.add("later", temporal(300L, 400L), "later");
+    index.add("relative", new TemporalPredicate(1000L, DateType.MODIFIED), "relative");
+    index.add(
+        "created", new TemporalPredicate(new Date(0), new Date(10), DateType.CREATED), "created");
+
+    assertThat(
+        index.getCandidates(event(null, new Date(100L), null)),
+        containsInAnyOrder("before", "during", "relative"));
+    assertThat(
+        index.getCandidates(event(null, new Date(250L), null)),
+        containsInAnyOrder("after", "relative"));
+    assertThat(
+        index.getCandidates(event(null, new Date(300L), null)),
+        containsInAnyOrder("after", "later", "relative"));
+  }
+
+  @Test
+  public void testContextualCandidates() {
+    index.add("dogs", contextual("Dogs"), "dogs");
+    index.add("phrase", contextual("\"dogs and cats\""), "phrase");
+    index.add("birds", contextual("birds"), "birds");
+    index.add(
+        "caseSensitive", new ContextualPredicate("sighting", false, true, null), "caseSensitive");
+
+    assertThat(
+        index.getCandidates(event(null, null, METADATA)),
+        containsInAnyOrder("dogs", "phrase", "caseSensitive"));
+    assertThat(index.getCandidates(event(null, null, "<Resource/>")), is(empty()));
+  }
+
+  @Test
+  public void testConjunctionIsIndexedByEitherSide() {
+    Predicate area = geospatial("POLYGON ((0 0, 0 10, 10 10, 10 0, 0 0))", 0);
+    index.add("dogsInArea", new AndPredicate(area, contextual("dogs")), "dogsInArea");
+    index.add("birdsInArea", new AndPredicate(contextual("birds"), area), "birdsInArea");
+    index.add(
+        "anyInArea", new AndPredicate(area, new NotPredicate(contextual("birds"))), "anyInArea");
+
+    assertThat(
+        index.getCandidates(event("POINT (5 5)", null, METADATA)),
+        containsInAnyOrder("dogsInArea", "anyInArea"));
+    assertThat(
+        index.getCandidates(event("POINT (50 50)", null, METADATA)),
+        containsInAnyOrder("dogsInArea"));
+  }
+
+  @Test
+  public void testDeletedEntriesMatchEverySubscription() {
+    index.add("inside", geospatial("POLYGON ((0 0, 0 10, 10 10, 10 0, 0 0))", 0), "inside");
+    index.add("birds", contextual("birds"), "birds");
+
+    assertThat(
+        index.getCandidates(deleteEvent("POINT (50 50)")), containsInAnyOrder("inside", "birds"));
+  }
+
+  @Test
+  public void testRemove() {
+    index.add("dogs", contextual("dogs"), "dogs");
+    index.add("all", null, "all");
+    assertThat(index.getCandidates(event(null, null, METADATA)), containsInAnyOrder("dogs", "all"));
+
+    assertThat(index.remove("dogs"), is("dogs"));
+    assertThat(index.remove("dogs"), is((String) null));
+
+    assertThat(index.getCandidates(event(null, null, METADATA)), containsInAnyOrder("all"));
+    index.remove("all");
+    assertThat(index.isEmpty(), is(true));
+    assertThat(index.getCandidates(event(null, null, METADATA)), is(empty()));
+  }
+
+  private static Predicate geospatial(String wkt, double distance) {
+    return new GeospatialPredicate(wkt, "OVERLAPS", distance);
+  }
+
+  private static Predicate temporal(Long start, Long end) {
+    return new TemporalPredicate(
+        start == null ? null : new Date(start),
+        end == null ? null : new Date(end),
+        DateType.MODIFIED);
+  }
+
+  private static Predicate contextual(String phrase) {
+    return new ContextualPredicate(phrase, false, false, null);
+  }
+
+  private static Event event(String location, Date modified, String metadata) {
+    return event(location, modified, metadata, PubSubConstants.CREATE);
+  }
+
+  private static Event deleteEvent(String location) {
+    return event(location, null, PubSubConstants.METADATA_DELETED, PubSubConstants.DELETE);
+  }
+
+  private static Event event(String location, Date modified, String metadata, String operation) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setLocation(location);
+    metacard.setCreatedDate(modified);
+    metacard.setModifiedDate(modified);
+    metacard.setMetadata(metadata);
+
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
+    if (metadata != null) {
+      Map<String, Object> contextualMap = new HashMap<>();
+      contextualMap.put("METADATA", metadata);
+      properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+    }
+    return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+  }
+}
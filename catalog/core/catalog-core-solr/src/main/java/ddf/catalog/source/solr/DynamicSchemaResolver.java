@@ -26,14 +26,11 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.Validation;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.io.StringReader;
 import java.nio.charset.Charset;
@@ -327,14 +324,11 @@ void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                     + getSpecialIndexSuffix(AttributeFormat.STRING),
                 attributeValues);
           } else if (AttributeFormat.OBJECT.equals(format)) {
-            ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
             List<Serializable> byteArrays = new ArrayList<>();
 
-            try (ObjectOutputStream out = new ObjectOutputStream(byteArrayOS)) {
+            try {
               for (Serializable serializable : attributeValues) {
-                out.writeObject(serializable);
-                byteArrays.add(byteArrayOS.toByteArray());
-                out.reset();
+                byteArrays.add(MetacardCodec.encodeValue(serializable));
               }
             } catch (IOException e) {
               throw new MetacardCreationException(COULD_NOT_SERIALIZE_OBJECT_MESSAGE, e);
@@ -517,8 +511,6 @@ List<Serializable> getDocValues(String solrFieldName, Collection<Object> docValu
     return values;
   }
 
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   private Serializable getDocValue(String solrFieldName, Object docValue) {
 
     AttributeFormat format = getType(solrFieldName);
@@ -531,22 +523,11 @@ private Serializable getDocValue(String solrFieldName, Object docValue) {
        */
       return Short.parseShort(docValue.toString());
     } else if (AttributeFormat.OBJECT.equals(format)) {
-
-      ByteArrayInputStream bais = null;
-      ObjectInputStream in = null;
-
+      // Values indexed before MetacardCodec was introduced are Java serialized
       try {
-        bais = new ByteArrayInputStream((byte[]) docValue);
-        in = new ObjectInputStream(bais);
-        return (Serializable) in.readObject();
+        return MetacardCodec.decodeValue((byte[]) docValue);
       } catch (IOException e) {
-        LOGGER.info("IO exception loading input document", e);
-      } catch (ClassNotFoundException e) {
         LOGGER.info("Could not create object to return.", e);
-        // TODO which exception to throw?
-      } finally {
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
       }
 
       return null;
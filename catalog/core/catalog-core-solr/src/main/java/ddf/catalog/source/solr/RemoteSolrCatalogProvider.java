@@ -14,6 +14,7 @@
 package ddf.catalog.source.solr;
 
 import ddf.catalog.data.ContentType;
+import ddf.catalog.data.Result;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
@@ -32,6 +33,7 @@
 import java.io.InputStream;
 import java.util.Properties;
 import java.util.Set;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.codice.solr.client.solrj.SolrClient;
 import org.slf4j.Logger;
@@ -128,6 +130,11 @@ public SourceResponse query(QueryRequest queryRequest) throws UnsupportedQueryEx
     return provider.query(queryRequest);
   }
 
+  /** @see SolrCatalogProvider#stream(QueryRequest) */
+  public Stream<Result> stream(QueryRequest queryRequest) throws UnsupportedQueryException {
+    return provider.stream(queryRequest);
+  }
+
   @Override
   public String getDescription() {
     return DESCRIBABLE_PROPERTIES.getProperty("description", "");
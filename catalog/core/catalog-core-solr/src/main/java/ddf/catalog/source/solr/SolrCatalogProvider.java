@@ -16,6 +16,7 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.filter.FilterAdapter;
@@ -52,6 +53,7 @@
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
@@ -195,6 +197,16 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return response;
   }
 
+  /**
+   * Streams the results of a query, paging through Solr with a cursor so that only a bounded
+   * window of results is held in memory.
+   *
+   * @see SolrMetacardClient#stream(QueryRequest)
+   */
+  public Stream<Result> stream(QueryRequest request) throws UnsupportedQueryException {
+    return client.stream(request);
+  }
+
   @Override
   public CreateResponse create(CreateRequest request) throws IngestException {
     nonNull(request);
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Metacard;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.SortClause;
+import org.apache.solr.client.solrj.SolrRequest.METHOD;
+import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.codice.solr.client.solrj.SolrClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterates over every {@link SolrDocument} matching a {@link SolrQuery} using Solr's {@code
+ * cursorMark} deep paging. Only one page of documents, sized by the query's {@code rows}, is held
+ * in memory at a time and the next page is only requested once the current one has been consumed.
+ *
+ * <p>Failures while requesting a page are thrown as a {@link SolrException} or {@link
+ * UncheckedIOException} from {@link #hasNext()}.
+ */
+class SolrCursorIterator implements Iterator<SolrDocument> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SolrCursorIterator.class);
+
+  /** Field declared as the {@code uniqueKey} of the catalog schema. */
+  static final String UNIQUE_KEY_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
+  private final SolrClient client;
+
+  private final SolrQuery query;
+
+  private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+
+  private Iterator<SolrDocument> page = Collections.emptyIterator();
+
+  private boolean lastPage = false;
+
+  private long numFound = -1;
+
+  /**
+   * @param client client used to request each page
+   * @param query query to page through, which must have been prepared with {@link
+   *     #prepareCursorQuery(SolrQuery)}
+   */
+  SolrCursorIterator(SolrClient client, SolrQuery query) {
+    this.client = client;
+    this.query = query;
+  }
+
+  /**
+   * Creates an iterator that starts with a page that has already been retrieved with the initial
+   * cursor mark.
+   *
+   * @param client client used to request each subsequent page
+   * @param query query to page through, which must have been prepared with {@link
+   *     #prepareCursorQuery(SolrQuery)}
+   * @param firstResponse response to the query with {@link CursorMarkParams#CURSOR_MARK_START}
+   */
+  SolrCursorIterator(SolrClient client, SolrQuery query, QueryResponse firstResponse) {
+    this(client, query);
+    acceptPage(firstResponse);
+  }
+
+  /**
+   * Prepares a query for cursor paging: cursors cannot be combined with a start offset and require
+   * the sort to end on the unique key so that every document has a distinct position.
+   *
+   * @param query query to prepare
+   * @return the query, starting at the first cursor mark
+   */
+  static SolrQuery prepareCursorQuery(SolrQuery query) {
+    query.setStart(0);
+
+    boolean sortsOnUniqueKey = false;
+    for (SortClause sort : query.getSorts()) {
+      if (UNIQUE_KEY_FIELD.equals(sort.getItem())) {
+        sortsOnUniqueKey = true;
+      }
+    }
+    if (!sortsOnUniqueKey) {
+      query.addSort(UNIQUE_KEY_FIELD, SolrQuery.ORDER.asc);
+    }
+
+    query.set(CursorMarkParams.CURSOR_MARK_PARAM, CursorMarkParams.CURSOR_MARK_START);
+    return query;
+  }
+
+  /** @return total number of matching documents, or -1 if no page has been retrieved yet */
+  long getNumFound() {
+    return numFound;
+  }
+
+  /** @return the cursor mark that will be used to request the next page */
+  String getCursorMark() {
+    return cursorMark;
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!page.hasNext() && !lastPage) {
+      fetchNextPage();
+    }
+    return page.hasNext();
+  }
+
+  @Override
+  public SolrDocument next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("No more documents match the query");
+    }
+    return page.next();
+  }
+
+  private void fetchNextPage() {
+    query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    try {
+      acceptPage(client.query(query, METHOD.POST));
+    } catch (SolrServerException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR, "Could not retrieve next page of results.", e);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not retrieve next page of results.", e);
+    }
+  }
+
+  private void acceptPage(QueryResponse response) {
+    SolrDocumentList docs = response.getResults();
+    String nextCursorMark = response.getNextCursorMark();
+
+    if (docs == null) {
+      page = Collections.emptyIterator();
+      lastPage = true;
+      return;
+    }
+
+    numFound = docs.getNumFound();
+    page = docs.iterator();
+
+    // Solr signals the end of the results by returning the cursor mark it was given
+    lastPage = nextCursorMark == null || nextCursorMark.equals(cursorMark);
+    if (nextCursorMark != null) {
+      cursorMark = nextCursorMark;
+    }
+    LOGGER.trace("Retrieved {} of {} documents, last page: {}", docs.size(), numFound, lastPage);
+  }
+}
@@ -16,6 +16,7 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.source.UnsupportedQueryException;
@@ -23,6 +24,7 @@
 import java.io.Serializable;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
@@ -39,6 +41,20 @@ public interface SolrMetacardClient {
    */
   SourceResponse query(QueryRequest request) throws UnsupportedQueryException;
 
+  /**
+   * Converts a {@link QueryRequest} into a Solr query and lazily streams its results. Solr is paged
+   * through with a cursor, so only a bounded window of documents is held in memory regardless of
+   * the number of matches. The start index and page size of the query are honored; a page size
+   * that requests all records streams every match.
+   *
+   * <p>Errors that occur while advancing the stream are thrown as unchecked exceptions.
+   *
+   * @param request query request to execute against Solr
+   * @return stream of results in query sort order
+   * @throws UnsupportedQueryException if the query is not supported
+   */
+  Stream<Result> stream(QueryRequest request) throws UnsupportedQueryException;
+
   /**
    * Runs a Solr query and converts the result as a list of {@link Metacard} objects.
    *
@@ -14,8 +14,10 @@
 package ddf.catalog.source.solr;
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -42,16 +44,20 @@
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.FacetAttributeResult;
+import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.TermFacetProperties;
 import ddf.catalog.operation.impl.FacetAttributeResultImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.measure.Distance;
 import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.AbstractMap;
@@ -65,8 +71,12 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.solr.client.solrj.SolrQuery;
@@ -83,6 +93,7 @@
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.codice.solr.client.solrj.SolrClient;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
@@ -126,6 +137,11 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private static final String RESOURCE_ATTRIBUTE = "resource";
 
+  private static final String SOLR_QUERY_CURSOR_PAGE_SIZE = "solr.query.cursorPageSize";
+
+  private static final int CURSOR_PAGE_SIZE =
+      Math.max(NumberUtils.toInt(accessProperty(SOLR_QUERY_CURSOR_PAGE_SIZE, "1000")), 1);
+
   private final SolrClient client;
 
   private final SolrFilterDelegateFactory filterDelegateFactory;
@@ -200,9 +216,11 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     Serializable suggestContext = request.getPropertyValue(SUGGESTION_CONTEXT_KEY);
     Serializable suggestDict = request.getPropertyValue(SUGGESTION_DICT_KEY);
 
-    if (suggestQuery instanceof String
-        && suggestContext instanceof String
-        && suggestDict instanceof String) {
+    boolean isSuggestionQuery =
+        suggestQuery instanceof String
+            && suggestContext instanceof String
+            && suggestDict instanceof String;
+    if (isSuggestionQuery) {
       query = new SolrQuery();
       query.setRequestHandler("/suggest");
       query.setParam(SUGGEST_Q, (String) suggestQuery);
@@ -220,6 +238,9 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
 
     Boolean userSpellcheckIsOn = userSpellcheckIsOn(request);
 
+    String cursorMark = null;
+    boolean pageAllRecords = false;
+
     try {
       QueryResponse solrResponse;
       Boolean doRealTimeGet = filterAdapter.adapt(request.getQuery(), new RealTimeGetDelegate());
@@ -229,6 +250,17 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         SolrQuery realTimeQuery = getRealTimeQuery(query, solrFilterDelegate.getIds());
         solrResponse = client.query(realTimeQuery, METHOD.POST);
       } else {
+        if (!isSuggestionQuery) {
+          cursorMark = getCursorMark(request);
+          pageAllRecords = cursorMark == null && queryingForAllRecords(request);
+        }
+        if (cursorMark != null || pageAllRecords) {
+          SolrCursorIterator.prepareCursorQuery(query);
+          if (cursorMark != null) {
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+          }
+        }
+
         query.setParam("spellcheck", userSpellcheckIsOn);
         solrResponse = client.query(query, METHOD.POST);
       }
@@ -253,21 +285,31 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       }
 
       SolrDocumentList docs = solrResponse.getResults();
-      int originalQueryResultsSize = 0;
+      long originalQueryResultsSize = 0;
       if (docs != null) {
-        originalQueryResultsSize = docs.size();
+        originalQueryResultsSize = pageAllRecords ? docs.getNumFound() : docs.size();
         totalHits = docs.getNumFound();
-        addDocsToResults(docs, results);
+        addDocsToResults(query, solrResponse, pageAllRecords, request, results);
+        if (cursorMark != null) {
+          responseProps.put(NEXT_CURSOR_MARK_KEY, solrResponse.getNextCursorMark());
+        }
 
         if (userSpellcheckIsOn && solrSpellcheckHasResults(solrResponse)) {
           query.set("q", findQueryToResend(query, solrResponse));
           query.set("spellcheck", false);
+          if (pageAllRecords) {
+            query.set(CursorMarkParams.CURSOR_MARK_PARAM, CursorMarkParams.CURSOR_MARK_START);
+          }
           QueryResponse solrResponseRequery = client.query(query, METHOD.POST);
           docs = solrResponseRequery.getResults();
-          if (docs != null && docs.size() > originalQueryResultsSize) {
+          if (docs != null
+              && (pageAllRecords ? docs.getNumFound() : docs.size()) > originalQueryResultsSize) {
             results = new ArrayList<>();
             totalHits = docs.getNumFound();
-            addDocsToResults(docs, results);
+            addDocsToResults(query, solrResponseRequery, pageAllRecords, request, results);
+            if (cursorMark != null) {
+              responseProps.put(NEXT_CURSOR_MARK_KEY, solrResponseRequery.getNextCursorMark());
+            }
 
             responseProps.put(
                 DID_YOU_MEAN_KEY, (Serializable) getSearchTermFieldValues(solrResponse));
@@ -287,7 +329,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         }
       }
 
-    } catch (SolrServerException | IOException | SolrException e) {
+    } catch (SolrServerException | IOException | UncheckedIOException | SolrException e) {
       throw new UnsupportedQueryException("Could not complete solr query.", e);
     }
 
@@ -295,6 +337,88 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return new SourceResponseImpl(request, responseProps, results, totalHits);
   }
 
+  @Override
+  public Stream<Result> stream(QueryRequest request) throws UnsupportedQueryException {
+    if (request == null || request.getQuery() == null) {
+      return Stream.empty();
+    }
+
+    Query originalQuery = request.getQuery();
+    QueryRequest pageRequest =
+        new QueryRequestImpl(
+            new QueryImpl(
+                originalQuery,
+                1,
+                CURSOR_PAGE_SIZE,
+                originalQuery.getSortBy(),
+                false,
+                originalQuery.getTimeoutMillis()),
+            request.isEnterprise(),
+            request.getSourceIds(),
+            request.getProperties());
+
+    SolrFilterDelegate solrFilterDelegate =
+        filterDelegateFactory.newInstance(resolver, pageRequest.getProperties());
+    SolrQuery query =
+        SolrCursorIterator.prepareCursorQuery(getSolrQuery(pageRequest, solrFilterDelegate));
+
+    Stream<Result> results =
+        StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(
+                    new SolrCursorIterator(client, query),
+                    Spliterator.ORDERED | Spliterator.NONNULL),
+                false)
+            .map(this::createStreamedResult)
+            .skip(Math.max(originalQuery.getStartIndex() - 1, 0));
+
+    return originalQuery.getPageSize() > 0 && !queryingForAllRecords(request)
+        ? results.limit(originalQuery.getPageSize())
+        : results;
+  }
+
+  private Result createStreamedResult(SolrDocument doc) {
+    try {
+      return createResult(doc);
+    } catch (MetacardCreationException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR, "Could not create result metacard.", e);
+    }
+  }
+
+  private String getCursorMark(QueryRequest request) {
+    Serializable cursorMark = request.getPropertyValue(CURSOR_MARK_KEY);
+    return cursorMark instanceof String ? (String) cursorMark : null;
+  }
+
+  private void addDocsToResults(
+      SolrQuery query,
+      QueryResponse solrResponse,
+      boolean pageAllRecords,
+      QueryRequest request,
+      List<Result> results)
+      throws UnsupportedQueryException {
+    if (!pageAllRecords) {
+      addDocsToResults(solrResponse.getResults(), results);
+      return;
+    }
+
+    // Cursors cannot be combined with a start offset, so skip up to the start index instead
+    long toSkip = Math.max(request.getQuery().getStartIndex() - 1L, 0L);
+    SolrCursorIterator cursor = new SolrCursorIterator(client, query, solrResponse);
+    while (cursor.hasNext()) {
+      SolrDocument doc = cursor.next();
+      if (toSkip > 0) {
+        toSkip--;
+        continue;
+      }
+      try {
+        results.add(createResult(doc));
+      } catch (MetacardCreationException e) {
+        throw new UnsupportedQueryException("Could not create result metacard(s).", e);
+      }
+    }
+  }
+
   private List<String> getSearchTermFieldValues(QueryResponse solrResponse) {
     Set<String> fieldValues = solrResponse.getSpellCheckResponse().getSuggestionMap().keySet();
     removeResourceFieldValue(fieldValues);
@@ -578,11 +702,8 @@ protected SolrQuery postAdapt(
     query.setStart(request.getQuery().getStartIndex() - 1);
 
     if (queryingForAllRecords(request)) {
-      try {
-        query.setRows(queryForNumberOfRows(query));
-      } catch (SolrServerException | IOException | SolrException | ArithmeticException exception) {
-        throw new UnsupportedQueryException("Could not retrieve number of records.", exception);
-      }
+      // All records are paged through with a cursor, one window of rows at a time
+      query.setRows(CURSOR_PAGE_SIZE);
     } else {
       query.setRows(request.getQuery().getPageSize());
     }
@@ -659,14 +780,6 @@ private boolean queryingForAllRecords(QueryRequest request) {
     return request.getQuery().getPageSize() < 0;
   }
 
-  private int queryForNumberOfRows(SolrQuery query) throws SolrServerException, IOException {
-    int numRows;
-    query.setRows(0);
-    QueryResponse solrResponse = client.query(query, METHOD.POST);
-    numRows = Math.toIntExact(solrResponse.getResults().getNumFound());
-    return numRows;
-  }
-
   private void addDistanceSort(
       SolrQuery query, String sortField, SolrQuery.ORDER order, SolrFilterDelegate delegate) {
     if (delegate.isSortedByDistance()) {
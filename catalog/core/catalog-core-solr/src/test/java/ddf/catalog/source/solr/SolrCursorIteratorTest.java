@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrQuery.SortClause;
+import org.apache.solr.client.solrj.SolrRequest;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.codice.solr.client.solrj.SolrClient;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SolrCursorIteratorTest {
+
+  private SolrClient client;
+
+  private List<String> requestedCursorMarks;
+
+  @Before
+  public void setup() {
+    client = mock(SolrClient.class);
+    requestedCursorMarks = new ArrayList<>();
+  }
+
+  @Test
+  public void testPrepareCursorQueryAddsUniqueKeySort() {
+    SolrQuery query = new SolrQuery("*:*");
+    query.setStart(10);
+    query.addSort("title_txt", SolrQuery.ORDER.desc);
+
+    SolrCursorIterator.prepareCursorQuery(query);
+
+    assertThat(query.getStart(), is(0));
+    assertThat(
+        query.getSorts(),
+        contains(
+            new SortClause("title_txt", SolrQuery.ORDER.desc),
+            new SortClause(SolrCursorIterator.UNIQUE_KEY_FIELD, SolrQuery.ORDER.asc)));
+    assertThat(
+        query.get(CursorMarkParams.CURSOR_MARK_PARAM), is(CursorMarkParams.CURSOR_MARK_START));
+  }
+
+  @Test
+  public void testPrepareCursorQueryKeepsExistingUniqueKeySort() {
+    SolrQuery query = new SolrQuery("*:*");
+    query.addSort(SolrCursorIterator.UNIQUE_KEY_FIELD, SolrQuery.ORDER.desc);
+
+    SolrCursorIterator.prepareCursorQuery(query);
+
+    assertThat(
+        query.getSorts(),
+        contains(new SortClause(SolrCursorIterator.UNIQUE_KEY_FIELD, SolrQuery.ORDER.desc)));
+  }
+
+  @Test
+  public void testIteratesAllPages() throws Exception {
+    SolrQuery query = SolrCursorIterator.prepareCursorQuery(new SolrQuery("*:*"));
+    QueryResponse page1 = response(5, "a", "1", "2");
+    QueryResponse page2 = response(5, "b", "3", "4");
+    QueryResponse page3 = response(5, "c", "5");
+    QueryResponse lastPage = response(5, "c");
+    when(client.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST)))
+        .thenAnswer(
+            invocation -> {
+              requestedCursorMarks.add(
+                  ((SolrQuery) invocation.getArguments()[0])
+                      .get(CursorMarkParams.CURSOR_MARK_PARAM));
+              return new QueryResponse[] {page1, page2, page3, lastPage}[
+                  requestedCursorMarks.size() - 1];
+            });
+
+    SolrCursorIterator iterator = new SolrCursorIterator(client, query);
+    List<Object> ids = new ArrayList<>();
+    iterator.forEachRemaining(doc -> ids.add(doc.getFieldValue("id_txt")));
+
+    assertThat(ids, contains("1", "2", "3", "4", "5"));
+    assertThat(requestedCursorMarks, contains("*", "a", "b", "c"));
+    assertThat(iterator.getNumFound(), is(5L));
+  }
+
+  @Test
+  public void testStartsWithFirstResponse() throws Exception {
+    SolrQuery query = SolrCursorIterator.prepareCursorQuery(new SolrQuery("*:*"));
+    QueryResponse firstPage = response(2, "a", "1", "2");
+    QueryResponse lastPage = response(2, "a");
+    when(client.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST))).thenReturn(lastPage);
+
+    SolrCursorIterator iterator = new SolrCursorIterator(client, query, firstPage);
+    List<Object> ids = new ArrayList<>();
+    iterator.forEachRemaining(doc -> ids.add(doc.getFieldValue("id_txt")));
+
+    assertThat(ids, contains("1", "2"));
+    verify(client, times(1)).query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST));
+    assertThat(query.getParams(CursorMarkParams.CURSOR_MARK_PARAM)[0], is("a"));
+  }
+
+  @Test
+  public void testEmptyResults() throws Exception {
+    SolrQuery query = SolrCursorIterator.prepareCursorQuery(new SolrQuery("*:*"));
+    QueryResponse emptyPage = response(0, CursorMarkParams.CURSOR_MARK_START);
+    when(client.query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST))).thenReturn(emptyPage);
+
+    SolrCursorIterator iterator = new SolrCursorIterator(client, query);
+
+    assertThat(iterator.hasNext(), is(false));
+    assertThat(iterator.hasNext(), is(false));
+    verify(client, times(1)).query(any(SolrQuery.class), eq(SolrRequest.METHOD.POST));
+  }
+
+  private static QueryResponse response(long numFound, String nextCursorMark, String... ids) {
+    SolrDocumentList docs = new SolrDocumentList();
+    docs.setNumFound(numFound);
+    for (String id : ids) {
+      SolrDocument doc = new SolrDocument();
+      doc.setField("id_txt", id);
+      docs.add(doc);
+    }
+
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults()).thenReturn(docs);
+    when(response.getNextCursorMark()).thenReturn(nextCursorMark);
+    return response;
+  }
+}
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache;
+
+import ddf.catalog.operation.QueryResponse;
+import java.io.Serializable;
+
+/**
+ * Receives the partial results of a federated query executed in {@code progressive} mode.
+ *
+ * <p>A query opts into progressive delivery by setting its {@code mode} property to {@code
+ * progressive} and its {@link #PROGRESSIVE_QUERY_LISTENER} property to an implementation of this
+ * interface. Each time a source completes, successfully or not, the listener receives the page as
+ * merged and sorted from every source that has completed so far, along with the {@link
+ * ddf.catalog.operation.ProcessingDetails} of the source that just completed. Once every source has
+ * completed or the query has timed out, the listener receives the final page, which is the same
+ * page returned by the federation strategy.
+ *
+ * <p>Callbacks are made from the federation thread that merges the source responses, so
+ * implementations should return quickly.
+ */
+public interface ProgressiveQueryListener extends Serializable {
+
+  /** Query request property holding the {@link ProgressiveQueryListener} for the query. */
+  String PROGRESSIVE_QUERY_LISTENER = "progressive-query-listener";
+
+  /**
+   * Called each time a source completes.
+   *
+   * @param sourceId id of the source that just completed
+   * @param partialResponse the page merged from every completed source, the hits reported by those
+   *     sources and the processing details of {@code sourceId}
+   */
+  void onPartialResponse(String sourceId, QueryResponse partialResponse);
+
+  /**
+   * Called once when the final, re-ranked page is available. No further callbacks are made.
+   *
+   * @param finalResponse the final page, total hits and processing details of every source
+   */
+  void onFinalResponse(QueryResponse finalResponse);
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MapStoreConfig;
+import com.hazelcast.config.SSLConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.merge.PassThroughMergePolicy;
+import ddf.catalog.resource.data.ReliableResource;
+import java.util.Arrays;
+
+/**
+ * {@link ProductCacheStore} kept in a Hazelcast map, persisted to the product cache directory with
+ * {@link FileSystemMapStoreFactory}, for deployments that share a product cache between cluster
+ * members.
+ */
+class HazelcastProductCacheStore implements ProductCacheStore {
+
+  private static final String PRODUCT_CACHE_NAME = "Product_Cache";
+
+  private static final String HAZELCAST_STORAGE_PROPERTY = "storage";
+
+  private static final int HAZELCAST_PORT = 5701;
+
+  private static final boolean HAZELCAST_PORT_AUTO_INCREMENT = true;
+
+  private final HazelcastInstance instance;
+
+  private final IMap<Object, Object> cache;
+
+  private final ProductCacheDirListener<Object, Object> cacheListener;
+
+  /**
+   * @param instance Hazelcast instance to use, or {@code null} to start a new member
+   * @param productCacheDirectory directory the map is persisted to
+   * @param maxSizeBytes maximum total size of the cached products, or 0 to not limit the size
+   */
+  HazelcastProductCacheStore(
+      HazelcastInstance instance, String productCacheDirectory, long maxSizeBytes) {
+    if (instance == null) {
+      Config cfg = initHazelcastConfig(productCacheDirectory);
+      cfg.setClassLoader(getClass().getClassLoader());
+      instance = Hazelcast.newHazelcastInstance(cfg);
+    }
+    this.instance = instance;
+
+    cache = instance.getMap(PRODUCT_CACHE_NAME);
+    cacheListener = new ProductCacheDirListener<>(maxSizeBytes);
+    cacheListener.setHazelcastInstance(instance);
+    cache.addEntryListener(cacheListener, true);
+  }
+
+  @Override
+  public ReliableResource get(String key) {
+    return (ReliableResource) cache.get(key);
+  }
+
+  @Override
+  public void put(ReliableResource reliableResource) {
+    cache.put(reliableResource.getKey(), reliableResource);
+  }
+
+  @Override
+  public void remove(String key) {
+    cache.remove(key);
+  }
+
+  @Override
+  public long getMaxSizeBytes() {
+    return cacheListener.getMaxDirSizeBytes();
+  }
+
+  @Override
+  public void setMaxSizeBytes(long maxSizeBytes) {
+    cacheListener.setMaxDirSizeBytes(maxSizeBytes);
+  }
+
+  @Override
+  public void close() {
+    instance.shutdown();
+  }
+
+  private Config initHazelcastConfig(String productCacheDirectory) {
+    Config cfg = new Config();
+
+    JoinConfig joinConfig = cfg.getNetworkConfig().getJoin();
+    joinConfig.getMulticastConfig().setEnabled(false);
+
+    MapConfig defaultMapConfig = cfg.getMapConfig("default");
+    defaultMapConfig.setBackupCount(2);
+    defaultMapConfig.setEvictionPolicy(EvictionPolicy.LRU);
+    defaultMapConfig.setMergePolicy(PassThroughMergePolicy.class.getCanonicalName());
+
+    MapConfig productCacheMapConfig = cfg.getMapConfig(PRODUCT_CACHE_NAME);
+    productCacheMapConfig.setBackupCount(0);
+
+    MapStoreConfig productCacheMapStoreConfig = new MapStoreConfig();
+
+    productCacheMapStoreConfig.setEnabled(true);
+    productCacheMapStoreConfig.setFactoryClassName(
+        FileSystemMapStoreFactory.class.getCanonicalName());
+    productCacheMapStoreConfig.setWriteDelaySeconds(0);
+    productCacheMapStoreConfig.setProperty(HAZELCAST_STORAGE_PROPERTY, productCacheDirectory);
+
+    productCacheMapConfig.setMapStoreConfig(productCacheMapStoreConfig);
+
+    cfg.getNetworkConfig()
+        .setPort(HAZELCAST_PORT)
+        .setPortAutoIncrement(HAZELCAST_PORT_AUTO_INCREMENT)
+        .setOutboundPorts(Arrays.asList(0))
+        .setJoin(joinConfig)
+        .setSSLConfig(new SSLConfig());
+    cfg.addMapConfig(defaultMapConfig);
+    cfg.addMapConfig(productCacheMapConfig);
+
+    return cfg;
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link ProductCacheStore} kept in memory, weighted by the size of each cached product, with a
+ * {@link ProductCacheIndex} in the product cache directory to restore it after a restart. When the
+ * maximum size is exceeded, the least recently used products are evicted and their files deleted.
+ *
+ * <p>Products persisted to the same directory by the {@link HazelcastProductCacheStore} are
+ * imported into the index on startup, and their {@code .ser} files deleted.
+ */
+class LocalProductCacheStore implements ProductCacheStore {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LocalProductCacheStore.class);
+
+  // Superseded records are only compacted out of the index once there are at least this many
+  private static final int MIN_RECORDS_TO_COMPACT = 1000;
+
+  // Products are weighed in kilobytes so that the weight of a product larger than 2 GB fits in an
+  // int and the maximum size of the cache is not limited by the weights being summed as ints
+  private static final long BYTES_PER_WEIGHT_UNIT = 1024;
+
+  private static final String PRODUCT_CACHE_NAME = "Product_Cache";
+
+  private final ProductCacheIndex index;
+
+  private volatile Cache<String, ReliableResource> cache;
+
+  private long maxSizeBytes;
+
+  /**
+   * @param productCacheDirectory directory the products are cached in
+   * @param maxSizeBytes maximum total size of the cached products, or 0 to not limit the size
+   */
+  LocalProductCacheStore(String productCacheDirectory, long maxSizeBytes) {
+    this.index = new ProductCacheIndex(productCacheDirectory);
+    this.maxSizeBytes = maxSizeBytes;
+    this.cache = newCache(maxSizeBytes);
+
+    Map<String, ReliableResource> restored = index.load();
+    FileSystemPersistenceProvider hazelcastStore =
+        new FileSystemPersistenceProvider(PRODUCT_CACHE_NAME, productCacheDirectory);
+    importHazelcastEntries(hazelcastStore, restored);
+
+    List<ReliableResource> entries = new ArrayList<>(restored.values());
+    entries.removeIf(reliableResource -> !reliableResource.hasProduct());
+    putAll(cache, entries);
+    // The Hazelcast files are only deleted once the index records the products imported from them
+    if (compact()) {
+      hazelcastStore.clear();
+    }
+    LOGGER.debug("Restored {} products from product cache index", cache.size());
+  }
+
+  @Override
+  public ReliableResource get(String key) {
+    ReliableResource reliableResource = cache.getIfPresent(key);
+    if (reliableResource != null) {
+      long lastTouchedMillis = System.currentTimeMillis();
+      reliableResource.setLastTouchedMillis(lastTouchedMillis);
+      index.touch(key, lastTouchedMillis);
+      compactIfSuperseded();
+    }
+    return reliableResource;
+  }
+
+  @Override
+  public void put(ReliableResource reliableResource) {
+    cache.put(reliableResource.getKey(), reliableResource);
+    index.put(reliableResource);
+    compactIfSuperseded();
+  }
+
+  @Override
+  public void remove(String key) {
+    if (cache.asMap().remove(key) != null) {
+      index.remove(key);
+    }
+  }
+
+  @Override
+  public synchronized long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  @Override
+  public synchronized void setMaxSizeBytes(long maxSizeBytes) {
+    if (this.maxSizeBytes == maxSizeBytes) {
+      return;
+    }
+    this.maxSizeBytes = maxSizeBytes;
+
+    // The maximum weight of a cache cannot be changed, so the entries are moved to a new one
+    Cache<String, ReliableResource> resizedCache = newCache(maxSizeBytes);
+    putAll(resizedCache, cache.asMap().values());
+    cache = resizedCache;
+  }
+
+  @Override
+  public void close() {
+    index.close();
+  }
+
+  private Cache<String, ReliableResource> newCache(long maxSizeBytes) {
+    // A single segment so that the maximum weight applies to the whole cache, rather than being
+    // divided between segments, and eviction is in least recently used order across all products
+    CacheBuilder<String, ReliableResource> builder =
+        CacheBuilder.newBuilder().concurrencyLevel(1).removalListener(this::onRemoval);
+    if (maxSizeBytes > 0) {
+      builder
+          .maximumWeight(toWeight(maxSizeBytes))
+          .weigher(
+              (String key, ReliableResource reliableResource) ->
+                  (int) Math.min(Integer.MAX_VALUE, toWeight(reliableResource.getSize())));
+    }
+    return builder.build();
+  }
+
+  /** @return the number of kilobytes needed to hold the given number of bytes, rounded up */
+  private static long toWeight(long sizeBytes) {
+    return (Math.max(0, sizeBytes) + BYTES_PER_WEIGHT_UNIT - 1) / BYTES_PER_WEIGHT_UNIT;
+  }
+
+  /** Adds the products persisted by Hazelcast that are not already recorded in the index. */
+  private static void importHazelcastEntries(
+      FileSystemPersistenceProvider hazelcastStore, Map<String, ReliableResource> entries) {
+    Map<String, Object> persisted = hazelcastStore.loadAll(hazelcastStore.loadAllKeys());
+    for (Map.Entry<String, Object> entry : persisted.entrySet()) {
+      if (entry.getValue() instanceof ReliableResource) {
+        entries.putIfAbsent(entry.getKey(), (ReliableResource) entry.getValue());
+      }
+    }
+    if (!persisted.isEmpty()) {
+      LOGGER.info("Importing {} products persisted by Hazelcast product cache", persisted.size());
+    }
+  }
+
+  /** Adds the entries least recently used first, so that they are the first to be evicted. */
+  private static void putAll(
+      Cache<String, ReliableResource> cache, Iterable<ReliableResource> entries) {
+    List<ReliableResource> sorted = new ArrayList<>();
+    entries.forEach(sorted::add);
+    sorted.sort(Comparator.comparingLong(ReliableResource::getLastTouchedMillis));
+    for (ReliableResource reliableResource : sorted) {
+      cache.put(reliableResource.getKey(), reliableResource);
+    }
+  }
+
+  private void compactIfSuperseded() {
+    if (index.getRecordCount() > Math.max(MIN_RECORDS_TO_COMPACT, 2 * cache.size())) {
+      compact();
+    }
+  }
+
+  /** @return true if the index was rewritten */
+  private boolean compact() {
+    try {
+      index.rewrite(cache.asMap().values());
+      return true;
+    } catch (IOException e) {
+      LOGGER.info("Unable to rewrite product cache index", e);
+      return false;
+    }
+  }
+
+  private void onRemoval(RemovalNotification<String, ReliableResource> notification) {
+    if (notification.getCause() != RemovalCause.SIZE) {
+      return;
+    }
+
+    ReliableResource reliableResource = notification.getValue();
+    LOGGER.debug("Evicting {} from product cache", reliableResource.getKey());
+    index.remove(reliableResource.getKey());
+    File cachedFile = new File(reliableResource.getFilePath());
+    if (!FileUtils.deleteQuietly(cachedFile)) {
+      LOGGER.info("Could not delete file {}", cachedFile.getAbsolutePath());
+    }
+  }
+}
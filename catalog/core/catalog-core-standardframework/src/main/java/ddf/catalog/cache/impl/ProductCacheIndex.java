@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only file recording the products added to, used from and removed from the {@link
+ * LocalProductCacheStore}, so that the store can be restored when the system restarts.
+ *
+ * <p>Each record is an operation code and a cache key, followed for additions by the serialized
+ * {@link ReliableResource} and for uses by the time the product was used. Writing a record only
+ * appends to the file; the file is rewritten with just the current entries by {@link
+ * #rewrite(Collection)}.
+ */
+class ProductCacheIndex {
+
+  static final String INDEX_FILE_NAME = ".product-cache.idx";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProductCacheIndex.class);
+
+  private static final byte PUT = 1;
+
+  private static final byte REMOVE = 2;
+
+  private static final byte TOUCH = 3;
+
+  private final File indexFile;
+
+  private DataOutputStream out;
+
+  private int recordCount;
+
+  /** @param productCacheDirectory directory the index file is kept in */
+  ProductCacheIndex(String productCacheDirectory) {
+    this.indexFile = new File(productCacheDirectory, INDEX_FILE_NAME);
+  }
+
+  /**
+   * Reads the entries recorded in the index file. A record that was only partially written, e.g.,
+   * because the system stopped while it was being appended, ends the entries read.
+   *
+   * @return the recorded entries by cache key, in the order they were added
+   */
+  synchronized Map<String, ReliableResource> load() {
+    Map<String, ReliableResource> entries = new LinkedHashMap<>();
+    if (!indexFile.exists()) {
+      return entries;
+    }
+
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+      int operation;
+      while ((operation = in.read()) != -1) {
+        String key = in.readUTF();
+        if (operation == PUT) {
+          byte[] value = new byte[in.readInt()];
+          in.readFully(value);
+          ReliableResource reliableResource = deserialize(key, value);
+          if (reliableResource != null) {
+            entries.put(key, reliableResource);
+          }
+        } else if (operation == REMOVE) {
+          entries.remove(key);
+        } else if (operation == TOUCH) {
+          long lastTouchedMillis = in.readLong();
+          ReliableResource reliableResource = entries.get(key);
+          if (reliableResource != null) {
+            reliableResource.setLastTouchedMillis(lastTouchedMillis);
+          }
+        } else {
+          throw new StreamCorruptedException("Unknown record type " + operation);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.info(
+          "Unable to read all of product cache index {}. Restoring the {} entries read before the error.",
+          indexFile,
+          entries.size(),
+          e);
+    }
+    return entries;
+  }
+
+  /**
+   * Replaces the index file with one that only records the given entries. Until this has been
+   * called, records are not appended to the file.
+   *
+   * @param entries the entries currently in the cache
+   */
+  synchronized void rewrite(Collection<ReliableResource> entries) throws IOException {
+    IOUtils.closeQuietly(out);
+    out = null;
+
+    FileUtils.forceMkdir(indexFile.getParentFile());
+    File rewrittenFile = new File(indexFile.getPath() + ".tmp");
+    try (DataOutputStream rewritten = open(rewrittenFile, false)) {
+      for (ReliableResource reliableResource : entries) {
+        writePut(rewritten, reliableResource);
+      }
+    }
+    Files.move(
+        rewrittenFile.toPath(),
+        indexFile.toPath(),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    recordCount = entries.size();
+    out = open(indexFile, true);
+  }
+
+  synchronized void put(ReliableResource reliableResource) {
+    if (out != null) {
+      try {
+        writePut(out, reliableResource);
+        out.flush();
+        recordCount++;
+      } catch (IOException e) {
+        LOGGER.info(
+            "Unable to add {} to product cache index {}", reliableResource.getKey(), indexFile, e);
+      }
+    }
+  }
+
+  synchronized void remove(String key) {
+    if (out != null) {
+      try {
+        out.writeByte(REMOVE);
+        out.writeUTF(key);
+        out.flush();
+        recordCount++;
+      } catch (IOException e) {
+        LOGGER.info("Unable to remove {} from product cache index {}", key, indexFile, e);
+      }
+    }
+  }
+
+  synchronized void touch(String key, long lastTouchedMillis) {
+    if (out != null) {
+      try {
+        out.writeByte(TOUCH);
+        out.writeUTF(key);
+        out.writeLong(lastTouchedMillis);
+        out.flush();
+        recordCount++;
+      } catch (IOException e) {
+        LOGGER.info("Unable to record use of {} in product cache index {}", key, indexFile, e);
+      }
+    }
+  }
+
+  /** @return number of records in the index file, including those that have been superseded */
+  synchronized int getRecordCount() {
+    return recordCount;
+  }
+
+  synchronized void close() {
+    IOUtils.closeQuietly(out);
+    out = null;
+  }
+
+  private static DataOutputStream open(File file, boolean append) throws IOException {
+    return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, append)));
+  }
+
+  private static void writePut(DataOutputStream out, ReliableResource reliableResource)
+      throws IOException {
+    ByteArrayOutputStream value = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOut = new ObjectOutputStream(value)) {
+      objectOut.writeObject(reliableResource);
+    }
+
+    out.writeByte(PUT);
+    out.writeUTF(reliableResource.getKey());
+    out.writeInt(value.size());
+    value.writeTo(out);
+  }
+
+  private ReliableResource deserialize(String key, byte[] value) {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(value))) {
+      return (ReliableResource) in.readObject();
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      LOGGER.debug("Unable to read product cache index entry {}", key, e);
+      return null;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import ddf.catalog.resource.data.ReliableResource;
+
+/**
+ * Map of the products in the product cache directory, used by {@link ResourceCacheImpl} to look up
+ * cached products by their cache key.
+ */
+interface ProductCacheStore {
+
+  /**
+   * @param key cache key of the product
+   * @return the cached product, or {@code null} if it is not in the cache
+   */
+  ReliableResource get(String key);
+
+  /**
+   * Adds a product that has been written to the product cache directory.
+   *
+   * @param reliableResource the cached product
+   */
+  void put(ReliableResource reliableResource);
+
+  /**
+   * Removes a product from the map. Deleting the cached file is left to the caller.
+   *
+   * @param key cache key of the product
+   */
+  void remove(String key);
+
+  /** @return maximum total size of the cached products, or 0 if the size is not limited */
+  long getMaxSizeBytes();
+
+  /**
+   * Sets the maximum total size of the cached products. When it is exceeded, the least recently
+   * used products are evicted and their files deleted.
+   *
+   * @param maxSizeBytes maximum size, or 0 to not limit the size
+   */
+  void setMaxSizeBytes(long maxSizeBytes);
+
+  /** Releases the resources held by this store. */
+  void close();
+}
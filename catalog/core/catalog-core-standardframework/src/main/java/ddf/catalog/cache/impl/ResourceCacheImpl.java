@@ -15,98 +15,91 @@
 
 import static ddf.catalog.cache.impl.CachedResourceMetacardComparator.isSame;
 
-import com.hazelcast.config.Config;
-import com.hazelcast.config.EvictionPolicy;
-import com.hazelcast.config.JoinConfig;
-import com.hazelcast.config.MapConfig;
-import com.hazelcast.config.MapStoreConfig;
-import com.hazelcast.config.SSLConfig;
-import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
-import com.hazelcast.core.IMap;
-import com.hazelcast.map.merge.PassThroughMergePolicy;
 import ddf.catalog.cache.ResourceCacheInterface;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.data.ReliableResource;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.io.FileUtils;
 import org.codice.ddf.configuration.PropertyResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Cache of the products retrieved by the {@link
+ * ddf.catalog.resource.download.ReliableResourceDownloadManager}. The products are kept in the
+ * product cache directory, and a {@link ProductCacheStore} maps cache keys to them.
+ *
+ * <p>By default the map is kept in memory and indexed in the product cache directory. Setting the
+ * {@value #CLUSTERED_PROPERTY} system property to {@code true} keeps it in a Hazelcast map instead,
+ * so that it can be shared between cluster members.
+ */
 public class ResourceCacheImpl implements ResourceCacheInterface {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ResourceCacheImpl.class);
 
-  private static final String PRODUCT_CACHE_NAME = "Product_Cache";
-
-  private static final String HAZELCAST_STORAGE_PROPERTY = "storage";
-
-  private static final int HAZELCAST_PORT = 5701;
-
-  private static final boolean HAZELCAST_PORT_AUTO_INCREMENT = true;
+  static final String CLUSTERED_PROPERTY = "org.codice.ddf.catalog.resource.cache.clustered";
 
   private static final long BYTES_IN_MEGABYTES = FileUtils.ONE_MB;
 
   private static final long DEFAULT_MAX_CACHE_DIR_SIZE_BYTES = 10737418240L; // 10 GB
 
-  private List<String> pendingCache = new ArrayList<>();
+  /** Keys of products currently being written to the cache by a download thread */
+  private final Set<String> pendingCache = ConcurrentHashMap.newKeySet();
 
   /** Directory for products cached to file system */
   private String productCacheDirectory;
 
-  private HazelcastInstance instance;
-
-  private IMap<Object, Object> cache;
+  private long maxCacheDirSizeBytes = DEFAULT_MAX_CACHE_DIR_SIZE_BYTES;
 
-  private ProductCacheDirListener<Object, Object> cacheListener =
-      new ProductCacheDirListener<>(DEFAULT_MAX_CACHE_DIR_SIZE_BYTES);
+  private ProductCacheStore cache;
 
   public ResourceCacheImpl(String productCacheDirectory) {
     this.productCacheDirectory = productCacheDirectory;
     initCache();
   }
 
-  /** Called after all parameters are set */
+  /**
+   * Keeps the cache in a Hazelcast map.
+   *
+   * @param instance Hazelcast instance to use, or {@code null} to start a new member
+   */
   public void setCache(HazelcastInstance instance) {
     LOGGER.trace("ENTERING: setCache()");
-    this.instance = instance;
-    if (this.instance == null) {
-      Config cfg = initHazelcastConfig(productCacheDirectory);
-      cfg.setClassLoader(getClass().getClassLoader());
-      this.instance = Hazelcast.newHazelcastInstance(cfg);
+    if (cache != null) {
+      teardownCache();
     }
-
-    cache = this.instance.getMap(PRODUCT_CACHE_NAME);
-    cacheListener.setHazelcastInstance(this.instance);
-    cache.addEntryListener(cacheListener, true);
+    cache = new HazelcastProductCacheStore(instance, productCacheDirectory, maxCacheDirSizeBytes);
   }
 
   public void initCache() {
-    // if a hazelcast instance is already running, shut it down first
-    if (instance != null) {
-      teardownCache();
+    if (Boolean.getBoolean(CLUSTERED_PROPERTY)) {
+      setCache(null);
+    } else {
+      if (cache != null) {
+        teardownCache();
+      }
+      cache = new LocalProductCacheStore(productCacheDirectory, maxCacheDirSizeBytes);
     }
-    setCache(null);
   }
 
   public void teardownCache() {
-    instance.shutdown();
+    cache.close();
   }
 
   public long getCacheDirMaxSizeMegabytes() {
     LOGGER.debug("Getting max size for cache directory.");
-    return cacheListener.getMaxDirSizeBytes() / BYTES_IN_MEGABYTES;
+    return cache.getMaxSizeBytes() / BYTES_IN_MEGABYTES;
   }
 
   public void setCacheDirMaxSizeMegabytes(long cacheDirMaxSizeMegabytes) {
     LOGGER.debug("Setting max size for cache directory: {}", cacheDirMaxSizeMegabytes);
-    cacheListener.setMaxDirSizeBytes(cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES);
+    maxCacheDirSizeBytes = cacheDirMaxSizeMegabytes * BYTES_IN_MEGABYTES;
+    cache.setMaxSizeBytes(maxCacheDirSizeBytes);
   }
 
   public String getProductCacheDirectory() {
@@ -140,7 +133,7 @@ public boolean isPending(String key) {
   public void put(ReliableResource reliableResource) {
     LOGGER.trace("ENTERING: put(ReliableResource)");
     reliableResource.setLastTouchedMillis(System.currentTimeMillis());
-    cache.put(reliableResource.getKey(), reliableResource);
+    cache.put(reliableResource);
     removePendingCacheEntry(reliableResource.getKey());
 
     LOGGER.trace("EXITING: put(ReliableResource)");
@@ -158,12 +151,10 @@ public void removePendingCacheEntry(String cacheKey) {
   @Override
   public void addPendingCacheEntry(ReliableResource reliableResource) {
     String cacheKey = reliableResource.getKey();
-    if (isPending(cacheKey)) {
-      LOGGER.debug("Cache entry with key = {} is already pending", cacheKey);
-    } else if (containsValid(cacheKey, reliableResource.getMetacard())) {
+    if (containsValid(cacheKey, reliableResource.getMetacard())) {
       LOGGER.debug("Cache entry with key = {} is already in cache", cacheKey);
-    } else {
-      pendingCache.add(cacheKey);
+    } else if (!pendingCache.add(cacheKey)) {
+      LOGGER.debug("Cache entry with key = {} is already pending", cacheKey);
     }
   }
 
@@ -182,7 +173,7 @@ public Resource getValid(String key, Metacard latestMetacard) {
     }
     LOGGER.debug("key {}", key);
 
-    ReliableResource cachedResource = (ReliableResource) cache.get(key);
+    ReliableResource cachedResource = cache.get(key);
 
     // Check that ReliableResource actually maps to a file (product) in the
     // product cache directory. This check handles the case if the product
@@ -221,7 +212,7 @@ public boolean containsValid(String key, Metacard latestMetacard) {
     if (key == null) {
       return false;
     }
-    ReliableResource cachedResource = (ReliableResource) cache.get(key);
+    ReliableResource cachedResource = cache.get(key);
     return (cachedResource != null) && (validateCacheEntry(cachedResource, latestMetacard));
   }
 
@@ -265,40 +256,4 @@ protected boolean validateCacheEntry(ReliableResource cachedResource, Metacard l
     LOGGER.trace("EXITING: validateCacheEntry");
     return false;
   }
-
-  private Config initHazelcastConfig(String productCacheDirectory) {
-    Config cfg = new Config();
-
-    JoinConfig joinConfig = cfg.getNetworkConfig().getJoin();
-    joinConfig.getMulticastConfig().setEnabled(false);
-
-    MapConfig defaultMapConfig = cfg.getMapConfig("default");
-    defaultMapConfig.setBackupCount(2);
-    defaultMapConfig.setEvictionPolicy(EvictionPolicy.LRU);
-    defaultMapConfig.setMergePolicy(PassThroughMergePolicy.class.getCanonicalName());
-
-    MapConfig productCacheMapConfig = cfg.getMapConfig(PRODUCT_CACHE_NAME);
-    productCacheMapConfig.setBackupCount(0);
-
-    MapStoreConfig productCacheMapStoreConfig = new MapStoreConfig();
-
-    productCacheMapStoreConfig.setEnabled(true);
-    productCacheMapStoreConfig.setFactoryClassName(
-        FileSystemMapStoreFactory.class.getCanonicalName());
-    productCacheMapStoreConfig.setWriteDelaySeconds(0);
-    productCacheMapStoreConfig.setProperty(HAZELCAST_STORAGE_PROPERTY, productCacheDirectory);
-
-    productCacheMapConfig.setMapStoreConfig(productCacheMapStoreConfig);
-
-    cfg.getNetworkConfig()
-        .setPort(HAZELCAST_PORT)
-        .setPortAutoIncrement(HAZELCAST_PORT_AUTO_INCREMENT)
-        .setOutboundPorts(Arrays.asList(0))
-        .setJoin(joinConfig)
-        .setSSLConfig(new SSLConfig());
-    cfg.addMapConfig(defaultMapConfig);
-    cfg.addMapConfig(productCacheMapConfig);
-
-    return cfg;
-  }
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Merges the {@link Result}s of several source responses into a single sorted page while only
+ * retaining the best {@code maxResults} results seen so far.
+ *
+ * <p>Results are kept in a bounded heap whose root is the worst retained result, so each source
+ * response can be merged as soon as it completes and a result that cannot make the page is
+ * discarded in constant time. The merged page is identical to sorting every result with a stable
+ * sort and truncating it to {@code maxResults}: ties are broken by the order in which results were
+ * merged.
+ *
+ * <p>A {@code maxResults} less than 1 means the page is unbounded, in which case every result is
+ * retained.
+ *
+ * <p>This class is not thread-safe.
+ */
+class BoundedResultMerger {
+
+  private final Comparator<? super Result> comparator;
+
+  private final int maxResults;
+
+  private final PriorityQueue<SequencedResult> heap;
+
+  private final Comparator<SequencedResult> pageOrder;
+
+  private final List<Result> unboundedResults;
+
+  private long sequence = 0;
+
+  private long mergedCount = 0;
+
+  /**
+   * @param comparator the comparator that defines the page order, where results that compare lower
+   *     are placed earlier in the page
+   * @param maxResults the maximum number of results to retain, or less than 1 for no limit
+   */
+  BoundedResultMerger(Comparator<? super Result> comparator, int maxResults) {
+    Validate.notNull(comparator, "Valid comparator required.");
+    this.comparator = comparator;
+    this.maxResults = maxResults;
+
+    if (isBounded()) {
+      pageOrder =
+          ((Comparator<SequencedResult>) (a, b) -> this.comparator.compare(a.result, b.result))
+              .thenComparingLong(sequencedResult -> sequencedResult.sequence);
+      heap = new PriorityQueue<>(Math.min(maxResults, 1024), pageOrder.reversed());
+      unboundedResults = null;
+    } else {
+      pageOrder = null;
+      heap = null;
+      unboundedResults = new ArrayList<>();
+    }
+  }
+
+  /**
+   * Merges the given results, in iteration order, into the page.
+   *
+   * @param results results from a single source response, may be {@code null}
+   */
+  void merge(Collection<? extends Result> results) {
+    if (results == null) {
+      return;
+    }
+
+    for (Result result : results) {
+      merge(result);
+    }
+  }
+
+  /**
+   * Merges a single result into the page.
+   *
+   * @param result result to merge
+   */
+  void merge(Result result) {
+    mergedCount++;
+
+    if (!isBounded()) {
+      unboundedResults.add(result);
+      return;
+    }
+
+    if (heap.size() < maxResults) {
+      heap.add(new SequencedResult(result, sequence++));
+      return;
+    }
+
+    // Any result merged now has a higher sequence than everything in the heap, so it only makes
+    // the page if it sorts strictly before the current worst result.
+    if (comparator.compare(result, heap.peek().result) < 0) {
+      heap.poll();
+      heap.add(new SequencedResult(result, sequence++));
+    }
+  }
+
+  /** @return the total number of results merged, including the ones that were discarded */
+  long getMergedCount() {
+    return mergedCount;
+  }
+
+  /** @return the number of results currently retained */
+  int size() {
+    return isBounded() ? heap.size() : unboundedResults.size();
+  }
+
+  /**
+   * Returns the retained results in page order. The merger can continue to accept results after
+   * this method is called.
+   *
+   * @return a new, sorted {@link List} of at most {@code maxResults} results
+   */
+  List<Result> getSortedResults() {
+    if (!isBounded()) {
+      List<Result> sorted = new ArrayList<>(unboundedResults);
+      Collections.sort(sorted, comparator);
+      return sorted;
+    }
+
+    List<SequencedResult> sequenced = new ArrayList<>(heap);
+    sequenced.sort(pageOrder);
+
+    List<Result> sorted = new ArrayList<>(sequenced.size());
+    for (SequencedResult sequencedResult : sequenced) {
+      sorted.add(sequencedResult.result);
+    }
+    return sorted;
+  }
+
+  private boolean isBounded() {
+    return maxResults > 0;
+  }
+
+  private static class SequencedResult {
+
+    private final Result result;
+
+    private final long sequence;
+
+    SequencedResult(Result result, long sequence) {
+      this.result = result;
+      this.sequence = sequence;
+    }
+  }
+}
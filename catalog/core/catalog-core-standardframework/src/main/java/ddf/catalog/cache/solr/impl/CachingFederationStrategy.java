@@ -15,6 +15,7 @@
 
 import com.google.common.collect.ImmutableList;
 import ddf.catalog.Constants;
+import ddf.catalog.cache.ProgressiveQueryListener;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
@@ -42,6 +43,7 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.util.impl.RelevanceResultComparator;
 import ddf.catalog.util.impl.Requests;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -104,6 +106,12 @@ public class CachingFederationStrategy implements FederationStrategy, PostIngest
   /** Query and update the cache without blocking */
   protected static final String UPDATE_QUERY_MODE = "update";
 
+  /**
+   * Query like the default mode, but publish the merged results to the query's {@link
+   * ProgressiveQueryListener} as each source completes
+   */
+  protected static final String PROGRESSIVE_QUERY_MODE = "progressive";
+
   /** package-private to allow for unit testing */
   static final int DEFAULT_MAX_START_INDEX = 50000;
 
@@ -292,9 +300,25 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
           new OffsetResultHandler(queryResponseQueue, offsetResults, pageSize, offset));
     }
 
-    queryExecutorService.submit(
-        sortedQueryMonitorFactory.createMonitor(
-            queryCompletion, futures, queryResponseQueue, modifiedQueryRequest, postQuery));
+    ProgressiveQueryListener progressiveListener = getProgressiveListener(queryRequest);
+    if (progressiveListener == null) {
+      queryExecutorService.submit(
+          sortedQueryMonitorFactory.createMonitor(
+              queryCompletion, futures, queryResponseQueue, modifiedQueryRequest, postQuery));
+    } else {
+      if (offset > 1 && sources.size() > 1) {
+        progressiveListener =
+            new OffsetProgressiveQueryListener(progressiveListener, offset, pageSize);
+      }
+      queryExecutorService.submit(
+          sortedQueryMonitorFactory.createProgressiveMonitor(
+              queryCompletion,
+              futures,
+              queryResponseQueue,
+              modifiedQueryRequest,
+              postQuery,
+              progressiveListener));
+    }
 
     QueryResponse queryResponse;
     if (offset > 1 && sources.size() > 1) {
@@ -309,6 +333,23 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
     return queryResponse;
   }
 
+  private ProgressiveQueryListener getProgressiveListener(QueryRequest queryRequest) {
+    if (!PROGRESSIVE_QUERY_MODE.equals(queryRequest.getPropertyValue(QUERY_MODE))) {
+      return null;
+    }
+
+    Serializable listener =
+        queryRequest.getPropertyValue(ProgressiveQueryListener.PROGRESSIVE_QUERY_LISTENER);
+    if (listener instanceof ProgressiveQueryListener) {
+      return (ProgressiveQueryListener) listener;
+    }
+
+    LOGGER.debug(
+        "Progressive query requested without a {}. Only the final results will be returned.",
+        ProgressiveQueryListener.PROGRESSIVE_QUERY_LISTENER);
+    return null;
+  }
+
   private Query getModifiedQuery(
       Query originalQuery, int numberOfSources, int offset, int pageSize) {
 
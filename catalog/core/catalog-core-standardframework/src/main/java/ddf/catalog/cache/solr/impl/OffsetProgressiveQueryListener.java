@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import ddf.catalog.cache.ProgressiveQueryListener;
+import ddf.catalog.data.Result;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Applies the original offset and page size to the pages published to a {@link
+ * ProgressiveQueryListener}. This is the progressive counterpart of {@link
+ * CachingFederationStrategy.OffsetResultHandler}: federated sources are queried from an offset of
+ * 1, so the merged pages contain every result up to the end of the requested page.
+ */
+class OffsetProgressiveQueryListener implements ProgressiveQueryListener {
+
+  private final ProgressiveQueryListener delegate;
+
+  private final int offset;
+
+  private final int pageSize;
+
+  OffsetProgressiveQueryListener(ProgressiveQueryListener delegate, int offset, int pageSize) {
+    this.delegate = delegate;
+    this.offset = offset;
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public void onPartialResponse(String sourceId, QueryResponse partialResponse) {
+    delegate.onPartialResponse(sourceId, applyOffset(partialResponse));
+  }
+
+  @Override
+  public void onFinalResponse(QueryResponse finalResponse) {
+    delegate.onFinalResponse(applyOffset(finalResponse));
+  }
+
+  private QueryResponse applyOffset(QueryResponse response) {
+    List<Result> results = response.getResults();
+    List<Result> page;
+    if (results.size() < offset) {
+      page = Collections.emptyList();
+    } else {
+      page = results.subList(offset - 1, Math.min(results.size(), offset - 1 + pageSize));
+    }
+
+    return new QueryResponseImpl(
+        response.getRequest(),
+        page,
+        true,
+        response.getHits(),
+        response.getProperties(),
+        response.getProcessingDetails());
+  }
+}
@@ -15,6 +15,7 @@
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
 
+import ddf.catalog.cache.ProgressiveQueryListener;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -39,7 +40,6 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -78,6 +78,8 @@ class SortedQueryMonitor implements Runnable {
 
   private long deadline;
 
+  private ProgressiveQueryListener progressiveListener;
+
   public SortedQueryMonitor(
       CachingFederationStrategy cachingFederationStrategy,
       CompletionService<SourceResponse> completionService,
@@ -95,6 +97,15 @@ public SortedQueryMonitor(
     deadline = System.currentTimeMillis() + query.getTimeoutMillis();
   }
 
+  /**
+   * Sets the listener that receives the merged page each time a source completes, as well as the
+   * final page. Package-private so that only the {@link SortedQueryMonitorFactory} enables
+   * progressive delivery.
+   */
+  void setProgressiveListener(ProgressiveQueryListener progressiveListener) {
+    this.progressiveListener = progressiveListener;
+  }
+
   @Override
   public void run() {
     List<SortBy> sortBys = new ArrayList<>();
@@ -145,7 +156,8 @@ public void run() {
       resultComparator.addComparator(coreComparator);
     }
 
-    List<Result> resultList = new ArrayList<>();
+    BoundedResultMerger resultMerger =
+        new BoundedResultMerger(resultComparator, query.getPageSize());
     long totalHits = 0;
     Set<ProcessingDetails> detailsOfReturnResults = returnResults.getProcessingDetails();
 
@@ -156,6 +168,7 @@ public void run() {
       String sourceId = "Unknown Source";
       QueryRequest queryRequest = null;
       SourceResponse sourceResponse = null;
+      Set<ProcessingDetails> detailsOfSource = new HashSet<>();
       try {
         Future<SourceResponse> future;
         if (query.getTimeoutMillis() < 1) {
@@ -179,10 +192,10 @@ public void run() {
         if (sourceResponse == null) {
           LOGGER.debug("Source {} returned null response", sourceId);
           executePostFederationQueryPluginsWithSourceError(
-              queryRequest, sourceId, new NullPointerException(), detailsOfReturnResults);
+              queryRequest, sourceId, new NullPointerException(), detailsOfSource);
         } else {
           sourceResponse = executePostFederationQueryPlugins(sourceResponse, queryRequest);
-          resultList.addAll(sourceResponse.getResults());
+          resultMerger.merge(sourceResponse.getResults());
           long hits = sourceResponse.getHits();
           totalHits += hits;
           hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
@@ -192,8 +205,7 @@ public void run() {
 
           for (SourceProcessingDetails detailsOfSourceResponse :
               sourceResponse.getProcessingDetails()) {
-            detailsOfReturnResults.add(
-                new ProcessingDetailsImpl(detailsOfSourceResponse, sourceId));
+            detailsOfSource.add(new ProcessingDetailsImpl(detailsOfSourceResponse, sourceId));
           }
         }
       } catch (InterruptedException e) {
@@ -201,7 +213,8 @@ public void run() {
           // First, add interrupted processing detail for this source
           LOGGER.debug("Search interrupted for {}", sourceId);
           executePostFederationQueryPluginsWithSourceError(
-              queryRequest, sourceId, e, detailsOfReturnResults);
+              queryRequest, sourceId, e, detailsOfSource);
+          detailsOfReturnResults.addAll(detailsOfSource);
         }
 
         // Then add the interrupted exception for the remaining sources
@@ -212,31 +225,72 @@ public void run() {
         LOGGER.info(
             "Couldn't get results from completed federated query for sourceId = {}", sourceId, e);
         executePostFederationQueryPluginsWithSourceError(
-            queryRequest, sourceId, e, detailsOfReturnResults);
+            queryRequest, sourceId, e, detailsOfSource);
+      }
+
+      detailsOfReturnResults.addAll(detailsOfSource);
+      if (progressiveListener != null) {
+        publishPartialResponse(
+            sourceId, resultMerger, totalHits, new HashMap<>(hitsPerSource), detailsOfSource);
       }
     }
     returnProperties.put("hitsPerSource", hitsPerSource);
-    LOGGER.debug("All sources finished returning results: {}", resultList.size());
+    LOGGER.debug("All sources finished returning results: {}", resultMerger.getMergedCount());
 
     returnResults.setHits(totalHits);
+    List<Result> finalResults;
     if (CachingFederationStrategy.INDEX_QUERY_MODE.equals(
         request.getPropertyValue(CachingFederationStrategy.QUERY_MODE))) {
       QueryResponse result = cachingFederationStrategy.queryCache(request);
-      returnResults.addResults(result.getResults(), true);
+      finalResults = result.getResults();
     } else {
-      returnResults.addResults(sortedResults(resultList, resultComparator), true);
+      finalResults = resultMerger.getSortedResults();
     }
-  }
 
-  List<Result> sortedResults(List<Result> results, Comparator<? super Result> comparator) {
-    Collections.sort(results, comparator);
+    if (progressiveListener != null) {
+      publishFinalResponse(finalResults);
+    }
+    returnResults.addResults(finalResults, true);
+  }
 
-    int maxResults = Integer.MAX_VALUE;
-    if (query.getPageSize() > 0) {
-      maxResults = query.getPageSize();
+  private void publishPartialResponse(
+      String sourceId,
+      BoundedResultMerger resultMerger,
+      long hits,
+      HashMap<String, Long> hitsPerSource,
+      Set<ProcessingDetails> detailsOfSource) {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put("hitsPerSource", hitsPerSource);
+
+    QueryResponse partialResponse =
+        new QueryResponseImpl(
+            returnResults.getRequest(),
+            resultMerger.getSortedResults(),
+            true,
+            hits,
+            properties,
+            detailsOfSource);
+    try {
+      progressiveListener.onPartialResponse(sourceId, partialResponse);
+    } catch (RuntimeException e) {
+      LOGGER.info("Progressive query listener failed to handle results from {}", sourceId, e);
     }
+  }
 
-    return results.size() > maxResults ? results.subList(0, maxResults) : results;
+  private void publishFinalResponse(List<Result> finalResults) {
+    QueryResponse finalResponse =
+        new QueryResponseImpl(
+            returnResults.getRequest(),
+            new ArrayList<>(finalResults),
+            true,
+            returnResults.getHits(),
+            new HashMap<>(returnResults.getProperties()),
+            new HashSet<>(returnResults.getProcessingDetails()));
+    try {
+      progressiveListener.onFinalResponse(finalResponse);
+    } catch (RuntimeException e) {
+      LOGGER.info("Progressive query listener failed to handle the final results", e);
+    }
   }
 
   private static Comparable getAttributeValue(Result r, String attributeName) {
@@ -13,6 +13,7 @@
  */
 package ddf.catalog.cache.solr.impl;
 
+import ddf.catalog.cache.ProgressiveQueryListener;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryResponseImpl;
@@ -39,4 +40,24 @@ public Runnable createMonitor(
     return new SortedQueryMonitor(
         cachingFederationStrategy, completionService, futures, returnResults, request, postQuery);
   }
+
+  public Runnable createProgressiveMonitor(
+      final CompletionService<SourceResponse> completionService,
+      final Map<Future<SourceResponse>, QueryRequest> futures,
+      final QueryResponseImpl returnResults,
+      final QueryRequest request,
+      List<PostFederatedQueryPlugin> postQuery,
+      ProgressiveQueryListener progressiveListener) {
+
+    SortedQueryMonitor monitor =
+        new SortedQueryMonitor(
+            cachingFederationStrategy,
+            completionService,
+            futures,
+            returnResults,
+            request,
+            postQuery);
+    monitor.setProgressiveListener(progressiveListener);
+    return monitor;
+  }
 }
@@ -14,6 +14,7 @@
 package ddf.catalog.impl;
 
 import ddf.catalog.content.StorageProvider;
+import ddf.catalog.content.plugin.ContentStreamObserver;
 import ddf.catalog.content.plugin.PostCreateStoragePlugin;
 import ddf.catalog.content.plugin.PostUpdateStoragePlugin;
 import ddf.catalog.content.plugin.PreCreateStoragePlugin;
@@ -114,6 +115,8 @@ public class FrameworkProperties {
 
   private List<AttributeInjector> attributeInjectors = new ArrayList<>();
 
+  private List<ContentStreamObserver> contentStreamObservers = new ArrayList<>();
+
   private List<DownloadManager> downloadManagers = new ArrayList<>();
 
   public List<CatalogProvider> getCatalogProviders() {
@@ -360,6 +363,14 @@ public List<AttributeInjector> getAttributeInjectors() {
     return attributeInjectors;
   }
 
+  public List<ContentStreamObserver> getContentStreamObservers() {
+    return contentStreamObservers;
+  }
+
+  public void setContentStreamObservers(List<ContentStreamObserver> contentStreamObservers) {
+    this.contentStreamObservers = contentStreamObservers;
+  }
+
   public DownloadManager getDownloadManager() {
     if (!downloadManagers.isEmpty()) {
       return downloadManagers.get(0);
@@ -13,6 +13,7 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.Constants.CONTENT_OBSERVATIONS;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import ddf.catalog.Constants;
@@ -128,6 +129,7 @@ public CreateResponse create(
     Map<String, Metacard> metacardMap = new HashMap<>();
     List<ContentItem> contentItems = new ArrayList<>(streamCreateRequest.getContentItems().size());
     HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
+    HashMap<String, Map<String, Serializable>> contentObservations = new HashMap<>();
 
     CreateResponse createResponse;
     CreateStorageRequest createStorageRequest = null;
@@ -152,9 +154,13 @@ public CreateResponse create(
 
     INGEST_LOGGER.info("Started ingesting resources with titles: {}.", fileNames);
 
-    // Operation populates the metacardMap, contentItems, and tmpContentPaths
+    // Operation populates the metacardMap, contentItems, tmpContentPaths, and contentObservations
     opsMetacardSupport.generateMetacardAndContentItems(
-        streamCreateRequest.getContentItems(), metacardMap, contentItems, tmpContentPaths);
+        streamCreateRequest.getContentItems(),
+        metacardMap,
+        contentItems,
+        tmpContentPaths,
+        contentObservations);
 
     if (blockCreateMetacards(metacardMap.values(), fanoutTagBlacklist)) {
       String message =
@@ -164,6 +170,7 @@ public CreateResponse create(
     }
 
     streamCreateRequest.getProperties().put(CONTENT_PATHS, tmpContentPaths);
+    streamCreateRequest.getProperties().put(CONTENT_OBSERVATIONS, contentObservations);
 
     injectAttributes(metacardMap);
     setDefaultValues(metacardMap);
@@ -13,11 +13,13 @@
  */
 package ddf.catalog.impl.operations;
 
+import com.google.common.io.ByteSource;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputTransformer;
+import ddf.catalog.util.impl.InputTransformerRouter;
 import ddf.mime.MimeTypeToTransformerMapper;
 import java.io.IOException;
 import java.io.InputStream;
@@ -50,6 +52,8 @@ public class MetacardFactory {
 
   private UuidGenerator uuidGenerator;
 
+  private InputTransformerRouter inputTransformerRouter = new InputTransformerRouter();
+
   public MetacardFactory(
       MimeTypeToTransformerMapper mimeTypeToTransformerMapper, UuidGenerator uuidGenerator) {
     this.mimeTypeToTransformerMapper = mimeTypeToTransformerMapper;
@@ -69,9 +73,15 @@ Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path t
 
     LOGGER.debug("List of matches for mimeType [{}]: {}", mimeType, listOfCandidates);
 
+    ByteSource content = com.google.common.io.Files.asByteSource(tmpContentPath.toFile());
+    String routeKey = getRouteKey(mimeType, content);
+    if (routeKey != null) {
+      listOfCandidates = inputTransformerRouter.order(routeKey, listOfCandidates);
+    }
+
     for (InputTransformer candidate : listOfCandidates) {
-      try (InputStream transformerStream =
-          com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
+      long start = System.nanoTime();
+      try (InputStream transformerStream = content.openStream()) {
         generatedMetacard = candidate.transform(transformerStream);
       } catch (RuntimeException | CatalogTransformerException | IOException e) {
         List<String> stackTraces = Arrays.asList(ExceptionUtils.getRootCauseStackTrace(e));
@@ -79,6 +89,10 @@ Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path t
         stackTraceList.addAll(stackTraces);
         LOGGER.debug("Transformer [{}] could not create metacard.", candidate, e);
       }
+      if (routeKey != null) {
+        inputTransformerRouter.recordAttempt(
+            routeKey, candidate, generatedMetacard != null, System.nanoTime() - start);
+      }
       if (generatedMetacard != null) {
         break;
       }
@@ -103,4 +117,17 @@ Metacard generateMetacard(String mimeTypeRaw, String id, String fileName, Path t
 
     return generatedMetacard;
   }
+
+  public void setInputTransformerRouter(InputTransformerRouter inputTransformerRouter) {
+    this.inputTransformerRouter = inputTransformerRouter;
+  }
+
+  private String getRouteKey(MimeType mimeType, ByteSource content) {
+    try (InputStream inputStream = content.openStream()) {
+      return inputTransformerRouter.getRouteKey(mimeType, inputStream);
+    } catch (IOException e) {
+      LOGGER.debug("Could not read content to route it to an input transformer.", e);
+      return null;
+    }
+  }
 }
@@ -15,6 +15,8 @@
 
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
+import ddf.catalog.content.plugin.ContentStreamObserver;
+import ddf.catalog.content.plugin.ContentStreamObserver.Observation;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeInjector;
@@ -29,11 +31,15 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.io.FileUtils;
@@ -58,6 +64,8 @@
 public class OperationsMetacardSupport {
   private static final Logger LOGGER = LoggerFactory.getLogger(OperationsMetacardSupport.class);
 
+  private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
   //
   // Injected properties
   //
@@ -90,13 +98,17 @@ void generateMetacardAndContentItems(
       List<ContentItem> incomingContentItems,
       Map<String, Metacard> metacardMap,
       List<ContentItem> contentItems,
-      Map<String, Map<String, Path>> tmpContentPaths)
+      Map<String, Map<String, Path>> tmpContentPaths,
+      Map<String, Map<String, Serializable>> contentObservations)
       throws IngestException {
     for (ContentItem contentItem : incomingContentItems) {
       try {
         Path tmpPath = null;
         String fileName;
         long size;
+        boolean qualifiedContent = StringUtils.isNotEmpty(contentItem.getQualifier());
+        List<Observation> observations =
+            qualifiedContent ? Collections.emptyList() : startObservations(contentItem);
         try (InputStream inputStream = contentItem.getInputStream()) {
           fileName = contentItem.getFilename();
           if (inputStream == null) {
@@ -113,8 +125,7 @@ void generateMetacardAndContentItems(
               Files.createTempFile(
                   FilenameUtils.getBaseName(sanitizedFilename),
                   FilenameUtils.getExtension(sanitizedFilename));
-          Files.copy(inputStream, tmpPath, StandardCopyOption.REPLACE_EXISTING);
-          size = Files.size(tmpPath);
+          size = spool(inputStream, tmpPath, observations);
 
           final String key = contentItem.getId();
           Map<String, Path> pathAndQualifiers = tmpContentPaths.get(key);
@@ -148,7 +159,6 @@ void generateMetacardAndContentItems(
         }
 
         Metacard metacard;
-        boolean qualifiedContent = StringUtils.isNotEmpty(contentItem.getQualifier());
         if (qualifiedContent) {
           metacard = contentItem.getMetacard();
         } else {
@@ -157,6 +167,10 @@ void generateMetacardAndContentItems(
         }
         metacardMap.put(metacard.getId(), metacard);
 
+        if (!observations.isEmpty()) {
+          contentObservations.put(metacard.getId(), completeObservations(observations));
+        }
+
         ContentItem generatedContentItem =
             new ContentItemImpl(
                 metacard.getId(),
@@ -179,6 +193,62 @@ void generateMetacardAndContentItems(
     }
   }
 
+  private List<Observation> startObservations(ContentItem contentItem) {
+    List<Observation> observations = new ArrayList<>();
+    for (ContentStreamObserver observer : frameworkProperties.getContentStreamObservers()) {
+      try {
+        Observation observation = observer.observe(contentItem);
+        if (observation != null) {
+          observations.add(observation);
+        }
+      } catch (RuntimeException e) {
+        LOGGER.debug("Content stream observer {} failed to start.", observer, e);
+      }
+    }
+    return observations;
+  }
+
+  /**
+   * Copies the content to {@code tmpPath}, handing each chunk to the {@code observations} as it is
+   * written so the content only has to be read once.
+   *
+   * @return the number of bytes copied
+   */
+  private long spool(InputStream inputStream, Path tmpPath, List<Observation> observations)
+      throws IOException {
+    long size = 0;
+    byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+    try (OutputStream outputStream = Files.newOutputStream(tmpPath)) {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        outputStream.write(buffer, 0, read);
+        for (Iterator<Observation> iterator = observations.iterator(); iterator.hasNext(); ) {
+          Observation observation = iterator.next();
+          try {
+            observation.update(buffer, 0, read);
+          } catch (RuntimeException e) {
+            LOGGER.debug("Content stream observation failed, ignoring its results.", e);
+            iterator.remove();
+          }
+        }
+        size += read;
+      }
+    }
+    return size;
+  }
+
+  private Map<String, Serializable> completeObservations(List<Observation> observations) {
+    HashMap<String, Serializable> results = new HashMap<>();
+    for (Observation observation : observations) {
+      try {
+        results.putAll(observation.complete());
+      } catch (RuntimeException e) {
+        LOGGER.debug("Content stream observation failed, ignoring its results.", e);
+      }
+    }
+    return results;
+  }
+
   /**
    * Updates any empty metacard attributes with those defined in the {@link
    * DefaultAttributeValueRegistry}.
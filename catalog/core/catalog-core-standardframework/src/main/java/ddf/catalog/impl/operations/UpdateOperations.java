@@ -13,6 +13,7 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.Constants.CONTENT_OBSERVATIONS;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import com.google.common.collect.Iterables;
@@ -157,6 +158,7 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
     Map<String, Metacard> metacardMap = new HashMap<>();
     List<ContentItem> contentItems = new ArrayList<>(streamUpdateRequest.getContentItems().size());
     HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
+    HashMap<String, Map<String, Serializable>> contentObservations = new HashMap<>();
 
     UpdateResponse updateResponse = null;
     UpdateStorageRequest updateStorageRequest = null;
@@ -166,11 +168,16 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
         opsStorageSupport.prepareStorageRequest(
             streamUpdateRequest, streamUpdateRequest::getContentItems);
 
-    // Operation populates the metacardMap, contentItems, and tmpContentPaths
+    // Operation populates the metacardMap, contentItems, tmpContentPaths, and contentObservations
     opsMetacardSupport.generateMetacardAndContentItems(
-        streamUpdateRequest.getContentItems(), metacardMap, contentItems, tmpContentPaths);
+        streamUpdateRequest.getContentItems(),
+        metacardMap,
+        contentItems,
+        tmpContentPaths,
+        contentObservations);
 
     streamUpdateRequest.getProperties().put(CONTENT_PATHS, tmpContentPaths);
+    streamUpdateRequest.getProperties().put(CONTENT_OBSERVATIONS, contentObservations);
 
     streamUpdateRequest = applyAttributeOverrides(streamUpdateRequest, metacardMap);
 
@@ -14,11 +14,15 @@
 package ddf.catalog.resource.data;
 
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardCodec;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.resource.Resource;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OptionalDataException;
 import java.io.Serializable;
 import javax.activation.MimeType;
 import org.apache.commons.io.FileUtils;
@@ -47,7 +51,8 @@ public class ReliableResource implements Resource, Serializable {
   // The key used to store this object in the cache map
   private String key;
 
-  private Metacard metacard;
+  // Written with MetacardCodec rather than Java serialization, see writeObject()
+  private transient Metacard metacard;
 
   //    public ReliableResource(String key, String filePath) {
   //        this(key, filePath, null, null);
@@ -170,4 +175,22 @@ public void setLastTouchedMillis(long lastTouchedMillis) {
   public Metacard getMetacard() {
     return metacard;
   }
+
+  private void writeObject(ObjectOutputStream stream) throws IOException {
+    stream.defaultWriteObject();
+    stream.writeObject(metacard != null ? MetacardCodec.encode(metacard) : null);
+  }
+
+  private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+    stream.defaultReadObject();
+    try {
+      byte[] encodedMetacard = (byte[]) stream.readObject();
+      metacard = encodedMetacard != null ? MetacardCodec.decode(encodedMetacard) : null;
+    } catch (OptionalDataException e) {
+      // Entries cached before the metacard was encoded have no metacard to read, so they will be
+      // treated as out-of-date and re-cached
+      LOGGER.debug("No encoded metacard found for cached resource {}", key, e);
+      metacard = null;
+    }
+  }
 }
@@ -30,6 +30,9 @@
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -49,6 +52,8 @@ public class ReliableResourceDownloadManager implements DownloadManager {
 
   private static final int ONE_SECOND_IN_MS = 1000;
 
+  private static final String BYTES_TO_SKIP = "BytesToSkip";
+
   private static final Logger LOGGER =
       LoggerFactory.getLogger(ReliableResourceDownloadManager.class);
 
@@ -58,6 +63,13 @@ public class ReliableResourceDownloadManager implements DownloadManager {
 
   private ExecutorService executor;
 
+  /**
+   * Downloads in progress by cache key. Concurrent requests for the same resource join the
+   * download in this map rather than retrieving the resource from its source again.
+   */
+  private final Map<String, CompletableFuture<ReliableResourceDownloader>> activeDownloads =
+      new ConcurrentHashMap<>();
+
   /** @param downloaderConfig reference to the {@link ReliableResourceDownloaderConfig} */
   public ReliableResourceDownloadManager(
       ReliableResourceDownloaderConfig downloaderConfig,
@@ -124,20 +136,21 @@ public ResourceResponse download(
     }
 
     if (resourceResponse == null) {
-      try {
-        resourceResponse = retriever.retrieveResource();
-      } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
-        throw new DownloadException("Cannot download resource", e);
+      String downloadKey = getDownloadKey(resourceRequest, metacard);
+      if (downloadKey == null) {
+        resourceResponse =
+            startDownload(
+                    downloadIdentifier,
+                    retrieveResource(resourceRequest, metacard, retriever),
+                    retriever,
+                    metacard,
+                    null)
+                .getResourceResponse();
+      } else {
+        resourceResponse =
+            joinOrStartDownload(
+                downloadKey, downloadIdentifier, resourceRequest, metacard, retriever);
       }
-
-      resourceResponse.getProperties().put(Metacard.ID, metacard.getId());
-      // Sources do not create ResourceResponses with the original ResourceRequest, hence
-      // it is added here because it will be needed for caching
-      resourceResponse =
-          new ResourceResponseImpl(
-              resourceRequest, resourceResponse.getProperties(), resourceResponse.getResource());
-
-      resourceResponse = startDownload(downloadIdentifier, resourceResponse, retriever, metacard);
     }
     return resourceResponse;
   }
@@ -196,11 +209,128 @@ public List<DownloadInfo> getDownloadsInProgress() {
     return downloadsInProgress;
   }
 
-  private ResourceResponse startDownload(
+  /**
+   * @return the key identifying the resource being requested, or {@code null} if the request
+   *     cannot share a download with other requests
+   */
+  private String getDownloadKey(ResourceRequest resourceRequest, Metacard metacard) {
+    // Requests resuming a download part way through need their own stream from the source
+    if (resourceRequest.containsPropertyName(BYTES_TO_SKIP)) {
+      return null;
+    }
+
+    try {
+      return new CacheKey(metacard, resourceRequest).generateKey();
+    } catch (IllegalArgumentException e) {
+      LOGGER.debug("Cannot create download key for metacard ID = {}", metacard.getId(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Joins the download in progress for the requested resource, or starts one if there is none, so
+   * that only one download per resource is retrieved from its source at a time.
+   */
+  private ResourceResponse joinOrStartDownload(
+      String downloadKey,
+      String downloadIdentifier,
+      ResourceRequest resourceRequest,
+      Metacard metacard,
+      ResourceRetriever retriever)
+      throws DownloadException {
+    while (true) {
+      CompletableFuture<ReliableResourceDownloader> activeDownload =
+          activeDownloads.get(downloadKey);
+
+      if (activeDownload == null) {
+        CompletableFuture<ReliableResourceDownloader> newDownload = new CompletableFuture<>();
+        if (activeDownloads.putIfAbsent(downloadKey, newDownload) == null) {
+          return leadDownload(
+              downloadKey, newDownload, downloadIdentifier, resourceRequest, metacard, retriever);
+        }
+      } else {
+        ResourceResponse resourceResponse =
+            getActiveDownloader(activeDownload).joinDownload(resourceRequest);
+        if (resourceResponse != null) {
+          LOGGER.debug(
+              "Joined download in progress for metacard ID = {} instead of retrieving it again",
+              metacard.getId());
+          return resourceResponse;
+        }
+
+        // The download can no longer be joined, so start a new one
+        activeDownloads.remove(downloadKey, activeDownload);
+      }
+    }
+  }
+
+  private ResourceResponse leadDownload(
+      String downloadKey,
+      CompletableFuture<ReliableResourceDownloader> download,
+      String downloadIdentifier,
+      ResourceRequest resourceRequest,
+      Metacard metacard,
+      ResourceRetriever retriever)
+      throws DownloadException {
+    ReliableResourceDownloader downloader;
+    try {
+      downloader =
+          startDownload(
+              downloadIdentifier,
+              retrieveResource(resourceRequest, metacard, retriever),
+              retriever,
+              metacard,
+              () -> activeDownloads.remove(downloadKey, download));
+    } catch (DownloadException | RuntimeException e) {
+      activeDownloads.remove(downloadKey, download);
+      download.completeExceptionally(e);
+      throw e;
+    }
+
+    download.complete(downloader);
+    return downloader.getResourceResponse();
+  }
+
+  private ReliableResourceDownloader getActiveDownloader(
+      CompletableFuture<ReliableResourceDownloader> activeDownload) throws DownloadException {
+    try {
+      return activeDownload.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DownloadException("Interrupted waiting for download to start", e);
+    } catch (ExecutionException e) {
+      throw new DownloadException("Cannot download resource", e.getCause());
+    }
+  }
+
+  private ResourceResponse retrieveResource(
+      ResourceRequest resourceRequest, Metacard metacard, ResourceRetriever retriever)
+      throws DownloadException {
+    ResourceResponse resourceResponse;
+    try {
+      resourceResponse = retriever.retrieveResource();
+    } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
+      throw new DownloadException("Cannot download resource", e);
+    }
+
+    resourceResponse.getProperties().put(Metacard.ID, metacard.getId());
+    // Sources do not create ResourceResponses with the original ResourceRequest, hence
+    // it is added here because it will be needed for caching
+    return new ResourceResponseImpl(
+        resourceRequest, resourceResponse.getProperties(), resourceResponse.getResource());
+  }
+
+  /**
+   * @param onCompletion run once the download has finished, or {@code null}
+   * @return the {@link ReliableResourceDownloader} whose {@link ResourceResponse} the client should
+   *     read from
+   */
+  private ReliableResourceDownloader startDownload(
       String downloadIdentifier,
       ResourceResponse resourceResponse,
       ResourceRetriever retriever,
-      Metacard metacard) {
+      Metacard metacard,
+      Runnable onCompletion) {
     AtomicBoolean downloadStarted = new AtomicBoolean(Boolean.FALSE);
     ReliableResourceDownloader downloader =
         new ReliableResourceDownloader(
@@ -211,7 +341,18 @@ private ResourceResponse startDownload(
 
     // Start download in separate thread so can return ResourceResponse with
     // ReliableResourceInputStream available for client to start reading from
-    executor.submit(downloader);
+    if (onCompletion == null) {
+      executor.submit(downloader);
+    } else {
+      executor.submit(
+          () -> {
+            try {
+              downloader.run();
+            } finally {
+              onCompletion.run();
+            }
+          });
+    }
 
     // Wait for download to get started before returning control to client
     Stopwatch stopwatch = Stopwatch.createStarted();
@@ -229,6 +370,6 @@ private ResourceResponse startDownload(
     }
     LOGGER.debug("elapsedTime = {}", stopwatch.elapsed(TimeUnit.MILLISECONDS));
     stopwatch.stop();
-    return response;
+    return downloader;
   }
 }
@@ -23,6 +23,7 @@
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventListener;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher;
 import ddf.catalog.event.retrievestatus.DownloadsStatusEventPublisher.ProductRetrievalStatus;
+import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.operation.impl.ResourceResponseImpl;
 import ddf.catalog.resource.Resource;
@@ -37,6 +38,11 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
@@ -75,6 +81,9 @@ public class ReliableResourceDownloader implements Runnable {
 
   private ReliableResourceInputStream streamReadByClient;
 
+  // Every stream reading this download, including those of clients that joined it after it started
+  private final List<ReliableResourceInputStream> streamsReadByClients = new ArrayList<>();
+
   private FileOutputStream fos;
 
   private FileBackedOutputStream fbos;
@@ -144,6 +153,9 @@ public ResourceResponse setupDownload(Metacard metacard, DownloadStatusInfo down
     streamReadByClient =
         new ReliableResourceInputStream(
             fbos, countingFbos, downloadState, downloadIdentifier, resourceResponse);
+    synchronized (streamsReadByClients) {
+      streamsReadByClients.add(streamReadByClient);
+    }
 
     this.metacard = metacard;
 
@@ -260,10 +272,14 @@ public void run() {
                       "reliableResourceDownloaderThread"));
           downloadFuture = downloadExecutor.submit(reliableResourceCallable);
 
-          // Update callable and its Future in the ReliableResourceInputStream being read
-          // by the client so that if client cancels this download the proper Callable and
+          // Update callable and its Future in the ReliableResourceInputStreams being read
+          // by the clients so that if the clients cancel this download the proper Callable and
           // Future are canceled.
-          streamReadByClient.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+          synchronized (streamsReadByClients) {
+            for (ReliableResourceInputStream stream : streamsReadByClients) {
+              stream.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+            }
+          }
 
           // Monitor to watch that bytes are continually being read from the resource's
           // InputStream. This monitor is used to detect if there are long pauses or
@@ -509,6 +525,41 @@ public void run() {
     }
   }
 
+  /**
+   * Lets another client read the resource being downloaded instead of retrieving it again. The
+   * client gets its own @ReliableResourceInputStream that reads the download from its first byte.
+   *
+   * @param resourceRequest the @ResourceRequest of the client joining the download
+   * @return the @ResourceResponse the client should read from, or {@code null} if the download has
+   *     failed or been canceled, or all of its clients have finished reading it
+   */
+  public ResourceResponse joinDownload(ResourceRequest resourceRequest) {
+    DownloadState state = downloadState.getDownloadState();
+    if (state == DownloadState.FAILED || state == DownloadState.CANCELED) {
+      return null;
+    }
+
+    synchronized (streamsReadByClients) {
+      if (streamReadByClient == null) {
+        return null;
+      }
+
+      ReliableResourceInputStream stream = streamReadByClient.newReader(resourceResponse);
+      if (stream == null) {
+        return null;
+      }
+      streamsReadByClients.add(stream);
+
+      Resource resource = resourceResponse.getResource();
+      Map<String, Serializable> properties = new HashMap<>(resourceResponse.getProperties());
+      LOGGER.debug("Client joined download {}", downloadIdentifier);
+      return new ResourceResponseImpl(
+          resourceRequest,
+          properties,
+          new ResourceImpl(stream, resource.getMimeType(), resource.getName()));
+    }
+  }
+
   private ReliableResourceCallable retrieveResource(long bytesRead) {
 
     ReliableResourceCallable reliableResourceCallable = null;
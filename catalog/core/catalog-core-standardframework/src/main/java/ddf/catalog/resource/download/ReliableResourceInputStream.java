@@ -20,6 +20,7 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,6 +56,13 @@ public class ReliableResourceInputStream extends InputStream {
   // Indicates if this InputStream is closed or not
   private boolean streamClosed = false;
 
+  // Number of open streams reading from the same FileBackedOutputStream. Only the last one to
+  // finish resets the FileBackedOutputStream and cancels a download that is still in progress.
+  private final AtomicInteger openReaders;
+
+  // Indicates if this InputStream has stopped counting as one of the openReaders
+  private boolean released = false;
+
   /**
    * @param fbos the @FileBackedOutputStream this object will read from
    * @param countingFbos wrapped @FileBackedOutputStream that counts the number of bytes written so
@@ -67,12 +75,53 @@ public ReliableResourceInputStream(
       DownloadManagerState downloadState,
       String downloadIdentifier,
       ResourceResponse resourceResponse) {
+    this(
+        fbos,
+        countingFbos,
+        downloadState,
+        downloadIdentifier,
+        resourceResponse,
+        new AtomicInteger(1));
+  }
+
+  private ReliableResourceInputStream(
+      FileBackedOutputStream fbos,
+      CountingOutputStream countingFbos,
+      DownloadManagerState downloadState,
+      String downloadIdentifier,
+      ResourceResponse resourceResponse,
+      AtomicInteger openReaders) {
     this.fbos = fbos;
     fbosByteSource = fbos.asByteSource();
     this.countingFbos = countingFbos;
     this.downloadState = downloadState;
     this.downloadIdentifier = downloadIdentifier;
     this.resourceResponse = resourceResponse;
+    this.openReaders = openReaders;
+  }
+
+  /**
+   * Creates another @InputStream that reads the same download from its first byte, so that
+   * concurrent requests for the same resource can be served by a single download.
+   *
+   * @param resourceResponse the @ResourceResponse the new stream is returned in
+   * @return the new stream, or {@code null} if every stream reading the download has already been
+   *     closed and the @FileBackedOutputStream has been reset
+   */
+  ReliableResourceInputStream newReader(ResourceResponse resourceResponse) {
+    int readers;
+    do {
+      readers = openReaders.get();
+      if (readers == 0) {
+        return null;
+      }
+    } while (!openReaders.compareAndSet(readers, readers + 1));
+
+    ReliableResourceInputStream reader =
+        new ReliableResourceInputStream(
+            fbos, countingFbos, downloadState, downloadIdentifier, resourceResponse, openReaders);
+    reader.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+    return reader;
   }
 
   /**
@@ -91,6 +140,12 @@ public void setCallableAndItsFuture(
   @Override
   public void close() throws IOException {
     LOGGER.debug("ENTERING: close() - fbosBytesRead = {}", fbosBytesRead);
+    if (!release()) {
+      LOGGER.debug("Other clients are still reading download {}", downloadIdentifier);
+      streamClosed = true;
+      return;
+    }
+
     InputStream is = fbosByteSource.openStream();
     is.close();
 
@@ -168,9 +223,12 @@ public int read(byte b[], int off, int len) throws IOException {
 
     if (isFbosCompletelyRead(numBytesRead, fbosCount)) {
       LOGGER.debug("Sending EOF");
-      // Client is done reading from this FileBackedOutputStream, so can
-      // delete the backing file it created in the <INSTALL_DIR>/data/tmp directory
-      fbos.reset();
+      // Client is done reading from this FileBackedOutputStream, so if no other client is still
+      // reading from it can delete the backing file it created in the <INSTALL_DIR>/data/tmp
+      // directory
+      if (release()) {
+        fbos.reset();
+      }
     } else if (numBytesRead <= 0) {
       LOGGER.trace("Retry reading inputstream");
       LOGGER.trace(
@@ -188,7 +246,9 @@ public int read(byte b[], int off, int len) throws IOException {
           break;
         } else if (isFbosCompletelyRead(numBytesRead, fbosCount)) {
           LOGGER.debug("Got EOF - resetting FBOS");
-          fbos.reset();
+          if (release()) {
+            fbos.reset();
+          }
           break;
         } else {
           try {
@@ -228,6 +288,19 @@ public DownloadManagerState getDownloadState() {
     return downloadState;
   }
 
+  /**
+   * Stops counting this stream as one of the readers of the @FileBackedOutputStream.
+   *
+   * @return true if this was the last open reader
+   */
+  private synchronized boolean release() {
+    if (released) {
+      return false;
+    }
+    released = true;
+    return openReaders.decrementAndGet() == 0;
+  }
+
   private boolean isFbosCompletelyRead(int numBytesRead, long fbosCount) {
     return (numBytesRead == -1
         && fbosCount == fbosBytesRead
@@ -14,6 +14,7 @@
 package ddf.catalog.impl.operations
 
 import ddf.catalog.content.data.ContentItem
+import ddf.catalog.content.plugin.ContentStreamObserver
 import ddf.catalog.data.Attribute
 import ddf.catalog.data.AttributeDescriptor
 import ddf.catalog.data.AttributeInjector
@@ -93,7 +94,7 @@ class OperationsMetacardSupportSpec extends Specification {
         def contentPaths = [:]
 
         when:
-        opsMetacard.generateMetacardAndContentItems([], metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems([], metacardMap, contentItems, contentPaths, [:])
 
         then:
         metacardMap.isEmpty()
@@ -111,7 +112,7 @@ class OperationsMetacardSupportSpec extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, [:])
 
         then:
         thrown(IngestException)
@@ -127,7 +128,7 @@ class OperationsMetacardSupportSpec extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, [:])
 
         then:
         thrown(IngestException)
@@ -146,7 +147,7 @@ class OperationsMetacardSupportSpec extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, [:])
 
         then:
         thrown(IngestException)
@@ -166,7 +167,7 @@ class OperationsMetacardSupportSpec extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, [:])
 
         then:
         metacardMap.size() == 1
@@ -193,13 +194,75 @@ class OperationsMetacardSupportSpec extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, [:])
 
         then:
         1 * transformer.transform(_) >> { throw new IOException() }
         thrown(IngestException)
     }
 
+    def 'test content is observed while it is spooled'() {
+        setup:
+        def metacardMap = [:]
+        List<ContentItem> contentItems = []
+        Map<String, Map<String, Path>> contentPaths = [:]
+        Map<String, Map<String, Serializable>> contentObservations = [:]
+        frameworkProperties.mimeTypeMapper.guessMimeType(_, _) >> { 'text/plain' }
+        def observed = new ByteArrayOutputStream()
+        def observation = Mock(ContentStreamObserver.Observation) {
+            update(_ as byte[], _ as int, _ as int) >> { byte[] bytes, int offset, int length ->
+                observed.write(bytes, offset, length)
+            }
+            complete() >> { ['observed.size': observed.size()] }
+        }
+        def interested = Mock(ContentStreamObserver) {
+            observe(_) >> observation
+        }
+        def uninterested = Mock(ContentStreamObserver) {
+            observe(_) >> null
+        }
+        frameworkProperties.contentStreamObservers = [interested, uninterested]
+        def item = Mock(ContentItem)
+        item.getFilename() >> 'joe.txt'
+        item.getInputStream() >> { new ByteArrayInputStream('hello'.bytes) }
+        item.getId() >> 'item.id'
+        item.getMimeTypeRawData() >> 'application/octet-stream'
+
+        when:
+        opsMetacard.generateMetacardAndContentItems([item], metacardMap, contentItems, contentPaths,
+                contentObservations)
+
+        then:
+        new String(observed.toByteArray()) == 'hello'
+        contentItems.first().size == 'hello'.size()
+        contentObservations == ['genmeta_id': ['observed.size': 'hello'.size()]]
+    }
+
+    def 'test derived content is not observed'() {
+        setup:
+        def metacard = Mock(Metacard) {
+            getId() >> 'ABC123'
+        }
+        def contentItem = Mock(ContentItem) {
+            getQualifier() >> 'some-qualifier'
+            getMetacard() >> metacard
+            getId() >> 'ABC123'
+            getFilename() >> 'joe.txt'
+            getInputStream() >> { new ByteArrayInputStream('hello'.bytes) }
+            getMimeTypeRawData() >> 'application/octet-stream'
+        }
+        def observer = Mock(ContentStreamObserver)
+        frameworkProperties.contentStreamObservers = [observer]
+        Map<String, Map<String, Serializable>> contentObservations = [:]
+
+        when:
+        opsMetacard.generateMetacardAndContentItems([contentItem], [:], [], [:], contentObservations)
+
+        then:
+        0 * observer.observe(_)
+        contentObservations.isEmpty()
+    }
+
     def 'test set default values'() {
         setup:
         def attDescs = (1..4).collect { num ->
@@ -273,7 +336,7 @@ class OperationsMetacardSupportSpec extends Specification {
         def tmpContentPaths = [:]
 
         when:
-        opsMetacard.generateMetacardAndContentItems([contentItem], metacardMap, [], tmpContentPaths)
+        opsMetacard.generateMetacardAndContentItems([contentItem], metacardMap, [], tmpContentPaths, [:])
 
         then:
         0 * metacardFactory.generateMetacard(_ as String, _ as String, _ as String, _ as Path)
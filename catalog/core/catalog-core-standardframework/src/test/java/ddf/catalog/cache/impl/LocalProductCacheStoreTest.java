@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.resource.data.ReliableResource;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LocalProductCacheStoreTest {
+
+  private static final int KB = 1024;
+
+  private static final long GB = 1024L * 1024 * 1024;
+
+  @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private String productCacheDirectory;
+
+  private long lastTouchedMillis;
+
+  @Before
+  public void setUp() throws IOException {
+    productCacheDirectory = testFolder.newFolder("Product_Cache").toString();
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedWhenMaxSizeExceeded() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 28 * KB);
+    store.put(createCachedResource("rr1", 10 * KB));
+    store.put(createCachedResource("rr2", 15 * KB));
+    store.get("rr1");
+
+    store.put(createCachedResource("rr3", 10 * KB));
+
+    assertThat(store.get("rr1"), is(notNullValue()));
+    assertThat(store.get("rr2"), is(nullValue()));
+    assertThat(store.get("rr3"), is(notNullValue()));
+    assertThat(new File(productCacheDirectory, "rr2").exists(), is(false));
+  }
+
+  @Test
+  public void testEvictsProductLargerThanMaxSize() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 5 * KB);
+
+    store.put(createCachedResource("rr1", 10 * KB));
+
+    assertThat(store.get("rr1"), is(nullValue()));
+    assertThat(new File(productCacheDirectory, "rr1").exists(), is(false));
+  }
+
+  @Test
+  public void testReducingMaxSizeEvicts() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 0);
+    store.put(createCachedResource("rr1", 10 * KB));
+    store.put(createCachedResource("rr2", 15 * KB));
+
+    store.setMaxSizeBytes(20 * KB);
+
+    assertThat(store.get("rr1"), is(nullValue()));
+    assertThat(store.get("rr2"), is(notNullValue()));
+  }
+
+  @Test
+  public void testEvictsProductsLargerThanTwoGigabytes() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 4 * GB);
+    ReliableResource rr1 = createCachedResource("rr1", 10);
+    rr1.setSize(3 * GB);
+    ReliableResource rr2 = createCachedResource("rr2", 10);
+    rr2.setSize(3 * GB);
+
+    store.put(rr1);
+    store.put(rr2);
+
+    assertThat(store.get("rr1"), is(nullValue()));
+    assertThat(store.get("rr2"), is(notNullValue()));
+  }
+
+  @Test
+  public void testRestoresLastUsedOrderAfterRestart() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 0);
+    store.put(createCachedResource("rr1", 10 * KB));
+    store.put(createCachedResource("rr2", 10 * KB));
+    store.get("rr1");
+    store.close();
+
+    LocalProductCacheStore restoredStore =
+        new LocalProductCacheStore(productCacheDirectory, 15 * KB);
+
+    assertThat(restoredStore.get("rr1"), is(notNullValue()));
+    assertThat(restoredStore.get("rr2"), is(nullValue()));
+  }
+
+  @Test
+  public void testImportsProductsPersistedByHazelcast() throws IOException {
+    FileSystemPersistenceProvider hazelcastStore =
+        new FileSystemPersistenceProvider("Product_Cache", productCacheDirectory);
+    hazelcastStore.store("rr1", createCachedResource("rr1", 10));
+
+    new LocalProductCacheStore(productCacheDirectory, 0).close();
+    LocalProductCacheStore restoredStore =
+        new LocalProductCacheStore(productCacheDirectory, 0);
+
+    assertThat(restoredStore.get("rr1").getMetacard().getId(), is("rr1"));
+    assertThat(hazelcastStore.loadAllKeys().isEmpty(), is(true));
+  }
+
+  @Test
+  public void testRestoresEntriesAfterRestart() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 0);
+    store.put(createCachedResource("rr1", 10));
+    store.put(createCachedResource("rr2", 10));
+    store.put(createCachedResource("rr3", 10));
+    store.remove("rr2");
+    Files.delete(new File(productCacheDirectory, "rr3").toPath());
+    store.close();
+
+    LocalProductCacheStore restoredStore =
+        new LocalProductCacheStore(productCacheDirectory, 0);
+
+    assertThat(restoredStore.get("rr1").getMetacard().getId(), is("rr1"));
+    assertThat(restoredStore.get("rr2"), is(nullValue()));
+    assertThat(restoredStore.get("rr3"), is(nullValue()));
+  }
+
+  @Test
+  public void testRestoresEntriesBeforeIncompleteRecord() throws IOException {
+    LocalProductCacheStore store = new LocalProductCacheStore(productCacheDirectory, 0);
+    store.put(createCachedResource("rr1", 10));
+    store.put(createCachedResource("rr2", 10));
+    store.close();
+
+    File indexFile = new File(productCacheDirectory, ProductCacheIndex.INDEX_FILE_NAME);
+    try (RandomAccessFile index = new RandomAccessFile(indexFile, "rw")) {
+      index.setLength(index.length() - 5);
+    }
+
+    LocalProductCacheStore restoredStore =
+        new LocalProductCacheStore(productCacheDirectory, 0);
+
+    assertThat(restoredStore.get("rr1"), is(notNullValue()));
+    assertThat(restoredStore.get("rr2"), is(nullValue()));
+  }
+
+  private ReliableResource createCachedResource(String key, int size) throws IOException {
+    File file = new File(productCacheDirectory, key);
+    Files.write(file.toPath(), new byte[size]);
+
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(key);
+    ReliableResource reliableResource =
+        new ReliableResource(key, file.getPath(), null, key, metacard);
+    reliableResource.setSize(size);
+    reliableResource.setLastTouchedMillis(++lastTouchedMillis);
+    return reliableResource;
+  }
+}
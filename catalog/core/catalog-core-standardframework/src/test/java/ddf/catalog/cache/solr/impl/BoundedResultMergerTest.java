@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.util.impl.RelevanceResultComparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+public class BoundedResultMergerTest {
+
+  private static final Comparator<Result> RELEVANCE_DESCENDING =
+      new RelevanceResultComparator(SortOrder.DESCENDING);
+
+  @Test
+  public void testPageIsBoundedAndSorted() {
+    BoundedResultMerger merger = new BoundedResultMerger(RELEVANCE_DESCENDING, 3);
+
+    merger.merge(results("a", 0.1, "b", 0.9, "c", 0.5));
+    merger.merge(results("d", 0.7, "e", 0.2));
+
+    assertThat(merger.getMergedCount()).isEqualTo(5);
+    assertThat(merger.size()).isEqualTo(3);
+    assertThat(ids(merger.getSortedResults())).containsExactly("b", "d", "c");
+  }
+
+  @Test
+  public void testTiesKeepMergeOrder() {
+    BoundedResultMerger merger = new BoundedResultMerger(RELEVANCE_DESCENDING, 2);
+
+    merger.merge(results("a", 0.5, "b", 0.5));
+    merger.merge(results("c", 0.5, "d", 0.9));
+
+    assertThat(ids(merger.getSortedResults())).containsExactly("d", "a");
+  }
+
+  @Test
+  public void testUnboundedRetainsEverything() {
+    BoundedResultMerger merger = new BoundedResultMerger(RELEVANCE_DESCENDING, 0);
+
+    merger.merge(results("a", 0.1, "b", 0.9));
+    merger.merge(results("c", 0.5));
+
+    assertThat(merger.size()).isEqualTo(3);
+    assertThat(ids(merger.getSortedResults())).containsExactly("b", "c", "a");
+  }
+
+  @Test
+  public void testNullResultsAreIgnored() {
+    BoundedResultMerger merger = new BoundedResultMerger(RELEVANCE_DESCENDING, 5);
+
+    merger.merge((List<Result>) null);
+
+    assertThat(merger.getMergedCount()).isZero();
+    assertThat(merger.getSortedResults()).isEmpty();
+  }
+
+  @Test
+  public void testMatchesStableSortAndTruncate() {
+    Random random = new Random(42);
+    List<Result> all = new ArrayList<>();
+    BoundedResultMerger merger = new BoundedResultMerger(RELEVANCE_DESCENDING, 50);
+
+    for (int source = 0; source < 10; source++) {
+      List<Result> sourceResults = new ArrayList<>();
+      for (int i = 0; i < 500; i++) {
+        // Coarse relevance values force plenty of ties
+        sourceResults.add(result(source + "-" + i, random.nextInt(20) / 20.0));
+      }
+      all.addAll(sourceResults);
+      merger.merge(sourceResults);
+    }
+
+    Collections.sort(all, RELEVANCE_DESCENDING);
+
+    assertThat(merger.getSortedResults()).containsExactlyElementsOf(all.subList(0, 50));
+  }
+
+  private static List<Result> results(Object... idsAndRelevance) {
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < idsAndRelevance.length; i += 2) {
+      results.add(result((String) idsAndRelevance[i], (Double) idsAndRelevance[i + 1]));
+    }
+    return results;
+  }
+
+  private static Result result(String id, double relevance) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    ResultImpl result = new ResultImpl(metacard);
+    result.setRelevanceScore(relevance);
+    return result;
+  }
+
+  private static List<String> ids(List<Result> results) {
+    List<String> ids = new ArrayList<>();
+    for (Result result : results) {
+      ids.add(result.getMetacard().getId());
+    }
+    return ids;
+  }
+}
@@ -20,12 +20,14 @@
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.catalog.cache.ProgressiveQueryListener;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -35,6 +37,7 @@
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.ProcessingDetailsImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
@@ -57,6 +60,8 @@
 import org.assertj.core.util.Lists;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.opengis.filter.expression.PropertyName;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
@@ -160,6 +165,52 @@ public void noQueryTimeout() throws Exception {
         .contains("Source-0");
   }
 
+  @Test
+  public void progressiveListenerReceivesEachSourceAndFinalPage() throws Exception {
+    when(query.getTimeoutMillis()).thenReturn(0L);
+    when(queryRequest.getQuery()).thenReturn(query);
+    ProgressiveQueryListener listener = mock(ProgressiveQueryListener.class);
+
+    SortedQueryMonitor queryMonitor =
+        new SortedQueryMonitor(
+            cachingFederationStrategy,
+            completionService,
+            futures,
+            queryResponse,
+            queryRequest,
+            new ArrayList<>());
+    queryMonitor.setProgressiveListener(listener);
+
+    final Iterator<Future<SourceResponse>> futureIter =
+        new ArrayList<>(futures.keySet()).iterator();
+    when(completionService.take()).thenAnswer((invocationOnMock -> futureIter.next()));
+    queryMonitor.run();
+
+    ArgumentCaptor<QueryResponse> partialResponses = ArgumentCaptor.forClass(QueryResponse.class);
+    InOrder inOrder = inOrder(listener);
+    inOrder.verify(listener).onPartialResponse(eq("Source-0"), partialResponses.capture());
+    inOrder.verify(listener).onPartialResponse(eq("Source-1"), partialResponses.capture());
+    inOrder.verify(listener).onPartialResponse(eq("Source-2"), partialResponses.capture());
+    inOrder.verify(listener).onPartialResponse(eq("Source-3"), partialResponses.capture());
+    ArgumentCaptor<QueryResponse> finalResponse = ArgumentCaptor.forClass(QueryResponse.class);
+    inOrder.verify(listener).onFinalResponse(finalResponse.capture());
+
+    List<QueryResponse> partials = partialResponses.getAllValues();
+    assertThat(partials.get(0).getResults()).isEmpty();
+    assertThat(partials.get(0).getProcessingDetails())
+        .extracting(byName("exception"))
+        .extracting(byName("class"))
+        .containsExactly(NullPointerException.class);
+    assertThat(partials.get(1).getResults()).hasSize(3);
+    assertThat(partials.get(1).getHits()).isEqualTo(3);
+    assertThat(partials.get(2).getResults()).hasSize(4);
+    assertThat(partials.get(2).getHits()).isEqualTo(4);
+
+    assertThat(finalResponse.getValue().getHits()).isEqualTo(4);
+    assertThat(finalResponse.getValue().getResults())
+        .containsExactlyElementsOf(queryResponse.getResults());
+  }
+
   @Test
   public void shortQueryTimeout() throws Exception {
     when(query.getTimeoutMillis()).thenReturn(5000L);
@@ -24,6 +24,7 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -291,6 +292,35 @@ public void testDownloadWithCaching() throws Exception {
     cleanup();
   }
 
+  /**
+   * Verifies that concurrent requests for the same product share a single retrieval from the
+   * source, each reading the complete product through its own @ReliableResourceInputStream.
+   */
+  @Test
+  public void testConcurrentDownloadsShareRetrieval() throws Exception {
+    mis = new MockInputStream(productInputFilename, true);
+    mis.setReadDelay(MONITOR_PERIOD - 2, TimeUnit.MILLISECONDS);
+    Metacard metacard = getMockMetacard(EXPECTED_METACARD_ID, EXPECTED_METACARD_SOURCE_ID);
+    resourceResponse = getMockResourceResponse();
+
+    ResourceRetriever retriever = mock(ResourceRetriever.class);
+    when(retriever.retrieveResource()).thenReturn(resourceResponse);
+
+    int chunkSize = 10;
+    startDownload(false, chunkSize, false, metacard, retriever);
+    ResourceResponse secondResourceResponse =
+        downloadMgr.download(resourceRequest, metacard, retriever);
+    InputStream secondInputStream = secondResourceResponse.getResource().getInputStream();
+    assertThat(secondInputStream, is(instanceOf(ReliableResourceInputStream.class)));
+
+    verifyClientBytesRead(clientRead(chunkSize, productInputStream));
+    verifyClientBytesRead(clientRead(chunkSize, secondInputStream));
+    verify(retriever, times(1)).retrieveResource();
+
+    IOUtils.closeQuietly(secondInputStream);
+    cleanup();
+  }
+
   /**
    * Verifies that if client is reading from @ReliableResourceInputStream slower than {@link
    * ReliableResourceCallable} is reading from product InputStream and writing to
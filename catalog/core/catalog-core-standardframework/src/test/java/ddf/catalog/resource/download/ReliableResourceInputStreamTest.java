@@ -17,7 +17,11 @@
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.io.CountingOutputStream;
@@ -270,4 +274,44 @@ public void testInputStreamReadRetry() throws Exception {
       logger.removeAppender(appender);
     }
   }
+
+  @Test
+  public void testNewReaderReadsSameDownload() throws Exception {
+    ReliableResourceInputStream is =
+        new ReliableResourceInputStream(
+            fbos, countingFbos, downloadState, downloadIdentifier, resourceResponse);
+    is.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+    byte[] bytes = "Hello World".getBytes();
+    countingFbos.write(bytes, 0, bytes.length);
+
+    ReliableResourceInputStream second = is.newReader(resourceResponse);
+    byte[] buffer = new byte[50];
+    assertThat(is.read(buffer, 0, buffer.length), is(bytes.length));
+    assertThat(is.read(buffer, 0, buffer.length), is(-1));
+
+    // The first reader reaching the end must not discard the data the second has not read yet
+    byte[] secondBuffer = new byte[50];
+    assertThat(second.read(secondBuffer, 0, secondBuffer.length), is(bytes.length));
+    assertThat(new String(secondBuffer, 0, bytes.length), is("Hello World"));
+    assertThat(second.read(secondBuffer, 0, secondBuffer.length), is(-1));
+
+    assertThat(is.newReader(resourceResponse), is(nullValue()));
+  }
+
+  @Test
+  public void testCloseOnlyCancelsDownloadWhenLastReaderCloses() throws Exception {
+    when(downloadFuture.isDone()).thenReturn(false);
+    ReliableResourceInputStream is =
+        new ReliableResourceInputStream(
+            fbos, countingFbos, downloadState, downloadIdentifier, resourceResponse);
+    is.setCallableAndItsFuture(reliableResourceCallable, downloadFuture);
+    ReliableResourceInputStream second = is.newReader(resourceResponse);
+
+    is.close();
+    assertThat(is.isClosed(), is(true));
+    verify(downloadFuture, never()).cancel(anyBoolean());
+
+    second.close();
+    verify(downloadFuture).cancel(true);
+  }
 }
@@ -13,9 +13,12 @@
  */
 package org.codice.ddf.catalog.content.plugin.checksum;
 
+import static ddf.catalog.Constants.CONTENT_OBSERVATIONS;
+
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
+import ddf.catalog.content.plugin.ContentStreamObserver;
 import ddf.catalog.content.plugin.PreCreateStoragePlugin;
 import ddf.catalog.content.plugin.PreUpdateStoragePlugin;
 import ddf.catalog.data.Metacard;
@@ -23,12 +26,17 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.commons.lang.StringUtils;
+import org.codice.ddf.checksum.ChecksumCalculator;
 import org.codice.ddf.checksum.ChecksumProvider;
 
-public class Checksum implements PreCreateStoragePlugin, PreUpdateStoragePlugin {
+public class Checksum
+    implements PreCreateStoragePlugin, PreUpdateStoragePlugin, ContentStreamObserver {
   private final ChecksumProvider checksumProvider;
 
   public Checksum(ChecksumProvider checksumProvider) {
@@ -40,7 +48,7 @@ public CreateStorageRequest process(CreateStorageRequest input) throws PluginExe
     if (input == null) {
       throw new IllegalArgumentException("CreateStorageRequest cannot be null");
     }
-    runChecksum(input.getContentItems());
+    runChecksum(input.getContentItems(), input.getProperties());
 
     return input;
   }
@@ -50,12 +58,41 @@ public UpdateStorageRequest process(UpdateStorageRequest input) throws PluginExe
     if (input == null) {
       throw new IllegalArgumentException("UpdateStorageRequest cannot be null");
     }
-    runChecksum(input.getContentItems());
+    runChecksum(input.getContentItems(), input.getProperties());
 
     return input;
   }
 
-  private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionException {
+  @Override
+  public Observation observe(ContentItem contentItem) {
+    if (StringUtils.isNotEmpty(contentItem.getQualifier())) {
+      return null;
+    }
+
+    String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
+    ChecksumCalculator checksumCalculator = checksumProvider.newChecksumCalculator();
+    if (checksumCalculator == null) {
+      return null;
+    }
+
+    return new Observation() {
+      @Override
+      public void update(byte[] bytes, int offset, int length) {
+        checksumCalculator.update(bytes, offset, length);
+      }
+
+      @Override
+      public Map<String, Serializable> complete() {
+        Map<String, Serializable> results = new HashMap<>();
+        results.put(Metacard.CHECKSUM_ALGORITHM, checksumAlgorithm);
+        results.put(Metacard.CHECKSUM, checksumCalculator.getChecksum());
+        return results;
+      }
+    };
+  }
+
+  private void runChecksum(List<ContentItem> contentItems, Map<String, Serializable> properties)
+      throws PluginExecutionException {
     for (ContentItem contentItem : contentItems) {
       if (StringUtils.isNotEmpty(contentItem.getQualifier())) {
         // We are dealing with a derived resource, and this Metacard's checksum should reflect the
@@ -63,6 +100,14 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
         continue;
       }
 
+      String observedChecksum = getObservedChecksum(contentItem, properties);
+      if (observedChecksum != null) {
+        // the checksum was already calculated while the framework spooled the content
+        addChecksumAttributes(
+            contentItem.getMetacard(), checksumProvider.getChecksumAlgorithm(), observedChecksum);
+        continue;
+      }
+
       try (InputStream inputStream = contentItem.getInputStream()) {
         // calculate checksum so that it can be added as an attribute on metacard
         String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
@@ -83,6 +128,26 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
     }
   }
 
+  private String getObservedChecksum(
+      ContentItem contentItem, Map<String, Serializable> properties) {
+    if (properties == null || !(properties.get(CONTENT_OBSERVATIONS) instanceof Map)) {
+      return null;
+    }
+
+    Object observations = ((Map) properties.get(CONTENT_OBSERVATIONS)).get(contentItem.getId());
+    if (!(observations instanceof Map)) {
+      return null;
+    }
+
+    Object checksumAlgorithm = ((Map) observations).get(Metacard.CHECKSUM_ALGORITHM);
+    Object checksumValue = ((Map) observations).get(Metacard.CHECKSUM);
+    if (checksumProvider.getChecksumAlgorithm().equals(checksumAlgorithm)
+        && checksumValue instanceof String) {
+      return (String) checksumValue;
+    }
+    return null;
+  }
+
   private void addChecksumAttributes(
       Metacard metacard, final String checksumAlgorithm, final String checksumValue) {
     metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM_ALGORITHM, checksumAlgorithm));
@@ -14,6 +14,7 @@
 package org.codice.ddf.catalog.content.plugin.checksum;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -24,18 +25,24 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
+import ddf.catalog.content.plugin.ContentStreamObserver.Observation;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.codice.ddf.checksum.ChecksumCalculator;
 import org.codice.ddf.checksum.ChecksumProvider;
 import org.junit.Before;
 import org.junit.Test;
@@ -125,6 +132,58 @@ public void testProcessUpdateWithValidInput() throws PluginExecutionException {
     assertThat(checksumAlgorithm, is(SAMPLE_CHECKSUM_ALGORITHM));
   }
 
+  @Test
+  public void testProcessCreateUsesObservedChecksum() throws Exception {
+    ContentItem contentItem = mockCreateRequest.getContentItems().get(0);
+    when(contentItem.getId()).thenReturn("id");
+    when(mockCreateRequest.getProperties())
+        .thenReturn(observations("id", SAMPLE_CHECKSUM_ALGORITHM, "observed"));
+
+    checksum.process(mockCreateRequest);
+
+    assertThat(
+        contentItem.getMetacard().getAttribute(Metacard.CHECKSUM).getValue(), is("observed"));
+    verify(contentItem, never()).getInputStream();
+  }
+
+  @Test
+  public void testProcessCreateIgnoresObservedChecksumOfOtherAlgorithm() throws Exception {
+    ContentItem contentItem = mockCreateRequest.getContentItems().get(0);
+    when(contentItem.getId()).thenReturn("id");
+    when(mockCreateRequest.getProperties()).thenReturn(observations("id", "SHA-1", "observed"));
+
+    checksum.process(mockCreateRequest);
+
+    assertThat(
+        contentItem.getMetacard().getAttribute(Metacard.CHECKSUM).getValue(),
+        is(SAMPLE_CHECKSUM_VALUE));
+  }
+
+  @Test
+  public void testObserveCalculatesChecksumIncrementally() {
+    ChecksumCalculator checksumCalculator = mock(ChecksumCalculator.class);
+    when(checksumCalculator.getChecksum()).thenReturn(SAMPLE_CHECKSUM_VALUE);
+    when(mockChecksumProvider.newChecksumCalculator()).thenReturn(checksumCalculator);
+    byte[] bytes = new byte[] {1, 2, 3};
+
+    Observation observation = checksum.observe(mock(ContentItem.class));
+    observation.update(bytes, 0, 3);
+    Map<String, Serializable> results = observation.complete();
+
+    verify(checksumCalculator).update(bytes, 0, 3);
+    assertThat(results.get(Metacard.CHECKSUM_ALGORITHM), is(SAMPLE_CHECKSUM_ALGORITHM));
+    assertThat(results.get(Metacard.CHECKSUM), is(SAMPLE_CHECKSUM_VALUE));
+  }
+
+  @Test
+  public void testObserveDerivedContentReturnsNull() {
+    when(mockChecksumProvider.newChecksumCalculator()).thenReturn(mock(ChecksumCalculator.class));
+    ContentItem contentItem = mock(ContentItem.class);
+    when(contentItem.getQualifier()).thenReturn("some-qualifier");
+
+    assertThat(checksum.observe(contentItem), is(nullValue()));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testProcessCreateWithNullInput() throws PluginExecutionException {
     checksum.process((CreateStorageRequest) null);
@@ -194,4 +253,16 @@ public void testProcessUpdateDerivedContentDoesNotSetAttribute() throws Exceptio
 
     verify(metacard, never()).setAttribute(any(Attribute.class));
   }
+
+  private static Map<String, Serializable> observations(
+      String id, String checksumAlgorithm, String checksumValue) {
+    HashMap<String, Serializable> observed = new HashMap<>();
+    observed.put(Metacard.CHECKSUM_ALGORITHM, checksumAlgorithm);
+    observed.put(Metacard.CHECKSUM, checksumValue);
+    HashMap<String, HashMap<String, Serializable>> observations = new HashMap<>();
+    observations.put(id, observed);
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_OBSERVATIONS, observations);
+    return properties;
+  }
 }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/** A create, update or delete waiting to be replicated to the parent, as kept in the journal. */
+class ReplicationEntry {
+
+  enum Operation {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+
+  private final long sequence;
+
+  private final long timestamp;
+
+  private final Operation operation;
+
+  private final String id;
+
+  private final String mimeType;
+
+  private final String payload;
+
+  ReplicationEntry(Operation operation, String id, String mimeType, String payload) {
+    this(0L, 0L, operation, id, mimeType, payload);
+  }
+
+  private ReplicationEntry(
+      long sequence,
+      long timestamp,
+      Operation operation,
+      String id,
+      String mimeType,
+      String payload) {
+    this.sequence = sequence;
+    this.timestamp = timestamp;
+    this.operation = operation;
+    this.id = id;
+    this.mimeType = mimeType;
+    this.payload = payload;
+  }
+
+  ReplicationEntry withSequence(long sequence, long timestamp) {
+    return new ReplicationEntry(sequence, timestamp, operation, id, mimeType, payload);
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  /** @return when the entry was journaled, in milliseconds since the epoch */
+  long getTimestamp() {
+    return timestamp;
+  }
+
+  Operation getOperation() {
+    return operation;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  String getMimeType() {
+    return mimeType;
+  }
+
+  String getPayload() {
+    return payload;
+  }
+
+  void write(DataOutputStream output) throws IOException {
+    output.writeLong(sequence);
+    output.writeLong(timestamp);
+    output.writeUTF(operation.name());
+    writeNullable(output, id);
+    writeNullable(output, mimeType);
+    writeNullable(output, payload);
+  }
+
+  static ReplicationEntry read(DataInputStream input) throws IOException {
+    long sequence = input.readLong();
+    long timestamp = input.readLong();
+    Operation operation;
+    try {
+      operation = Operation.valueOf(input.readUTF());
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Unknown replication operation", e);
+    }
+    String id = readNullable(input);
+    String mimeType = readNullable(input);
+    String payload = readNullable(input);
+    return new ReplicationEntry(sequence, timestamp, operation, id, mimeType, payload);
+  }
+
+  private static void writeNullable(DataOutputStream output, String value) throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      // writeUTF is limited to 64K, which transformed metacards can exceed
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+  }
+
+  private static String readNullable(DataInputStream input) throws IOException {
+    if (!input.readBoolean()) {
+      return null;
+    }
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,329 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the entries waiting to be replicated. Entries are appended and synced to
+ * disk before ingest returns, and a checkpoint records the sequence number up to which every
+ * entry has been delivered, so undelivered entries can be recovered after a restart. The journal
+ * is truncated whenever everything in it has been delivered, and rewritten without its delivered
+ * prefix once that prefix grows past a threshold, so it stays bounded under steady load.
+ *
+ * <p>Entries that could not be delivered at all are appended to a separate dead letter file in the
+ * same format.
+ */
+class ReplicationJournal implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationJournal.class);
+
+  private static final String JOURNAL_FILE = "replication.journal";
+
+  private static final String CHECKPOINT_FILE = "replication.checkpoint";
+
+  private static final String DEAD_LETTER_FILE = "replication.deadletter";
+
+  private static final long DEFAULT_COMPACTION_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+  private static final int RECORD_HEADER_SIZE = Integer.BYTES;
+
+  private final Path journalFile;
+
+  private final Path checkpointFile;
+
+  private final Path deadLetterFile;
+
+  private final long compactionThreshold;
+
+  private FileChannel channel;
+
+  /** Sequence numbers of undelivered entries, mapped to the time they were journaled. */
+  private final NavigableMap<Long, Long> pending = new TreeMap<>();
+
+  /** Sequence numbers of undelivered entries, mapped to their position in the journal. */
+  private final Map<Long, Long> positions = new HashMap<>();
+
+  private long lastSequence;
+
+  private long checkpoint;
+
+  ReplicationJournal(Path directory) throws IOException {
+    this(directory, DEFAULT_COMPACTION_THRESHOLD_BYTES);
+  }
+
+  /**
+   * @param directory directory holding the journal, checkpoint and dead letter files
+   * @param compactionThreshold size in bytes of the delivered prefix of the journal at which the
+   *     journal is rewritten without it
+   */
+  ReplicationJournal(Path directory, long compactionThreshold) throws IOException {
+    Files.createDirectories(directory);
+    journalFile = directory.resolve(JOURNAL_FILE);
+    checkpointFile = directory.resolve(CHECKPOINT_FILE);
+    deadLetterFile = directory.resolve(DEAD_LETTER_FILE);
+    this.compactionThreshold = compactionThreshold;
+    checkpoint = readCheckpoint();
+    lastSequence = checkpoint;
+    channel = openJournal();
+    channel.position(channel.size());
+  }
+
+  /**
+   * Reads the entries that were journaled but not delivered, and positions the journal for new
+   * entries. A partially written record at the end of the journal is discarded.
+   */
+  synchronized List<ReplicationEntry> recover() throws IOException {
+    List<ReplicationEntry> entries = new ArrayList<>();
+    long position = 0;
+    long size = channel.size();
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+
+    while (position + RECORD_HEADER_SIZE <= size) {
+      header.clear();
+      channel.read(header, position);
+      header.flip();
+      int length = header.getInt();
+      if (length <= 0 || position + RECORD_HEADER_SIZE + length > size) {
+        break;
+      }
+
+      ByteBuffer record = ByteBuffer.allocate(length);
+      channel.read(record, position + RECORD_HEADER_SIZE);
+      ReplicationEntry entry;
+      try {
+        entry =
+            ReplicationEntry.read(
+                new DataInputStream(new ByteArrayInputStream(record.array(), 0, length)));
+      } catch (IOException e) {
+        LOGGER.debug("Discarding unreadable replication journal record at {}", position, e);
+        break;
+      }
+
+      lastSequence = Math.max(lastSequence, entry.getSequence());
+      if (entry.getSequence() > checkpoint) {
+        entries.add(entry);
+        pending.put(entry.getSequence(), entry.getTimestamp());
+        positions.put(entry.getSequence(), position);
+      }
+      position += RECORD_HEADER_SIZE + length;
+    }
+
+    if (position < size) {
+      LOGGER.debug("Truncating replication journal from {} to {} bytes", size, position);
+      channel.truncate(position);
+    }
+    channel.position(position);
+    LOGGER.debug("Recovered {} undelivered replication entries", entries.size());
+    return entries;
+  }
+
+  /**
+   * Assigns sequence numbers to the entries and appends them to the journal.
+   *
+   * @return the entries with their sequence numbers
+   */
+  synchronized List<ReplicationEntry> append(List<ReplicationEntry> entries) throws IOException {
+    long now = System.currentTimeMillis();
+    List<ReplicationEntry> sequenced = new ArrayList<>(entries.size());
+    for (ReplicationEntry entry : entries) {
+      sequenced.add(entry.withSequence(lastSequence + sequenced.size() + 1, now));
+    }
+
+    long start = channel.position();
+    List<Long> recordPositions = new ArrayList<>(sequenced.size());
+    ByteBuffer buffer = toRecords(sequenced, start, recordPositions);
+    try {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      // don't leave a partial record for later entries to be appended after
+      channel.truncate(start);
+      channel.position(start);
+      throw e;
+    }
+
+    lastSequence += sequenced.size();
+    for (int i = 0; i < sequenced.size(); i++) {
+      pending.put(sequenced.get(i).getSequence(), now);
+      positions.put(sequenced.get(i).getSequence(), recordPositions.get(i));
+    }
+    return sequenced;
+  }
+
+  /** Appends an entry that could not be delivered to the dead letter file. */
+  synchronized void deadLetter(ReplicationEntry entry) throws IOException {
+    ByteBuffer buffer = toRecords(Collections.singletonList(entry), 0, new ArrayList<>(1));
+    try (FileChannel deadLetters =
+        FileChannel.open(
+            deadLetterFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND)) {
+      while (buffer.hasRemaining()) {
+        deadLetters.write(buffer);
+      }
+      deadLetters.force(false);
+    }
+  }
+
+  /**
+   * Records that the entries with the given sequence numbers were delivered, advancing the
+   * checkpoint past every entry that has been delivered in order.
+   */
+  synchronized void delivered(Collection<Long> sequences) throws IOException {
+    for (Long sequence : sequences) {
+      pending.remove(sequence);
+      positions.remove(sequence);
+    }
+
+    long delivered = pending.isEmpty() ? lastSequence : pending.firstKey() - 1;
+    if (delivered > checkpoint) {
+      writeCheckpoint(delivered);
+      checkpoint = delivered;
+    }
+
+    if (pending.isEmpty()) {
+      if (channel.size() > 0) {
+        channel.truncate(0);
+        channel.position(0);
+      }
+    } else if (positions.get(pending.firstKey()) >= compactionThreshold) {
+      compact(positions.get(pending.firstKey()));
+    }
+  }
+
+  synchronized int getPendingCount() {
+    return pending.size();
+  }
+
+  /** @return how long the oldest undelivered entry has been waiting, in milliseconds */
+  synchronized long getLagMillis() {
+    if (pending.isEmpty()) {
+      return 0;
+    }
+    return Math.max(0, System.currentTimeMillis() - pending.firstEntry().getValue());
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Rewrites the journal without the records before {@code start}, all of which were delivered.
+   * The rewritten journal replaces the old one atomically, so a crash leaves one or the other.
+   */
+  private void compact(long start) throws IOException {
+    Path temporary = journalFile.resolveSibling(JOURNAL_FILE + ".tmp");
+    long size = channel.size();
+    try (FileChannel compacted =
+        FileChannel.open(
+            temporary,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      long copied = 0;
+      while (copied < size - start) {
+        copied += channel.transferTo(start + copied, size - start - copied, compacted);
+      }
+      compacted.force(false);
+    }
+
+    channel.close();
+    Files.move(
+        temporary,
+        journalFile,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    channel = openJournal();
+    channel.position(channel.size());
+    for (Map.Entry<Long, Long> position : positions.entrySet()) {
+      position.setValue(position.getValue() - start);
+    }
+    LOGGER.debug("Compacted replication journal from {} to {} bytes", size, size - start);
+  }
+
+  private FileChannel openJournal() throws IOException {
+    return FileChannel.open(
+        journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Serializes entries as length-prefixed records.
+   *
+   * @param start position at which the records will be written
+   * @param recordPositions receives the position of each record
+   */
+  private static ByteBuffer toRecords(
+      List<ReplicationEntry> entries, long start, List<Long> recordPositions) throws IOException {
+    ByteArrayOutputStream records = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(records);
+    for (ReplicationEntry entry : entries) {
+      ByteArrayOutputStream record = new ByteArrayOutputStream();
+      entry.write(new DataOutputStream(record));
+      recordPositions.add(start + output.size());
+      output.writeInt(record.size());
+      record.writeTo(output);
+    }
+    output.flush();
+    return ByteBuffer.wrap(records.toByteArray());
+  }
+
+  private long readCheckpoint() throws IOException {
+    if (!Files.exists(checkpointFile)) {
+      return 0;
+    }
+    String value = new String(Files.readAllBytes(checkpointFile), StandardCharsets.UTF_8).trim();
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid replication checkpoint: " + value, e);
+    }
+  }
+
+  private void writeCheckpoint(long sequence) throws IOException {
+    Path temporary = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+    Files.write(temporary, Long.toString(sequence).getBytes(StandardCharsets.UTF_8));
+    Files.move(
+        temporary,
+        checkpointFile,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+}
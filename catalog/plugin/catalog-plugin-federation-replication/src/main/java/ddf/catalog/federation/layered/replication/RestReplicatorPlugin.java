@@ -26,9 +26,24 @@
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.util.impl.Requests;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import org.apache.commons.lang.builder.ToStringBuilder;
@@ -37,38 +52,115 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class RestReplicatorPlugin implements PostIngestPlugin {
+/**
+ * Replicates local creates, updates and deletes to a parent catalog's REST endpoint.
+ *
+ * <p>Metacards are transformed during ingest and appended to a local {@link ReplicationJournal},
+ * after which ingest returns without waiting for the parent. Sender threads deliver the journaled
+ * entries to the parent one request per entry. Entries for the same id always go to the same
+ * sender and are delivered in the order they were ingested. Failed deliveries are retried with
+ * exponential backoff; an entry that still fails after {@value #MAX_DELIVERY_ATTEMPTS} attempts is
+ * moved to the journal's dead letter file so it cannot hold up the entries behind it. Anything not
+ * yet delivered is recovered from the journal when the plugin is restarted.
+ */
+public class RestReplicatorPlugin implements PostIngestPlugin, RestReplicatorPluginMBean {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(RestReplicatorPlugin.class);
 
   private static final String RESPONSE = "RESPONSE: [{}]";
 
+  private static final int SENDER_COUNT = 4;
+
+  /** Maximum number of entries a sender delivers between checkpoints. */
+  private static final int CHECKPOINT_INTERVAL = 100;
+
+  private static final int MAX_DELIVERY_ATTEMPTS = 15;
+
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 100L;
+
+  private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5L);
+
   /** A configurable property of parent's location. */
   private PropertyResolver parentAddress = null;
 
   private MetacardTransformer transformer = null;
 
-  private WebClient client;
+  private volatile WebClient client;
+
+  private Path journalDirectory =
+      Paths.get(System.getProperty("ddf.home", "."), "data", "replication");
+
+  private ReplicationJournal journal;
+
+  private final List<BlockingQueue<ReplicationEntry>> senderQueues = new ArrayList<>();
+
+  private ExecutorService senders;
+
+  private final AtomicLong replicatedCount = new AtomicLong();
+
+  private final AtomicLong failedAttemptCount = new AtomicLong();
+
+  private final AtomicLong deadLetterCount = new AtomicLong();
+
+  private ObjectName objectName;
 
   public RestReplicatorPlugin(String endpointAddress) {
     setParentAddress(endpointAddress);
   }
 
+  /** Recovers undelivered entries from the journal and starts the senders. */
+  public void init() throws IOException {
+    journal = new ReplicationJournal(journalDirectory);
+    senderQueues.clear();
+    for (int i = 0; i < SENDER_COUNT; i++) {
+      senderQueues.add(new LinkedBlockingQueue<>());
+    }
+    enqueue(journal.recover());
+
+    senders = Executors.newFixedThreadPool(SENDER_COUNT);
+    for (BlockingQueue<ReplicationEntry> queue : senderQueues) {
+      senders.execute(() -> send(queue));
+    }
+    registerMBean();
+  }
+
+  /** Stops the senders. Entries that were not delivered stay in the journal. */
+  public void destroy() {
+    unregisterMBean();
+    if (senders != null) {
+      senders.shutdownNow();
+      try {
+        senders.awaitTermination(10L, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        LOGGER.debug("Unable to close the replication journal.", e);
+      }
+      journal = null;
+    }
+  }
+
   @Override
   public CreateResponse process(CreateResponse input) throws PluginExecutionException {
 
     if (Requests.isLocal(input.getRequest()) && client != null && transformer != null) {
 
+      List<ReplicationEntry> entries = new ArrayList<>();
       for (Metacard m : input.getCreatedMetacards()) {
-
-        String data = transform(m, client);
-
-        Response r = client.post(data);
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Posted the following GeoJSON: {}\n", data);
-          LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
-        }
+        BinaryContent content = transform(m);
+        entries.add(
+            new ReplicationEntry(
+                ReplicationEntry.Operation.CREATE,
+                m.getId(),
+                getValidMimeType(content.getMimeTypeValue()),
+                getPayload(content)));
       }
+      replicate(entries);
     }
 
     return input;
@@ -79,10 +171,6 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
 
     if (Requests.isLocal(input.getRequest()) && client != null && transformer != null) {
 
-      WebClient updateClient = WebClient.fromClient(client);
-
-      updateClient.type(MediaType.APPLICATION_JSON);
-
       List<Update> updates = input.getUpdatedMetacards();
 
       if (updates == null) {
@@ -96,6 +184,7 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
                 "Cannot replicate records that are not updated by " + Metacard.ID));
       }
 
+      List<ReplicationEntry> entries = new ArrayList<>();
       for (int i = 0; i < updates.size(); i++) {
 
         Update update = updates.get(i);
@@ -105,18 +194,16 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
             && request.getUpdates().get(i) != null
             && request.getUpdates().get(i).getKey() != null) {
 
-          updateClient.path(request.getUpdates().get(i).getKey());
-
-          Metacard newMetacard = update.getNewMetacard();
-
-          String newData = transform(newMetacard, updateClient);
-
-          Response r = updateClient.put(newData);
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
-          }
+          BinaryContent content = transform(update.getNewMetacard());
+          entries.add(
+              new ReplicationEntry(
+                  ReplicationEntry.Operation.UPDATE,
+                  request.getUpdates().get(i).getKey().toString(),
+                  getValidMimeType(content.getMimeTypeValue()),
+                  getPayload(content)));
         }
       }
+      replicate(entries);
     }
 
     return input;
@@ -127,28 +214,23 @@ public DeleteResponse process(DeleteResponse input) throws PluginExecutionExcept
 
     if (input != null && Requests.isLocal(input.getRequest()) && client != null) {
 
-      WebClient updateClient = WebClient.fromClient(client);
-
-      updateClient.type(MediaType.APPLICATION_JSON);
-
       if (input.getDeletedMetacards() == null || input.getDeletedMetacards().isEmpty()) {
         return input;
       }
 
-      for (int i = 0; i < input.getDeletedMetacards().size(); i++) {
-
-        Metacard metacard = input.getDeletedMetacards().get(i);
+      List<ReplicationEntry> entries = new ArrayList<>();
+      for (Metacard metacard : input.getDeletedMetacards()) {
 
         if (metacard != null && metacard.getId() != null) {
-
-          updateClient.path(metacard.getId());
-
-          Response r = updateClient.delete();
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
-          }
+          entries.add(
+              new ReplicationEntry(
+                  ReplicationEntry.Operation.DELETE,
+                  metacard.getId(),
+                  MediaType.APPLICATION_JSON,
+                  null));
         }
       }
+      replicate(entries);
     }
 
     return input;
@@ -189,26 +271,229 @@ public void setTransformer(MetacardTransformer transformer) {
     LOGGER.debug("Changed transformer to [{}]", this.transformer);
   }
 
-  private String transform(Metacard m, WebClient client) throws PluginExecutionException {
+  public void setJournalDirectory(String journalDirectory) {
+    this.journalDirectory = Paths.get(journalDirectory);
+  }
+
+  @Override
+  public int getPendingCount() {
+    ReplicationJournal currentJournal = journal;
+    return currentJournal == null ? 0 : currentJournal.getPendingCount();
+  }
+
+  @Override
+  public long getLagMillis() {
+    ReplicationJournal currentJournal = journal;
+    return currentJournal == null ? 0 : currentJournal.getLagMillis();
+  }
+
+  @Override
+  public long getReplicatedCount() {
+    return replicatedCount.get();
+  }
+
+  @Override
+  public long getFailedAttemptCount() {
+    return failedAttemptCount.get();
+  }
+
+  @Override
+  public long getDeadLetterCount() {
+    return deadLetterCount.get();
+  }
+
+  private void replicate(List<ReplicationEntry> entries) throws PluginExecutionException {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    ReplicationJournal currentJournal = journal;
+    if (currentJournal == null) {
+      LOGGER.debug("Replication has not been started, not replicating {} records", entries.size());
+      return;
+    }
+
+    try {
+      enqueue(currentJournal.append(entries));
+    } catch (IOException e) {
+      LOGGER.debug("Could not journal records for replication.", e);
+      throw new PluginExecutionException("Could not journal records for replication.");
+    }
+  }
+
+  private void enqueue(List<ReplicationEntry> entries) {
+    for (ReplicationEntry entry : entries) {
+      String id = entry.getId();
+      int sender = id == null ? 0 : Math.floorMod(id.hashCode(), senderQueues.size());
+      senderQueues.get(sender).add(entry);
+    }
+  }
+
+  private void send(BlockingQueue<ReplicationEntry> queue) {
+    List<ReplicationEntry> batch = new ArrayList<>(CHECKPOINT_INTERVAL);
+    List<Long> delivered = new ArrayList<>(CHECKPOINT_INTERVAL);
+
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        batch.add(queue.take());
+        queue.drainTo(batch, CHECKPOINT_INTERVAL - 1);
+
+        for (ReplicationEntry entry : batch) {
+          deliverWithRetry(entry);
+          delivered.add(entry.getSequence());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        checkpoint(delivered);
+        batch.clear();
+        delivered.clear();
+      }
+    }
+  }
+
+  private void checkpoint(List<Long> delivered) {
+    ReplicationJournal currentJournal = journal;
+    if (delivered.isEmpty() || currentJournal == null) {
+      return;
+    }
+    try {
+      currentJournal.delivered(delivered);
+    } catch (IOException e) {
+      LOGGER.debug("Could not checkpoint the replication journal.", e);
+    }
+  }
 
-    BinaryContent binaryContent;
+  private void deliverWithRetry(ReplicationEntry entry) throws InterruptedException {
+    long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+    for (int attempt = 1; !deliver(entry); attempt++) {
+      failedAttemptCount.incrementAndGet();
+      if (attempt >= MAX_DELIVERY_ATTEMPTS) {
+        deadLetter(entry);
+        return;
+      }
+      TimeUnit.MILLISECONDS.sleep(retryDelay);
+      retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+    }
+    replicatedCount.incrementAndGet();
+  }
+
+  private void deadLetter(ReplicationEntry entry) {
+    deadLetterCount.incrementAndGet();
+    ReplicationJournal currentJournal = journal;
     try {
-      binaryContent = transformer.transform(m, new HashMap<>());
-      client.type(getValidMimeType(binaryContent.getMimeTypeValue()));
-      return new String(binaryContent.getByteArray(), StandardCharsets.UTF_8);
+      if (currentJournal != null) {
+        currentJournal.deadLetter(entry);
+      }
+      LOGGER.warn(
+          "Could not replicate {} of {} to the parent after {} attempts, moved it to the dead "
+              + "letter file in {}",
+          entry.getOperation(),
+          entry.getId(),
+          MAX_DELIVERY_ATTEMPTS,
+          journalDirectory);
     } catch (IOException e) {
-      LOGGER.debug("Could not understand metacard.", e);
-      throw new PluginExecutionException("Could not send metacard.");
+      LOGGER.warn(
+          "Could not replicate {} of {} to the parent after {} attempts, and could not write it "
+              + "to the dead letter file. The record will not be replicated.",
+          entry.getOperation(),
+          entry.getId(),
+          MAX_DELIVERY_ATTEMPTS,
+          e);
+    }
+  }
+
+  /** @return {@code false} if delivery failed in a way that is worth retrying */
+  private boolean deliver(ReplicationEntry entry) {
+    WebClient parentClient = client;
+    if (parentClient == null) {
+      LOGGER.debug("No parent address is configured, dropping replication of {}", entry.getId());
+      return true;
+    }
+
+    WebClient entryClient = WebClient.fromClient(parentClient);
+    entryClient.type(entry.getMimeType());
+    try {
+      Response r;
+      switch (entry.getOperation()) {
+        case CREATE:
+          r = entryClient.post(entry.getPayload());
+          break;
+        case UPDATE:
+          r = entryClient.path(entry.getId()).put(entry.getPayload());
+          break;
+        default:
+          r = entryClient.path(entry.getId()).delete();
+          break;
+      }
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
+      }
+      if (r.getStatus() >= Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+        LOGGER.debug("Parent returned {} replicating {}", r.getStatus(), entry.getId());
+        return false;
+      }
+      return true;
+    } catch (RuntimeException e) {
+      LOGGER.debug("Could not replicate {} to the parent.", entry.getId(), e);
+      return false;
+    }
+  }
+
+  private BinaryContent transform(Metacard m) throws PluginExecutionException {
+    try {
+      return transformer.transform(m, new HashMap<>());
     } catch (CatalogTransformerException e) {
       LOGGER.debug("Could not transform metacard.", e);
       throw new PluginExecutionException("Could not send metacard.");
     }
   }
 
+  private String getPayload(BinaryContent binaryContent) throws PluginExecutionException {
+    try {
+      return new String(binaryContent.getByteArray(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      LOGGER.debug("Could not understand metacard.", e);
+      throw new PluginExecutionException("Could not send metacard.");
+    }
+  }
+
   private String getValidMimeType(String mimeTypeValue) {
     if (mimeTypeValue == null) {
       return MediaType.APPLICATION_OCTET_STREAM;
     }
     return mimeTypeValue;
   }
+
+  private void registerMBean() {
+    try {
+      objectName = new ObjectName(OBJECT_NAME);
+      MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+      try {
+        mbeanServer.registerMBean(
+            new StandardMBean(this, RestReplicatorPluginMBean.class), objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        LOGGER.debug("Re-registering rest replicator MBean {}", objectName);
+        mbeanServer.unregisterMBean(objectName);
+        mbeanServer.registerMBean(
+            new StandardMBean(this, RestReplicatorPluginMBean.class), objectName);
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not register rest replicator MBean.", e);
+    }
+  }
+
+  private void unregisterMBean() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (InstanceNotFoundException e) {
+      LOGGER.debug("Rest replicator MBean {} was not registered.", objectName, e);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister rest replicator MBean.", e);
+    }
+    objectName = null;
+  }
 }
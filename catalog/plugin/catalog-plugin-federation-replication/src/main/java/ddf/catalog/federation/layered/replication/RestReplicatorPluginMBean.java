@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+/** Replication lag and throughput statistics for the {@link RestReplicatorPlugin}. */
+public interface RestReplicatorPluginMBean {
+
+  String OBJECT_NAME =
+      "ddf.catalog.federation.layered.replication:type=RestReplicatorPlugin,name=RestReplicator";
+
+  /** @return the number of journaled entries that have not been delivered to the parent yet */
+  int getPendingCount();
+
+  /** @return how long the oldest undelivered entry has been waiting, in milliseconds */
+  long getLagMillis();
+
+  /** @return the number of entries delivered to the parent since the plugin started */
+  long getReplicatedCount();
+
+  /** @return the number of delivery attempts that failed */
+  long getFailedAttemptCount();
+
+  /** @return the number of entries moved to the dead letter file since the plugin started */
+  long getDeadLetterCount();
+}
@@ -0,0 +1,217 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.federation.layered.replication.ReplicationEntry.Operation;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReplicationJournalTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = temporaryFolder.newFolder("replication").toPath();
+  }
+
+  @Test
+  public void testAppendAssignsSequences() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      List<ReplicationEntry> first = journal.append(entries("a", "b"));
+      List<ReplicationEntry> second = journal.append(entries("c"));
+
+      assertThat(sequences(first), contains(1L, 2L));
+      assertThat(sequences(second), contains(3L));
+      assertThat(journal.getPendingCount(), is(3));
+    }
+  }
+
+  @Test
+  public void testRecoverUndeliveredEntries() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      journal.append(entries("a", "b", "c"));
+      journal.delivered(Collections.singletonList(1L));
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      List<ReplicationEntry> recovered = journal.recover();
+
+      assertThat(sequences(recovered), contains(2L, 3L));
+      assertThat(recovered.get(0).getId(), is("b"));
+      assertThat(recovered.get(0).getOperation(), is(Operation.UPDATE));
+      assertThat(recovered.get(0).getMimeType(), is("application/json"));
+      assertThat(recovered.get(0).getPayload(), is("{\"id\":\"b\"}"));
+      assertThat(journal.getPendingCount(), is(2));
+      assertThat(sequences(journal.append(entries("d"))), contains(4L));
+    }
+  }
+
+  @Test
+  public void testCheckpointWaitsForEarlierEntries() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      journal.append(entries("a", "b", "c"));
+      journal.delivered(Arrays.asList(2L, 3L));
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      assertThat(sequences(journal.recover()), contains(1L, 2L, 3L));
+    }
+  }
+
+  @Test
+  public void testJournalTruncatedWhenEverythingDelivered() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      journal.append(entries("a", "b"));
+      journal.delivered(Arrays.asList(1L, 2L));
+
+      assertThat(journal.getPendingCount(), is(0));
+      assertThat(journal.getLagMillis(), is(0L));
+      assertThat(Files.size(directory.resolve("replication.journal")), is(0L));
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      assertThat(journal.recover(), is(empty()));
+      assertThat(sequences(journal.append(entries("c"))), contains(3L));
+    }
+  }
+
+  @Test
+  public void testDeliveredPrefixCompacted() throws IOException {
+    Path journalFile = directory.resolve("replication.journal");
+    try (ReplicationJournal journal = new ReplicationJournal(directory, 1)) {
+      journal.recover();
+      journal.append(entries("a", "b", "c"));
+      long size = Files.size(journalFile);
+
+      journal.delivered(Collections.singletonList(1L));
+      assertThat(Files.size(journalFile) < size, is(true));
+
+      journal.append(entries("d"));
+      journal.delivered(Collections.singletonList(2L));
+      assertThat(journal.getPendingCount(), is(2));
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      List<ReplicationEntry> recovered = journal.recover();
+      assertThat(sequences(recovered), contains(3L, 4L));
+      assertThat(recovered.get(1).getId(), is("d"));
+    }
+  }
+
+  @Test
+  public void testDeadLetter() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      ReplicationEntry entry = journal.append(entries("a")).get(0);
+      journal.deadLetter(entry);
+      journal.delivered(Collections.singletonList(entry.getSequence()));
+    }
+
+    try (DataInputStream input =
+        new DataInputStream(Files.newInputStream(directory.resolve("replication.deadletter")))) {
+      input.readInt();
+      ReplicationEntry deadLetter = ReplicationEntry.read(input);
+      assertThat(deadLetter.getId(), is("a"));
+      assertThat(deadLetter.getSequence(), is(1L));
+    }
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      assertThat(journal.recover(), is(empty()));
+    }
+  }
+
+  @Test
+  public void testPartialRecordDiscarded() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      journal.append(entries("a"));
+    }
+
+    Path journalFile = directory.resolve("replication.journal");
+    long size = Files.size(journalFile);
+    try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.APPEND)) {
+      ByteBuffer partial = ByteBuffer.allocate(6);
+      partial.putInt(100).put((byte) 1).put((byte) 2).flip();
+      channel.write(partial);
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      assertThat(sequences(journal.recover()), contains(1L));
+      assertThat(Files.size(journalFile), is(size));
+      assertThat(sequences(journal.append(entries("b"))), contains(2L));
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      assertThat(sequences(journal.recover()), contains(1L, 2L));
+    }
+  }
+
+  @Test
+  public void testDeleteEntryWithoutPayload() throws IOException {
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      journal.recover();
+      journal.append(
+          Collections.singletonList(
+              new ReplicationEntry(Operation.DELETE, "a", "application/json", null)));
+    }
+
+    try (ReplicationJournal journal = new ReplicationJournal(directory)) {
+      ReplicationEntry entry = journal.recover().get(0);
+      assertThat(entry.getOperation(), is(Operation.DELETE));
+      assertThat(entry.getPayload() == null, is(true));
+    }
+  }
+
+  private static List<ReplicationEntry> entries(String... ids) {
+    List<ReplicationEntry> entries = new ArrayList<>();
+    for (String id : ids) {
+      entries.add(
+          new ReplicationEntry(
+              Operation.UPDATE, id, "application/json", "{\"id\":\"" + id + "\"}"));
+    }
+    return entries;
+  }
+
+  private static List<Long> sequences(List<ReplicationEntry> entries) {
+    List<Long> sequences = new ArrayList<>();
+    for (ReplicationEntry entry : entries) {
+      sequences.add(entry.getSequence());
+    }
+    return sequences;
+  }
+}
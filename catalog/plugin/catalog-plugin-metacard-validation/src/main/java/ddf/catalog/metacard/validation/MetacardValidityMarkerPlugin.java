@@ -27,15 +27,18 @@
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -82,18 +85,71 @@ public UpdateRequest process(UpdateRequest input)
   private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> itemToMetacard) {
     Map<String, Integer> counter = new HashMap<>();
 
-    List<T> validated =
-        requestItems
-            .stream()
-            .map(item -> validate(item, itemToMetacard, counter))
-            .filter(didNotFailEnforcedValidator)
-            .collect(Collectors.toList());
+    List<Metacard> metacards =
+        requestItems.stream().map(itemToMetacard).collect(Collectors.toList());
+    Map<MetacardValidator, List<Optional<ValidationException>>> batchResults =
+        validateBatches(metacards);
+
+    List<T> validated = new ArrayList<>();
+    for (int i = 0; i < requestItems.size(); i++) {
+      T item = validate(requestItems.get(i), itemToMetacard, i, batchResults, counter);
+      if (didNotFailEnforcedValidator.test(item)) {
+        validated.add(item);
+      }
+    }
 
     return validated;
   }
 
+  /**
+   * Runs the validators that can validate several metacards at once against all of the metacards
+   * before the metacards are validated one at a time.
+   */
+  private Map<MetacardValidator, List<Optional<ValidationException>>> validateBatches(
+      List<Metacard> metacards) {
+    Map<MetacardValidator, List<Optional<ValidationException>>> batchResults =
+        new IdentityHashMap<>();
+    if (metacards.size() < 2) {
+      return batchResults;
+    }
+
+    for (MetacardValidator validator : metacardValidators) {
+      if (validator instanceof BatchMetacardValidator) {
+        List<Optional<ValidationException>> results =
+            ((BatchMetacardValidator) validator).validateBatch(metacards);
+        if (results != null && results.size() == metacards.size()) {
+          batchResults.put(validator, results);
+        } else {
+          LOGGER.debug(
+              "Metacard validator {} did not return a result for each metacard, validating them"
+                  + " one at a time.",
+              getValidatorName(validator));
+        }
+      }
+    }
+    return batchResults;
+  }
+
+  private void validate(
+      MetacardValidator validator,
+      Metacard metacard,
+      int index,
+      Map<MetacardValidator, List<Optional<ValidationException>>> batchResults)
+      throws ValidationException {
+    List<Optional<ValidationException>> results = batchResults.get(validator);
+    if (results == null) {
+      validator.validate(metacard);
+    } else if (results.get(index).isPresent()) {
+      throw results.get(index).get();
+    }
+  }
+
   private <T> T validate(
-      T item, Function<T, Metacard> itemToMetacard, Map<String, Integer> counter) {
+      T item,
+      Function<T, Metacard> itemToMetacard,
+      int index,
+      Map<MetacardValidator, List<Optional<ValidationException>>> batchResults,
+      Map<String, Integer> counter) {
     Set<Serializable> newErrors = new HashSet<>();
     Set<Serializable> newWarnings = new HashSet<>();
     Set<Serializable> errorValidators = new HashSet<>();
@@ -108,7 +164,7 @@ private <T> T validate(
 
     for (MetacardValidator validator : metacardValidators) {
       try {
-        validator.validate(metacard);
+        validate(validator, metacard, index, batchResults);
       } catch (ValidationException e) {
         String validatorName = getValidatorName(validator);
         boolean validationErrorsExist = CollectionUtils.isNotEmpty(e.getErrors());
@@ -23,9 +23,13 @@
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -46,14 +50,17 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
@@ -439,6 +446,44 @@ private void testTrackingHelper(
     }
   }
 
+  @Test
+  public void testBatchValidator()
+      throws ValidationException, StopProcessingException, PluginExecutionException {
+    ValidationException validationException = mock(ValidationException.class);
+    when(validationException.getErrors()).thenReturn(Collections.singletonList(SAMPLE_ERROR));
+    BatchMetacardValidator batchValidator =
+        mock(BatchMetacardValidator.class, withSettings().extraInterfaces(Describable.class));
+    when(batchValidator.validateBatch(anyListOf(Metacard.class)))
+        .thenReturn(Arrays.asList(Optional.of(validationException), Optional.empty()));
+    when(((Describable) batchValidator).getId()).thenReturn(ID);
+    metacardValidators.add(batchValidator);
+
+    CreateRequest filteredRequest = plugin.process(getMockCreateRequest());
+
+    verify(batchValidator).validateBatch(anyListOf(Metacard.class));
+    verify(batchValidator, never()).validate(any(Metacard.class));
+    Metacard first = filteredRequest.getMetacards().get(0);
+    Metacard second = filteredRequest.getMetacards().get(1);
+    expectError.accept(first.getAttribute(Validation.VALIDATION_ERRORS));
+    assertThat(first.getTags(), hasItem(INVALID_TAG));
+    expectNone.accept(second.getAttribute(Validation.VALIDATION_ERRORS));
+    assertThat(second.getTags(), hasItem(VALID_TAG));
+  }
+
+  @Test
+  public void testBatchValidatorWithMissingResults()
+      throws ValidationException, StopProcessingException, PluginExecutionException {
+    BatchMetacardValidator batchValidator =
+        mock(BatchMetacardValidator.class, withSettings().extraInterfaces(Describable.class));
+    when(batchValidator.validateBatch(anyListOf(Metacard.class)))
+        .thenReturn(Collections.singletonList(Optional.empty()));
+    metacardValidators.add(batchValidator);
+
+    plugin.process(getMockUpdateRequest());
+
+    verify(batchValidator, times(2)).validate(any(Metacard.class));
+  }
+
   private Metacard metacardWithTitle(String title) {
     MetacardImpl metacard = new MetacardImpl();
     metacard.setTitle(title);
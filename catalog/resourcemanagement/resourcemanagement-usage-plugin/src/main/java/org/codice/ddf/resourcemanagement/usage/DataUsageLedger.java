@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.resourcemanagement.usage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory record of each user's data usage and data limit, backed by the {@link
+ * AttributesStore}.
+ *
+ * <p>Usage is added to a per-user {@link LongAdder} so concurrent downloads never contend on a
+ * read-modify-write of the store. The accumulated usage is written to the store in one update per
+ * user by {@link #flush()}, which also re-reads the usage and limit of each user held in memory so
+ * that changes made through the store, such as new limits or the nightly usage reset, are picked
+ * up. Users are read one at a time because the store only returns the first page of users from
+ * {@link AttributesStore#getAllUsers()}. Users that have been idle for a while are dropped from
+ * memory instead of being re-read, and are read again on their next request.
+ */
+class DataUsageLedger {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataUsageLedger.class);
+
+  private static final long NO_DATA_LIMIT = -1L;
+
+  private static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  private final AttributesStore attributesStore;
+
+  private final ConcurrentMap<String, UserUsage> users = new ConcurrentHashMap<>();
+
+  DataUsageLedger(AttributesStore attributesStore) {
+    this.attributesStore = attributesStore;
+  }
+
+  /**
+   * Checks whether the user can download {@code resourceSize} more bytes without going over their
+   * data limit.
+   *
+   * @throws PersistenceException if the user's usage and limit are not known yet and could not be
+   *     read from the store
+   */
+  boolean isWithinLimit(String username, long resourceSize) throws PersistenceException {
+    UserUsage usage = getLoadedUsage(username);
+    long dataLimit = usage.dataLimit;
+    return dataLimit < 0 || usage.getDataUsage() + resourceSize <= dataLimit;
+  }
+
+  /** Adds {@code dataUsage} bytes to the user's usage. The store is updated on the next flush. */
+  void addDataUsage(String username, long dataUsage) {
+    // added inside compute so the user cannot be dropped as idle while the usage is added
+    users.compute(
+        username,
+        (name, usage) -> {
+          UserUsage userUsage = usage == null ? new UserUsage() : usage;
+          userUsage.unflushed.add(dataUsage);
+          userUsage.touch();
+          return userUsage;
+        });
+  }
+
+  /** @return the user's data limit in bytes, or a negative value if the user has no limit */
+  long getDataLimit(String username) throws PersistenceException {
+    return getLoadedUsage(username).dataLimit;
+  }
+
+  /** @return the user's usage, including usage that has not been written to the store yet */
+  long getDataUsage(String username) throws PersistenceException {
+    return getLoadedUsage(username).getDataUsage();
+  }
+
+  /**
+   * Reads the usage and limit of each user held in memory from the store, replacing what is held in
+   * memory. Usage that has not been flushed yet is kept.
+   */
+  synchronized void reconcile() {
+    reconcile(new HashMap<>());
+  }
+
+  /** Writes accumulated usage to the store, then reconciles with it. */
+  synchronized void flush() {
+    Map<String, Long> flushed = new HashMap<>();
+    for (Map.Entry<String, UserUsage> entry : users.entrySet()) {
+      long dataUsage = entry.getValue().unflushed.sum();
+      if (dataUsage > 0) {
+        try {
+          attributesStore.updateUserDataUsage(entry.getKey(), dataUsage);
+          flushed.put(entry.getKey(), dataUsage);
+        } catch (PersistenceException e) {
+          LOGGER.debug("Persistence exception updating user {} data usage", entry.getKey(), e);
+        }
+      }
+    }
+    reconcile(flushed);
+  }
+
+  /**
+   * @param flushed usage that was written to the store since the users were last read, which is
+   *     moved from the unflushed usage to the stored usage
+   */
+  private void reconcile(Map<String, Long> flushed) {
+    long idleSince = System.currentTimeMillis() - IDLE_MILLIS;
+
+    for (Map.Entry<String, UserUsage> entry : users.entrySet()) {
+      String username = entry.getKey();
+      UserUsage usage = entry.getValue();
+      long flushedUsage = flushed.getOrDefault(username, 0L);
+
+      try {
+        usage.load(
+            attributesStore.getCurrentDataUsageByUser(username),
+            attributesStore.getDataLimitByUser(username));
+      } catch (PersistenceException e) {
+        // keep the limit and usage last read rather than assuming the user has none
+        LOGGER.debug("Unable to read user {} data usage from the attributes store.", username, e);
+        usage.dataUsage += flushedUsage;
+      }
+      // subtracted after the stored usage is updated so the total is never under-reported
+      usage.unflushed.add(-flushedUsage);
+
+      users.computeIfPresent(
+          username,
+          (name, current) ->
+              current.lastUsed < idleSince && current.unflushed.sum() == 0 ? null : current);
+    }
+  }
+
+  private UserUsage getLoadedUsage(String username) throws PersistenceException {
+    UserUsage usage = users.computeIfAbsent(username, name -> new UserUsage());
+    usage.touch();
+    if (!usage.loaded) {
+      synchronized (usage) {
+        if (!usage.loaded) {
+          usage.load(
+              attributesStore.getCurrentDataUsageByUser(username),
+              attributesStore.getDataLimitByUser(username));
+        }
+      }
+    }
+    return usage;
+  }
+
+  private static class UserUsage {
+
+    private final LongAdder unflushed = new LongAdder();
+
+    private volatile long dataUsage;
+
+    private volatile long dataLimit = NO_DATA_LIMIT;
+
+    private volatile boolean loaded;
+
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    private long getDataUsage() {
+      return dataUsage + unflushed.sum();
+    }
+
+    private void touch() {
+      lastUsed = System.currentTimeMillis();
+    }
+
+    private void load(long dataUsage, long dataLimit) {
+      this.dataUsage = dataUsage;
+      this.dataLimit = dataLimit;
+      this.loaded = true;
+    }
+  }
+}
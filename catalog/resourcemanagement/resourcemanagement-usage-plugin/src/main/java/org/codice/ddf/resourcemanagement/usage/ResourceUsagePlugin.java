@@ -27,22 +27,65 @@
 import ddf.security.SecurityConstants;
 import ddf.security.Subject;
 import ddf.security.SubjectUtils;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Enforces per-user data limits on resource downloads and records the data each user downloads.
+ * Usage is kept in a {@link DataUsageLedger} and written to the {@link AttributesStore}
+ * periodically rather than on every download.
+ */
 public class ResourceUsagePlugin implements PreResourcePlugin, PostResourcePlugin {
 
+  private static final long FLUSH_INTERVAL_SECONDS = 10L;
+
   private boolean monitorLocalSources;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ResourceUsagePlugin.class);
 
-  private AttributesStore attributesStore;
+  private final DataUsageLedger ledger;
+
+  private ScheduledExecutorService flushExecutor;
 
   public ResourceUsagePlugin(AttributesStore attributesStore) {
-    this.attributesStore = attributesStore;
+    this.ledger = new DataUsageLedger(attributesStore);
+  }
+
+  /** Starts writing usage back to the store periodically. */
+  public void init() {
+    flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("resourceUsageFlushThread"));
+    flushExecutor.scheduleWithFixedDelay(
+        ledger::flush, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /** Stops the periodic flush and writes any remaining usage to the store. */
+  public void destroy() {
+    if (flushExecutor != null) {
+      flushExecutor.shutdown();
+      try {
+        if (!flushExecutor.awaitTermination(FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS)) {
+          flushExecutor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        flushExecutor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+    }
+    ledger.flush();
+  }
+
+  /** Writes usage recorded since the last flush to the store. */
+  void flush() {
+    ledger.flush();
   }
 
   @Override
@@ -68,11 +111,12 @@ public ResourceRequest process(ResourceRequest input)
               getUsernameFromSubject(input.getPropertyValue(SecurityConstants.SECURITY_SUBJECT));
           if (StringUtils.isNotEmpty(username)) {
             try {
-              long currentUserDataUsage = attributesStore.getCurrentDataUsageByUser(username);
-              long userDataLimit = attributesStore.getDataLimitByUser(username);
-              if ((userDataLimit >= 0) && ((currentUserDataUsage + resourceSize) > userDataLimit)) {
+              if (!ledger.isWithinLimit(username, resourceSize)) {
                 throw new DataUsageLimitExceededException(
-                    username + ": data usage limit exceeded. (" + userDataLimit + " bytes)");
+                    username
+                        + ": data usage limit exceeded. ("
+                        + ledger.getDataLimit(username)
+                        + " bytes)");
               }
             } catch (PersistenceException pex) {
               LOGGER.debug("Persistence exception updating user {} data usage", username, pex);
@@ -104,11 +148,7 @@ public ResourceResponse process(ResourceResponse input)
 
           if (StringUtils.isNotEmpty(username)) {
 
-            try {
-              attributesStore.updateUserDataUsage(username, resourceSize);
-            } catch (PersistenceException pex) {
-              LOGGER.debug("Persistence exception updating user {} data usage", username, pex);
-            }
+            ledger.addDataUsage(username, resourceSize);
           }
         }
       }
@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.resourcemanagement.usage;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataUsageLedgerTest {
+
+  private static final String TEST_USER = "testuser";
+
+  private AttributesStore attributesStore;
+
+  private DataUsageLedger ledger;
+
+  @Before
+  public void setUp() {
+    attributesStore = mock(AttributesStore.class);
+    ledger = new DataUsageLedger(attributesStore);
+  }
+
+  @Test
+  public void testNoDataLimit() throws PersistenceException {
+    when(attributesStore.getDataLimitByUser(TEST_USER)).thenReturn(-1L);
+    ledger.addDataUsage(TEST_USER, Long.MAX_VALUE / 2);
+
+    assertThat(ledger.isWithinLimit(TEST_USER, 100L), is(true));
+    assertThat(ledger.getDataLimit(TEST_USER), is(-1L));
+  }
+
+  @Test
+  public void testReconcileReplacesStoredUsage() throws PersistenceException {
+    when(attributesStore.getCurrentDataUsageByUser(TEST_USER)).thenReturn(50L);
+    when(attributesStore.getDataLimitByUser(TEST_USER)).thenReturn(200L);
+    ledger.addDataUsage(TEST_USER, 100L);
+    ledger.reconcile();
+
+    assertThat(ledger.getDataUsage(TEST_USER), is(150L));
+    assertThat(ledger.isWithinLimit(TEST_USER, 50L), is(true));
+    assertThat(ledger.isWithinLimit(TEST_USER, 51L), is(false));
+
+    // usage reset and limit removed through the store
+    when(attributesStore.getCurrentDataUsageByUser(TEST_USER)).thenReturn(0L);
+    when(attributesStore.getDataLimitByUser(TEST_USER)).thenReturn(-1L);
+    ledger.reconcile();
+
+    assertThat(ledger.getDataUsage(TEST_USER), is(100L));
+    assertThat(ledger.getDataLimit(TEST_USER), is(-1L));
+  }
+
+  @Test
+  public void testFlushedUsageKeptWhenStoreCannotBeRead() throws PersistenceException {
+    when(attributesStore.getCurrentDataUsageByUser(TEST_USER))
+        .thenReturn(10L)
+        .thenThrow(PersistenceException.class);
+    when(attributesStore.getDataLimitByUser(TEST_USER)).thenReturn(200L);
+    assertThat(ledger.getDataUsage(TEST_USER), is(10L));
+
+    ledger.addDataUsage(TEST_USER, 100L);
+    ledger.flush();
+
+    verify(attributesStore).updateUserDataUsage(TEST_USER, 100L);
+    assertThat(ledger.getDataUsage(TEST_USER), is(110L));
+    assertThat(ledger.getDataLimit(TEST_USER), is(200L));
+  }
+
+  @Test
+  public void testFailedFlushRetried() throws PersistenceException {
+    doThrow(PersistenceException.class)
+        .doNothing()
+        .when(attributesStore)
+        .updateUserDataUsage(anyString(), anyLong());
+    ledger.addDataUsage(TEST_USER, 100L);
+
+    ledger.flush();
+    assertThat(ledger.getDataUsage(TEST_USER), is(100L));
+
+    ledger.flush();
+    verify(attributesStore, times(2)).updateUserDataUsage(TEST_USER, 100L);
+  }
+
+  @Test
+  public void testFlushKeepsDataLimitOfEveryUser() throws PersistenceException {
+    List<String> usernames = new ArrayList<>();
+    List<Map<String, Object>> firstPage = new ArrayList<>();
+    for (int i = 0; i < 15; i++) {
+      String username = TEST_USER + i;
+      usernames.add(username);
+      when(attributesStore.getCurrentDataUsageByUser(username)).thenReturn(50L);
+      when(attributesStore.getDataLimitByUser(username)).thenReturn(200L);
+      if (i < 10) {
+        firstPage.add(storedUser(username, 50L, 200L));
+      }
+    }
+    // the store only returns the first page of users
+    when(attributesStore.getAllUsers()).thenReturn(firstPage);
+
+    for (String username : usernames) {
+      ledger.addDataUsage(username, 100L);
+    }
+    ledger.flush();
+
+    for (String username : usernames) {
+      verify(attributesStore).updateUserDataUsage(username, 100L);
+      assertThat(ledger.getDataLimit(username), is(200L));
+      assertThat(ledger.getDataUsage(username), is(50L));
+      assertThat(ledger.isWithinLimit(username, 151L), is(false));
+    }
+  }
+
+  @Test
+  public void testUserMissingFromStoreHasNoUsage() throws PersistenceException {
+    when(attributesStore.getDataLimitByUser(TEST_USER)).thenReturn(-1L);
+    ledger.addDataUsage(TEST_USER, 100L);
+
+    ledger.flush();
+
+    assertThat(ledger.getDataUsage(TEST_USER), is(0L));
+    assertThat(ledger.getDataLimit(TEST_USER), is(-1L));
+  }
+
+  private Map<String, Object> storedUser(String username, long dataUsage, long dataLimit) {
+    Map<String, Object> user = new HashMap<>();
+    user.put(AttributesStore.USER_KEY + "_txt", username);
+    user.put(AttributesStore.DATA_USAGE_KEY + "_lng", dataUsage);
+    user.put(AttributesStore.DATA_USAGE_LIMIT_KEY + "_lng", dataLimit);
+    return user;
+  }
+}
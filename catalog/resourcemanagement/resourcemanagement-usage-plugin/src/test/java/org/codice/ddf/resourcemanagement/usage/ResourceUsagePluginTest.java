@@ -205,6 +205,7 @@ public void testPostResourcePersistenceException()
         .updateUserDataUsage(anyString(), anyLong());
     ResourceResponse resourceResponse = getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER);
     ResourceResponse response = plugin.process(resourceResponse);
+    plugin.flush();
 
     assertThat(response, notNullValue());
     assertThat(response, is(resourceResponse));
@@ -238,6 +239,7 @@ public void testPostResourceLocalSourceValidSize()
     ArgumentCaptor<Long> dataUsage = ArgumentCaptor.forClass(Long.class);
     ResourceResponse originalResponse = getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER);
     ResourceResponse response = plugin.process(originalResponse);
+    plugin.flush();
     assertThat(response, notNullValue());
     assertThat(response, is(originalResponse));
     verify(attributeStore).updateUserDataUsage(usernameArg.capture(), dataUsage.capture());
@@ -284,6 +286,7 @@ public void testPostResourceRemoteSourceValidSize() throws Exception {
     ArgumentCaptor<Long> dataUsage = ArgumentCaptor.forClass(Long.class);
     ResourceResponse originalResponse = getMockRemoteResourceResponse(RESOURCE_SIZE, TEST_USER);
     ResourceResponse response = plugin.process(originalResponse);
+    plugin.flush();
     assertThat(response, notNullValue());
     assertThat(response, is(originalResponse));
     verify(attributeStore).updateUserDataUsage(usernameArg.capture(), dataUsage.capture());
@@ -291,6 +294,58 @@ public void testPostResourceRemoteSourceValidSize() throws Exception {
     assertThat(dataUsage.getValue(), is(Long.valueOf(RESOURCE_SIZE)));
   }
 
+  @Test(expected = DataUsageLimitExceededException.class)
+  public void testUnflushedUsageCountsTowardDataLimit()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.process(getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER));
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE_LARGE, TEST_USER));
+  }
+
+  @Test
+  public void testDataUsageFlushedInOneUpdate()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.process(getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER));
+    plugin.process(getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER));
+    verify(attributeStore, never()).updateUserDataUsage(anyString(), anyLong());
+
+    plugin.flush();
+    plugin.flush();
+
+    verify(attributeStore).updateUserDataUsage(TEST_USER, 2 * Long.valueOf(RESOURCE_SIZE));
+  }
+
+  @Test
+  public void testDataLimitCached()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE, TEST_USER));
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE, TEST_USER));
+
+    verify(attributeStore).getDataLimitByUser(TEST_USER);
+    verify(attributeStore).getCurrentDataUsageByUser(TEST_USER);
+  }
+
+  @Test(expected = DataUsageLimitExceededException.class)
+  public void testFlushReadsDataLimitChanges()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE, TEST_USER));
+    when(attributeStore.getCurrentDataUsageByUser(TEST_USER)).thenReturn(DATA_LIMIT);
+    when(attributeStore.getDataLimitByUser(TEST_USER)).thenReturn(DATA_LIMIT);
+
+    plugin.flush();
+
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE, TEST_USER));
+  }
+
+  @Test
+  public void testDestroyFlushesDataUsage()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.init();
+    plugin.process(getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER));
+    plugin.destroy();
+
+    verify(attributeStore).updateUserDataUsage(TEST_USER, Long.valueOf(RESOURCE_SIZE));
+  }
+
   private ResourceResponse getMockResourceResponse(String resourceSize, String expectedUsername) {
     setSubject(expectedUsername);
     ResourceResponse resourceResponse = mock(ResourceResponse.class);
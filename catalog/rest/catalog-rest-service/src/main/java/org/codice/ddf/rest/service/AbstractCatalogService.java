@@ -53,6 +53,7 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputTransformer;
+import ddf.catalog.util.impl.InputTransformerRouter;
 import ddf.mime.MimeTypeResolver;
 import ddf.mime.MimeTypeToTransformerMapper;
 import java.io.IOException;
@@ -165,6 +166,8 @@ public abstract class AbstractCatalogService implements CatalogService {
 
   private MimeTypeResolver tikaMimeTypeResolver;
 
+  private InputTransformerRouter inputTransformerRouter = new InputTransformerRouter();
+
   protected AttachmentParser attachmentParser;
 
   protected AttributeRegistry attributeRegistry;
@@ -1114,7 +1117,14 @@ private Metacard generateMetacard(
         throw new MetacardCreationException("Could not copy bytes of content message.", e);
       }
 
-      Iterator<InputTransformer> it = listOfCandidates.iterator();
+      String routeKey;
+      try (InputStream inputStreamMessageCopy =
+          fileBackedOutputStream.asByteSource().openStream()) {
+        routeKey = inputTransformerRouter.getRouteKey(mimeType, inputStreamMessageCopy);
+      }
+
+      Iterator<InputTransformer> it =
+          inputTransformerRouter.order(routeKey, listOfCandidates).iterator();
       if (StringUtils.isNotEmpty(transformerId)) {
         BundleContext bundleContext = getBundleContext();
         Collection<ServiceReference<InputTransformer>> serviceReferences =
@@ -1125,6 +1135,7 @@ private Metacard generateMetacard(
 
       while (it.hasNext()) {
         InputTransformer transformer = it.next();
+        long start = System.nanoTime();
         try (InputStream inputStreamMessageCopy =
             fileBackedOutputStream.asByteSource().openStream()) {
           generatedMetacard = transformer.transform(inputStreamMessageCopy);
@@ -1135,6 +1146,8 @@ private Metacard generateMetacard(
           stackTraceList.addAll(stackTraces);
           LOGGER.debug("Transformer [{}] could not create metacard.", transformer, e);
         }
+        inputTransformerRouter.recordAttempt(
+            routeKey, transformer, generatedMetacard != null, System.nanoTime() - start);
         if (generatedMetacard != null) {
           break;
         }
@@ -1276,6 +1289,10 @@ public void setMimeTypeToTransformerMapper(
     this.mimeTypeToTransformerMapper = mimeTypeToTransformerMapper;
   }
 
+  public void setInputTransformerRouter(InputTransformerRouter inputTransformerRouter) {
+    this.inputTransformerRouter = inputTransformerRouter;
+  }
+
   public FilterBuilder getFilterBuilder() {
     return filterBuilder;
   }
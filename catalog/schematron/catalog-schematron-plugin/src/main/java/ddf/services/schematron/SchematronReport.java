@@ -17,6 +17,13 @@
 import javax.xml.transform.TransformerException;
 import org.w3c.dom.NodeList;
 
+/**
+ * Report of the output of Schematron validation.
+ *
+ * @deprecated no longer used by {@link SchematronValidationService}, which collects the messages
+ *     of each report with a streaming handler instead of building its DOM tree
+ */
+@Deprecated
 public interface SchematronReport {
   /**
    * Returns true if Schematron report is valid, false otherwise. The input document is considered
@@ -13,10 +13,11 @@
  */
 package ddf.services.schematron;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.util.Describable;
-import ddf.catalog.validation.MetacardValidator;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.impl.ValidationExceptionImpl;
@@ -32,6 +33,8 @@
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -48,10 +51,14 @@
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXResult;
 import javax.xml.transform.sax.SAXSource;
 import javax.xml.transform.stream.StreamSource;
 import net.sf.saxon.Configuration;
 import net.sf.saxon.TransformerFactoryImpl;
+import net.sf.saxon.s9api.Processor;
+import net.sf.saxon.s9api.SaxonApiException;
+import net.sf.saxon.s9api.XdmNode;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.XMLUtils;
@@ -80,16 +87,20 @@
  * </ol>
  *
  * <p>When XML documents are ingested, this service will run the XSLT generated by stage 3 against
- * the XML document, validating it against the "compiled" Schematron schema file.
+ * the XML document, validating it against the "compiled" Schematron schema file. Each document is
+ * parsed once into a read-only Saxon tree that is shared by all of the Schematron schema files,
+ * which are run in parallel on the service's thread pool. The documents of a batch are parsed one
+ * after another, each once the schema files of the previous document have been queued, so that
+ * the reports of the first documents do not wait for the whole batch to be parsed.
  *
  * <p>This service is using the SVRL script, hence the output of the validation will be an
- * SVRL-formatted XML document.
+ * SVRL-formatted XML document. Only the error and warning messages are kept from it.
  *
  * @author rodgersh
  * @see <a href="http://www.schematron.com">Schematron</a>
  */
 public class SchematronValidationService
-    implements MetacardValidator, Describable, ReportingMetacardValidator {
+    implements BatchMetacardValidator, Describable, ReportingMetacardValidator {
 
   public static final String DEFAULT_THREAD_POOL_SIZE = "16";
 
@@ -102,9 +113,9 @@
 
   private TransformerFactory transformerFactory;
 
-  private int priority = 10;
+  private Processor processor;
 
-  private SchematronReport schematronReport;
+  private int priority = 10;
 
   private List<String> schematronFileNames;
 
@@ -149,10 +160,15 @@ public void init() throws SchematronInitializationException {
     // ruleset file and log (vs. Saxon default of writing to console) the warnings/errors
     Configuration config = ((TransformerFactoryImpl) transformerFactory).getConfiguration();
     config.setErrorListener(new SaxonErrorListener(schematronFileNames));
+    processor = new Processor(config);
 
     updateValidators();
   }
 
+  public void destroy() {
+    pool.shutdown();
+  }
+
   private void updateValidators() throws SchematronInitializationException {
     validators.clear();
     for (String schematronFileName : schematronFileNames) {
@@ -268,9 +284,44 @@ public void setPriority(int priority) {
 
   @Override
   public void validate(Metacard metacard) throws ValidationException {
+    Optional<ValidationException> exception = toValidationException(generateReport(metacard));
+    if (exception.isPresent()) {
+      throw exception.get();
+    }
+  }
+
+  @Override
+  public List<Optional<ValidationException>> validateBatch(List<Metacard> metacards) {
+    if (metacards == null) {
+      throw new IllegalArgumentException("The metacards to validate cannot be null.");
+    }
 
-    MetacardValidationReport report = generateReport(metacard);
+    List<CompletableFuture<MetacardValidationReport>> reports = new ArrayList<>();
+    CompletableFuture<?> previous = CompletableFuture.completedFuture(null);
+    for (Metacard metacard : metacards) {
+      String metadata = metacard.getMetadata();
+      if (canBeValidated(metadata)) {
+        CompletableFuture<List<CompletableFuture<SvrlReportHandler>>> schematronReports =
+            startValidation(metadata, previous);
+        reports.add(toReport(schematronReports));
+        previous = schematronReports;
+      } else {
+        reports.add(CompletableFuture.completedFuture(new MetacardValidationReportImpl()));
+      }
+    }
 
+    List<Optional<ValidationException>> exceptions = new ArrayList<>();
+    for (CompletableFuture<MetacardValidationReport> report : reports) {
+      try {
+        exceptions.add(toValidationException(getReport(report)));
+      } catch (ValidationException e) {
+        exceptions.add(Optional.of(e));
+      }
+    }
+    return exceptions;
+  }
+
+  private Optional<ValidationException> toValidationException(MetacardValidationReport report) {
     List<String> errors = new ArrayList<>();
     List<String> warnings = new ArrayList<>();
     report
@@ -284,79 +335,144 @@ public void validate(Metacard metacard) throws ValidationException {
               }
             });
 
-    SchematronValidationException exception =
-        new SchematronValidationException("Schematron validation failed", errors, warnings);
-
-    if (!errors.isEmpty()) {
-      throw exception;
-    }
-
-    if (!suppressWarnings && !warnings.isEmpty()) {
-      throw exception;
+    if (!errors.isEmpty() || (!suppressWarnings && !warnings.isEmpty())) {
+      return Optional.of(
+          new SchematronValidationException("Schematron validation failed", errors, warnings));
     }
+    return Optional.empty();
   }
 
   private MetacardValidationReport generateReport(Metacard metacard)
       throws ValidationExceptionImpl {
-    MetacardValidationReportImpl report = new MetacardValidationReportImpl();
-    Set<String> attributes = ImmutableSet.of("metadata");
-    String metadata = metacard.getMetadata();
-    boolean canBeValidated =
-        !(StringUtils.isEmpty(metadata)
-            || (namespace != null && !namespace.equals(XML_UTILS.getRootNamespace(metadata))));
-    if (canBeValidated) {
-      try {
-        for (Future<Templates> validator : validators) {
-          schematronReport = generateReport(metadata, validator.get(10, TimeUnit.MINUTES));
-          schematronReport
-              .getErrors()
-              .forEach(
-                  errorMsg ->
-                      report.addMetacardViolation(
-                          new ValidationViolationImpl(
-                              attributes, sanitize(errorMsg), ValidationViolation.Severity.ERROR)));
-          schematronReport
-              .getWarnings()
-              .forEach(
-                  warningMsg ->
-                      report.addMetacardViolation(
-                          new ValidationViolationImpl(
-                              attributes,
-                              sanitize(warningMsg),
-                              ValidationViolation.Severity.WARNING)));
-        }
-      } catch (TimeoutException | ExecutionException e) {
-        throw new ValidationExceptionImpl(e);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
-
-        throw new ValidationExceptionImpl(e);
+    return getReport(generateReportAsync(metacard));
+  }
+
+  private MetacardValidationReport getReport(CompletableFuture<MetacardValidationReport> report)
+      throws ValidationExceptionImpl {
+    try {
+      return report.get(10, TimeUnit.MINUTES);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof ValidationExceptionImpl) {
+        throw (ValidationExceptionImpl) e.getCause();
       }
+      throw new ValidationExceptionImpl(e);
+    } catch (TimeoutException e) {
+      report.cancel(true);
+      throw new ValidationExceptionImpl(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+
+      throw new ValidationExceptionImpl(e);
     }
-    return report;
   }
 
-  private SchematronReport generateReport(String metadata, Templates validator)
-      throws SchematronValidationException {
+  private CompletableFuture<MetacardValidationReport> generateReportAsync(Metacard metacard) {
+    String metadata = metacard.getMetadata();
+    if (!canBeValidated(metadata)) {
+      return CompletableFuture.completedFuture(new MetacardValidationReportImpl());
+    }
+    return toReport(startValidation(metadata, CompletableFuture.completedFuture(null)));
+  }
+
+  private boolean canBeValidated(String metadata) {
+    return !(StringUtils.isEmpty(metadata)
+        || (namespace != null && !namespace.equals(XML_UTILS.getRootNamespace(metadata))));
+  }
+
+  /**
+   * Parses the metadata on the thread pool once {@code previous} completes, whether or not it
+   * succeeded, then queues a task for every Schematron schema to run against the parsed document.
+   *
+   * @return the reports of the schemas, which completes once they have all been queued
+   */
+  private CompletableFuture<List<CompletableFuture<SvrlReportHandler>>> startValidation(
+      String metadata, CompletableFuture<?> previous) {
+    List<Future<Templates>> currentValidators = new ArrayList<>(validators);
+    return previous
+        .handleAsync((ignored, error) -> parse(metadata), pool)
+        .thenApply(
+            document -> {
+              List<CompletableFuture<SvrlReportHandler>> schematronReports = new ArrayList<>();
+              for (Future<Templates> validator : currentValidators) {
+                schematronReports.add(
+                    CompletableFuture.supplyAsync(() -> generateReport(document, validator), pool));
+              }
+              return schematronReports;
+            });
+  }
+
+  private CompletableFuture<MetacardValidationReport> toReport(
+      CompletableFuture<List<CompletableFuture<SvrlReportHandler>>> schematronReports) {
+    return schematronReports.thenCompose(
+        reports ->
+            CompletableFuture.allOf(reports.toArray(new CompletableFuture[0]))
+                .thenApply(
+                    ignored -> {
+                      MetacardValidationReportImpl report = new MetacardValidationReportImpl();
+                      reports.forEach(
+                          schematronReport -> addViolations(report, schematronReport.join()));
+                      return report;
+                    }));
+  }
 
+  private void addViolations(
+      MetacardValidationReportImpl report, SvrlReportHandler schematronReport) {
+    Set<String> attributes = ImmutableSet.of("metadata");
+    schematronReport
+        .getErrors()
+        .forEach(
+            errorMsg ->
+                report.addMetacardViolation(
+                    new ValidationViolationImpl(
+                        attributes, sanitize(errorMsg), ValidationViolation.Severity.ERROR)));
+    schematronReport
+        .getWarnings()
+        .forEach(
+            warningMsg ->
+                report.addMetacardViolation(
+                    new ValidationViolationImpl(
+                        attributes, sanitize(warningMsg), ValidationViolation.Severity.WARNING)));
+  }
+
+  private XdmNode parse(String metadata) {
     XMLReader xmlReader = null;
     try {
       XMLReader xmlParser = XML_UTILS.getSecureXmlParser();
       xmlReader = new XMLFilterImpl(xmlParser);
     } catch (SAXException e) {
-      throw new SchematronValidationException(e);
+      throw new CompletionException(new SchematronValidationException(e));
+    }
+
+    try {
+      return processor
+          .newDocumentBuilder()
+          .build(new SAXSource(xmlReader, new InputSource(new StringReader(metadata))));
+    } catch (SaxonApiException e) {
+      throw new CompletionException(
+          new SchematronValidationException("Could not parse metadata for validation.", e));
+    }
+  }
+
+  @VisibleForTesting
+  SvrlReportHandler generateReport(XdmNode document, Future<Templates> validator) {
+    Templates templates;
+    try {
+      templates = validator.get(10, TimeUnit.MINUTES);
+    } catch (TimeoutException | ExecutionException e) {
+      throw new CompletionException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
     }
 
-    SchematronReport report;
+    SvrlReportHandler report = new SvrlReportHandler();
     try {
-      Transformer transformer = validator.newTransformer();
-      DOMResult schematronResult = new DOMResult();
-      transformer.transform(
-          new SAXSource(xmlReader, new InputSource(new StringReader(metadata))), schematronResult);
-      report = new SvrlReport(schematronResult);
+      Transformer transformer = templates.newTransformer();
+      transformer.transform(document.asSource(), new SAXResult(report));
     } catch (TransformerException e) {
-      throw new SchematronValidationException(
-          "Could not setup validator to perform validation.", e);
+      throw new CompletionException(
+          new SchematronValidationException(
+              "Could not setup validator to perform validation.", e));
     }
     return report;
   }
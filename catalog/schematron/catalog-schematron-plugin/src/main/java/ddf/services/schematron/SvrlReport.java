@@ -38,7 +38,10 @@
  * validation.
  *
  * @author rodgersh
+ * @deprecated no longer used by {@link SchematronValidationService}, which collects the messages
+ *     of each report with a streaming handler instead of building its DOM tree
  */
+@Deprecated
 public class SvrlReport implements SchematronReport {
   /** SVRL report tag for assertion that failed during Schematron validation */
   private static final String ASSERT_FAIL_TAG = "svrl:failed-assert";
@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.services.schematron;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Collects the error and warning messages of a Schematron Validation Report Language (SVRL) report
+ * as it is written, without building the report's DOM tree. The message of a failed assertion or
+ * report is the text of its first child node, and its flag attribute says whether it is an error or
+ * a warning.
+ */
+class SvrlReportHandler extends DefaultHandler {
+
+  private static final String SVRL_NAMESPACE = "http://purl.oclc.org/dsdl/svrl";
+
+  private static final String ASSERT_FAIL_ELEMENT = "failed-assert";
+
+  private static final String REPORT_FAIL_ELEMENT = "failed-report";
+
+  private static final String FLAG_ATTR = "flag";
+
+  private static final String WARNING_FLAG_ATTR_TEXT = "warning";
+
+  private static final String ERROR_FLAG_ATTR_TEXT = "error";
+
+  private final List<String> assertErrors = new ArrayList<>();
+
+  private final List<String> reportErrors = new ArrayList<>();
+
+  private final List<String> assertWarnings = new ArrayList<>();
+
+  private final List<String> reportWarnings = new ArrayList<>();
+
+  /** The list the message of the failure currently being read belongs in, if any. */
+  private List<String> messages;
+
+  private int depth;
+
+  private int failureDepth;
+
+  private FirstChild firstChild;
+
+  private final StringBuilder message = new StringBuilder();
+
+  /** How far the first child node of the current failure, which holds its message, has been read */
+  private enum FirstChild {
+    NOT_STARTED,
+    TEXT,
+    ELEMENT,
+    DONE
+  }
+
+  @Override
+  public void startElement(String uri, String localName, String qName, Attributes attributes) {
+    depth++;
+
+    if (messages == null) {
+      if (SVRL_NAMESPACE.equals(uri)) {
+        if (ASSERT_FAIL_ELEMENT.equals(localName)) {
+          startFailure(attributes.getValue(FLAG_ATTR), assertErrors, assertWarnings);
+        } else if (REPORT_FAIL_ELEMENT.equals(localName)) {
+          startFailure(attributes.getValue(FLAG_ATTR), reportErrors, reportWarnings);
+        }
+      }
+    } else if (firstChild == FirstChild.NOT_STARTED) {
+      firstChild = FirstChild.ELEMENT;
+    } else if (firstChild == FirstChild.TEXT) {
+      firstChild = FirstChild.DONE;
+    }
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length) {
+    if (messages == null) {
+      return;
+    }
+
+    if (firstChild == FirstChild.NOT_STARTED) {
+      firstChild = FirstChild.TEXT;
+    }
+    if (firstChild == FirstChild.TEXT || firstChild == FirstChild.ELEMENT) {
+      message.append(ch, start, length);
+    }
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String qName) {
+    if (messages != null) {
+      if (depth == failureDepth) {
+        if (firstChild != FirstChild.NOT_STARTED) {
+          messages.add(message.toString());
+        }
+        messages = null;
+      } else if (depth == failureDepth + 1 && firstChild == FirstChild.ELEMENT) {
+        firstChild = FirstChild.DONE;
+      }
+    }
+
+    depth--;
+  }
+
+  /** @return the error messages, from failed assertions followed by failed reports */
+  List<String> getErrors() {
+    List<String> errors = new ArrayList<>(assertErrors);
+    errors.addAll(reportErrors);
+    return errors;
+  }
+
+  /** @return the warning messages, from failed assertions followed by failed reports */
+  List<String> getWarnings() {
+    List<String> warnings = new ArrayList<>(assertWarnings);
+    warnings.addAll(reportWarnings);
+    return warnings;
+  }
+
+  private void startFailure(String flag, List<String> errors, List<String> warnings) {
+    if (ERROR_FLAG_ATTR_TEXT.equals(flag)) {
+      messages = errors;
+    } else if (WARNING_FLAG_ATTR_TEXT.equals(flag)) {
+      messages = warnings;
+    } else {
+      return;
+    }
+
+    failureDepth = depth;
+    firstChild = FirstChild.NOT_STARTED;
+    message.setLength(0);
+  }
+}
@@ -14,10 +14,14 @@
 package ddf.services.schematron;
 
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -29,7 +33,13 @@
 import java.net.URL;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.sf.saxon.s9api.XdmNode;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
@@ -188,6 +198,60 @@ public void testWarningsAndErrorsAreSanitized()
     verify(service, times(4)).sanitize(anyString());
   }
 
+  @Test
+  public void testValidateBatch() throws IOException, SchematronInitializationException {
+    SchematronValidationService service = getService("dog_legs.sch", "dog_paws.sch");
+    List<Optional<ValidationException>> results =
+        service.validateBatch(
+            Arrays.asList(
+                getMetacard("dog_4leg_4paw.xml"),
+                getMetacard("dog_3leg_3paw.xml"),
+                new MetacardImpl(),
+                getMetacard("dog_4leg_3paw.xml")));
+
+    assertThat(results, hasSize(4));
+    assertThat(results.get(0).isPresent(), is(false));
+    assertThat(results.get(1).get().getErrors(), hasSize(1));
+    assertThat(results.get(2).isPresent(), is(false));
+    assertThat(results.get(3).get().getErrors(), is(empty()));
+    assertThat(results.get(3).get().getWarnings(), is(not(empty())));
+  }
+
+  @Test
+  public void testValidateBatchWithInvalidRuleSet()
+      throws IOException, SchematronInitializationException {
+    List<Optional<ValidationException>> results =
+        getService(false, null, false, "definitely_does_not_exist.sch")
+            .validateBatch(Arrays.asList(getMetacard("dog_4leg_4paw.xml"), new MetacardImpl()));
+
+    assertThat(results.get(0).isPresent(), is(true));
+    assertThat(results.get(1).isPresent(), is(false));
+  }
+
+  @Test
+  public void testSchematronFilesRunInParallel()
+      throws ValidationException, IOException, SchematronInitializationException {
+    SchematronValidationService service = getService("dog_legs.sch", "dog_paws.sch");
+    // each schema waits for the other one to start, so they only finish if they run in parallel
+    CyclicBarrier barrier = new CyclicBarrier(2);
+    doAnswer(
+            invocation -> {
+              barrier.await(30, TimeUnit.SECONDS);
+              return invocation.callRealMethod();
+            })
+        .when(service)
+        .generateReport(any(XdmNode.class), any(Future.class));
+
+    service.validate(getMetacard("dog_4leg_4paw.xml"));
+
+    verify(service, times(2)).generateReport(any(XdmNode.class), any(Future.class));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidateBatchNull() throws SchematronInitializationException {
+    getService("dog_legs.sch").validateBatch(null);
+  }
+
   @Test
   public void testSanitizationChangesNothing() {
     String str = "ontattoinewerunfromsandpeople";
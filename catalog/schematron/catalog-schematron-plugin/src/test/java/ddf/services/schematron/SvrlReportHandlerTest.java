@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.services.schematron;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringReader;
+import javax.xml.parsers.SAXParserFactory;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+public class SvrlReportHandlerTest {
+
+  private static final String SVRL_START =
+      "<svrl:schematron-output xmlns:svrl=\"http://purl.oclc.org/dsdl/svrl\">";
+
+  private static final String SVRL_END = "</svrl:schematron-output>";
+
+  @Test
+  public void testErrorsAndWarnings() throws Exception {
+    SvrlReportHandler report =
+        parse(
+            "<svrl:failed-report flag=\"error\"><svrl:text>report error</svrl:text>"
+                + "</svrl:failed-report>"
+                + "<svrl:failed-assert flag=\"warning\">"
+                + "<svrl:text>assert <b>warning</b></svrl:text>"
+                + "<svrl:text>ignored</svrl:text></svrl:failed-assert>"
+                + "<svrl:failed-assert flag=\"error\"><svrl:text>assert error</svrl:text>"
+                + "</svrl:failed-assert>"
+                + "<svrl:failed-report flag=\"warning\"><svrl:text>report warning</svrl:text>"
+                + "</svrl:failed-report>");
+
+    assertThat(report.getErrors(), contains("assert error", "report error"));
+    assertThat(report.getWarnings(), contains("assert warning", "report warning"));
+  }
+
+  @Test
+  public void testMessageFromFirstChildTextNode() throws Exception {
+    SvrlReportHandler report =
+        parse(
+            "<svrl:failed-assert flag=\"error\">text first<svrl:text>ignored</svrl:text>"
+                + "</svrl:failed-assert>");
+
+    assertThat(report.getErrors(), contains("text first"));
+  }
+
+  @Test
+  public void testFailuresWithoutKnownFlagIgnored() throws Exception {
+    SvrlReportHandler report =
+        parse(
+            "<svrl:failed-assert><svrl:text>no flag</svrl:text></svrl:failed-assert>"
+                + "<svrl:failed-assert flag=\"info\"><svrl:text>info</svrl:text>"
+                + "</svrl:failed-assert>"
+                + "<svrl:failed-assert flag=\"error\"/>"
+                + "<failed-assert flag=\"error\"><text>not svrl</text></failed-assert>");
+
+    assertThat(report.getErrors(), is(empty()));
+    assertThat(report.getWarnings(), is(empty()));
+  }
+
+  private SvrlReportHandler parse(String failures) throws Exception {
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setNamespaceAware(true);
+    SvrlReportHandler report = new SvrlReportHandler();
+    factory
+        .newSAXParser()
+        .parse(new InputSource(new StringReader(SVRL_START + failures + SVRL_END)), report);
+    return report;
+  }
+}
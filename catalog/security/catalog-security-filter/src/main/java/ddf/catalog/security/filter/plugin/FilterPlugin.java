@@ -38,15 +38,25 @@
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringJoiner;
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 import org.apache.shiro.subject.Subject;
 import org.codice.ddf.security.Security;
 import org.osgi.framework.Bundle;
@@ -58,8 +68,15 @@
 /**
  * This {@link AccessPlugin} performs redaction and filtering on {@link QueryResponse} objects as
  * they pass through the framework.
+ *
+ * <p>Each distinct set of security markings is only checked once per request. Decisions can also be
+ * kept across requests from the same subject for the number of milliseconds set by the {@value
+ * #DECISION_CACHE_TTL_PROPERTY} system property, which defaults to 0.
  */
-public class FilterPlugin implements AccessPlugin {
+public class FilterPlugin implements AccessPlugin, FilterPluginMBean {
+
+  public static final String DECISION_CACHE_TTL_PROPERTY =
+      "org.codice.ddf.catalog.security.filter.decisionCacheTtlMillis";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FilterPlugin.class);
 
@@ -68,10 +85,45 @@ public class FilterPlugin implements AccessPlugin {
 
   private Security security;
 
+  private final SecurityDecisionCache decisionCache =
+      new SecurityDecisionCache(Long.getLong(DECISION_CACHE_TTL_PROPERTY, 0));
+
+  private final AtomicLong permissionChecks = new AtomicLong();
+
+  private final AtomicLong permissionEvaluations = new AtomicLong();
+
   public FilterPlugin(Security security) {
     this.security = security;
   }
 
+  /** Registers the statistics MBean. */
+  public void init() {
+    MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName = new ObjectName(OBJECT_NAME);
+      try {
+        mbeanServer.registerMBean(new StandardMBean(this, FilterPluginMBean.class), objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        LOGGER.debug("Re-registering filter plugin MBean");
+        mbeanServer.unregisterMBean(objectName);
+        mbeanServer.registerMBean(new StandardMBean(this, FilterPluginMBean.class), objectName);
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not register filter plugin MBean.", e);
+    }
+  }
+
+  /** Unregisters the statistics MBean. */
+  public void destroy() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+    } catch (InstanceNotFoundException e) {
+      LOGGER.debug("Filter plugin MBean was not registered.", e);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister filter plugin MBean.", e);
+    }
+  }
+
   public void addStrategy(ServiceReference<FilterStrategy> filterStrategyRef) {
     Bundle bundle = FrameworkUtil.getBundle(FilterPlugin.class);
     if (bundle != null) {
@@ -91,21 +143,20 @@ protected Subject getSystemSubject() {
 
   @Override
   public CreateRequest processPreCreate(CreateRequest input) throws StopProcessingException {
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.CREATE_ACTION);
     List<Metacard> metacards = input.getMetacards();
     Subject subject = getSubject(input);
-    Subject systemSubject = getSystemSubject();
+    PermissionChecker userChecker =
+        new PermissionChecker(subject, CollectionPermission.CREATE_ACTION);
+    PermissionChecker systemChecker =
+        new PermissionChecker(getSystemSubject(), CollectionPermission.CREATE_ACTION);
     List<String> userNotPermittedTitles = new ArrayList<>();
     List<String> systemNotPermittedTitles = new ArrayList<>();
     for (Metacard metacard : metacards) {
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(
-          attr, securityPermission, subject, CollectionPermission.CREATE_ACTION)) {
+      if (!userChecker.isPermitted(attr)) {
         userNotPermittedTitles.add(metacard.getTitle());
       }
-      if (!checkPermissions(
-          attr, securityPermission, systemSubject, CollectionPermission.CREATE_ACTION)) {
+      if (!systemChecker.isPermitted(attr)) {
         systemNotPermittedTitles.add(metacard.getTitle());
       }
     }
@@ -130,11 +181,11 @@ public CreateRequest processPreCreate(CreateRequest input) throws StopProcessing
   @Override
   public UpdateRequest processPreUpdate(UpdateRequest input, Map<String, Metacard> metacards)
       throws StopProcessingException {
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.UPDATE_ACTION);
     List<Map.Entry<Serializable, Metacard>> updates = input.getUpdates();
-    Subject subject = getSubject(input);
-    Subject systemSubject = getSystemSubject();
+    PermissionChecker userChecker =
+        new PermissionChecker(getSubject(input), CollectionPermission.UPDATE_ACTION);
+    PermissionChecker systemChecker =
+        new PermissionChecker(getSystemSubject(), CollectionPermission.UPDATE_ACTION);
     List<String> unknownIds = new ArrayList<>();
     List<String> userNotPermittedIds = new ArrayList<>();
     List<String> systemNotPermittedIds = new ArrayList<>();
@@ -152,13 +203,10 @@ public UpdateRequest processPreUpdate(UpdateRequest input, Map<String, Metacard>
         unknownIds.add(id);
       } else {
         Attribute oldAttr = oldMetacard.getAttribute(Metacard.SECURITY);
-        if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.UPDATE_ACTION)
-            || !checkPermissions(
-                oldAttr, securityPermission, subject, CollectionPermission.UPDATE_ACTION)) {
+        if (!userChecker.isPermitted(attr) || !userChecker.isPermitted(oldAttr)) {
           userNotPermittedIds.add(newMetacard.getId());
         }
-        if (!checkPermissions(
-            attr, securityPermission, systemSubject, CollectionPermission.UPDATE_ACTION)) {
+        if (!systemChecker.isPermitted(attr)) {
           systemNotPermittedIds.add(newMetacard.getId());
         }
       }
@@ -195,12 +243,11 @@ public DeleteResponse processPostDelete(DeleteResponse input) throws StopProcess
 
     List<Metacard> results = input.getDeletedMetacards();
     List<Metacard> newResults = new ArrayList<>(results.size());
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    PermissionChecker checker = new PermissionChecker(subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
     for (Metacard metacard : results) {
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!checker.isPermitted(attr)) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -244,13 +291,12 @@ public QueryResponse processPostQuery(QueryResponse input) throws StopProcessing
     List<Result> results = input.getResults();
     List<Result> newResults = new ArrayList<>(results.size());
     Metacard metacard;
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
+    PermissionChecker checker = new PermissionChecker(subject, CollectionPermission.READ_ACTION);
     int filteredMetacards = 0;
     for (Result result : results) {
       metacard = result.getMetacard();
       Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-      if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+      if (!checker.isPermitted(attr)) {
         for (FilterStrategy filterStrategy : filterStrategies.values()) {
           FilterResult filterResult = filterStrategy.process(input, metacard);
           if (filterResult.processed()) {
@@ -290,11 +336,10 @@ public ResourceResponse processPostResource(ResourceResponse input, Metacard met
       throw new StopProcessingException(
           "Unable to filter contents of current message, no user Subject available.");
     }
-    KeyValueCollectionPermission securityPermission =
-        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION);
-    Subject subject = getSubject(input);
+    PermissionChecker checker =
+        new PermissionChecker(getSubject(input), CollectionPermission.READ_ACTION);
     Attribute attr = metacard.getAttribute(Metacard.SECURITY);
-    if (!checkPermissions(attr, securityPermission, subject, CollectionPermission.READ_ACTION)) {
+    if (!checker.isPermitted(attr)) {
       for (FilterStrategy filterStrategy : filterStrategies.values()) {
         FilterResult filterResult = filterStrategy.process(input, metacard);
         if (filterResult.processed()) {
@@ -337,19 +382,75 @@ private Subject getSubject(Request input) throws StopProcessingException {
     return subject;
   }
 
-  private boolean checkPermissions(
-      Attribute attr,
-      KeyValueCollectionPermission securityPermission,
-      Subject subject,
-      String action) {
-    Map<String, Set<String>> map = null;
+  @Override
+  public long getPermissionCheckCount() {
+    return permissionChecks.get();
+  }
+
+  @Override
+  public long getPermissionEvaluationCount() {
+    return permissionEvaluations.get();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long checks = permissionChecks.get();
+    if (checks == 0) {
+      return 0;
+    }
+    return 1 - (double) permissionEvaluations.get() / checks;
+  }
 
+  /**
+   * Returns the security markings of a metacard in a form that is equal for any metacards with the
+   * same markings, regardless of the order of their values.
+   */
+  private static Map<String, Set<String>> getSecurityMarkings(Attribute attr) {
+    Map<String, ? extends Collection<String>> map = null;
     if (attr != null) {
-      map = (Map<String, Set<String>>) attr.getValue();
+      map = (Map<String, ? extends Collection<String>>) attr.getValue();
+    }
+    if (map == null) {
+      return Collections.emptyMap();
+    }
+    Map<String, Set<String>> markings = new HashMap<>();
+    for (Map.Entry<String, ? extends Collection<String>> entry : map.entrySet()) {
+      markings.put(entry.getKey(), new HashSet<>(entry.getValue()));
+    }
+    return markings;
+  }
+
+  /**
+   * Checks whether a subject may perform an action on metacards. Each distinct set of security
+   * markings is only evaluated once, since most results of a request share a handful of markings.
+   */
+  private class PermissionChecker {
+
+    private final Subject subject;
+
+    private final String action;
+
+    private final Map<Map<String, Set<String>>, Boolean> decisions = new HashMap<>();
+
+    PermissionChecker(Subject subject, String action) {
+      this.subject = subject;
+      this.action = action;
     }
-    if (map != null) {
-      securityPermission = new KeyValueCollectionPermission(action, map);
+
+    boolean isPermitted(Attribute attr) {
+      permissionChecks.incrementAndGet();
+      return decisions.computeIfAbsent(getSecurityMarkings(attr), this::evaluate);
+    }
+
+    private boolean evaluate(Map<String, Set<String>> markings) {
+      Boolean cached = decisionCache.get(subject, action, markings);
+      if (cached != null) {
+        return cached;
+      }
+      permissionEvaluations.incrementAndGet();
+      boolean permitted = subject.isPermitted(new KeyValueCollectionPermission(action, markings));
+      decisionCache.put(subject, action, markings, permitted);
+      return permitted;
     }
-    return subject.isPermitted(securityPermission);
   }
 }
@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin;
+
+/** Statistics of the security decisions made by the {@link FilterPlugin}. */
+public interface FilterPluginMBean {
+
+  String OBJECT_NAME = "ddf.catalog.security.filter.plugin.FilterPlugin:service=filter-plugin";
+
+  /** @return number of metacards whose security markings have been checked */
+  long getPermissionCheckCount();
+
+  /** @return number of checks that had to be evaluated by the subject */
+  long getPermissionEvaluationCount();
+
+  /** @return fraction of checks answered by an earlier decision for the same markings */
+  double getHitRatio();
+}
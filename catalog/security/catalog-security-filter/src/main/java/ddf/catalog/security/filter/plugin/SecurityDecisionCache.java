@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.security.filter.plugin;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.shiro.subject.Subject;
+
+/**
+ * Remembers access decisions for security markings across requests for a short time. Decisions are
+ * kept per {@link Subject} instance, whose attributes do not change while it is in use, and are
+ * discarded together once the oldest of them is older than the time to live or the subject is no
+ * longer referenced.
+ */
+class SecurityDecisionCache {
+
+  private final long ttlNanos;
+
+  private final Map<Subject, SubjectDecisions> decisions =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /** @param ttlMillis milliseconds decisions are kept for, or 0 to not keep any */
+  SecurityDecisionCache(long ttlMillis) {
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+  }
+
+  boolean isEnabled() {
+    return ttlNanos > 0;
+  }
+
+  /** @return the decision for the markings, or null if there is no current decision for them */
+  Boolean get(Subject subject, String action, Map<String, Set<String>> markings) {
+    if (!isEnabled()) {
+      return null;
+    }
+    SubjectDecisions subjectDecisions = decisions.get(subject);
+    if (subjectDecisions == null || subjectDecisions.isExpired()) {
+      return null;
+    }
+    return subjectDecisions.decisions.get(new SimpleImmutableEntry<>(action, markings));
+  }
+
+  void put(Subject subject, String action, Map<String, Set<String>> markings, boolean permitted) {
+    if (!isEnabled()) {
+      return;
+    }
+    SubjectDecisions subjectDecisions;
+    synchronized (decisions) {
+      subjectDecisions = decisions.get(subject);
+      if (subjectDecisions == null || subjectDecisions.isExpired()) {
+        subjectDecisions = new SubjectDecisions(System.nanoTime() + ttlNanos);
+        decisions.put(subject, subjectDecisions);
+      }
+    }
+    subjectDecisions.decisions.put(new SimpleImmutableEntry<>(action, markings), permitted);
+  }
+
+  private static class SubjectDecisions {
+
+    private final long expiresAt;
+
+    private final Map<Map.Entry<String, Map<String, Set<String>>>, Boolean> decisions =
+        new ConcurrentHashMap<>();
+
+    SubjectDecisions(long expiresAt) {
+      this.expiresAt = expiresAt;
+    }
+
+    boolean isExpired() {
+      return System.nanoTime() - expiresAt >= 0;
+    }
+  }
+}
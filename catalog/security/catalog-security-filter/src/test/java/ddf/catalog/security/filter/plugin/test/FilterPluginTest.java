@@ -19,6 +19,8 @@
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Metacard;
@@ -95,9 +97,13 @@ public class FilterPluginTest {
 
   DeleteResponse badDeleteResponse;
 
+  AuthorizingRealm realm;
+
+  Subject systemSubject;
+
   @Before
   public void setup() {
-    AuthorizingRealm realm = mock(AuthorizingRealm.class);
+    realm = mock(AuthorizingRealm.class);
 
     when(realm.getName()).thenReturn("mockRealm");
     when(realm.isPermitted(any(PrincipalCollection.class), any(Permission.class)))
@@ -117,7 +123,7 @@ public String getName() {
               }
             },
             realm.getName());
-    Subject systemSubject = new MockSubject(manager, principalCollection);
+    systemSubject = new MockSubject(manager, principalCollection);
 
     plugin =
         new FilterPlugin(new Security()) {
@@ -213,6 +219,43 @@ public void testPluginFilterNoStrategies() {
     }
   }
 
+  @Test
+  public void testPluginFilterEvaluatesEachMarkingOnce() throws StopProcessingException {
+    incomingResponse.addResult(new ResultImpl(getMoreRolesMetacard()), false);
+    incomingResponse.addResult(new ResultImpl(getExactRolesMetacard()), true);
+
+    QueryResponse response = plugin.processPostQuery(incomingResponse);
+
+    assertThat(response.getResults().size(), is(5));
+    verify(realm, times(4)).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+    assertThat(plugin.getPermissionCheckCount(), is(7L));
+    assertThat(plugin.getPermissionEvaluationCount(), is(4L));
+    assertEquals(3.0 / 7, plugin.getHitRatio(), 0.0001);
+  }
+
+  @Test
+  public void testPluginFilterKeepsDecisionsAcrossRequests() throws StopProcessingException {
+    System.setProperty(FilterPlugin.DECISION_CACHE_TTL_PROPERTY, "60000");
+    try {
+      plugin =
+          new FilterPlugin(new Security()) {
+            @Override
+            protected Subject getSystemSubject() {
+              return systemSubject;
+            }
+          };
+    } finally {
+      System.clearProperty(FilterPlugin.DECISION_CACHE_TTL_PROPERTY);
+    }
+
+    plugin.processPostQuery(incomingResponse);
+    QueryResponse response = plugin.processPostQuery(incomingResponse);
+
+    verifyFilterResponse(response);
+    verify(realm, times(4)).isPermitted(any(PrincipalCollection.class), any(Permission.class));
+    assertThat(plugin.getPermissionCheckCount(), is(9L));
+  }
+
   @Test
   public void testPluginFilterResourceGood() throws StopProcessingException {
     plugin.processPostResource(resourceResponse, getExactRolesMetacard());
@@ -174,6 +174,8 @@ private CswConstants() {}
 
   public static final String OMIT_XML_DECLARATION = "OMIT_XML_DECLARATION";
 
+  public static final String STREAM_RESPONSE = "STREAM_RESPONSE";
+
   public static final String GET_CAPABILITIES = "GetCapabilities";
 
   public static final String DESCRIBE_RECORD = "DescribeRecord";
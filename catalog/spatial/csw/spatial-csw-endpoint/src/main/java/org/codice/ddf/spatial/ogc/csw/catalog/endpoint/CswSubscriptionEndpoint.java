@@ -29,9 +29,13 @@
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -58,6 +62,7 @@
 import org.codice.ddf.configuration.DictionaryMap;
 import org.codice.ddf.cxf.client.ClientFactoryFactory;
 import org.codice.ddf.log.sanitizer.LogSanitizer;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.TransformerProperties;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.codice.ddf.security.Security;
@@ -90,6 +95,8 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
 
   private static final String UUID_URN = "urn:uuid:";
 
+  private static final int EVENT_DELIVERY_THREAD_COUNT = 4;
+
   private final TransformerManager schemaTransformerManager;
 
   private final TransformerManager mimeTypeTransformerManager;
@@ -114,6 +121,11 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
 
   private SecurityManager securityManager;
 
+  private final ScheduledExecutorService eventDeliveryExecutor =
+      Executors.newScheduledThreadPool(
+          EVENT_DELIVERY_THREAD_COUNT,
+          StandardThreadFactoryBuilder.newThreadFactory("cswEventDeliveryThread"));
+
   public CswSubscriptionEndpoint(
       EventProcessor eventProcessor,
       TransformerManager mimeTypeTransformerManager,
@@ -141,6 +153,27 @@ public CswSubscriptionEndpoint(
     }
   }
 
+  /**
+   * Stops event delivery for every subscription. Undelivered events stay spooled and are delivered
+   * once the subscriptions are restored.
+   */
+  public synchronized void destroy() {
+    for (String subscriptionId : registeredSubscriptions.keySet()) {
+      try {
+        CswSubscription subscription = getSubscription(subscriptionId);
+        if (subscription != null) {
+          subscription.stop();
+        }
+      } catch (RuntimeException e) {
+        LOGGER.debug(
+            "Unable to stop event delivery for subscription {}",
+            LogSanitizer.sanitize(subscriptionId),
+            e);
+      }
+    }
+    eventDeliveryExecutor.shutdownNow();
+  }
+
   /**
    * Deletes an active subscription
    *
@@ -314,8 +347,9 @@ public Response createOrUpdateSubscription(
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response createEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyCreated(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyCreated(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -326,8 +360,14 @@ public Response createEvent(GetRecordsResponseType recordsResponse) throws CswEx
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyUpdated(metacards.get(0), null);
+    // A single update carries the new metacard followed by the old one, while a batch of updates
+    // carries only the new metacards, so the first metacard for each id is the updated one.
+    Set<String> updatedIds = new HashSet<>();
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      if (updatedIds.add(metacard.getId())) {
+        eventProcessor.notifyUpdated(metacard, null);
+      }
+    }
     return Response.ok().build();
   }
 
@@ -338,8 +378,9 @@ public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswEx
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response deleteEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyDeleted(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyDeleted(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -428,7 +469,8 @@ public CswSubscription createSubscription(GetRecordsType request) throws CswExce
           query,
           clientFactoryFactory,
           security,
-          securityManager);
+          securityManager,
+          eventDeliveryExecutor);
     }
     return new CswSubscription(
         mimeTypeTransformerManager,
@@ -436,7 +478,8 @@ public CswSubscription createSubscription(GetRecordsType request) throws CswExce
         query,
         clientFactoryFactory,
         security,
-        securityManager);
+        securityManager,
+        eventDeliveryExecutor);
   }
 
   public synchronized String addOrUpdateSubscription(
@@ -487,6 +530,7 @@ public synchronized String addOrUpdateSubscription(
       }
     } else {
       LOGGER.debug("Subscription registration failed");
+      sub.close();
     }
 
     LOGGER.trace("EXITING: {}", methodName);
@@ -523,6 +567,9 @@ private synchronized CswSubscription deleteCswSubscription(String subscriptionId
       } else {
         LOGGER.debug("No ServiceRegistration found for subscription: {}", logSanitizedId);
       }
+      if (subscription != null) {
+        subscription.close();
+      }
 
       Configuration subscriptionConfig = getSubscriptionConfiguration(subscriptionId);
       try {
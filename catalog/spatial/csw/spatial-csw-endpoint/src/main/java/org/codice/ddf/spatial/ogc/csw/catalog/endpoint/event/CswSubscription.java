@@ -17,6 +17,7 @@
 import ddf.catalog.operation.QueryRequest;
 import ddf.security.service.SecurityManager;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
 import org.codice.ddf.cxf.client.ClientFactoryFactory;
 import org.codice.ddf.security.Security;
@@ -28,6 +29,8 @@ public class CswSubscription extends SubscriptionImpl {
 
   private GetRecordsType originalRequest;
 
+  private final SendEvent sendEvent;
+
   private CswSubscription(
       GetRecordsType request,
       Filter filter,
@@ -36,6 +39,7 @@ private CswSubscription(
       boolean enterprise) {
     super(filter, sendEvent, sourceIds, enterprise);
     this.originalRequest = request;
+    this.sendEvent = sendEvent;
   }
 
   public CswSubscription(
@@ -44,7 +48,8 @@ public CswSubscription(
       QueryRequest query,
       ClientFactoryFactory clientFactoryFactory,
       Security security,
-      SecurityManager securityManager)
+      SecurityManager securityManager,
+      ScheduledExecutorService deliveryExecutor)
       throws CswException {
     this(
         request,
@@ -55,7 +60,8 @@ public CswSubscription(
             query,
             clientFactoryFactory,
             security,
-            securityManager),
+            securityManager,
+            deliveryExecutor),
         query.getSourceIds(),
         query.isEnterprise());
   }
@@ -66,7 +72,8 @@ public static CswSubscription getFilterlessSubscription(
       QueryRequest query,
       ClientFactoryFactory clientFactoryFactory,
       Security security,
-      SecurityManager securityManager)
+      SecurityManager securityManager,
+      ScheduledExecutorService deliveryExecutor)
       throws CswException {
     return new CswSubscription(
         request,
@@ -77,7 +84,8 @@ public static CswSubscription getFilterlessSubscription(
             query,
             clientFactoryFactory,
             security,
-            securityManager),
+            securityManager,
+            deliveryExecutor),
         null,
         false);
   }
@@ -85,4 +93,14 @@ public static CswSubscription getFilterlessSubscription(
   public GetRecordsType getOriginalRequest() {
     return originalRequest;
   }
+
+  /** Stops event delivery and discards undelivered events, see {@link SendEvent#close()}. */
+  public void close() {
+    sendEvent.close();
+  }
+
+  /** Stops event delivery, keeping undelivered events, see {@link SendEvent#stop()}. */
+  public void stop() {
+    sendEvent.stop();
+  }
 }
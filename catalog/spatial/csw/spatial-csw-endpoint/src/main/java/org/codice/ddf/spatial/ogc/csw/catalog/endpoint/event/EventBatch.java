@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import ddf.catalog.data.Metacard;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Events of a single operation that are delivered to a subscriber together. Events are keyed by
+ * metacard id, so a later event for a metacard already in the batch replaces the earlier one while
+ * keeping its place.
+ */
+class EventBatch implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String operation;
+
+  private final Map<String, Metacard> metacards = new LinkedHashMap<>();
+
+  private int unidentified;
+
+  EventBatch(String operation) {
+    this.operation = operation;
+  }
+
+  String getOperation() {
+    return operation;
+  }
+
+  void add(Metacard metacard) {
+    String id = metacard.getId();
+    if (id == null) {
+      // metacards without an id can't be collapsed, so give each its own entry
+      id = "\u0000" + unidentified++;
+    }
+    metacards.put(id, metacard);
+  }
+
+  List<Metacard> getMetacards() {
+    return new ArrayList<>(metacards.values());
+  }
+
+  int size() {
+    return metacards.size();
+  }
+}
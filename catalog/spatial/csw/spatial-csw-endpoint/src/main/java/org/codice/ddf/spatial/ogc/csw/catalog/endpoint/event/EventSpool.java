@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ordered spool of {@link EventBatch}es waiting to be delivered to a subscriber. Each batch is
+ * written to its own file in the spool directory so that undelivered events survive a restart. A
+ * batch that can't be written is held in memory instead.
+ *
+ * <p>A spool directory has a single owner: the spool holds a lock on it until it is released or
+ * deleted. A spool without a directory, or whose directory is owned by another spool, only holds
+ * its batches in memory. The number of batches is capped; batches added to a full spool are
+ * dropped.
+ */
+class EventSpool {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventSpool.class);
+
+  private static final String BATCH_EXTENSION = ".batch";
+
+  private static final String LOCK_FILE = "spool.lock";
+
+  private final Path directory;
+
+  private final int maxBatches;
+
+  private final Deque<Entry> entries = new ArrayDeque<>();
+
+  private FileChannel lockChannel;
+
+  private FileLock lock;
+
+  private long sequence;
+
+  /**
+   * @param directory directory to spool batches to, or {@code null} to hold them in memory
+   * @param maxBatches maximum number of batches held by the spool
+   */
+  EventSpool(Path directory, int maxBatches) {
+    this.maxBatches = maxBatches;
+    this.directory = directory != null && lock(directory) ? directory : null;
+    load();
+  }
+
+  /** @return {@code false} if the spool is full and the batch was dropped */
+  synchronized boolean add(EventBatch batch) {
+    if (entries.size() >= maxBatches) {
+      return false;
+    }
+    if (directory == null) {
+      entries.add(new Entry(null, batch));
+      return true;
+    }
+
+    Path file = directory.resolve(String.format("%019d%s", sequence++, BATCH_EXTENSION));
+    try {
+      Files.createDirectories(directory);
+      try (OutputStream outputStream = Files.newOutputStream(file);
+          ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+        objectOutputStream.writeObject(batch);
+      }
+      entries.add(new Entry(file, null));
+    } catch (IOException e) {
+      LOGGER.debug("Unable to spool event batch to {}, holding it in memory", file, e);
+      deleteQuietly(file);
+      entries.add(new Entry(null, batch));
+    }
+    return true;
+  }
+
+  /** @return the oldest batch in the spool, or {@code null} if the spool is empty */
+  synchronized EventBatch peek() {
+    while (!entries.isEmpty()) {
+      Entry entry = entries.peek();
+      if (entry.batch != null) {
+        return entry.batch;
+      }
+
+      try (InputStream inputStream = Files.newInputStream(entry.file);
+          ObjectInputStream objectInputStream = new ObjectInputStream(inputStream)) {
+        return (EventBatch) objectInputStream.readObject();
+      } catch (IOException | ClassNotFoundException | ClassCastException e) {
+        LOGGER.debug("Discarding unreadable event batch {}", entry.file, e);
+        remove();
+      }
+    }
+    return null;
+  }
+
+  /** Removes the oldest batch once it has been delivered. */
+  synchronized void remove() {
+    Entry entry = entries.poll();
+    if (entry != null && entry.file != null) {
+      deleteQuietly(entry.file);
+    }
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /** Gives up ownership of the spool directory, leaving the spooled batches for the next owner. */
+  synchronized void release() {
+    entries.clear();
+    unlock();
+  }
+
+  /** Discards every batch and deletes the spool directory. */
+  synchronized void delete() {
+    entries.clear();
+    if (directory != null) {
+      for (Path file : listBatchFiles()) {
+        deleteQuietly(file);
+      }
+      unlock();
+      deleteQuietly(directory.resolve(LOCK_FILE));
+      deleteQuietly(directory);
+    }
+  }
+
+  private boolean lock(Path spoolDirectory) {
+    try {
+      Files.createDirectories(spoolDirectory);
+      lockChannel =
+          FileChannel.open(
+              spoolDirectory.resolve(LOCK_FILE),
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE);
+      lock = lockChannel.tryLock();
+    } catch (IOException | OverlappingFileLockException e) {
+      LOGGER.debug("Unable to lock event spool {}", spoolDirectory, e);
+    }
+    if (lock == null) {
+      LOGGER.info(
+          "Event spool {} is in use by another subscription, events will only be held in memory.",
+          spoolDirectory);
+      unlock();
+      return false;
+    }
+    return true;
+  }
+
+  private void unlock() {
+    try {
+      if (lock != null) {
+        lock.release();
+      }
+      if (lockChannel != null) {
+        lockChannel.close();
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to unlock event spool {}", directory, e);
+    }
+    lock = null;
+    lockChannel = null;
+  }
+
+  private void load() {
+    if (directory == null || !Files.isDirectory(directory)) {
+      return;
+    }
+
+    List<Path> files = listBatchFiles();
+    if (files.size() > maxBatches) {
+      LOGGER.warn(
+          "Event spool {} holds {} batches, dropping all but the oldest {}.",
+          directory,
+          files.size(),
+          maxBatches);
+      for (Path file : files.subList(maxBatches, files.size())) {
+        deleteQuietly(file);
+      }
+      files = files.subList(0, maxBatches);
+    }
+    for (Path file : files) {
+      entries.add(new Entry(file, null));
+      String name = file.getFileName().toString();
+      try {
+        long fileSequence =
+            Long.parseLong(name.substring(0, name.length() - BATCH_EXTENSION.length()));
+        sequence = Math.max(sequence, fileSequence + 1);
+      } catch (NumberFormatException e) {
+        LOGGER.debug("Unexpected file {} in event spool", file);
+      }
+    }
+    LOGGER.debug("Loaded {} undelivered event batches from {}", entries.size(), directory);
+  }
+
+  /** @return the batch files in the spool directory, in delivery order */
+  private List<Path> listBatchFiles() {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, "*" + BATCH_EXTENSION)) {
+      stream.forEach(files::add);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read event spool {}", directory, e);
+    }
+    // names are zero padded sequence numbers, so lexical order is delivery order
+    Collections.sort(files);
+    return files;
+  }
+
+  private void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete {} from the event spool", file, e);
+    }
+  }
+
+  private static class Entry {
+
+    private final Path file;
+
+    private final EventBatch batch;
+
+    private Entry(Path file, EventBatch batch) {
+      this.file = file;
+      this.batch = batch;
+    }
+  }
+}
@@ -31,10 +31,13 @@
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
-import java.util.Arrays;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -63,7 +66,18 @@
 
 /**
  * SendEvent provides a implementation of {@link DeliveryMethod} for sending events to a CSW
- * subscription event endpoint
+ * subscription event endpoint.
+ *
+ * <p>Events are queued per subscriber and delivered in batches, one record collection per batch,
+ * once a batch reaches {@link #DEFAULT_MAX_BATCH_SIZE} events or has lingered for {@link
+ * #DEFAULT_LINGER_MILLIS}. A batch only holds events of one operation, and repeated events for
+ * the same metacard within a batch are collapsed into the latest one. Batches are spooled to disk
+ * until they have been delivered and are retried with exponential backoff. At most {@link
+ * #MAX_SPOOLED_BATCHES} batches are spooled; later batches are dropped until the subscriber
+ * catches up.
+ *
+ * <p>Deliveries run on an executor owned by the caller. {@link #close()} must be called once the
+ * subscription is deleted or replaced, which stops delivery and deletes the spool.
  */
 public class SendEvent implements DeliveryMethod, Pingable {
 
@@ -75,6 +89,12 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   public static final long DEFAULT_PING_PERIOD = TimeUnit.MINUTES.toMillis(30L);
 
+  public static final int DEFAULT_MAX_BATCH_SIZE = 250;
+
+  public static final long DEFAULT_LINGER_MILLIS = TimeUnit.SECONDS.toMillis(1L);
+
+  public static final int MAX_SPOOLED_BATCHES = 1000;
+
   private final URL callbackUrl;
 
   private final String outputSchema;
@@ -91,6 +111,8 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   private final QueryRequest query;
 
+  private final ScheduledExecutorService deliveryExecutor;
+
   private String ip;
 
   private volatile long lastPing = System.currentTimeMillis() - DEFAULT_PING_PERIOD;
@@ -99,6 +121,16 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   private final Random random = new Random();
 
+  private final Object deliveryLock = new Object();
+
+  private EventSpool spool;
+
+  private EventBatch pendingBatch;
+
+  private boolean deliveryScheduled;
+
+  private volatile boolean closed;
+
   Security security;
 
   volatile Subject subject;
@@ -111,7 +143,8 @@ public SendEvent(
       QueryRequest query,
       ClientFactoryFactory clientFactoryFactory,
       Security security,
-      SecurityManager securityManager)
+      SecurityManager securityManager,
+      ScheduledExecutorService deliveryExecutor)
       throws CswException {
 
     URL deliveryMethodUrl;
@@ -134,6 +167,7 @@ public SendEvent(
       throw new CswException(msg);
     }
     this.security = security;
+    this.deliveryExecutor = deliveryExecutor;
     this.query = query;
     this.callbackUrl = deliveryMethodUrl;
     this.request = request;
@@ -158,12 +192,14 @@ public SendEvent(
       LOGGER.debug("Unable to resolve callback address", e);
     }
     ping();
+    initDelivery();
   }
 
   public SendEvent(
       GetRecordsType request,
       QueryRequest query,
-      SecureCxfClientFactory<CswSubscribe> cxfClientFactory)
+      SecureCxfClientFactory<CswSubscribe> cxfClientFactory,
+      ScheduledExecutorService deliveryExecutor)
       throws CswException {
 
     URL deliveryMethodUrl;
@@ -185,6 +221,7 @@ public SendEvent(
       LOGGER.debug(msg);
       throw new CswException(msg);
     }
+    this.deliveryExecutor = deliveryExecutor;
     this.query = query;
     this.callbackUrl = deliveryMethodUrl;
     this.request = request;
@@ -204,17 +241,180 @@ public SendEvent(
       LOGGER.debug("Unable to resolve callback address", e);
     }
     ping();
+    initDelivery();
+  }
+
+  private void initDelivery() {
+    spool = new EventSpool(getSpoolDirectory(), MAX_SPOOLED_BATCHES);
+    if (spool.size() > 0) {
+      scheduleDelivery(0L);
+    }
+  }
+
+  /** @return the spool directory, or {@code null} to spool in memory if there is no request id */
+  Path getSpoolDirectory() {
+    String subscriber = request.getRequestId();
+    if (subscriber == null) {
+      return null;
+    }
+    return Paths.get(
+        System.getProperty("ddf.home", "."),
+        "data",
+        "csw",
+        "events",
+        subscriber.replaceAll("[^A-Za-z0-9._-]", "_"));
+  }
+
+  private synchronized void queueEvent(String operation, Metacard metacard) {
+    if (closed) {
+      LOGGER.debug("Subscription for {} is closed, ignoring event", callbackUrl);
+      return;
+    }
+
+    if (pendingBatch != null && !pendingBatch.getOperation().equals(operation)) {
+      spoolPendingBatch();
+    }
+
+    if (pendingBatch == null) {
+      final EventBatch batch = new EventBatch(operation);
+      pendingBatch = batch;
+      schedule(() -> spoolLingeringBatch(batch), DEFAULT_LINGER_MILLIS);
+    }
+
+    pendingBatch.add(metacard);
+    if (pendingBatch.size() >= DEFAULT_MAX_BATCH_SIZE) {
+      spoolPendingBatch();
+    }
+  }
+
+  private synchronized void spoolLingeringBatch(EventBatch batch) {
+    if (pendingBatch == batch) {
+      spoolPendingBatch();
+    }
+  }
+
+  private synchronized void spoolPendingBatch() {
+    if (pendingBatch == null || closed) {
+      return;
+    }
+    addToSpool();
+    scheduleDelivery(0L);
+  }
+
+  private synchronized void addToSpool() {
+    if (!spool.add(pendingBatch)) {
+      LOGGER.warn(
+          "Event spool for {} is full, dropping {} events.", callbackUrl, pendingBatch.size());
+    }
+    pendingBatch = null;
+  }
+
+  /** Spools any pending events and delivers the spool on the calling thread. */
+  void flush() {
+    synchronized (this) {
+      if (pendingBatch != null) {
+        addToSpool();
+      }
+    }
+    long retryDelay = deliverSpool();
+    if (retryDelay >= 0) {
+      scheduleDelivery(retryDelay);
+    }
+  }
+
+  /**
+   * Stops delivery and deletes the spool along with any undelivered events. Called when the
+   * subscription is deleted or replaced.
+   */
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      pendingBatch = null;
+    }
+    synchronized (deliveryLock) {
+      spool.delete();
+    }
   }
 
-  private void sendEvent(String operation, Metacard... metacards) {
-    if (subject == null) {
+  /**
+   * Stops delivery, leaving undelivered events in the spool to be delivered once the subscription
+   * is restored.
+   */
+  public void stop() {
+    synchronized (this) {
+      if (pendingBatch != null) {
+        addToSpool();
+      }
+      closed = true;
+    }
+    synchronized (deliveryLock) {
+      spool.release();
+    }
+  }
+
+  private synchronized void scheduleDelivery(long delayMillis) {
+    if (deliveryScheduled || closed) {
       return;
     }
+    deliveryScheduled = true;
+    if (!schedule(this::deliver, delayMillis)) {
+      deliveryScheduled = false;
+    }
+  }
+
+  private boolean schedule(Runnable task, long delayMillis) {
+    try {
+      deliveryExecutor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+      return true;
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Event delivery for {} has been shut down", callbackUrl, e);
+      return false;
+    }
+  }
+
+  private void deliver() {
+    synchronized (this) {
+      deliveryScheduled = false;
+      if (closed) {
+        return;
+      }
+    }
+    long retryDelay = deliverSpool();
+    if (retryDelay >= 0) {
+      scheduleDelivery(retryDelay);
+    }
+  }
+
+  /**
+   * Delivers spooled batches in order until the spool is empty or a delivery fails.
+   *
+   * @return the delay before delivery should be retried, or -1 if the spool was emptied
+   */
+  private long deliverSpool() {
+    synchronized (deliveryLock) {
+      EventBatch batch;
+      while (!closed && (batch = spool.peek()) != null) {
+        if (subject == null && !ping()) {
+          return getRetryDelay();
+        }
+        if (subject != null && !sendBatch(batch)) {
+          return getRetryDelay();
+        }
+        if (subject == null) {
+          LOGGER.debug("Discarding events for {}, no subject is available", callbackUrl);
+        }
+        spool.remove();
+      }
+      return -1;
+    }
+  }
+
+  private boolean sendBatch(EventBatch batch) {
     try {
-      List<Result> results =
-          Arrays.asList(metacards).stream().map(ResultImpl::new).collect(Collectors.toList());
+      List<Metacard> metacards = batch.getMetacards();
+      List<Result> results = metacards.stream().map(ResultImpl::new).collect(Collectors.toList());
 
-      QueryResponse queryResponse = new QueryResponseImpl(query, results, true, metacards.length);
+      QueryResponse queryResponse = new QueryResponseImpl(query, results, true, metacards.size());
       CswRecordCollection recordCollection = new CswRecordCollection();
 
       recordCollection.setElementName(elementName);
@@ -234,14 +434,15 @@ private void sendEvent(String operation, Metacard... metacards) {
       }
 
       if (queryResponse.getResults().isEmpty()) {
-        return;
+        return true;
       }
       recordCollection.setSourceResponse(queryResponse);
 
-      send(operation, recordCollection);
+      return send(batch.getOperation(), recordCollection);
     } catch (StopProcessingException | InvalidSyntaxException e) {
       LOGGER.debug("Unable to send event error running AccessPlugin processPostQuery. ", e);
     }
+    return true;
   }
 
   private boolean send(String operation, CswRecordCollection recordCollection) {
@@ -271,25 +472,25 @@ private boolean send(String operation, CswRecordCollection recordCollection) {
   public void created(Metacard newMetacard) {
 
     LOGGER.debug("Created {}", newMetacard);
-    sendEvent(HttpMethod.POST, newMetacard);
+    queueEvent(HttpMethod.POST, newMetacard);
   }
 
   @Override
   public void updatedHit(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Hit {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    queueEvent(HttpMethod.PUT, newMetacard);
   }
 
   @Override
   public void updatedMiss(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Miss {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    queueEvent(HttpMethod.PUT, newMetacard);
   }
 
   @Override
   public void deleted(Metacard oldMetacard) {
     LOGGER.debug("Deleted {}", oldMetacard);
-    sendEvent(HttpMethod.DELETE, oldMetacard);
+    queueEvent(HttpMethod.DELETE, oldMetacard);
   }
 
   private long introduceJitter(long value, double percent) {
@@ -300,13 +501,16 @@ private long introduceJitter(long value, double percent) {
     return value - Math.abs(random.nextLong() % maxJitter);
   }
 
+  private long getRetryDelay() {
+    // 100ms to a maximum of 54min
+    long retryTimeOffset = (long) Math.pow(2, Math.min(retryCount.get(), MAX_RETRY_COUNT)) * 50;
+    return introduceJitter(retryTimeOffset, JITTER_PERCENT);
+  }
+
   @Override
   public boolean ping() {
     if (retryCount.get() > 0) {
-      // 100ms to a maximum of 54min
-      long retryTimeOffset = (long) Math.pow(2, Math.min(retryCount.get(), MAX_RETRY_COUNT)) * 50;
-      retryTimeOffset = introduceJitter(retryTimeOffset, JITTER_PERCENT);
-      if (lastPing > System.currentTimeMillis() - retryTimeOffset) {
+      if (lastPing > System.currentTimeMillis() - getRetryDelay()) {
         return false;
       }
     } else if (lastPing > System.currentTimeMillis() - DEFAULT_PING_PERIOD) {
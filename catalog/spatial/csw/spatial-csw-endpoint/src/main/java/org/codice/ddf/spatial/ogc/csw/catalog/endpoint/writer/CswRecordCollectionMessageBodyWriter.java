@@ -127,6 +127,7 @@ public void writeTo(
       arguments.put(CswConstants.GET_RECORDS, recordCollection.getRequest());
       arguments.put(CswConstants.RESULT_TYPE_PARAMETER, recordCollection.getResultType());
       arguments.put(CswConstants.WRITE_NAMESPACES, false);
+      arguments.put(CswConstants.STREAM_RESPONSE, true);
     }
 
     if (transformer == null) {
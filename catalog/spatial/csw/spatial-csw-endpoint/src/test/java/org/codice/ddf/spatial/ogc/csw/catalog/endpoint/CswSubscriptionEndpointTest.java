@@ -24,6 +24,7 @@
 import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -44,6 +45,8 @@
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.ws.rs.core.Response;
 import javax.xml.bind.JAXBElement;
 import net.opengis.cat.csw.v_2_0_2.AcknowledgementType;
@@ -62,6 +65,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordsRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.CswSubscription;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -120,6 +124,8 @@ public class CswSubscriptionEndpointTest {
 
   private CswSubscription subscription;
 
+  private ScheduledExecutorService deliveryExecutor;
+
   String subscriptionId = "urn:uuid:1234";
 
   private GetRecordsRequest defaultRequest;
@@ -158,7 +164,7 @@ public void setUp() throws Exception {
 
     System.setProperty(SecurityConstants.KEYSTORE_TYPE, "jks");
     System.setProperty(SecurityConstants.TRUSTSTORE_TYPE, "jks");
-    System.setProperty("ddf.home", "");
+    System.setProperty("ddf.home", temporaryFolder.getRoot().getAbsolutePath());
     System.setProperty(SecurityConstants.KEYSTORE_PATH, systemKeystoreFile.getAbsolutePath());
     System.setProperty(SecurityConstants.TRUSTSTORE_PATH, systemTruststoreFile.getAbsolutePath());
     System.setProperty(SecurityConstants.KEYSTORE_PASSWORD, password);
@@ -221,14 +227,17 @@ public void setUp() throws Exception {
     Configuration[] configArry = {config};
 
     defaultRequest = createDefaultGetRecordsRequest();
+    deliveryExecutor = Executors.newSingleThreadScheduledExecutor();
     subscription =
-        new CswSubscription(
-            mockMimeTypeManager,
-            defaultRequest.get202RecordsType(),
-            query,
-            clientFactoryFactory,
-            security,
-            securityManager);
+        spy(
+            new CswSubscription(
+                mockMimeTypeManager,
+                defaultRequest.get202RecordsType(),
+                query,
+                clientFactoryFactory,
+                security,
+                securityManager,
+                deliveryExecutor));
 
     when(osgiFilter.toString()).thenReturn(FILTER_STR);
     doReturn(serviceRegistration)
@@ -263,6 +272,12 @@ public void setUp() throws Exception {
             securityManager);
   }
 
+  @After
+  public void tearDown() {
+    cswSubscriptionEndpoint.destroy();
+    deliveryExecutor.shutdownNow();
+  }
+
   @Test
   public void testDeleteRecordsSubscription() throws Exception {
     cswSubscriptionEndpoint.addOrUpdateSubscription(defaultRequest.get202RecordsType(), true);
@@ -270,6 +285,7 @@ public void testDeleteRecordsSubscription() throws Exception {
     assertThat(Response.Status.OK.getStatusCode(), is(response.getStatusInfo().getStatusCode()));
     verify(serviceRegistration).unregister();
     verify(config).delete();
+    verify(subscription).close();
   }
 
   @Test
@@ -318,6 +334,7 @@ public void testUpdateRecordsSubscription() throws Exception {
         is(ResultType.HITS));
     verify(serviceRegistration).unregister();
     verify(config).delete();
+    verify(subscription).close();
     verify(mockContext, times(2))
         .registerService(
             eq(Subscription.class.getName()), any(Subscription.class), any(Dictionary.class));
@@ -450,6 +467,18 @@ public void testDeleteEvent() throws Exception {
     verify(eventProcessor).notifyDeleted(any(Metacard.class));
   }
 
+  @Test
+  public void testBatchedCreateEvent() throws Exception {
+    cswSubscriptionEndpoint.createEvent(getRecordsResponse(3));
+    verify(eventProcessor, times(3)).notifyCreated(any(Metacard.class));
+  }
+
+  @Test
+  public void testBatchedDeleteEvent() throws Exception {
+    cswSubscriptionEndpoint.deleteEvent(getRecordsResponse(3));
+    verify(eventProcessor, times(3)).notifyDeleted(any(Metacard.class));
+  }
+
   @Test(expected = CswException.class)
   public void testCreateEventInvalidSchema() throws Exception {
     GetRecordsResponseType getRecordsResponse = new GetRecordsResponseType();
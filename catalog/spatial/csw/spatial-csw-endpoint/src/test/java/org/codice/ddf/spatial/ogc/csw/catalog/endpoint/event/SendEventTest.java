@@ -14,6 +14,7 @@
 package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyMap;
@@ -22,22 +23,30 @@
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.plugin.AccessPlugin;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.security.Subject;
+import java.io.File;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -52,15 +61,26 @@
 import org.codice.ddf.security.Security;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.osgi.framework.InvalidSyntaxException;
 
 public class SendEventTest {
 
+  private static final long RETRY_TIMEOUT = 5000L;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File spoolDirectory;
+
   private Security mockSecurity;
 
   private URL callbackURI;
@@ -95,9 +115,12 @@ public class SendEventTest {
 
   private Subject subject;
 
+  private ScheduledExecutorService deliveryExecutor;
+
   @Before
   public void setUp() throws Exception {
     System.setProperty("ddf.home", ".");
+    spoolDirectory = new File(temporaryFolder.getRoot(), "spool");
     callbackURI = new URL("https://localhost:12345/services/csw/subscription/event");
     ObjectFactory objectFactory = new ObjectFactory();
     request = new GetRecordsType();
@@ -119,7 +142,7 @@ public void setUp() throws Exception {
     when(binaryContent.getByteArray()).thenReturn("byte array with message contents".getBytes());
     query = mock(QueryRequest.class);
 
-    metacard = mock(Metacard.class);
+    metacard = createMetacard("id", "title");
     webclient = mock(WebClient.class);
     mockCxfClientFactory = mock(SecureCxfClientFactory.class);
     response = mock(Response.class);
@@ -135,10 +158,16 @@ public void setUp() throws Exception {
     when(accessPlugin.processPostQuery(any(QueryResponse.class)))
         .thenAnswer(invocationOnMock -> invocationOnMock.getArguments()[0]);
 
+    deliveryExecutor = Executors.newScheduledThreadPool(2);
     sendEvent = new SendEventExtension(request, query, mockCxfClientFactory);
     sendEvent.setSubject(subject);
   }
 
+  @After
+  public void tearDown() {
+    deliveryExecutor.shutdownNow();
+  }
+
   public void verifyResults() throws Exception {
     verify(webclient, times(2)).invoke(anyString(), anyObject());
   }
@@ -146,27 +175,131 @@ public void verifyResults() throws Exception {
   @Test
   public void testCreated() throws Exception {
     sendEvent.created(metacard);
+    sendEvent.flush();
     verifyResults();
   }
 
   @Test
   public void testUpdatedHit() throws Exception {
     sendEvent.updatedHit(metacard, metacard);
+    sendEvent.flush();
     verifyResults();
   }
 
   @Test
   public void testUpdatedMiss() throws Exception {
     sendEvent.updatedMiss(metacard, metacard);
+    sendEvent.flush();
     verifyResults();
   }
 
   @Test
   public void testDeleted() throws Exception {
     sendEvent.deleted(metacard);
+    sendEvent.flush();
     verifyResults();
   }
 
+  @Test
+  public void testUpdatesOfSameMetacardAreCollapsed() throws Exception {
+    Metacard first = createMetacard("a", "first");
+    Metacard second = createMetacard("a", "second");
+    Metacard other = createMetacard("b", "other");
+
+    sendEvent.updatedHit(first, first);
+    sendEvent.updatedMiss(other, other);
+    sendEvent.updatedHit(second, first);
+    sendEvent.flush();
+
+    ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+    verify(webclient, times(1)).invoke(eq(HttpMethod.PUT), captor.capture());
+    List<Result> results =
+        ((CswRecordCollection) captor.getValue()).getSourceResponse().getResults();
+    assertThat(results, hasSize(2));
+    assertThat(results.get(0).getMetacard().getTitle(), is("second"));
+    assertThat(results.get(1).getMetacard().getTitle(), is("other"));
+  }
+
+  @Test
+  public void testEventsAreBatchedByOperation() throws Exception {
+    sendEvent.created(createMetacard("a", "a"));
+    sendEvent.created(createMetacard("b", "b"));
+    sendEvent.deleted(createMetacard("c", "c"));
+    sendEvent.flush();
+
+    verify(webclient, times(1)).invoke(eq(HttpMethod.POST), anyObject());
+    verify(webclient, times(1)).invoke(eq(HttpMethod.DELETE), anyObject());
+    verify(webclient, times(3)).invoke(anyString(), anyObject());
+  }
+
+  @Test
+  public void testFailedBatchIsSpooledAndRetried() throws Exception {
+    when(webclient.invoke(eq(HttpMethod.POST), anyObject()))
+        .thenThrow(new RuntimeException("unavailable"))
+        .thenReturn(response);
+
+    sendEvent.created(createMetacard("a", "a"));
+    sendEvent.flush();
+    assertThat(getSpooledBatchCount(), is(1));
+
+    verify(webclient, timeout(RETRY_TIMEOUT).times(2)).invoke(eq(HttpMethod.POST), anyObject());
+    waitForEmptySpool();
+  }
+
+  @Test
+  public void testSpooledEventsAreDeliveredAfterRestart() throws Exception {
+    SecureCxfClientFactory<CswSubscribe> unavailableClientFactory =
+        mock(SecureCxfClientFactory.class);
+    WebClient unavailableClient = mock(WebClient.class);
+    when(unavailableClientFactory.getWebClient()).thenReturn(unavailableClient);
+    when(unavailableClient.invoke(anyString(), anyObject()))
+        .thenThrow(new RuntimeException("unavailable"));
+
+    sendEvent.stop();
+    SendEventExtension unavailable =
+        new SendEventExtension(request, query, unavailableClientFactory);
+    unavailable.created(createMetacard("a", "a"));
+    unavailable.flush();
+    assertThat(getSpooledBatchCount(), is(1));
+    unavailable.stop();
+
+    new SendEventExtension(request, query, mockCxfClientFactory);
+
+    verify(webclient, timeout(RETRY_TIMEOUT)).invoke(eq(HttpMethod.POST), anyObject());
+    waitForEmptySpool();
+  }
+
+  @Test
+  public void testCloseDeletesSpool() throws Exception {
+    when(webclient.invoke(eq(HttpMethod.POST), anyObject()))
+        .thenThrow(new RuntimeException("unavailable"));
+
+    sendEvent.created(createMetacard("a", "a"));
+    sendEvent.flush();
+    assertThat(getSpooledBatchCount(), is(1));
+
+    sendEvent.close();
+    sendEvent.created(createMetacard("b", "b"));
+    sendEvent.flush();
+
+    assertThat(spoolDirectory.exists(), is(false));
+  }
+
+  @Test
+  public void testSpoolDirectoryHasSingleOwner() throws Exception {
+    when(webclient.invoke(eq(HttpMethod.POST), anyObject()))
+        .thenThrow(new RuntimeException("unavailable"));
+    SendEventExtension other = new SendEventExtension(request, query, mockCxfClientFactory);
+    other.setSubject(subject);
+
+    other.created(createMetacard("a", "a"));
+    other.flush();
+
+    assertThat(getSpooledBatchCount(), is(0));
+    other.close();
+    assertThat(spoolDirectory.exists(), is(true));
+  }
+
   @Test
   public void testIsAvailableNoExpiration() throws Exception {
     long lastPing = sendEvent.getLastPing();
@@ -183,6 +316,26 @@ public void testIsAvailableNoExpiration() throws Exception {
     assertThat(lastPing, is(sendEvent.getLastPing()));
   }
 
+  private Metacard createMetacard(String id, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setTitle(title);
+    return metacard;
+  }
+
+  private int getSpooledBatchCount() {
+    File[] batches = spoolDirectory.listFiles((dir, name) -> name.endsWith(".batch"));
+    return batches == null ? 0 : batches.length;
+  }
+
+  private void waitForEmptySpool() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + RETRY_TIMEOUT;
+    while (getSpooledBatchCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(getSpooledBatchCount(), is(0));
+  }
+
   private class SendEventExtension extends SendEvent {
 
     public SendEventExtension(
@@ -190,7 +343,7 @@ public SendEventExtension(
         QueryRequest query,
         SecureCxfClientFactory<CswSubscribe> mockCxfClientFactory)
         throws CswException {
-      super(request, query, mockCxfClientFactory);
+      super(request, query, mockCxfClientFactory, deliveryExecutor);
       super.security = mockSecurity;
     }
 
@@ -198,6 +351,10 @@ List<AccessPlugin> getAccessPlugins() throws InvalidSyntaxException {
       return accessPlugins;
     }
 
+    Path getSpoolDirectory() {
+      return spoolDirectory.toPath();
+    }
+
     public void setSubject(Subject subject) {
       super.subject = subject;
     }
@@ -93,6 +93,7 @@ public void testWriteToWithSchema()
 
     Map arguments = captor.getValue();
     assertThat(arguments.get(CswConstants.WRITE_NAMESPACES), is(false));
+    assertThat(arguments.get(CswConstants.STREAM_RESPONSE), is(true));
     assertThat(arguments.get(CswConstants.OUTPUT_SCHEMA_PARAMETER), is(exampleSchema));
     assertThat(arguments.get(CswConstants.RESULT_TYPE_PARAMETER), is(ResultType.HITS));
     assertThat(arguments.get(CswConstants.IS_BY_ID_QUERY), is(true));
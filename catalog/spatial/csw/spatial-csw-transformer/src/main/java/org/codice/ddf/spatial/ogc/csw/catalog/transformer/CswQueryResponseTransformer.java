@@ -31,6 +31,7 @@
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +53,9 @@
 import javax.xml.datatype.DatatypeConfigurationException;
 import javax.xml.datatype.DatatypeFactory;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import net.opengis.cat.csw.v_2_0_2.AcknowledgementType;
 import net.opengis.cat.csw.v_2_0_2.EchoedRequestType;
 import net.opengis.cat.csw.v_2_0_2.ElementSetType;
@@ -128,6 +132,10 @@ public class CswQueryResponseTransformer implements QueryResponseTransformer {
 
   private static final int ACCUM_INITIAL_SIZE = 4096;
 
+  private static final int STREAM_WINDOW_PER_THREAD = 2;
+
+  private final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+
   public CswQueryResponseTransformer(
       TransformerManager metacardTransformerManager, PrintWriterProvider writerProvider) {
     this.metacardTransformerManager = metacardTransformerManager;
@@ -142,11 +150,13 @@ public BinaryContent transform(SourceResponse sourceResponse, Map<String, Serial
 
     CswRecordCollection recordCollection = buildCollection(sourceResponse, arguments);
 
-    ByteArrayInputStream bais;
+    InputStream bais;
 
     if (ResultType.VALIDATE.equals(recordCollection.getResultType())) {
       ByteArrayOutputStream baos = writeAcknowledgement(recordCollection.getRequest());
       bais = new ByteArrayInputStream(baos.toByteArray());
+    } else if (isStreamResponse(arguments)) {
+      bais = stream(recordCollection, sourceResponse.getResults(), arguments);
     } else {
       // "catches" recordCollection.getResultType() == null
       List<Result> results = sourceResponse.getResults();
@@ -179,12 +189,7 @@ private String convert(
       writer.addAttribute(XML_PREFIX + entry.getKey(), entry.getValue());
     }
 
-    long start =
-        (cswRecordCollection.getStartPosition() > 0) ? cswRecordCollection.getStartPosition() : 1;
-    long nextRecord = start + cswRecordCollection.getNumberOfRecordsReturned();
-    if (nextRecord > cswRecordCollection.getNumberOfRecordsMatched()) {
-      nextRecord = 0;
-    }
+    long nextRecord = getNextRecord(cswRecordCollection);
 
     String metacardsString = null;
     AtomicLong numReturned = new AtomicLong(cswRecordCollection.getNumberOfRecordsReturned());
@@ -243,6 +248,133 @@ private String convert(
     return writer.makeString();
   }
 
+  /**
+   * Streams the response rather than building it in memory. The envelope is written with StAX
+   * and each record is transformed only as the reader approaches it, so memory use does not grow
+   * with the number of results and the envelope is available to the client immediately.
+   *
+   * <p>Because the number of records returned is written before any record is transformed, a
+   * record that fails to transform is logged and left out of the response rather than deducted
+   * from that count.
+   */
+  private InputStream stream(
+      CswRecordCollection cswRecordCollection,
+      List<Result> results,
+      Map<String, Serializable> arguments)
+      throws CatalogTransformerException {
+
+    boolean isHits = ResultType.HITS.equals(cswRecordCollection.getResultType());
+    List<Result> records = Collections.emptyList();
+    MetacardTransformer transformer = null;
+    if (!isHits) {
+      arguments.put(CswConstants.OMIT_XML_DECLARATION, Boolean.TRUE);
+      transformer = getMetacardTransformer(cswRecordCollection.getOutputSchema());
+      records = results;
+    }
+
+    ByteArrayOutputStream envelope = new ByteArrayOutputStream();
+    byte[] header;
+    try {
+      XMLStreamWriter writer =
+          xmlOutputFactory.createXMLStreamWriter(envelope, StandardCharsets.UTF_8.name());
+      writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+
+      if (cswRecordCollection.isById()) {
+        writer.writeStartElement(RECORD_BY_ID_RESPONSE_QNAME);
+      } else {
+        writer.writeStartElement(RECORDS_RESPONSE_QNAME);
+      }
+
+      for (Map.Entry<String, String> entry :
+          DefaultCswRecordMap.getDefaultCswRecordMap().getPrefixToUriMapping().entrySet()) {
+        writer.writeAttribute(XML_PREFIX + entry.getKey(), entry.getValue());
+      }
+
+      if (!cswRecordCollection.isById()) {
+        writer.writeAttribute(VERSION_ATTRIBUTE, CswConstants.VERSION_2_0_2);
+
+        if (cswRecordCollection.getRequest() != null
+            && StringUtils.isNotBlank(cswRecordCollection.getRequest().getRequestId())) {
+          writer.writeStartElement(REQUEST_ID_QNAME);
+          writer.writeCharacters(cswRecordCollection.getRequest().getRequestId());
+          writer.writeEndElement();
+        }
+
+        writer.writeEmptyElement(SEARCH_STATUS_QNAME);
+        writer.writeAttribute(
+            TIMESTAMP_ATTRIBUTE, ISODateTimeFormat.dateTime().print(new DateTime()));
+
+        writer.writeStartElement(SEARCH_RESULTS_QNAME);
+        writer.writeAttribute(
+            NUMBER_OF_RECORDS_MATCHED_ATTRIBUTE,
+            Long.toString(cswRecordCollection.getNumberOfRecordsMatched()));
+
+        if (isHits) {
+          writer.writeAttribute(NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE, Long.toString(0));
+        } else {
+          writer.writeAttribute(
+              NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE,
+              Long.toString(cswRecordCollection.getNumberOfRecordsReturned()));
+          writer.writeAttribute(
+              NEXT_RECORD_ATTRIBUTE, Long.toString(getNextRecord(cswRecordCollection)));
+        }
+
+        writer.writeAttribute(RECORD_SCHEMA_ATTRIBUTE, cswRecordCollection.getOutputSchema());
+
+        if (cswRecordCollection.getElementSetType() != null
+            && StringUtils.isNotBlank(cswRecordCollection.getElementSetType().value())) {
+          writer.writeAttribute(
+              ELEMENT_SET_ATTRIBUTE, cswRecordCollection.getElementSetType().value());
+        }
+      }
+
+      // closes the open start tag so the records can be written after it
+      writer.writeCharacters("");
+      writer.flush();
+      header = envelope.toByteArray();
+      envelope.reset();
+
+      if (!cswRecordCollection.isById()) {
+        writer.writeEndElement(); // SEARCH_RESULTS_QNAME
+      }
+      writer.writeEndElement(); // RECORDS_RESPONSE_QNAME
+      writer.writeEndDocument();
+      writer.flush();
+      writer.close();
+    } catch (XMLStreamException e) {
+      throw new CatalogTransformerException("Unable to write CSW response envelope", e);
+    }
+
+    return new OrderedRecordInputStream(
+        header,
+        records,
+        transformer,
+        arguments,
+        queryExecutor,
+        STREAM_WINDOW_PER_THREAD * queryExecutor.getMaximumPoolSize(),
+        envelope.toByteArray());
+  }
+
+  private long getNextRecord(CswRecordCollection cswRecordCollection) {
+    long start =
+        (cswRecordCollection.getStartPosition() > 0) ? cswRecordCollection.getStartPosition() : 1;
+    long nextRecord = start + cswRecordCollection.getNumberOfRecordsReturned();
+    if (nextRecord > cswRecordCollection.getNumberOfRecordsMatched()) {
+      nextRecord = 0;
+    }
+    return nextRecord;
+  }
+
+  private MetacardTransformer getMetacardTransformer(String recordSchema)
+      throws CatalogTransformerException {
+    MetacardTransformer transformer =
+        metacardTransformerManager.getTransformerBySchema(recordSchema);
+    if (transformer == null) {
+      throw new CatalogTransformerException("Cannot find transformer for schema: " + recordSchema);
+    }
+    return transformer;
+  }
+
   /**
    * Multi-threaded marshal of metacard assumes that the query size is unbounded to guard against
    * resource exhaustion with fixed thread-pool and fixed work-queue. CPU-bound for optimum
@@ -264,11 +396,7 @@ private String multiThreadedMarshal(
     CompletionService<BinaryContent> completionService =
         new ExecutorCompletionService<>(queryExecutor);
 
-    final MetacardTransformer transformer =
-        metacardTransformerManager.getTransformerBySchema(recordSchema);
-    if (transformer == null) {
-      throw new CatalogTransformerException("Cannot find transformer for schema: " + recordSchema);
-    }
+    final MetacardTransformer transformer = getMetacardTransformer(recordSchema);
 
     Map<Future<BinaryContent>, Result> futures = new HashMap<>(results.size());
     for (Result result : results) {
@@ -324,6 +452,10 @@ private String multiThreadedMarshal(
     return accum.toString();
   } // end multiThreadedMarshal()
 
+  private boolean isStreamResponse(Map<String, Serializable> arguments) {
+    return Boolean.TRUE.equals(arguments.get(CswConstants.STREAM_RESPONSE));
+  }
+
   private boolean isByIdQuery(Map<String, Serializable> arguments) {
     Serializable isByIdQuery = arguments.get(CswConstants.IS_BY_ID_QUERY);
     if (isByIdQuery instanceof Boolean) {
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.transformer;
+
+import ddf.catalog.data.BinaryContent;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.transform.MetacardTransformer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams a CSW response as its envelope header, each transformed record in result order, and the
+ * envelope footer. Records are transformed on the given executor no more than {@code window}
+ * records ahead of the reader, so only that many transformed records are held at any time no
+ * matter how many results the response contains.
+ */
+class OrderedRecordInputStream extends InputStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OrderedRecordInputStream.class);
+
+  private final Iterator<Result> pending;
+
+  private final MetacardTransformer transformer;
+
+  private final Map<String, Serializable> arguments;
+
+  private final ExecutorService executor;
+
+  private final int window;
+
+  private final Deque<Future<BinaryContent>> inFlight = new ArrayDeque<>();
+
+  private byte[] footer;
+
+  private InputStream current;
+
+  private boolean closed;
+
+  OrderedRecordInputStream(
+      byte[] header,
+      List<Result> results,
+      MetacardTransformer transformer,
+      Map<String, Serializable> arguments,
+      ExecutorService executor,
+      int window,
+      byte[] footer) {
+    this.pending = results.iterator();
+    this.transformer = transformer;
+    this.arguments = arguments;
+    this.executor = executor;
+    this.window = Math.max(1, window);
+    this.footer = footer;
+    this.current = new ByteArrayInputStream(header);
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] single = new byte[1];
+    int read = read(single, 0, 1);
+    return read == -1 ? -1 : single[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] buffer, int offset, int length) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (length == 0) {
+      return 0;
+    }
+
+    while (current != null) {
+      int read = current.read(buffer, offset, length);
+      if (read != -1) {
+        return read;
+      }
+      IOUtils.closeQuietly(current);
+      current = next();
+    }
+    return -1;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    IOUtils.closeQuietly(current);
+    current = null;
+    for (Future<BinaryContent> future : inFlight) {
+      future.cancel(true);
+    }
+    inFlight.clear();
+  }
+
+  private InputStream next() throws IOException {
+    fill();
+    while (!inFlight.isEmpty()) {
+      Future<BinaryContent> future = inFlight.poll();
+      fill();
+      try {
+        BinaryContent content = future.get();
+        InputStream record = content == null ? null : content.getInputStream();
+        if (record != null) {
+          return record;
+        }
+      } catch (ExecutionException | CancellationException e) {
+        LOGGER.debug("Error transforming Metacard", e);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Metacard transform interrupted");
+      }
+    }
+
+    if (footer != null) {
+      InputStream footerStream = new ByteArrayInputStream(footer);
+      footer = null;
+      return footerStream;
+    }
+    return null;
+  }
+
+  private void fill() {
+    while (inFlight.size() < window && pending.hasNext()) {
+      final Metacard metacard = pending.next().getMetacard();
+      inFlight.add(executor.submit(() -> transformer.transform(metacard, arguments)));
+    }
+  }
+}
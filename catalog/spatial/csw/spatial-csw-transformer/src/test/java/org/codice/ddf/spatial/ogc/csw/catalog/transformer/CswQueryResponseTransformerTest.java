@@ -15,8 +15,11 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
@@ -49,6 +52,7 @@
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
@@ -56,6 +60,7 @@
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.activation.MimeType;
+import javax.activation.MimeTypeParseException;
 import javax.ws.rs.WebApplicationException;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -441,6 +446,106 @@ public void verifyResultOrderIsMaintained() throws CatalogTransformerException,
     }
   }
 
+  @Test
+  public void testStreamedResponseMaintainsOrder() throws CatalogTransformerException, IOException {
+    SourceResponse sourceResponse = createSourceResponse(createStreamedQuery(), 10);
+    when(mockTransformerManager.getTransformerBySchema(anyString()))
+        .thenReturn(mockMetacardTransformer);
+    when(mockMetacardTransformer.transform(any(Metacard.class), anyMap()))
+        .then(invocationOnMock -> createRecord((Metacard) invocationOnMock.getArguments()[0]));
+
+    transformer.init();
+    BinaryContent content = transformer.transform(sourceResponse, createStreamedArguments());
+    verify(mockMetacardTransformer, never()).transform(any(Metacard.class), anyMap());
+    String xml = new String(content.getByteArray(), StandardCharsets.UTF_8);
+    transformer.destroy();
+
+    assertThat(xml, startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"));
+    assertThat(xml, containsString(CswQueryResponseTransformer.RECORDS_RESPONSE_QNAME));
+    assertThat(
+        xml,
+        containsString(
+            CswQueryResponseTransformer.NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE + "=\"10\""));
+    assertThat(xml, endsWith("</" + CswQueryResponseTransformer.RECORDS_RESPONSE_QNAME + ">"));
+    verify(mockPrintWriterProvider, never()).build(any(Class.class));
+
+    int previous = xml.indexOf(CswQueryResponseTransformer.SEARCH_RESULTS_QNAME);
+    for (int i = 1; i <= 10; i++) {
+      int index = xml.indexOf("<record>id_" + i + "</record>");
+      assertThat(index > previous, is(true));
+      previous = index;
+    }
+  }
+
+  @Test
+  public void testStreamedResponseOmitsFailedTransforms()
+      throws CatalogTransformerException, IOException {
+    SourceResponse sourceResponse = createSourceResponse(createStreamedQuery(), 6);
+    when(mockTransformerManager.getTransformerBySchema(anyString()))
+        .thenReturn(mockMetacardTransformer);
+    when(mockMetacardTransformer.transform(any(Metacard.class), anyMap()))
+        .then(
+            invocationOnMock -> {
+              Metacard metacard = (Metacard) invocationOnMock.getArguments()[0];
+              if ("id_2".equals(metacard.getId())) {
+                throw new CatalogTransformerException("");
+              }
+              return createRecord(metacard);
+            });
+
+    transformer.init();
+    BinaryContent content = transformer.transform(sourceResponse, createStreamedArguments());
+    String xml = new String(content.getByteArray(), StandardCharsets.UTF_8);
+    transformer.destroy();
+
+    assertThat(xml, not(containsString("id_2")));
+    assertThat(xml, containsString("<record>id_1</record><record>id_3</record>"));
+    assertThat(xml, endsWith("</" + CswQueryResponseTransformer.RECORDS_RESPONSE_QNAME + ">"));
+  }
+
+  @Test
+  public void testStreamedHitsResponseDoesNotTransformMetacards()
+      throws CatalogTransformerException, IOException {
+    SourceResponse sourceResponse = createSourceResponse(createStreamedQuery(), 6);
+    Map<String, Serializable> args = createStreamedArguments();
+    args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.HITS);
+
+    transformer.init();
+    BinaryContent content = transformer.transform(sourceResponse, args);
+    String xml = new String(content.getByteArray(), StandardCharsets.UTF_8);
+    transformer.destroy();
+
+    assertThat(
+        xml,
+        containsString(CswQueryResponseTransformer.NUMBER_OF_RECORDS_MATCHED_ATTRIBUTE + "=\"6\""));
+    assertThat(
+        xml,
+        containsString(
+            CswQueryResponseTransformer.NUMBER_OF_RECORDS_RETURNED_ATTRIBUTE + "=\"0\""));
+    verify(mockTransformerManager, never()).getTransformerBySchema(anyString());
+  }
+
+  private GetRecordsType createStreamedQuery() {
+    GetRecordsType query = new GetRecordsType();
+    query.setResultType(ResultType.RESULTS);
+    query.setMaxRecords(BigInteger.valueOf(10));
+    query.setStartPosition(BigInteger.valueOf(1));
+    return query;
+  }
+
+  private Map<String, Serializable> createStreamedArguments() {
+    Map<String, Serializable> args = new HashMap<>();
+    args.put(CswConstants.RESULT_TYPE_PARAMETER, ResultType.RESULTS);
+    args.put(CswConstants.STREAM_RESPONSE, true);
+    return args;
+  }
+
+  private BinaryContent createRecord(Metacard metacard) throws MimeTypeParseException {
+    return new BinaryContentImpl(
+        IOUtils.toInputStream("<record>" + metacard.getId() + "</record>"),
+        new MimeType("application/xml"));
+  }
+
   private SourceResponse createSourceResponse(GetRecordsType request, int resultCount) {
     int first = 1;
     int last = 2;
@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.spatial.geocoding.create;
 
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.codice.countrycode.standard.StandardProvider;
 import org.codice.countrycode.standard.StandardRegistry;
 import org.codice.countrycode.standard.StandardRegistryImpl;
@@ -24,27 +26,29 @@
  * href="http://download.geonames.org/export/dump">geonames.org</a>.
  */
 public class GeoNamesCreator implements GeoEntryCreator {
-  private StandardProvider isoStandard;
+  /** Only the leading fields up to and including the population are used. */
+  private static final int FIELD_COUNT = 15;
+
+  private final Map<String, String> alpha2ToAlpha3;
 
   public GeoNamesCreator() {
     StandardRegistry registry = StandardRegistryImpl.getInstance();
-    isoStandard = registry.lookup("ISO3166", "1");
+    StandardProvider isoStandard = registry.lookup("ISO3166", "1");
+    alpha2ToAlpha3 =
+        isoStandard
+            .getStandardEntries()
+            .stream()
+            .collect(
+                Collectors.toMap(
+                    c -> c.getAsFormat("alpha2"), c -> c.getAsFormat("alpha3"), (a, b) -> a));
   }
 
   @Override
   public GeoEntry createGeoEntry(final String line, String entryResource) {
-    // Passing a negative value to preserve empty fields.
-    final String[] fields = line.split("\\t", -1);
+    final String[] fields = splitFields(line);
 
     final String countryCodeAlpha2 = fields[8];
-    String countryCodeAlpha3 =
-        isoStandard
-            .getStandardEntries()
-            .stream()
-            .filter(c -> c.getAsFormat("alpha2").equals(countryCodeAlpha2))
-            .findFirst()
-            .map(cc -> cc.getAsFormat("alpha3"))
-            .orElse(countryCodeAlpha2);
+    String countryCodeAlpha3 = alpha2ToAlpha3.getOrDefault(countryCodeAlpha2, countryCodeAlpha2);
 
     return new GeoEntry.Builder()
         .name(fields[1])
@@ -58,4 +62,34 @@ public GeoEntry createGeoEntry(final String line, String entryResource) {
         .importLocation(entryResource)
         .build();
   }
+
+  /**
+   * Splits the leading {@link #FIELD_COUNT} tab-delimited fields of a GeoNames line, preserving
+   * empty fields. This avoids the regular expression machinery of {@link String#split} and the
+   * substrings for the trailing fields that are never read, which matters when loading the
+   * multi-million line {@code allCountries} file.
+   *
+   * @return the leading fields; fewer than {@link #FIELD_COUNT} if the line is too short
+   */
+  static String[] splitFields(final String line) {
+    final String[] fields = new String[FIELD_COUNT];
+    int count = 0;
+    int start = 0;
+    while (count < FIELD_COUNT) {
+      final int end = line.indexOf('\t', start);
+      if (end < 0) {
+        fields[count++] = line.substring(start);
+        break;
+      }
+      fields[count++] = line.substring(start, end);
+      start = end + 1;
+    }
+
+    if (count < FIELD_COUNT) {
+      final String[] shortFields = new String[count];
+      System.arraycopy(fields, 0, shortFields, 0, count);
+      return shortFields;
+    }
+    return fields;
+  }
 }
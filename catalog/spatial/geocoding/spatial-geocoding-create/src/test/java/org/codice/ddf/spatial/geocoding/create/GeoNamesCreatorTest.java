@@ -50,6 +50,15 @@ public void testSomeEmptyFields() {
     verifyGeoEntry(geoEntry, "Cave Creek", 33.83333, -111.95083, "PPL", 5015, "", "USA");
   }
 
+  @Test
+  public void testOnlyLeadingFields() {
+    final String geoNamesEntryStr =
+        "5288858\tCave Creek\tCave Creek\t\t33.83333\t"
+            + "-111.95083\tP\tPPL\tXX\t\tAZ\t013\t\t\t5015";
+    final GeoEntry geoEntry = GEONAMES_CREATOR.createGeoEntry(geoNamesEntryStr, TEST_RESOURCE);
+    verifyGeoEntry(geoEntry, "Cave Creek", 33.83333, -111.95083, "PPL", 5015, "", "XX");
+  }
+
   @Test(expected = ArrayIndexOutOfBoundsException.class)
   public void testNotEnoughFields() {
     final String wrongFormat = "5288858\tCave Creek\tCave Creek\tAlternate names\t33.83333";
@@ -14,6 +14,7 @@
 package org.codice.ddf.spatial.geocoding.extract;
 
 import com.google.common.io.ByteSource;
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
@@ -31,6 +32,7 @@
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.apache.cxf.jaxrs.client.WebClient;
@@ -47,6 +49,8 @@ public class GeoNamesFileExtractor implements GeoEntryExtractor {
 
   private static final int BUFFER_SIZE = 4096;
 
+  private static final int READER_BUFFER_SIZE = 64 * 1024;
+
   private static final String[] SCHEMES = {"http", "https"};
 
   private static final UrlValidator URL_VALIDATOR =
@@ -109,18 +113,26 @@ public void pushGeoEntriesToExtractionCallback(
       throw new IllegalArgumentException("You must pass a non-null callback.");
     }
 
+    fileSize = -1;
     InputStream fileInputStream = getInputStreamFromResource(resource, extractionCallback);
 
     try (InputStreamReader inputStreamReader =
             new InputStreamReader(fileInputStream, StandardCharsets.UTF_8);
-        BufferedReader reader = new BufferedReader(inputStreamReader)) {
+        BufferedReader reader = new BufferedReader(inputStreamReader, READER_BUFFER_SIZE)) {
 
-      double bytesRead = 0.0;
+      // Progress is estimated from the character count (plus the line terminator) rather than
+      // re-encoding every line, and is only reported when the percentage actually changes.
+      long charsRead = 0;
+      int lastProgress = -1;
 
       for (String line; (line = reader.readLine()) != null; ) {
         extractionCallback.extracted(extractGeoEntry(line, resource));
-        bytesRead += line.getBytes(StandardCharsets.UTF_8).length;
-        extractionCallback.updateProgress((int) (50 + (bytesRead / fileSize) * 50));
+        charsRead += line.length() + 1;
+        int progress = fileSize > 0 ? (int) Math.min(99, 50 + (charsRead * 50) / fileSize) : 50;
+        if (progress != lastProgress) {
+          extractionCallback.updateProgress(progress);
+          lastProgress = progress;
+        }
       }
       extractionCallback.updateProgress(100);
 
@@ -304,7 +316,7 @@ private InputStream getFileInputStream(String resource) throws GeoEntryExtractio
         fileUri = new URI("file://" + resource);
       }
       File file = new File(fileUri);
-      fileSize = file.getTotalSpace();
+      fileSize = file.length();
       fileInputStream = new FileInputStream(file);
     } catch (FileNotFoundException | URISyntaxException e) {
       throw new GeoEntryExtractionException(resource + " cannot be found", e);
@@ -313,42 +325,37 @@ private InputStream getFileInputStream(String resource) throws GeoEntryExtractio
   }
 
   /**
-   * Unzips a file and returns the output as a new InputStream
+   * Positions a {@link ZipInputStream} at the GeoNames data entry of a zip file and returns it, so
+   * the entry is decompressed as it is read instead of being spooled to a temporary file first.
+   * Closing the returned stream closes the given InputStream.
    *
    * @param resource - the name of the resource file to be unzipped
    * @param inputStream - the InputStream for the file to be unzipped
-   * @return - the unzipped file as an InputStream
+   * @return - the InputStream for the unzipped data entry
    * @throws GeoEntryExtractionException when the given file fails to be unzipped.
    */
   private InputStream unZipInputStream(String resource, InputStream inputStream)
       throws GeoEntryExtractionException {
-    try (TemporaryFileBackedOutputStream bufferedOutputStream =
-            new TemporaryFileBackedOutputStream(BUFFER_SIZE);
-        ZipInputStream zipInputStream = new ZipInputStream(inputStream)) {
-
+    ZipInputStream zipInputStream =
+        new ZipInputStream(new BufferedInputStream(inputStream, READER_BUFFER_SIZE));
+    try {
       ZipEntry zipEntry;
       while ((zipEntry = zipInputStream.getNextEntry()) != null) {
 
         // GeoNames <filename>.zip files will contain <filename>.txt and readme.txt
         if (!zipEntry.getName().equals("readme.txt")) {
-
-          byte data[] = new byte[BUFFER_SIZE];
-          int bytesRead;
-          while ((bytesRead = zipInputStream.read(data, 0, BUFFER_SIZE)) != -1) {
-            bufferedOutputStream.write(data, 0, bytesRead);
+          if (zipEntry.getSize() > 0) {
+            fileSize = zipEntry.getSize();
           }
-
-          ByteSource zipByteSource = bufferedOutputStream.asByteSource();
-          bufferedOutputStream.flush();
-          fileSize = zipByteSource.size();
-          return zipByteSource.openBufferedStream();
+          return zipInputStream;
         }
       }
-
     } catch (IOException e) {
+      IOUtils.closeQuietly(zipInputStream);
       throw new GeoEntryExtractionException("Unable to unzip " + resource, e);
     }
 
+    IOUtils.closeQuietly(zipInputStream);
     throw new GeoEntryExtractionException("Unable to unzip " + resource);
   }
 
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable 2-d tree over latitude/longitude points, packed into parallel primitive arrays.
+ * The tree is implicit: the median of each range is its root and the two halves of the range are
+ * its subtrees, alternating between latitude and longitude at each level. Each point is identified
+ * by its position in the arrays the tree was built from.
+ */
+final class CityKdTree {
+
+  private final double[] latitudes;
+
+  private final double[] longitudes;
+
+  private final int[] ids;
+
+  /**
+   * @param latitudes the latitudes of the points, in degrees
+   * @param longitudes the longitudes of the points, in degrees
+   * @param size the number of points to use from the arrays
+   */
+  CityKdTree(double[] latitudes, double[] longitudes, int size) {
+    this.latitudes = new double[size];
+    this.longitudes = new double[size];
+    this.ids = new int[size];
+    System.arraycopy(latitudes, 0, this.latitudes, 0, size);
+    System.arraycopy(longitudes, 0, this.longitudes, 0, size);
+    for (int i = 0; i < size; i++) {
+      ids[i] = i;
+    }
+    build(0, size, true);
+  }
+
+  int size() {
+    return ids.length;
+  }
+
+  /**
+   * Passes the id of every point inside the given box, bounds included, to {@code consumer}. The
+   * box must not cross the antimeridian.
+   */
+  void search(
+      double minLatitude,
+      double maxLatitude,
+      double minLongitude,
+      double maxLongitude,
+      IntConsumer consumer) {
+    search(0, ids.length, true, minLatitude, maxLatitude, minLongitude, maxLongitude, consumer);
+  }
+
+  private void search(
+      int from,
+      int to,
+      boolean byLatitude,
+      double minLatitude,
+      double maxLatitude,
+      double minLongitude,
+      double maxLongitude,
+      IntConsumer consumer) {
+    while (from < to) {
+      int median = (from + to) >>> 1;
+      double latitude = latitudes[median];
+      double longitude = longitudes[median];
+      if (latitude >= minLatitude
+          && latitude <= maxLatitude
+          && longitude >= minLongitude
+          && longitude <= maxLongitude) {
+        consumer.accept(ids[median]);
+      }
+
+      double value = byLatitude ? latitude : longitude;
+      double min = byLatitude ? minLatitude : minLongitude;
+      double max = byLatitude ? maxLatitude : maxLongitude;
+      boolean searchLeft = min <= value;
+      boolean searchRight = max >= value;
+
+      if (searchLeft && searchRight) {
+        search(
+            from,
+            median,
+            !byLatitude,
+            minLatitude,
+            maxLatitude,
+            minLongitude,
+            maxLongitude,
+            consumer);
+        from = median + 1;
+      } else if (searchLeft) {
+        to = median;
+      } else if (searchRight) {
+        from = median + 1;
+      } else {
+        return;
+      }
+      byLatitude = !byLatitude;
+    }
+  }
+
+  private void build(int from, int to, boolean byLatitude) {
+    while (to - from > 1) {
+      int median = (from + to) >>> 1;
+      select(from, to - 1, median, byLatitude ? latitudes : longitudes);
+      build(from, median, !byLatitude);
+      from = median + 1;
+      byLatitude = !byLatitude;
+    }
+  }
+
+  /**
+   * Partially sorts the points between {@code left} and {@code right}, inclusive, so that the point
+   * at {@code k} has the value it would have if they were sorted, with no greater value before it
+   * and no smaller value after it.
+   */
+  private void select(int left, int right, int k, double[] values) {
+    while (right > left) {
+      // Three-way partition around the middle value so runs of equal coordinates stay linear.
+      double pivot = values[(left + right) >>> 1];
+      int lower = left;
+      int upper = right;
+      int i = left;
+      while (i <= upper) {
+        if (values[i] < pivot) {
+          swap(i++, lower++);
+        } else if (values[i] > pivot) {
+          swap(i, upper--);
+        } else {
+          i++;
+        }
+      }
+
+      if (k < lower) {
+        right = lower - 1;
+      } else if (k > upper) {
+        left = upper + 1;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int i, int j) {
+    double latitude = latitudes[i];
+    latitudes[i] = latitudes[j];
+    latitudes[j] = latitude;
+
+    double longitude = longitudes[i];
+    longitudes[i] = longitudes[j];
+    longitudes[j] = longitude;
+
+    int id = ids[i];
+    ids[i] = ids[j];
+    ids[j] = id;
+  }
+}
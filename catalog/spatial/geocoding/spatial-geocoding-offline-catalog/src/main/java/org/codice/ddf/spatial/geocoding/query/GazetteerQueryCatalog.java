@@ -99,6 +99,8 @@ public class GazetteerQueryCatalog implements GeoEntryQueryable {
 
   private List<Filter> featureCodeFilters;
 
+  private GazetteerSpatialIndex spatialIndex;
+
   public GazetteerQueryCatalog(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
@@ -118,6 +120,14 @@ public GazetteerQueryCatalog(CatalogFramework catalogFramework, FilterBuilder fi
         filterBuilder.attribute(Core.METACARD_TAGS).is().like().text(GAZETTEER_METACARD_TAG);
   }
 
+  /**
+   * Sets the optional in-memory index used to answer {@link #getNearestCities} and {@link
+   * #getCountryCode} without querying the catalog while it is available.
+   */
+  public void setSpatialIndex(GazetteerSpatialIndex spatialIndex) {
+    this.spatialIndex = spatialIndex;
+  }
+
   @Override
   public List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException {
     Filter textFilter = filterBuilder.attribute(Core.TITLE).is().like().text(queryString);
@@ -269,6 +279,15 @@ private String getStringAttributeFromMetacard(Metacard metacard, String attribut
   @Override
   public List<NearbyLocation> getNearestCities(String location, int radiusInKm, int maxResults)
       throws ParseException, GeoEntryQueryException {
+    if (spatialIndex != null && spatialIndex.isAvailable()) {
+      try {
+        Geometry geometry = WKT_READER_THREAD_LOCAL.get().read(location);
+        return spatialIndex.getNearestCities(geometry, radiusInKm, maxResults);
+      } catch (org.locationtech.jts.io.ParseException e) {
+        LOGGER.debug("Unable to parse {}. Querying the catalog instead.", location, e);
+      }
+    }
+
     Filter featureCodeFilter = filterBuilder.anyOf(featureCodeFilters);
     int radiusInMeters = radiusInKm * KM_TO_M;
 
@@ -331,6 +350,10 @@ public Optional<String> getCountryCode(String wktLocation, int radius)
 
     try {
       Point center = WKT_READER_THREAD_LOCAL.get().read(wktLocation).getCentroid();
+      if (spatialIndex != null && spatialIndex.isAvailable()) {
+        return spatialIndex.getCountryCode(center, radius);
+      }
+
       Geometry geometry = GEOMETRY_FACTORY.createPoint(center.getCoordinate());
       wkt = WKT_WRITER_THREAD_LOCAL.get().write(geometry);
     } catch (org.locationtech.jts.io.ParseException e) {
@@ -0,0 +1,616 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.COUNTRY_TAG;
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.util.impl.CatalogQueryException;
+import ddf.catalog.util.impl.ResultIterable;
+import ddf.security.service.SecurityServiceException;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.context.impl.NearbyLocationImpl;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.operation.distance.DistanceOp;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.shape.impl.PointImpl;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An optional in-memory index of the gazetteer that lets {@link GazetteerQueryCatalog} answer
+ * nearest city and country code lookups without querying the catalog. Cities with at least the
+ * configured population are kept in a {@link CityKdTree} and country shapes in an {@link STRtree}
+ * of prepared geometries.
+ *
+ * <p>The index is loaded from the catalog when it is enabled and is rebuilt shortly after gazetteer
+ * metacards are ingested through the catalog framework. It is also refreshed periodically, which
+ * picks up gazetteer data that was written directly to the catalog provider by a bulk load.
+ */
+public class GazetteerSpatialIndex implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerSpatialIndex.class);
+
+  private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTReader::new);
+
+  private static final String ENABLED = "enabled";
+
+  private static final String MINIMUM_POPULATION = "minimumPopulation";
+
+  private static final String REFRESH_INTERVAL_MINUTES = "refreshIntervalMinutes";
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+  private static final long REBUILD_DELAY_SECONDS = 60;
+
+  private final CatalogFramework catalogFramework;
+
+  private final FilterBuilder filterBuilder;
+
+  private final Security security;
+
+  private final ScheduledExecutorService executor;
+
+  private volatile Snapshot snapshot;
+
+  private volatile boolean enabled;
+
+  private long minimumPopulation;
+
+  private int refreshIntervalMinutes = 60;
+
+  private ScheduledFuture<?> refresh;
+
+  private ScheduledFuture<?> pendingRebuild;
+
+  public GazetteerSpatialIndex(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      Security security,
+      ScheduledExecutorService executor) {
+    this.catalogFramework = catalogFramework;
+    this.filterBuilder = filterBuilder;
+    this.security = security;
+    this.executor = executor;
+  }
+
+  public void init() {
+    scheduleRefresh();
+  }
+
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  public void updateConfiguration(Map<String, Object> properties) {
+    LOGGER.trace("Updating the gazetteer spatial index configuration");
+
+    Optional.ofNullable(properties)
+        .map(p -> p.get(ENABLED))
+        .filter(Boolean.class::isInstance)
+        .map(Boolean.class::cast)
+        .ifPresent(this::setEnabled);
+    Optional.ofNullable(properties)
+        .map(p -> p.get(MINIMUM_POPULATION))
+        .filter(Number.class::isInstance)
+        .map(Number.class::cast)
+        .ifPresent(population -> setMinimumPopulation(population.longValue()));
+    Optional.ofNullable(properties)
+        .map(p -> p.get(REFRESH_INTERVAL_MINUTES))
+        .filter(Integer.class::isInstance)
+        .map(Integer.class::cast)
+        .ifPresent(this::setRefreshIntervalMinutes);
+
+    scheduleRefresh();
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public void setMinimumPopulation(long minimumPopulation) {
+    this.minimumPopulation = minimumPopulation;
+  }
+
+  public void setRefreshIntervalMinutes(int refreshIntervalMinutes) {
+    this.refreshIntervalMinutes = Math.max(1, refreshIntervalMinutes);
+  }
+
+  /** @return whether the index is enabled and has been loaded */
+  public boolean isAvailable() {
+    return enabled && snapshot != null;
+  }
+
+  /** Rebuilds the index after a short delay, replacing any rebuild already pending. */
+  synchronized void scheduleRebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    if (pendingRebuild != null) {
+      pendingRebuild.cancel(false);
+    }
+
+    try {
+      pendingRebuild = executor.schedule(this, REBUILD_DELAY_SECONDS, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to schedule a rebuild of the gazetteer spatial index.", e);
+    }
+  }
+
+  private synchronized void scheduleRefresh() {
+    if (refresh != null) {
+      refresh.cancel(false);
+      refresh = null;
+    }
+
+    if (!enabled) {
+      snapshot = null;
+      return;
+    }
+
+    try {
+      refresh = executor.scheduleWithFixedDelay(this, 0, refreshIntervalMinutes, TimeUnit.MINUTES);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to schedule the gazetteer spatial index refresh.", e);
+    }
+  }
+
+  @Override
+  public void run() {
+    if (!enabled) {
+      return;
+    }
+
+    LOGGER.trace("Building the gazetteer spatial index.");
+    Snapshot loaded =
+        security.runAsAdmin(
+            () -> {
+              try {
+                return security.runWithSubjectOrElevate(this::load);
+              } catch (SecurityServiceException
+                  | InvocationTargetException
+                  | CatalogQueryException e) {
+                LOGGER.debug("Unable to build the gazetteer spatial index.", e);
+                return null;
+              }
+            });
+
+    if (loaded != null) {
+      snapshot = loaded;
+      LOGGER.debug(
+          "Built the gazetteer spatial index with {} cities and {} country shapes.",
+          loaded.cities.size(),
+          loaded.countryShapeCount);
+    }
+  }
+
+  /**
+   * Finds the cities within {@code radiusInKm} of {@code location}, nearest first. Nothing is found
+   * if the index is not available.
+   */
+  List<NearbyLocation> getNearestCities(Geometry location, int radiusInKm, int maxResults) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return Collections.emptyList();
+    }
+
+    Point center = location.getCentroid();
+    boolean isPoint = location instanceof Point;
+    double reachInKm =
+        isPoint ? radiusInKm : radiusInKm + distanceToFarthestCorner(center, location);
+
+    List<CityDistance> matches = new ArrayList<>();
+    current.searchCities(
+        center.getY(),
+        center.getX(),
+        reachInKm,
+        id -> {
+          double latitude = current.cityLatitudes[id];
+          double longitude = current.cityLongitudes[id];
+          double distance =
+              isPoint
+                  ? distanceInKm(center.getY(), center.getX(), latitude, longitude)
+                  : distanceInKm(location, latitude, longitude);
+          if (distance <= radiusInKm) {
+            matches.add(new CityDistance(id, distance));
+          }
+        });
+
+    PointImpl centerPoint = new PointImpl(center.getY(), center.getX(), SPATIAL_CONTEXT);
+    return matches
+        .stream()
+        .sorted(Comparator.comparingDouble(match -> match.distance))
+        .limit(maxResults)
+        .map(
+            match ->
+                new NearbyLocationImpl(
+                    centerPoint,
+                    new PointImpl(
+                        current.cityLatitudes[match.id],
+                        current.cityLongitudes[match.id],
+                        SPATIAL_CONTEXT),
+                    current.cityNames[match.id]))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Finds the country code of the country shape containing {@code point}. If no shape contains it,
+   * the country code of the nearest city or country shape within {@code radiusInKm} is used.
+   * Nothing is found if the index is not available.
+   */
+  Optional<String> getCountryCode(Point point, int radiusInKm) {
+    Snapshot current = snapshot;
+    if (current == null) {
+      return Optional.empty();
+    }
+
+    for (Object item : current.countryShapes.query(point.getEnvelopeInternal())) {
+      CountryShape countryShape = (CountryShape) item;
+      if (countryShape.geometry.covers(point)) {
+        return Optional.of(countryShape.countryCode);
+      }
+    }
+
+    double latitude = point.getY();
+    double longitude = point.getX();
+    String countryCode = null;
+    double nearest = Double.MAX_VALUE;
+
+    for (Envelope envelope : searchEnvelopes(latitude, longitude, radiusInKm)) {
+      for (Object item : current.countryShapes.query(envelope)) {
+        CountryShape countryShape = (CountryShape) item;
+        double distance = distanceInKm(countryShape.geometry.getGeometry(), latitude, longitude);
+        if (distance <= radiusInKm && distance < nearest) {
+          nearest = distance;
+          countryCode = countryShape.countryCode;
+        }
+      }
+    }
+
+    CityDistance nearestCity = new CityDistance(-1, nearest);
+    current.searchCities(
+        latitude,
+        longitude,
+        radiusInKm,
+        id -> {
+          double distance =
+              distanceInKm(
+                  latitude, longitude, current.cityLatitudes[id], current.cityLongitudes[id]);
+          if (distance <= radiusInKm
+              && distance < nearestCity.distance
+              && StringUtils.isNotBlank(current.cityCountryCodes[id])) {
+            nearestCity.id = id;
+            nearestCity.distance = distance;
+          }
+        });
+
+    if (nearestCity.id >= 0) {
+      countryCode = current.cityCountryCodes[nearestCity.id];
+    }
+    return Optional.ofNullable(countryCode);
+  }
+
+  private Snapshot load() {
+    SnapshotBuilder builder = new SnapshotBuilder();
+
+    for (Result result : ResultIterable.resultIterable(catalogFramework, query(cityFilter()))) {
+      builder.addCity(result.getMetacard());
+    }
+
+    for (Result result : ResultIterable.resultIterable(catalogFramework, query(countryFilter()))) {
+      builder.addCountryShape(result.getMetacard());
+    }
+
+    return builder.build();
+  }
+
+  private QueryRequest query(Filter filter) {
+    return new QueryRequestImpl(
+        new QueryImpl(filter, 1, PAGE_SIZE, SortBy.NATURAL_ORDER, false, TIMEOUT));
+  }
+
+  private Filter cityFilter() {
+    List<Filter> featureCodeFilters = new ArrayList<>();
+    for (String cityFeatureCode : GeoCodingConstants.CITY_FEATURE_CODES) {
+      featureCodeFilters.add(
+          filterBuilder
+              .attribute(GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME)
+              .is()
+              .equalTo()
+              .text(cityFeatureCode));
+    }
+
+    List<Filter> filters = new ArrayList<>();
+    filters.add(tagFilter(GAZETTEER_METACARD_TAG));
+    filters.add(filterBuilder.anyOf(featureCodeFilters));
+    if (minimumPopulation > 0) {
+      filters.add(
+          filterBuilder
+              .attribute(GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME)
+              .greaterThanOrEqualTo()
+              .number(minimumPopulation));
+    }
+    return filterBuilder.allOf(filters);
+  }
+
+  private Filter countryFilter() {
+    return filterBuilder.allOf(tagFilter(GAZETTEER_METACARD_TAG), tagFilter(COUNTRY_TAG));
+  }
+
+  private Filter tagFilter(String tag) {
+    return filterBuilder.attribute(Core.METACARD_TAGS).is().like().text(tag);
+  }
+
+  private static double distanceToFarthestCorner(Point center, Geometry geometry) {
+    Envelope envelope = geometry.getEnvelopeInternal();
+    double farthest = 0;
+    for (double latitude : new double[] {envelope.getMinY(), envelope.getMaxY()}) {
+      for (double longitude : new double[] {envelope.getMinX(), envelope.getMaxX()}) {
+        farthest =
+            Math.max(farthest, distanceInKm(center.getY(), center.getX(), latitude, longitude));
+      }
+    }
+    return farthest;
+  }
+
+  private static double distanceInKm(Geometry geometry, double latitude, double longitude) {
+    Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+    if (geometry.covers(point)) {
+      return 0;
+    }
+
+    Coordinate nearest = DistanceOp.nearestPoints(geometry, point)[0];
+    return distanceInKm(nearest.y, nearest.x, latitude, longitude);
+  }
+
+  private static double distanceInKm(
+      double latitude1, double longitude1, double latitude2, double longitude2) {
+    return DistanceUtils.distHaversineRAD(
+            Math.toRadians(latitude1),
+            Math.toRadians(longitude1),
+            Math.toRadians(latitude2),
+            Math.toRadians(longitude2))
+        * DistanceUtils.EARTH_MEAN_RADIUS_KM;
+  }
+
+  /**
+   * Returns the latitude/longitude boxes that contain every point within {@code radiusInKm} of the
+   * given point. Two boxes are returned when the area crosses the antimeridian.
+   */
+  static List<Envelope> searchEnvelopes(double latitude, double longitude, double radiusInKm) {
+    double angularRadius = radiusInKm / DistanceUtils.EARTH_MEAN_RADIUS_KM;
+    double latitudeDelta = Math.toDegrees(angularRadius);
+    double minLatitude = latitude - latitudeDelta;
+    double maxLatitude = latitude + latitudeDelta;
+
+    if (minLatitude <= -90 || maxLatitude >= 90) {
+      return Arrays.asList(
+          new Envelope(-180, 180, Math.max(-90, minLatitude), Math.min(90, maxLatitude)));
+    }
+
+    double ratio = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+    double longitudeDelta = ratio >= 1 ? 180 : Math.toDegrees(Math.asin(ratio));
+    double minLongitude = longitude - longitudeDelta;
+    double maxLongitude = longitude + longitudeDelta;
+
+    if (longitudeDelta >= 180) {
+      return Arrays.asList(new Envelope(-180, 180, minLatitude, maxLatitude));
+    } else if (minLongitude < -180) {
+      return Arrays.asList(
+          new Envelope(minLongitude + 360, 180, minLatitude, maxLatitude),
+          new Envelope(-180, maxLongitude, minLatitude, maxLatitude));
+    } else if (maxLongitude > 180) {
+      return Arrays.asList(
+          new Envelope(minLongitude, 180, minLatitude, maxLatitude),
+          new Envelope(-180, maxLongitude - 360, minLatitude, maxLatitude));
+    }
+    return Arrays.asList(new Envelope(minLongitude, maxLongitude, minLatitude, maxLatitude));
+  }
+
+  private static String getString(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    if (attribute != null) {
+      Serializable value = attribute.getValue();
+      if (value instanceof String) {
+        return (String) value;
+      }
+    }
+    return null;
+  }
+
+  private static Geometry readLocation(Metacard metacard) {
+    String location = getString(metacard, Core.LOCATION);
+    if (StringUtils.isBlank(location)) {
+      return null;
+    }
+
+    try {
+      return WKT_READER_THREAD_LOCAL.get().read(location);
+    } catch (ParseException e) {
+      LOGGER.debug("Gazetteer metacard {} has an invalid location.", metacard.getId(), e);
+      return null;
+    }
+  }
+
+  private static class CityDistance {
+
+    private int id;
+
+    private double distance;
+
+    CityDistance(int id, double distance) {
+      this.id = id;
+      this.distance = distance;
+    }
+  }
+
+  private static class CountryShape {
+
+    private final PreparedGeometry geometry;
+
+    private final String countryCode;
+
+    CountryShape(PreparedGeometry geometry, String countryCode) {
+      this.geometry = geometry;
+      this.countryCode = countryCode;
+    }
+  }
+
+  /** An immutable, fully built index that queries can read without locking. */
+  private static class Snapshot {
+
+    private final CityKdTree cities;
+
+    private final double[] cityLatitudes;
+
+    private final double[] cityLongitudes;
+
+    private final String[] cityNames;
+
+    private final String[] cityCountryCodes;
+
+    private final STRtree countryShapes;
+
+    private final int countryShapeCount;
+
+    Snapshot(SnapshotBuilder builder) {
+      int size = builder.cityCount;
+      this.cities = new CityKdTree(builder.latitudes, builder.longitudes, size);
+      this.cityLatitudes = Arrays.copyOf(builder.latitudes, size);
+      this.cityLongitudes = Arrays.copyOf(builder.longitudes, size);
+      this.cityNames = Arrays.copyOf(builder.names, size);
+      this.cityCountryCodes = Arrays.copyOf(builder.countryCodes, size);
+      this.countryShapes = builder.countryShapes;
+      this.countryShapeCount = builder.countryShapeCount;
+      this.countryShapes.build();
+    }
+
+    void searchCities(double latitude, double longitude, double radiusInKm, IntConsumer ids) {
+      for (Envelope envelope : searchEnvelopes(latitude, longitude, radiusInKm)) {
+        cities.search(
+            envelope.getMinY(), envelope.getMaxY(), envelope.getMinX(), envelope.getMaxX(), ids);
+      }
+    }
+  }
+
+  private static class SnapshotBuilder {
+
+    private double[] latitudes = new double[PAGE_SIZE];
+
+    private double[] longitudes = new double[PAGE_SIZE];
+
+    private String[] names = new String[PAGE_SIZE];
+
+    private String[] countryCodes = new String[PAGE_SIZE];
+
+    private int cityCount;
+
+    private final STRtree countryShapes = new STRtree();
+
+    private int countryShapeCount;
+
+    void addCity(Metacard metacard) {
+      Geometry location = readLocation(metacard);
+      String name = getString(metacard, Core.TITLE);
+      if (location == null || location.isEmpty() || StringUtils.isEmpty(name)) {
+        LOGGER.debug(
+            "Gazetteer metacard {} does not contain required attribute.", metacard.getId());
+        return;
+      }
+
+      if (cityCount == latitudes.length) {
+        int capacity = cityCount * 2;
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+        names = Arrays.copyOf(names, capacity);
+        countryCodes = Arrays.copyOf(countryCodes, capacity);
+      }
+
+      Coordinate coordinate = location.getCoordinate();
+      latitudes[cityCount] = coordinate.y;
+      longitudes[cityCount] = coordinate.x;
+      names[cityCount] = name;
+      countryCodes[cityCount] = getString(metacard, Location.COUNTRY_CODE);
+      cityCount++;
+    }
+
+    void addCountryShape(Metacard metacard) {
+      Geometry location = readLocation(metacard);
+      String countryCode = getString(metacard, Location.COUNTRY_CODE);
+      if (location == null || location.isEmpty() || StringUtils.isBlank(countryCode)) {
+        LOGGER.debug(
+            "Country shape metacard {} does not contain required attribute.", metacard.getId());
+        return;
+      }
+
+      countryShapes.insert(
+          location.getEnvelopeInternal(),
+          new CountryShape(PreparedGeometryFactory.prepare(location), countryCode));
+      countryShapeCount++;
+    }
+
+    Snapshot build() {
+      return new Snapshot(this);
+    }
+  }
+}
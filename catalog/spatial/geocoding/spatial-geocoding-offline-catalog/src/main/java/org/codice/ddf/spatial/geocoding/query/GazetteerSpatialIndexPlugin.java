@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostIngestPlugin;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** Keeps the {@link GazetteerSpatialIndex} current when gazetteer metacards are ingested. */
+public class GazetteerSpatialIndexPlugin implements PostIngestPlugin {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GazetteerSpatialIndexPlugin.class);
+
+  private final GazetteerSpatialIndex spatialIndex;
+
+  public GazetteerSpatialIndexPlugin(final GazetteerSpatialIndex spatialIndex) {
+    this.spatialIndex = spatialIndex;
+  }
+
+  @Override
+  public CreateResponse process(final CreateResponse input) throws PluginExecutionException {
+    if (containsGazetteerMetacards(input.getCreatedMetacards())) {
+      LOGGER.trace("Create response contains gazetteer metacards. Rebuilding spatial index.");
+      spatialIndex.scheduleRebuild();
+    }
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(final UpdateResponse input) throws PluginExecutionException {
+    if (input.getUpdatedMetacards().stream().anyMatch(this::containsGazetteerMetacard)) {
+      LOGGER.trace("Update response contains gazetteer metacards. Rebuilding spatial index.");
+      spatialIndex.scheduleRebuild();
+    }
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(final DeleteResponse input) throws PluginExecutionException {
+    if (containsGazetteerMetacards(input.getDeletedMetacards())) {
+      LOGGER.trace("Delete response contains gazetteer metacards. Rebuilding spatial index.");
+      spatialIndex.scheduleRebuild();
+    }
+    return input;
+  }
+
+  private boolean containsGazetteerMetacards(final List<Metacard> metacards) {
+    return metacards.stream().anyMatch(m -> m.getTags().contains(GAZETTEER_METACARD_TAG));
+  }
+
+  private boolean containsGazetteerMetacard(final Update update) {
+    return update.getOldMetacard().getTags().contains(GAZETTEER_METACARD_TAG)
+        || update.getNewMetacard().getTags().contains(GAZETTEER_METACARD_TAG);
+  }
+}
@@ -16,10 +16,15 @@
 import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
@@ -51,6 +56,8 @@
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.Point;
 
 public class GazetteerQueryCatalogTest {
 
@@ -318,6 +325,46 @@ public void testGetCountryCodeSourceUnavailableException() throws Exception {
     queryCatalog.getCountryCode(NEAR_BOSTON_WKT, RADIUS_IN_KM);
   }
 
+  @Test
+  public void testGetNearestCitiesFromSpatialIndex() throws Exception {
+    NearbyLocation nearbyLocation = mock(NearbyLocation.class);
+    GazetteerSpatialIndex spatialIndex = mock(GazetteerSpatialIndex.class);
+    when(spatialIndex.isAvailable()).thenReturn(true);
+    when(spatialIndex.getNearestCities(any(Geometry.class), eq(RADIUS_IN_KM), eq(MAX_RESULTS)))
+        .thenReturn(Collections.singletonList(nearbyLocation));
+    queryCatalog.setSpatialIndex(spatialIndex);
+
+    List<NearbyLocation> nearbyLocations =
+        queryCatalog.getNearestCities(NEAR_BOSTON_WKT, RADIUS_IN_KM, MAX_RESULTS);
+    assertThat(nearbyLocations, contains(nearbyLocation));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testGetNearestCitiesSpatialIndexUnavailable() throws Exception {
+    GazetteerSpatialIndex spatialIndex = mock(GazetteerSpatialIndex.class);
+    when(spatialIndex.isAvailable()).thenReturn(false);
+    queryCatalog.setSpatialIndex(spatialIndex);
+
+    List<NearbyLocation> nearbyLocations =
+        queryCatalog.getNearestCities(NEAR_BOSTON_WKT, RADIUS_IN_KM, MAX_RESULTS);
+    assertThat(nearbyLocations.size(), is(1));
+    verify(spatialIndex, never()).getNearestCities(any(Geometry.class), anyInt(), anyInt());
+  }
+
+  @Test
+  public void testGetCountryCodeFromSpatialIndex() throws Exception {
+    GazetteerSpatialIndex spatialIndex = mock(GazetteerSpatialIndex.class);
+    when(spatialIndex.isAvailable()).thenReturn(true);
+    when(spatialIndex.getCountryCode(any(Point.class), eq(RADIUS_IN_KM)))
+        .thenReturn(Optional.of("CAN"));
+    queryCatalog.setSpatialIndex(spatialIndex);
+
+    Optional<String> countryCode = queryCatalog.getCountryCode(NEAR_BOSTON_WKT, RADIUS_IN_KM);
+    assertThat(countryCode.get(), is("CAN"));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+  }
+
   private Metacard generateEmptyMetacard() {
     return new MetacardImpl(GEO_ENTRY_METACARD_TYPE);
   }
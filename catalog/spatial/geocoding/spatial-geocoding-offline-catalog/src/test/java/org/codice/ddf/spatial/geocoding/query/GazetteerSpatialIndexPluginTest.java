@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GazetteerSpatialIndexPluginTest {
+
+  private GazetteerSpatialIndex spatialIndex;
+
+  private GazetteerSpatialIndexPlugin plugin;
+
+  @Before
+  public void setUp() {
+    spatialIndex = mock(GazetteerSpatialIndex.class);
+    plugin = new GazetteerSpatialIndexPlugin(spatialIndex);
+  }
+
+  @Test
+  public void testCreateGazetteerMetacard() throws Exception {
+    CreateResponse response = mock(CreateResponse.class);
+    when(response.getCreatedMetacards())
+        .thenReturn(Collections.singletonList(metacard(GAZETTEER_METACARD_TAG)));
+    plugin.process(response);
+    verify(spatialIndex).scheduleRebuild();
+  }
+
+  @Test
+  public void testCreateOtherMetacard() throws Exception {
+    CreateResponse response = mock(CreateResponse.class);
+    when(response.getCreatedMetacards())
+        .thenReturn(Collections.singletonList(metacard("resource")));
+    plugin.process(response);
+    verify(spatialIndex, never()).scheduleRebuild();
+  }
+
+  @Test
+  public void testUpdateFromGazetteerMetacard() throws Exception {
+    Update update = mock(Update.class);
+    when(update.getOldMetacard()).thenReturn(metacard(GAZETTEER_METACARD_TAG));
+    when(update.getNewMetacard()).thenReturn(metacard("resource"));
+    UpdateResponse response = mock(UpdateResponse.class);
+    when(response.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+    plugin.process(response);
+    verify(spatialIndex).scheduleRebuild();
+  }
+
+  @Test
+  public void testDeleteGazetteerMetacard() throws Exception {
+    DeleteResponse response = mock(DeleteResponse.class);
+    when(response.getDeletedMetacards())
+        .thenReturn(Collections.singletonList(metacard(GAZETTEER_METACARD_TAG)));
+    plugin.process(response);
+    verify(spatialIndex).scheduleRebuild();
+  }
+
+  private static Metacard metacard(String tag) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setTags(Collections.singleton(tag));
+    return metacard;
+  }
+}
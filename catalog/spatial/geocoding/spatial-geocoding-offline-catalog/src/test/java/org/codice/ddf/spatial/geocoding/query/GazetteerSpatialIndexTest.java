@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.COUNTRY_TAG;
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.impl.types.LocationAttributes;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.source.SourceUnavailableException;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKTReader;
+import org.mockito.ArgumentMatcher;
+
+public class GazetteerSpatialIndexTest {
+
+  private static final int RADIUS_IN_KM = 100;
+
+  private static final String NEAR_BOSTON_WKT = "POINT(-71.07124328613281 42.353671973455704)";
+
+  private static final String USA_COUNTRY_CODE = "USA";
+
+  private static final String CAN_COUNTRY_CODE = "CAN";
+
+  private static final String ISL_COUNTRY_CODE = "ISL";
+
+  private static final MetacardType GEO_ENTRY_METACARD_TYPE =
+      new MetacardTypeImpl(
+          "GeoEntryAttributes", Arrays.asList(new LocationAttributes(), new GeoEntryAttributes()));
+
+  private CatalogFramework catalogFramework;
+
+  private ScheduledExecutorService executor;
+
+  private GazetteerSpatialIndex spatialIndex;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenReturn(
+            queryResponse(
+                city("Boston", "POINT (-71.0595703125 42.35771940022451)", USA_COUNTRY_CODE),
+                city("Cambridge", "POINT (-71.1097335 42.3736158)", USA_COUNTRY_CODE),
+                city("Worcester", "POINT (-71.8022934 42.2625932)", USA_COUNTRY_CODE),
+                city("New York", "POINT (-74.0059728 40.7127753)", USA_COUNTRY_CODE),
+                city("Montreal", "POINT (-73.567256 45.5016889)", CAN_COUNTRY_CODE),
+                city("Reykjavik", "POINT (-21.9426354 64.146582)", ISL_COUNTRY_CODE)),
+            queryResponse(
+                countryShape(
+                    "POLYGON ((-80 30, -66 30, -66 44.9, -80 44.9, -80 30))", USA_COUNTRY_CODE),
+                countryShape(
+                    "POLYGON ((-80 45.1, -60 45.1, -60 60, -80 60, -80 45.1))",
+                    CAN_COUNTRY_CODE)));
+
+    Security security = mock(Security.class);
+    when(security.runAsAdmin(any(PrivilegedAction.class)))
+        .thenAnswer(invocation -> ((PrivilegedAction) invocation.getArguments()[0]).run());
+    when(security.runWithSubjectOrElevate(any(Callable.class)))
+        .thenAnswer(invocation -> ((Callable) invocation.getArguments()[0]).call());
+
+    executor = mock(ScheduledExecutorService.class);
+    spatialIndex =
+        new GazetteerSpatialIndex(
+            catalogFramework, new GeotoolsFilterBuilder(), security, executor);
+    spatialIndex.setEnabled(true);
+  }
+
+  @Test
+  public void testNotAvailableUntilLoaded() {
+    assertThat(spatialIndex.isAvailable(), is(false));
+    spatialIndex.run();
+    assertThat(spatialIndex.isAvailable(), is(true));
+  }
+
+  @Test
+  public void testDisabledIndexIsNotLoaded() throws Exception {
+    spatialIndex.setEnabled(false);
+    spatialIndex.run();
+    assertThat(spatialIndex.isAvailable(), is(false));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testGetNearestCities() throws Exception {
+    spatialIndex.run();
+    List<NearbyLocation> nearbyLocations =
+        spatialIndex.getNearestCities(read(NEAR_BOSTON_WKT), RADIUS_IN_KM, 10);
+    assertThat(names(nearbyLocations), contains("Boston", "Cambridge", "Worcester"));
+
+    NearbyLocation boston = nearbyLocations.get(0);
+    assertThat(boston.getCardinalDirection(), is("S"));
+    assertThat(boston.getDistance(), is(closeTo(1.3, .01)));
+  }
+
+  @Test
+  public void testGetNearestCitiesMaxResults() throws Exception {
+    spatialIndex.run();
+    List<NearbyLocation> nearbyLocations =
+        spatialIndex.getNearestCities(read(NEAR_BOSTON_WKT), RADIUS_IN_KM, 2);
+    assertThat(names(nearbyLocations), contains("Boston", "Cambridge"));
+  }
+
+  @Test
+  public void testGetNearestCitiesAroundPolygon() throws Exception {
+    spatialIndex.run();
+    List<NearbyLocation> nearbyLocations =
+        spatialIndex.getNearestCities(
+            read("POLYGON ((-74.5 40, -73.5 40, -73.5 41, -74.5 41, -74.5 40))"), 10, 10);
+    assertThat(names(nearbyLocations), contains("New York"));
+  }
+
+  @Test
+  public void testGetNearestCitiesNoneWithinRadius() throws Exception {
+    spatialIndex.run();
+    assertThat(spatialIndex.getNearestCities(read("POINT (0 0)"), RADIUS_IN_KM, 10), is(empty()));
+  }
+
+  @Test
+  public void testGetCountryCodeInsideCountryShape() throws Exception {
+    spatialIndex.run();
+    assertThat(
+        spatialIndex.getCountryCode(read("POINT (-62 50)"), RADIUS_IN_KM).get(),
+        is(CAN_COUNTRY_CODE));
+  }
+
+  @Test
+  public void testGetCountryCodeNearestShapeWithinRadius() throws Exception {
+    spatialIndex.run();
+    // Between the two country shapes
+    assertThat(
+        spatialIndex.getCountryCode(read("POINT (-73.567 44.95)"), RADIUS_IN_KM).get(),
+        is(USA_COUNTRY_CODE));
+    assertThat(
+        spatialIndex.getCountryCode(read("POINT (-73.567 45.07)"), RADIUS_IN_KM).get(),
+        is(CAN_COUNTRY_CODE));
+  }
+
+  @Test
+  public void testGetCountryCodeNearestCityWithinRadius() throws Exception {
+    spatialIndex.run();
+    assertThat(
+        spatialIndex.getCountryCode(read("POINT (-21.9 64.1)"), RADIUS_IN_KM).get(),
+        is(ISL_COUNTRY_CODE));
+  }
+
+  @Test
+  public void testGetCountryCodeNothingWithinRadius() throws Exception {
+    spatialIndex.run();
+    assertThat(
+        spatialIndex.getCountryCode(read("POINT (0 0)"), RADIUS_IN_KM).isPresent(), is(false));
+  }
+
+  @Test
+  public void testNotAvailableFindsNothing() throws Exception {
+    assertThat(spatialIndex.getNearestCities(read(NEAR_BOSTON_WKT), RADIUS_IN_KM, 10), is(empty()));
+    assertThat(
+        spatialIndex.getCountryCode(read(NEAR_BOSTON_WKT), RADIUS_IN_KM).isPresent(), is(false));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFailedRebuildKeepsIndex() throws Exception {
+    spatialIndex.run();
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenThrow(SourceUnavailableException.class);
+    spatialIndex.run();
+
+    assertThat(spatialIndex.isAvailable(), is(true));
+    assertThat(
+        spatialIndex.getNearestCities(read(NEAR_BOSTON_WKT), RADIUS_IN_KM, 10), hasSize(3));
+  }
+
+  @Test
+  public void testMinimumPopulationIsQueried() throws Exception {
+    spatialIndex.setMinimumPopulation(15000);
+    spatialIndex.run();
+    verify(catalogFramework)
+        .query(
+            argThat(
+                new ArgumentMatcher<QueryRequest>() {
+                  @Override
+                  public boolean matches(Object request) {
+                    return ((QueryRequest) request)
+                        .getQuery()
+                        .toString()
+                        .contains(GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME);
+                  }
+                }));
+  }
+
+  @Test
+  public void testUpdateConfigurationSchedulesRefresh() {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("enabled", true);
+    properties.put("minimumPopulation", 1000L);
+    properties.put("refreshIntervalMinutes", 5);
+    spatialIndex.updateConfiguration(properties);
+
+    verify(executor).scheduleWithFixedDelay(spatialIndex, 0, 5, TimeUnit.MINUTES);
+  }
+
+  @Test
+  public void testDisablingReleasesIndex() {
+    spatialIndex.run();
+    spatialIndex.updateConfiguration(Collections.singletonMap("enabled", false));
+    assertThat(spatialIndex.isAvailable(), is(false));
+  }
+
+  @Test
+  public void testScheduleRebuildReplacesPendingRebuild() {
+    ScheduledFuture<?> pending = mock(ScheduledFuture.class);
+    doReturn(pending).when(executor).schedule(eq(spatialIndex), anyLong(), any(TimeUnit.class));
+
+    spatialIndex.scheduleRebuild();
+    spatialIndex.scheduleRebuild();
+
+    verify(pending).cancel(false);
+  }
+
+  @Test
+  public void testSearchEnvelopesAcrossAntimeridian() {
+    List<Envelope> envelopes = GazetteerSpatialIndex.searchEnvelopes(0, 179.9, 100);
+    assertThat(envelopes, hasSize(2));
+    assertThat(envelopes.get(0).getMaxX(), is(180.0));
+    assertThat(envelopes.get(1).getMinX(), is(-180.0));
+    assertThat(envelopes.get(1).getMaxX(), is(closeTo(-179.2, .05)));
+  }
+
+  @Test
+  public void testSearchEnvelopesNearPole() {
+    List<Envelope> envelopes = GazetteerSpatialIndex.searchEnvelopes(89.5, 10, 100);
+    assertThat(envelopes, hasSize(1));
+    assertThat(envelopes.get(0).getWidth(), is(360.0));
+  }
+
+  private static Point read(String wkt) throws Exception {
+    return new WKTReader().read(wkt).getCentroid();
+  }
+
+  private static List<String> names(List<NearbyLocation> nearbyLocations) {
+    return nearbyLocations.stream().map(NearbyLocation::getName).collect(Collectors.toList());
+  }
+
+  private static Metacard city(String name, String wkt, String countryCode) {
+    Metacard metacard = metacard(wkt, countryCode, GAZETTEER_METACARD_TAG);
+    metacard.setAttribute(new AttributeImpl(Core.TITLE, name));
+    metacard.setAttribute(new AttributeImpl(GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME, "PPL"));
+    return metacard;
+  }
+
+  private static Metacard countryShape(String wkt, String countryCode) {
+    return metacard(wkt, countryCode, GAZETTEER_METACARD_TAG, COUNTRY_TAG);
+  }
+
+  private static Metacard metacard(String wkt, String countryCode, String... tags) {
+    Metacard metacard = new MetacardImpl(GEO_ENTRY_METACARD_TYPE);
+    metacard.setAttribute(new AttributeImpl(Core.ID, UUID.randomUUID().toString()));
+    metacard.setAttribute(new AttributeImpl(Core.LOCATION, wkt));
+    metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, countryCode));
+    metacard.setAttribute(new AttributeImpl(Core.METACARD_TAGS, Arrays.asList(tags)));
+    return metacard;
+  }
+
+  private static QueryResponse queryResponse(Metacard... metacards) {
+    List<Result> results =
+        Arrays.stream(metacards).map(ResultImpl::new).collect(Collectors.toList());
+    return new QueryResponseImpl(mock(QueryRequest.class), results, results.size());
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persists how many entries of each GeoNames resource a bulk load has processed, so an
+ * interrupted load can resume where it stopped instead of starting over. The checkpoints are kept
+ * in a single properties file keyed by resource and replaced atomically on every save.
+ */
+class BulkLoadCheckpoints {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BulkLoadCheckpoints.class);
+
+  private static final String CHECKPOINT_FILE = "geonames-bulk-load.properties";
+
+  private final Path checkpointFile;
+
+  BulkLoadCheckpoints(Path directory) {
+    this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+  }
+
+  /** @return the number of entries of {@code resource} already processed, or 0 if none */
+  synchronized long get(String resource) {
+    String value = load().getProperty(resource);
+    if (value == null) {
+      return 0;
+    }
+
+    try {
+      return Long.parseLong(value);
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Ignoring invalid bulk load checkpoint {} for {}", value, resource);
+      return 0;
+    }
+  }
+
+  synchronized void save(String resource, long entriesProcessed) {
+    Properties checkpoints = load();
+    checkpoints.setProperty(resource, Long.toString(entriesProcessed));
+    store(checkpoints);
+  }
+
+  synchronized void clear(String resource) {
+    Properties checkpoints = load();
+    if (checkpoints.remove(resource) != null) {
+      store(checkpoints);
+    }
+  }
+
+  private Properties load() {
+    Properties checkpoints = new Properties();
+    try (InputStream inputStream = Files.newInputStream(checkpointFile)) {
+      checkpoints.load(inputStream);
+    } catch (NoSuchFileException e) {
+      LOGGER.trace("No bulk load checkpoints found at {}", checkpointFile);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read bulk load checkpoints from {}", checkpointFile, e);
+    }
+    return checkpoints;
+  }
+
+  private void store(Properties checkpoints) {
+    try {
+      Files.createDirectories(checkpointFile.getParent());
+      Path temp = Files.createTempFile(checkpointFile.getParent(), CHECKPOINT_FILE, ".tmp");
+      try (OutputStream outputStream = Files.newOutputStream(temp)) {
+        checkpoints.store(outputStream, "GeoNames bulk load checkpoints");
+      }
+      Files.move(
+          temp,
+          checkpointFile,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to write bulk load checkpoints to {}", checkpointFile, e);
+    }
+  }
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.index;
+
+import ddf.catalog.data.Metacard;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryIndexingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a stream of {@link GeoEntry} batches to the catalog with a pool of workers. The thread
+ * parsing the resource hands complete batches to a bounded queue, so parsing is throttled to the
+ * speed of the workers, while the workers transform the entries to metacards and write them.
+ *
+ * <p>Each batch carries the number of resource entries consumed up to its end. Batches can finish
+ * out of order, so the checkpoint only advances over the contiguous run of finished batches; on
+ * resume nothing before the checkpoint is written again. A batch that could not be written never
+ * finishes, so the checkpoint stays before it and a later load writes it again.
+ *
+ * <p>A resumed load also writes again the batches after the checkpoint that had already been
+ * written. Each entry is therefore transformed along with its position in the resource, so that
+ * its metacard can be given the same ID every time the entry is written.
+ */
+class GeoNamesBulkLoader {
+
+  /** Transforms an entry, or returns null to skip it. */
+  @FunctionalInterface
+  interface EntryTransformer {
+    Metacard transform(GeoEntry geoEntry, long entryNumber);
+  }
+
+  /** Writes a batch of metacards to the catalog and returns how many were created. */
+  @FunctionalInterface
+  interface BatchWriter {
+    int write(List<Metacard> metacards) throws Exception;
+  }
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeoNamesBulkLoader.class);
+
+  /** Number of finished batches between checkpoint saves. */
+  private static final int CHECKPOINT_INTERVAL = 20;
+
+  private static final Batch END = new Batch(-1, Collections.emptyList(), -1);
+
+  private final String resource;
+
+  private final EntryTransformer transformer;
+
+  private final BatchWriter writer;
+
+  private final BulkLoadCheckpoints checkpoints;
+
+  private final int workerCount;
+
+  private final BlockingQueue<Batch> queue;
+
+  private final ExecutorService workers;
+
+  private final AtomicLong created = new AtomicLong();
+
+  private final AtomicLong failedBatches = new AtomicLong();
+
+  private final Map<Long, Long> finishedBatches = new TreeMap<>();
+
+  private long nextSequence;
+
+  private long nextCheckpointSequence;
+
+  private long entriesProcessed;
+
+  private int batchesSinceCheckpoint;
+
+  GeoNamesBulkLoader(
+      String resource,
+      EntryTransformer transformer,
+      BatchWriter writer,
+      BulkLoadCheckpoints checkpoints,
+      int workerCount,
+      long entriesProcessed) {
+    this.resource = resource;
+    this.transformer = transformer;
+    this.writer = writer;
+    this.checkpoints = checkpoints;
+    this.workerCount = workerCount;
+    this.entriesProcessed = entriesProcessed;
+    this.queue = new ArrayBlockingQueue<>(workerCount * 2);
+    this.workers =
+        Executors.newFixedThreadPool(
+            workerCount, StandardThreadFactoryBuilder.newThreadFactory("geoNamesBulkLoadThread"));
+    for (int i = 0; i < workerCount; i++) {
+      workers.execute(this::work);
+    }
+  }
+
+  /**
+   * Queues a batch, blocking while the workers are behind.
+   *
+   * @param geoEntries the entries to write
+   * @param endEntry the number of resource entries consumed up to and including this batch
+   */
+  void submit(List<GeoEntry> geoEntries, long endEntry) throws GeoEntryIndexingException {
+    try {
+      queue.put(new Batch(nextSequence++, geoEntries, endEntry));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GeoEntryIndexingException("Interrupted while queuing GeoNames entries.", e);
+    }
+  }
+
+  /**
+   * Waits for the queued batches to be written and stops the workers. The checkpoint is removed if
+   * the whole resource was consumed and written, otherwise it is saved so a later load can resume
+   * from it.
+   *
+   * @param complete whether the whole resource was submitted
+   * @return the number of metacards created
+   */
+  long finish(boolean complete) throws GeoEntryIndexingException {
+    try {
+      for (int i = 0; i < workerCount; i++) {
+        queue.put(END);
+      }
+      workers.shutdown();
+      while (!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOGGER.debug("Waiting for the GeoNames bulk load of {} to finish.", resource);
+      }
+    } catch (InterruptedException e) {
+      workers.shutdownNow();
+      Thread.currentThread().interrupt();
+      throw new GeoEntryIndexingException("Interrupted while loading " + resource + ".", e);
+    } finally {
+      synchronized (this) {
+        if (complete && failedBatches.get() == 0 && finishedBatches.isEmpty()) {
+          checkpoints.clear(resource);
+        } else {
+          checkpoints.save(resource, entriesProcessed);
+        }
+      }
+    }
+
+    if (failedBatches.get() > 0) {
+      LOGGER.info(
+          "{} batches of GeoNames entries from {} could not be written. Checkpoint kept at {}.",
+          failedBatches.get(),
+          resource,
+          entriesProcessed);
+    }
+    return created.get();
+  }
+
+  private void work() {
+    try {
+      for (Batch batch = queue.take(); batch != END; batch = queue.take()) {
+        if (write(batch)) {
+          finished(batch);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** @return true if the batch was written */
+  private boolean write(Batch batch) {
+    List<Metacard> metacards = new ArrayList<>(batch.geoEntries.size());
+    try {
+      // entries are numbered from 1, and the batch ends with entry number endEntry
+      long entryNumber = batch.endEntry - batch.geoEntries.size();
+      for (GeoEntry geoEntry : batch.geoEntries) {
+        Metacard metacard = transformer.transform(geoEntry, ++entryNumber);
+        if (metacard != null) {
+          metacards.add(metacard);
+        }
+      }
+
+      if (!metacards.isEmpty()) {
+        int count = writer.write(metacards);
+        created.addAndGet(count);
+        LOGGER.trace("Created {} metacards.", count);
+      }
+      return true;
+    } catch (Exception e) {
+      failedBatches.incrementAndGet();
+      LOGGER.debug("Unable to create {} metacards from {}", batch.geoEntries.size(), resource, e);
+      return false;
+    }
+  }
+
+  private synchronized void finished(Batch batch) {
+    finishedBatches.put(batch.sequence, batch.endEntry);
+
+    Long endEntry;
+    while ((endEntry = finishedBatches.remove(nextCheckpointSequence)) != null) {
+      entriesProcessed = endEntry;
+      nextCheckpointSequence++;
+      batchesSinceCheckpoint++;
+    }
+
+    if (batchesSinceCheckpoint >= CHECKPOINT_INTERVAL) {
+      checkpoints.save(resource, entriesProcessed);
+      batchesSinceCheckpoint = 0;
+    }
+  }
+
+  private static class Batch {
+
+    private final long sequence;
+
+    private final List<GeoEntry> geoEntries;
+
+    private final long endEntry;
+
+    Batch(long sequence, List<GeoEntry> geoEntries, long endEntry) {
+      this.sequence = sequence;
+      this.geoEntries = geoEntries;
+      this.endEntry = endEntry;
+    }
+  }
+}
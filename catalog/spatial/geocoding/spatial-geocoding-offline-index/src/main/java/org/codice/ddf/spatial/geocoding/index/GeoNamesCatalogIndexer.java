@@ -41,12 +41,16 @@
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import net.jodah.failsafe.Failsafe;
@@ -76,6 +80,8 @@ public class GeoNamesCatalogIndexer implements GeoEntryIndexer {
 
   private static final int BATCH_SIZE = 250;
 
+  private static final int BULK_BATCH_SIZE = 1000;
+
   private static final String TITLE_FORMAT = "%s, %s";
 
   private static final ThreadLocal<WKTWriter> WKT_WRITER_THREAD_LOCAL =
@@ -95,6 +101,11 @@ public class GeoNamesCatalogIndexer implements GeoEntryIndexer {
 
   private FilterBuilder filterBuilder;
 
+  private int bulkLoadWorkers = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+
+  private BulkLoadCheckpoints checkpoints =
+      new BulkLoadCheckpoints(Paths.get(System.getProperty("ddf.home", "."), "data", "gazetteer"));
+
   public GeoNamesCatalogIndexer(
       CatalogFramework catalogFramework,
       UuidGenerator uuidGenerator,
@@ -121,12 +132,15 @@ public GeoNamesCatalogIndexer(
   }
 
   private Metacard transformGeoEntryToMetacard(GeoEntry geoEntry) {
+    return transformGeoEntryToMetacard(geoEntry, uuidGenerator.generateUuid());
+  }
+
+  private Metacard transformGeoEntryToMetacard(GeoEntry geoEntry, String id) {
     if (!GeoCodingConstants.CITY_FEATURE_CODES.contains(geoEntry.getFeatureCode())) {
       return null;
     }
 
     Metacard metacard = new MetacardImpl(geoNamesMetacardType);
-    String id = uuidGenerator.generateUuid();
     metacard.setAttribute(
         new AttributeImpl(
             Core.TITLE,
@@ -170,6 +184,13 @@ private Metacard transformGeoEntryToMetacard(GeoEntry geoEntry) {
     return metacard;
   }
 
+  /**
+   * Loads a GeoNames resource through a bulk path: the extractor streams entries into batches that
+   * a pool of workers writes directly to the catalog provider. Progress is checkpointed, so if the
+   * load is interrupted the next load of the same resource resumes after the last checkpoint. The
+   * metacard IDs are derived from the resource and the position of each entry in it, so entries
+   * after the checkpoint that were already written are replaced rather than duplicated.
+   */
   @Override
   public void updateIndex(
       String resource,
@@ -183,27 +204,10 @@ public void updateIndex(
       return;
     }
 
-    List<Metacard> metacardList = new ArrayList<>();
-
-    final GeoEntryExtractor.ExtractionCallback extractionCallback =
-        new GeoEntryExtractor.ExtractionCallback() {
-          @Override
-          public void extracted(final GeoEntry newEntry) throws GeoEntryIndexingException {
-            Metacard metacard = transformGeoEntryToMetacard(newEntry);
-            if (metacard != null) {
-              metacardList.add(metacard);
-            }
-          }
-
-          @Override
-          public void updateProgress(final int progress) {
-            if (progressCallback != null) {
-              progressCallback.updateProgress(progress);
-            }
-          }
-        };
-
-    if (create) {
+    long entriesProcessed = checkpoints.get(resource);
+    if (entriesProcessed > 0) {
+      LOGGER.info("Resuming the load of {} after {} entries.", resource, entriesProcessed);
+    } else if (create) {
       RetryPolicy retryPolicy =
           new RetryPolicy()
               .withDelay(10, TimeUnit.SECONDS)
@@ -211,21 +215,84 @@ public void updateProgress(final int progress) {
               .retryOn(Exception.class);
 
       Failsafe.with(retryPolicy)
-          .run(() -> removeGeoNamesMetacardsFromCatalog(resource, extractionCallback));
+          .run(
+              () ->
+                  removeGeoNamesMetacardsFromCatalog(
+                      resource, progress -> updateProgress(progressCallback, progress)));
     }
 
-    geoEntryExtractor.pushGeoEntriesToExtractionCallback(resource, extractionCallback);
+    GeoNamesBulkLoader bulkLoader =
+        new GeoNamesBulkLoader(
+            resource,
+            (geoEntry, entryNumber) ->
+                transformGeoEntryToMetacard(geoEntry, getBulkLoadId(resource, entryNumber)),
+            this::createMetacards,
+            checkpoints,
+            bulkLoadWorkers,
+            entriesProcessed);
+    BulkExtractionCallback extractionCallback =
+        new BulkExtractionCallback(bulkLoader, entriesProcessed, progressCallback);
+
+    boolean complete = false;
+    long created = 0;
+    try {
+      geoEntryExtractor.pushGeoEntriesToExtractionCallback(resource, extractionCallback);
+      extractionCallback.submitRemaining();
+      complete = true;
+    } finally {
+      created = bulkLoader.finish(complete);
+    }
 
-    if (CollectionUtils.isEmpty(metacardList)) {
+    if (created == 0) {
       LOGGER.debug("No Metacards were created from the resource.");
       return;
     }
 
-    executeCreateMetacardRequest(metacardList);
-
     LOGGER.trace("All data created for: {}", resource);
   }
 
+  /**
+   * Returns the same ID for an entry of a resource every time it is loaded, so that the entries a
+   * resumed load writes again replace the metacards created for them before it was interrupted.
+   */
+  private String getBulkLoadId(String resource, long entryNumber) {
+    String id =
+        UUID.nameUUIDFromBytes((resource + "#" + entryNumber).getBytes(StandardCharsets.UTF_8))
+            .toString();
+    return uuidGenerator.useHyphens() ? id : id.replace("-", "");
+  }
+
+  /**
+   * Creates the metacards of a bulk load directly in the catalog provider, bypassing the ingest
+   * plugins of the framework. The framework is only used when no provider is available.
+   */
+  private int createMetacards(List<Metacard> metacards)
+      throws IngestException, SourceUnavailableException {
+    CreateRequest createRequest = new CreateRequestImpl(metacards, new HashMap<>());
+    Optional<CatalogProvider> catalogProviderOptional = catalogProviders.stream().findFirst();
+
+    CreateResponse createResponse;
+    if (catalogProviderOptional.isPresent()) {
+      Date now = new Date();
+      for (Metacard metacard : metacards) {
+        metacard.setAttribute(new AttributeImpl(Core.METACARD_CREATED, now));
+        metacard.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, now));
+      }
+      createResponse = catalogProviderOptional.get().create(createRequest);
+    } else {
+      createResponse = catalogFramework.create(createRequest);
+    }
+
+    List<Metacard> createdMetacards = createResponse.getCreatedMetacards();
+    return createdMetacards == null ? 0 : createdMetacards.size();
+  }
+
+  private static void updateProgress(ProgressCallback progressCallback, int progress) {
+    if (progressCallback != null) {
+      progressCallback.updateProgress(progress);
+    }
+  }
+
   private void removeGeoNamesMetacardsFromCatalog(
       String resource, ProgressCallback extractionCallback)
       throws UnsupportedQueryException, SourceUnavailableException, FederationException,
@@ -406,4 +473,60 @@ private Integer getGeoNameGazetterSortByFeatureClass(GeoEntry geoEntry) {
     }
     return gazetteerSortValue;
   }
+
+  public void setBulkLoadWorkers(int bulkLoadWorkers) {
+    this.bulkLoadWorkers = Math.max(1, bulkLoadWorkers);
+  }
+
+  public void setCheckpointDirectory(String checkpointDirectory) {
+    this.checkpoints = new BulkLoadCheckpoints(Paths.get(checkpointDirectory));
+  }
+
+  /**
+   * Groups the extracted entries into batches for the {@link GeoNamesBulkLoader}, skipping the
+   * entries a previous, interrupted load already processed.
+   */
+  private static class BulkExtractionCallback implements GeoEntryExtractor.ExtractionCallback {
+
+    private final GeoNamesBulkLoader bulkLoader;
+
+    private final long entriesToSkip;
+
+    private final ProgressCallback progressCallback;
+
+    private long entries;
+
+    private List<GeoEntry> batch = new ArrayList<>(BULK_BATCH_SIZE);
+
+    BulkExtractionCallback(
+        GeoNamesBulkLoader bulkLoader, long entriesToSkip, ProgressCallback progressCallback) {
+      this.bulkLoader = bulkLoader;
+      this.entriesToSkip = entriesToSkip;
+      this.progressCallback = progressCallback;
+    }
+
+    @Override
+    public void extracted(final GeoEntry newEntry) throws GeoEntryIndexingException {
+      if (++entries <= entriesToSkip) {
+        return;
+      }
+
+      batch.add(newEntry);
+      if (batch.size() >= BULK_BATCH_SIZE) {
+        submitRemaining();
+      }
+    }
+
+    @Override
+    public void updateProgress(final int progress) {
+      GeoNamesCatalogIndexer.updateProgress(progressCallback, progress);
+    }
+
+    void submitRemaining() throws GeoEntryIndexingException {
+      if (!batch.isEmpty()) {
+        bulkLoader.submit(batch, entries);
+        batch = new ArrayList<>(BULK_BATCH_SIZE);
+      }
+    }
+  }
 }
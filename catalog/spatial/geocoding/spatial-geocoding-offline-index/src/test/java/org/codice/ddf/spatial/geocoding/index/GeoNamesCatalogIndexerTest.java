@@ -15,8 +15,10 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -40,22 +42,31 @@
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
 import org.codice.ddf.spatial.geocoding.GeoEntry;
 import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
 import org.codice.ddf.spatial.geocoding.GeoEntryCreator;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractionException;
+import org.codice.ddf.spatial.geocoding.GeoEntryExtractor;
 import org.codice.ddf.spatial.geocoding.ProgressCallback;
 import org.codice.ddf.spatial.geocoding.extract.GeoNamesFileExtractor;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 
 public class GeoNamesCatalogIndexerTest {
 
+  @Rule public TemporaryFolder checkpointFolder = new TemporaryFolder();
+
   private static final String GOOD_FILE_PATH =
       GeoNamesCatalogIndexerTest.class
           .getClassLoader()
@@ -115,6 +126,7 @@ public void setUp() throws Exception {
     when(uuidGenerator.generateUuid()).thenReturn(UUID.randomUUID().toString());
 
     catalogProvider = mock(CatalogProvider.class);
+    when(catalogProvider.create(any(CreateRequest.class))).thenReturn(createResponse);
     DeleteResponse deleteResponse = mock(DeleteResponse.class);
     when(deleteResponse.getDeletedMetacards()).thenReturn(Collections.singletonList(METACARD));
     when(catalogProvider.delete(any(DeleteRequest.class))).thenReturn(deleteResponse);
@@ -132,6 +144,7 @@ public void setUp() throws Exception {
             new GeoEntryAttributes(),
             new GeotoolsFilterBuilder(),
             Collections.singletonList(catalogProvider));
+    geoNamesCatalogIndexer.setCheckpointDirectory(checkpointFolder.getRoot().getAbsolutePath());
   }
 
   @After
@@ -155,20 +168,20 @@ public void tearDown() {
   @Test
   public void testUpdateIndexEmptyString() throws Exception {
     geoNamesCatalogIndexer.updateIndex(null, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, never()).create(any(CreateRequest.class));
+    verify(catalogProvider, never()).create(any(CreateRequest.class));
   }
 
   @Test
   public void testUpdateIndex() throws Exception {
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
   }
 
   @Test
   public void testUpdateIndexWithCreate() throws Exception {
     setupTestForCreate();
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, true, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(1)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(2)).query(any(QueryRequest.class));
   }
@@ -178,7 +191,7 @@ public void testUpdateIndexWithCreateIngestException() throws Exception {
     when(catalogProvider.delete(any(DeleteRequest.class))).thenThrow(IngestException.class);
     setupTestForCreate();
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, true, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(1)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(2)).query(any(QueryRequest.class));
   }
@@ -192,6 +205,7 @@ public void testUpdateIndexWithCreateNoCatalogProvider() throws Exception {
             new GeoEntryAttributes(),
             new GeotoolsFilterBuilder(),
             Collections.emptyList());
+    geoNamesCatalogIndexer.setCheckpointDirectory(checkpointFolder.getRoot().getAbsolutePath());
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, true, progressCallback);
     verify(catalogFramework, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(0)).delete(any(DeleteRequest.class));
@@ -202,7 +216,7 @@ public void testUpdateIndexWithCreateNoCatalogProvider() throws Exception {
   public void testUpdateIndexWithCreateNoResults() throws Exception {
     when(queryResponse.getResults()).thenReturn(Collections.emptyList());
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, true, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(0)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(1)).query(any(QueryRequest.class));
   }
@@ -213,7 +227,7 @@ public void testUpdateIndexWithFailedDeleteIngestException() throws Exception {
     setupTestForCreate();
     when(catalogFramework.delete(any(DeleteRequest.class))).thenThrow(IngestException.class);
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, true, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(1)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(2)).query(any(QueryRequest.class));
   }
@@ -225,7 +239,7 @@ public void testUpdateIndexWithFailedDeleteSourceUnavailableException() throws E
     when(catalogFramework.delete(any(DeleteRequest.class)))
         .thenThrow(SourceUnavailableException.class);
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, true, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
     verify(catalogProvider, times(1)).delete(any(DeleteRequest.class));
     verify(catalogFramework, times(2)).query(any(QueryRequest.class));
   }
@@ -235,19 +249,19 @@ public void testUpdateIndexBadGeoEntry() throws Exception {
     when(geoEntryCreator.createGeoEntry(anyString(), anyString()))
         .thenReturn(new GeoEntry.Builder().name("Test").build());
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(0)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(0)).create(any(CreateRequest.class));
   }
 
   @Test
   public void testUpdateIndexZip() throws Exception {
     geoNamesCatalogIndexer.updateIndex(ZIP_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(13)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(4)).create(any(CreateRequest.class));
   }
 
   @Test
   public void testUpdateIndexNullCallback() throws Exception {
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, false, null);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
   }
 
   @Test
@@ -264,7 +278,7 @@ public void testUpdateIndexBatches() throws Exception {
     when(createResponse.getCreatedMetacards()).thenReturn(metacardList);
 
     geoNamesCatalogIndexer.updateIndex(LARGE_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(2)).create(createRequestArgumentCaptor.capture());
+    verify(catalogProvider, times(1)).create(createRequestArgumentCaptor.capture());
 
     List<CreateRequest> createRequestList = createRequestArgumentCaptor.getAllValues();
     int totalEntries = 0;
@@ -278,24 +292,24 @@ public void testUpdateIndexBatches() throws Exception {
   public void testUpdateIndexNullResponse() throws Exception {
     when(createResponse.getCreatedMetacards()).thenReturn(null);
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
   }
 
   @SuppressWarnings("unchecked")
   @Test
   public void testUpdateIndexIngestException() throws Exception {
-    when(catalogFramework.create(any(CreateRequest.class))).thenThrow(IngestException.class);
+    when(catalogProvider.create(any(CreateRequest.class))).thenThrow(IngestException.class);
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
   }
 
   @SuppressWarnings("unchecked")
   @Test
   public void testUpdateIndexSourceUnavailableException() throws Exception {
-    when(catalogFramework.create(any(CreateRequest.class)))
+    when(catalogProvider.create(any(CreateRequest.class)))
         .thenThrow(SourceUnavailableException.class);
     geoNamesCatalogIndexer.updateIndex(GOOD_FILE_PATH, geoEntryExtractor, false, progressCallback);
-    verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
   }
 
   @Test
@@ -318,6 +332,125 @@ public void testUpdateIndexWithGeoEntryListWithCreate() throws Exception {
     verify(catalogFramework, times(2)).query(any(QueryRequest.class));
   }
 
+  @Test
+  public void testUpdateIndexMultipleWorkers() throws Exception {
+    geoNamesCatalogIndexer.setBulkLoadWorkers(4);
+    geoNamesCatalogIndexer.updateIndex(ZIP_FILE_PATH, geoEntryExtractor, false, progressCallback);
+    verify(catalogProvider, times(4)).create(any(CreateRequest.class));
+  }
+
+  @Test
+  public void testUpdateIndexResumesFromCheckpoint() throws Exception {
+    BulkLoadCheckpoints checkpoints = new BulkLoadCheckpoints(checkpointFolder.getRoot().toPath());
+    checkpoints.save(LARGE_FILE_PATH, 300);
+
+    ArgumentCaptor<CreateRequest> createRequestArgumentCaptor =
+        ArgumentCaptor.forClass(CreateRequest.class);
+
+    geoNamesCatalogIndexer.updateIndex(LARGE_FILE_PATH, geoEntryExtractor, true, progressCallback);
+    verify(catalogProvider, times(1)).create(createRequestArgumentCaptor.capture());
+    assertThat(createRequestArgumentCaptor.getValue().getMetacards().size(), is(60));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+    verify(catalogProvider, never()).delete(any(DeleteRequest.class));
+    assertThat(checkpoints.get(LARGE_FILE_PATH), is(0L));
+  }
+
+  @Test
+  public void testUpdateIndexSavesCheckpointWhenInterrupted() throws Exception {
+    GeoEntryExtractor failingExtractor = mock(GeoEntryExtractor.class);
+    doAnswer(
+            invocation -> {
+              GeoEntryExtractor.ExtractionCallback callback =
+                  (GeoEntryExtractor.ExtractionCallback) invocation.getArguments()[1];
+              for (int i = 0; i < 1500; i++) {
+                callback.extracted(GEO_ENTRY);
+              }
+              throw new GeoEntryExtractionException("Connection reset");
+            })
+        .when(failingExtractor)
+        .pushGeoEntriesToExtractionCallback(
+            anyString(), any(GeoEntryExtractor.ExtractionCallback.class));
+
+    try {
+      geoNamesCatalogIndexer.updateIndex(GEO_ENTRY_DATA_SOURCE, failingExtractor, false, null);
+      fail("Expected a GeoEntryExtractionException");
+    } catch (GeoEntryExtractionException e) {
+      // expected
+    }
+
+    verify(catalogProvider, times(1)).create(any(CreateRequest.class));
+    BulkLoadCheckpoints checkpoints = new BulkLoadCheckpoints(checkpointFolder.getRoot().toPath());
+    assertThat(checkpoints.get(GEO_ENTRY_DATA_SOURCE), is(1000L));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testUpdateIndexKeepsCheckpointBeforeFailedBatch() throws Exception {
+    when(catalogProvider.create(any(CreateRequest.class)))
+        .thenReturn(createResponse)
+        .thenThrow(IngestException.class)
+        .thenReturn(createResponse);
+    geoNamesCatalogIndexer.setBulkLoadWorkers(1);
+
+    geoNamesCatalogIndexer.updateIndex(GEO_ENTRY_DATA_SOURCE, extractor(2500, false), false, null);
+
+    verify(catalogProvider, times(3)).create(any(CreateRequest.class));
+    BulkLoadCheckpoints checkpoints = new BulkLoadCheckpoints(checkpointFolder.getRoot().toPath());
+    assertThat(checkpoints.get(GEO_ENTRY_DATA_SOURCE), is(1000L));
+  }
+
+  @Test
+  public void testUpdateIndexResumedLoadDoesNotDuplicateMetacards() throws Exception {
+    Set<String> createdIds = new HashSet<>();
+    AtomicInteger creates = new AtomicInteger();
+    when(catalogProvider.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              if (creates.incrementAndGet() == 2) {
+                throw new IngestException("Solr unavailable");
+              }
+              CreateRequest request = (CreateRequest) invocation.getArguments()[0];
+              request.getMetacards().forEach(metacard -> createdIds.add(metacard.getId()));
+              return createResponse;
+            });
+    geoNamesCatalogIndexer.setBulkLoadWorkers(1);
+
+    try {
+      geoNamesCatalogIndexer.updateIndex(
+          GEO_ENTRY_DATA_SOURCE, extractor(3000, true), false, null);
+      fail("Expected a GeoEntryExtractionException");
+    } catch (GeoEntryExtractionException e) {
+      // expected
+    }
+    geoNamesCatalogIndexer.updateIndex(GEO_ENTRY_DATA_SOURCE, extractor(3500, false), false, null);
+
+    // the first load wrote entries 1-1000 and 2001-3000, the resumed load entries 1001-3500
+    verify(catalogProvider, times(6)).create(any(CreateRequest.class));
+    assertThat(createdIds.size(), is(3500));
+    BulkLoadCheckpoints checkpoints = new BulkLoadCheckpoints(checkpointFolder.getRoot().toPath());
+    assertThat(checkpoints.get(GEO_ENTRY_DATA_SOURCE), is(0L));
+  }
+
+  private GeoEntryExtractor extractor(int entries, boolean interrupted) throws Exception {
+    GeoEntryExtractor extractor = mock(GeoEntryExtractor.class);
+    doAnswer(
+            invocation -> {
+              GeoEntryExtractor.ExtractionCallback callback =
+                  (GeoEntryExtractor.ExtractionCallback) invocation.getArguments()[1];
+              for (int i = 0; i < entries; i++) {
+                callback.extracted(GEO_ENTRY);
+              }
+              if (interrupted) {
+                throw new GeoEntryExtractionException("Connection reset");
+              }
+              return null;
+            })
+        .when(extractor)
+        .pushGeoEntriesToExtractionCallback(
+            anyString(), any(GeoEntryExtractor.ExtractionCallback.class));
+    return extractor;
+  }
+
   private void setupTestForCreate() throws Exception {
     queryResponse = mock(QueryResponse.class);
     when(queryResponse.getResults()).thenReturn(Collections.emptyList());
@@ -17,6 +17,7 @@
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.QueryRequest;
@@ -25,7 +26,9 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
-import ddf.catalog.validation.MetacardValidator;
+import ddf.catalog.util.impl.CatalogQueryException;
+import ddf.catalog.util.impl.ResultIterable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.impl.ValidationExceptionImpl;
@@ -35,10 +38,16 @@
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -51,7 +60,7 @@
 import org.slf4j.LoggerFactory;
 
 public class DuplicationValidator
-    implements MetacardValidator,
+    implements BatchMetacardValidator,
         ReportingMetacardValidator,
         ddf.catalog.util.Describable,
         org.codice.ddf.platform.services.common.Describable {
@@ -63,6 +72,14 @@
 
   private static final String VERSION = "version";
 
+  private static final int PAGE_SIZE = 250;
+
+  /** The most attribute values that are combined into a single query of a batch. */
+  private static final int MAX_VALUES_PER_QUERY = 500;
+
+  /** The most duplicates that are looked up with a single query of a batch. */
+  private static final int MAX_RESULTS_PER_QUERY = 10_000;
+
   private static Properties describableProperties = new Properties();
 
   static {
@@ -82,6 +99,10 @@
 
   private String[] warnOnDuplicateAttributes;
 
+  private UniqueAttributeIndex uniqueAttributeIndex;
+
+  private boolean useIndex;
+
   public DuplicationValidator(CatalogFramework catalogFramework, FilterBuilder filterBuilder) {
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
@@ -97,6 +118,7 @@ public DuplicationValidator(CatalogFramework catalogFramework, FilterBuilder fil
   public void setErrorOnDuplicateAttributes(String[] attributeStrings) {
     if (attributeStrings != null) {
       this.errorOnDuplicateAttributes = Arrays.copyOf(attributeStrings, attributeStrings.length);
+      configureIndex();
     }
   }
 
@@ -110,9 +132,45 @@ public void setErrorOnDuplicateAttributes(String[] attributeStrings) {
   public void setWarnOnDuplicateAttributes(String[] attributeStrings) {
     if (attributeStrings != null) {
       this.warnOnDuplicateAttributes = Arrays.copyOf(attributeStrings, attributeStrings.length);
+      configureIndex();
+    }
+  }
+
+  /**
+   * Sets the index of attribute values used to skip the catalog query for metacards whose values
+   * are definitely not in the catalog. The index is only used if {@link #setUseIndex(boolean)} is
+   * set.
+   */
+  public void setUniqueAttributeIndex(UniqueAttributeIndex uniqueAttributeIndex) {
+    this.uniqueAttributeIndex = uniqueAttributeIndex;
+    configureIndex();
+  }
+
+  public void setUseIndex(boolean useIndex) {
+    this.useIndex = useIndex;
+    configureIndex();
+  }
+
+  public void setIndexRefreshIntervalMinutes(int indexRefreshIntervalMinutes) {
+    if (uniqueAttributeIndex != null) {
+      uniqueAttributeIndex.setRefreshIntervalMinutes(indexRefreshIntervalMinutes);
     }
   }
 
+  private void configureIndex() {
+    if (uniqueAttributeIndex == null) {
+      return;
+    }
+
+    Set<String> attributeNames = new HashSet<>();
+    Optional.ofNullable(errorOnDuplicateAttributes)
+        .ifPresent(names -> attributeNames.addAll(Arrays.asList(names)));
+    Optional.ofNullable(warnOnDuplicateAttributes)
+        .ifPresent(names -> attributeNames.addAll(Arrays.asList(names)));
+    uniqueAttributeIndex.setAttributeNames(attributeNames);
+    uniqueAttributeIndex.setEnabled(useIndex);
+  }
+
   @Override
   public Optional<MetacardValidationReport> validateMetacard(Metacard metacard) {
     Preconditions.checkArgument(metacard != null, "The metacard cannot be null.");
@@ -122,39 +180,86 @@ public Optional<MetacardValidationReport> validateMetacard(Metacard metacard) {
 
   @Override
   public void validate(Metacard metacard) throws ValidationException {
+    Optional<ValidationException> exception = toException(metacard, validateMetacard(metacard));
+    if (exception.isPresent()) {
+      throw exception.get();
+    }
+  }
+
+  /**
+   * Validates all of the metacards with one query for each of the error and warning attribute
+   * lists, instead of two queries for each metacard.
+   */
+  @Override
+  public List<Optional<ValidationException>> validateBatch(List<Metacard> metacards) {
+    Preconditions.checkArgument(metacards != null, "The metacards cannot be null.");
+    Preconditions.checkArgument(
+        metacards.stream().allMatch(Objects::nonNull), "The metacard cannot be null.");
+
+    List<Set<ValidationViolation>> violations = new ArrayList<>(metacards.size());
+    metacards.forEach(metacard -> violations.add(new HashSet<>()));
+
+    if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
+      addViolations(
+          violations,
+          reportDuplicates(
+              metacards, warnOnDuplicateAttributes, ValidationViolation.Severity.WARNING));
+    }
+    if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
+      addViolations(
+          violations,
+          reportDuplicates(
+              metacards, errorOnDuplicateAttributes, ValidationViolation.Severity.ERROR));
+    }
+
+    List<Optional<ValidationException>> exceptions = new ArrayList<>(metacards.size());
+    for (int i = 0; i < metacards.size(); i++) {
+      exceptions.add(toException(metacards.get(i), getReport(violations.get(i))));
+    }
+    return exceptions;
+  }
 
-    final Optional<MetacardValidationReport> report = validateMetacard(metacard);
-
-    if (report.isPresent()) {
-      final List<String> errors =
-          report
-              .get()
-              .getMetacardValidationViolations()
-              .stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-      final List<String> warnings =
-          report
-              .get()
-              .getMetacardValidationViolations()
-              .stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation
-                          .getSeverity()
-                          .equals(ValidationViolation.Severity.WARNING))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-
-      String message =
-          String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
-      final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
-      exception.setErrors(errors);
-      exception.setWarnings(warnings);
-      throw exception;
+  private Optional<ValidationException> toException(
+      final Metacard metacard, final Optional<MetacardValidationReport> report) {
+    if (!report.isPresent()) {
+      return Optional.empty();
+    }
+
+    final List<String> errors =
+        report
+            .get()
+            .getMetacardValidationViolations()
+            .stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+    final List<String> warnings =
+        report
+            .get()
+            .getMetacardValidationViolations()
+            .stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.WARNING))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+
+    String message =
+        String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
+    final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
+    exception.setErrors(errors);
+    exception.setWarnings(warnings);
+    return Optional.of(exception);
+  }
+
+  private void addViolations(
+      List<Set<ValidationViolation>> violations, List<ValidationViolation> found) {
+    for (int i = 0; i < found.size(); i++) {
+      if (found.get(i) != null) {
+        violations.get(i).add(found.get(i));
+      }
     }
   }
 
@@ -194,7 +299,7 @@ private ValidationViolation reportDuplicates(
             .collect(Collectors.toSet());
     final Set<Attribute> uniqueAttributes =
         uniqueAttributeNames.stream().map(metacard::getAttribute).collect(Collectors.toSet());
-    if (!uniqueAttributes.isEmpty()) {
+    if (!uniqueAttributes.isEmpty() && !isDefinitelyUnique(uniqueAttributes)) {
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug(
             "Checking for duplicates for id {} against attributes [{}]",
@@ -218,6 +323,124 @@ private ValidationViolation reportDuplicates(
     return violation;
   }
 
+  /**
+   * Finds the duplicates of each of the metacards with as few queries as possible. Each query
+   * combines the values of several metacards, and each result is matched back to the metacards by
+   * its attribute values, compared exactly as they are queried.
+   */
+  private List<ValidationViolation> reportDuplicates(
+      final List<Metacard> metacards,
+      String[] attributeNames,
+      ValidationViolation.Severity severity) {
+
+    List<ValidationViolation> violations =
+        new ArrayList<>(Collections.nCopies(metacards.size(), null));
+    List<Set<String>> uniqueAttributeNames = new ArrayList<>(metacards.size());
+    List<Set<String>> duplicates = new ArrayList<>(metacards.size());
+    List<Integer> candidates = new ArrayList<>();
+
+    for (int i = 0; i < metacards.size(); i++) {
+      Metacard metacard = metacards.get(i);
+      Set<String> names =
+          Stream.of(attributeNames)
+              .filter(attribute -> metacard.getAttribute(attribute) != null)
+              .collect(Collectors.toSet());
+      uniqueAttributeNames.add(names);
+      duplicates.add(new HashSet<>());
+      Set<Attribute> attributes =
+          names.stream().map(metacard::getAttribute).collect(Collectors.toSet());
+      if (!attributes.isEmpty() && !isDefinitelyUnique(attributes)) {
+        candidates.add(i);
+      }
+    }
+
+    LOGGER.debug(
+        "Checking {} of {} metacards for duplicates against attributes [{}]",
+        candidates.size(),
+        metacards.size(),
+        collectionToString(Arrays.asList(attributeNames)));
+
+    int next = 0;
+    while (next < candidates.size()) {
+      Map<String, List<Integer>> metacardsByValue = new HashMap<>();
+      Set<Attribute> attributes = new HashSet<>();
+      int valueCount = 0;
+      do {
+        int index = candidates.get(next++);
+        Metacard metacard = metacards.get(index);
+        for (String attributeName : uniqueAttributeNames.get(index)) {
+          Attribute attribute = metacard.getAttribute(attributeName);
+          attributes.add(attribute);
+          for (Serializable value : attribute.getValues()) {
+            metacardsByValue
+                .computeIfAbsent(queriedValue(attributeName, value), key -> new ArrayList<>())
+                .add(index);
+            valueCount++;
+          }
+        }
+      } while (next < candidates.size() && valueCount < MAX_VALUES_PER_QUERY);
+
+      for (Metacard result : queryAll(attributes)) {
+        for (String attributeName : attributeNames) {
+          Attribute attribute = result.getAttribute(attributeName);
+          if (attribute == null || attribute.getValues() == null) {
+            continue;
+          }
+          for (Serializable value : attribute.getValues()) {
+            if (value == null) {
+              continue;
+            }
+            for (int index :
+                metacardsByValue.getOrDefault(
+                    queriedValue(attributeName, value), Collections.emptyList())) {
+              if (!result.getId().equals(metacards.get(index).getId())) {
+                duplicates.get(index).add(result.getId());
+              }
+            }
+          }
+        }
+      }
+    }
+
+    for (int index : candidates) {
+      if (!duplicates.get(index).isEmpty()) {
+        ValidationViolation violation =
+            createViolation(uniqueAttributeNames.get(index), duplicates.get(index), severity);
+        LOGGER.debug(violation.getMessage());
+        violations.set(index, violation);
+      }
+    }
+    return violations;
+  }
+
+  /**
+   * The value as it is sent in the query, without the lower casing of {@link
+   * UniqueAttributeIndex#key}, so that a result is only matched to metacards with the same value.
+   */
+  private static String queriedValue(String attributeName, Serializable value) {
+    return attributeName + '\u0000' + value.toString().trim();
+  }
+
+  /**
+   * @return {@code true} if the index is in use and none of the values of the attributes is in the
+   *     catalog
+   */
+  private boolean isDefinitelyUnique(Set<Attribute> attributes) {
+    if (!useIndex || uniqueAttributeIndex == null || !uniqueAttributeIndex.isAvailable()) {
+      return false;
+    }
+
+    return attributes
+        .stream()
+        .noneMatch(
+            attribute ->
+                attribute
+                    .getValues()
+                    .stream()
+                    .anyMatch(
+                        value -> uniqueAttributeIndex.mightContain(attribute.getName(), value)));
+  }
+
   private Filter[] buildFilters(Set<Attribute> attributes) {
 
     return attributes
@@ -255,6 +478,29 @@ private SourceResponse query(Set<Attribute> attributes) {
     return response;
   }
 
+  private List<Metacard> queryAll(Set<Attribute> attributes) {
+
+    final Filter filter = filterBuilder.allOf(filterBuilder.anyOf(buildFilters(attributes)));
+
+    LOGGER.debug("filter {}", filter);
+
+    QueryImpl query = new QueryImpl(filter);
+    query.setPageSize(PAGE_SIZE);
+    query.setRequestsTotalResultsCount(false);
+    QueryRequest request = new QueryRequestImpl(query);
+
+    List<Metacard> results = new ArrayList<>();
+    try {
+      for (Result result :
+          ResultIterable.resultIterable(catalogFramework, request, MAX_RESULTS_PER_QUERY)) {
+        results.add(result.getMetacard());
+      }
+    } catch (CatalogQueryException e) {
+      LOGGER.debug("Query failed ", e);
+    }
+    return results;
+  }
+
   private ValidationViolation createViolation(
       final Set<String> attributes, Set<String> duplicates, ValidationViolation.Severity severity) {
 
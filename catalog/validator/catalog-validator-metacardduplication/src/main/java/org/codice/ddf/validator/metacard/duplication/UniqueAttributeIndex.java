@@ -0,0 +1,403 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.util.impl.CatalogQueryException;
+import ddf.catalog.util.impl.ResultIterable;
+import ddf.security.service.SecurityServiceException;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.codice.ddf.security.Security;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortBy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An optional in-memory index of the values of the attributes checked by the {@link
+ * DuplicationValidator}. The values are kept in a Bloom filter, so the index can answer that a
+ * value is definitely not in the catalog without querying it. A value that might be in the catalog
+ * still has to be checked with a query.
+ *
+ * <p>The index is loaded from the catalog when it is enabled and is kept current by {@link
+ * UniqueAttributeIndexPlugin} as metacards are ingested through the catalog framework. Values of
+ * deleted or updated metacards cannot be removed from a Bloom filter, so the index is rebuilt once
+ * enough of them have gone stale or once it holds more values than it was sized for. It is also
+ * refreshed periodically, which picks up metacards that were not ingested through the catalog
+ * framework.
+ */
+public class UniqueAttributeIndex implements Runnable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UniqueAttributeIndex.class);
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final long TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+  private static final long CONFIGURATION_DELAY_SECONDS = 5;
+
+  private static final long REBUILD_DELAY_SECONDS = 60;
+
+  private static final long MINIMUM_CAPACITY = 100_000;
+
+  private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+  /**
+   * Values added within this window are also added to an index that is being loaded, because the
+   * metacards they came from may not be visible to the load query yet.
+   */
+  private static final long RECENT_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private final CatalogFramework catalogFramework;
+
+  private final FilterBuilder filterBuilder;
+
+  private final Security security;
+
+  private final ScheduledExecutorService executor;
+
+  private final ConcurrentLinkedDeque<RecentValue> recentValues = new ConcurrentLinkedDeque<>();
+
+  private volatile Snapshot snapshot;
+
+  private volatile Snapshot loading;
+
+  private volatile boolean enabled;
+
+  private volatile Set<String> attributeNames = Collections.emptySet();
+
+  private int refreshIntervalMinutes = 60;
+
+  private ScheduledFuture<?> refresh;
+
+  private ScheduledFuture<?> pendingRebuild;
+
+  public UniqueAttributeIndex(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      Security security,
+      ScheduledExecutorService executor) {
+    this.catalogFramework = catalogFramework;
+    this.filterBuilder = filterBuilder;
+    this.security = security;
+    this.executor = executor;
+  }
+
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  public void setEnabled(boolean enabled) {
+    if (this.enabled != enabled) {
+      this.enabled = enabled;
+      scheduleRefresh();
+    }
+  }
+
+  public void setRefreshIntervalMinutes(int refreshIntervalMinutes) {
+    int interval = Math.max(1, refreshIntervalMinutes);
+    if (this.refreshIntervalMinutes != interval) {
+      this.refreshIntervalMinutes = interval;
+      scheduleRefresh();
+    }
+  }
+
+  /** Sets the names of the attributes whose values are indexed. */
+  public void setAttributeNames(Set<String> attributeNames) {
+    Set<String> names =
+        attributeNames == null
+            ? Collections.emptySet()
+            : Collections.unmodifiableSet(new HashSet<>(attributeNames));
+    if (!this.attributeNames.equals(names)) {
+      this.attributeNames = names;
+      scheduleRefresh();
+    }
+  }
+
+  /** @return whether the index is enabled and has been loaded */
+  public boolean isAvailable() {
+    return enabled && snapshot != null;
+  }
+
+  /**
+   * @return {@code false} if no metacard in the catalog has {@code value} for the attribute, or
+   *     {@code true} if one might. Always {@code true} if the index is not available or does not
+   *     index the attribute.
+   */
+  public boolean mightContain(String attributeName, Serializable value) {
+    Snapshot current = snapshot;
+    return !enabled
+        || current == null
+        || !current.attributeNames.contains(attributeName)
+        || current.mightContain(key(attributeName, value));
+  }
+
+  /** Adds the indexed attribute values of a metacard that was created or updated. */
+  void add(Metacard metacard) {
+    if (!enabled) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    pruneRecentValues(now);
+
+    for (String attributeName : attributeNames) {
+      Attribute attribute = metacard.getAttribute(attributeName);
+      if (attribute == null || attribute.getValues() == null) {
+        continue;
+      }
+      for (Serializable value : attribute.getValues()) {
+        if (value != null) {
+          String key = key(attributeName, value);
+          recentValues.add(new RecentValue(now, attributeName, key));
+          put(snapshot, attributeName, key);
+          put(loading, attributeName, key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records that a metacard's values were deleted or replaced. The values stay in the index, which
+   * is rebuilt once too many of its values are stale.
+   */
+  void remove(Metacard metacard) {
+    Snapshot current = snapshot;
+    if (!enabled || current == null) {
+      return;
+    }
+
+    long stale = current.staleCount.incrementAndGet();
+    if (stale >= Math.max(MINIMUM_CAPACITY / 2, current.insertions.get() / 2)
+        && current.rebuildRequested.compareAndSet(false, true)) {
+      LOGGER.debug("Half of the unique attribute index is stale. Rebuilding it.");
+      scheduleRebuild();
+    }
+  }
+
+  /** Rebuilds the index after a short delay, replacing any rebuild already pending. */
+  synchronized void scheduleRebuild() {
+    if (!enabled) {
+      return;
+    }
+
+    if (pendingRebuild != null) {
+      pendingRebuild.cancel(false);
+    }
+
+    try {
+      pendingRebuild = executor.schedule(this, REBUILD_DELAY_SECONDS, TimeUnit.SECONDS);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to schedule a rebuild of the unique attribute index.", e);
+    }
+  }
+
+  private synchronized void scheduleRefresh() {
+    if (refresh != null) {
+      refresh.cancel(false);
+      refresh = null;
+    }
+
+    if (!enabled) {
+      snapshot = null;
+      recentValues.clear();
+      return;
+    }
+
+    try {
+      refresh =
+          executor.scheduleWithFixedDelay(
+              this,
+              CONFIGURATION_DELAY_SECONDS,
+              TimeUnit.MINUTES.toSeconds(refreshIntervalMinutes),
+              TimeUnit.SECONDS);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to schedule the unique attribute index refresh.", e);
+    }
+  }
+
+  @Override
+  public void run() {
+    Set<String> names = attributeNames;
+    if (!enabled || names.isEmpty()) {
+      snapshot = null;
+      return;
+    }
+
+    Snapshot current = snapshot;
+    long capacity =
+        current == null
+            ? MINIMUM_CAPACITY
+            : Math.max(MINIMUM_CAPACITY, 2 * current.insertions.get());
+    Snapshot next = new Snapshot(names, capacity);
+
+    LOGGER.trace("Building the unique attribute index for attributes {}.", names);
+    loading = next;
+    try {
+      pruneRecentValues(System.currentTimeMillis());
+      for (RecentValue recentValue : recentValues) {
+        put(next, recentValue.attributeName, recentValue.key);
+      }
+
+      boolean loaded =
+          security.runAsAdmin(
+              () -> {
+                try {
+                  return security.runWithSubjectOrElevate(() -> load(next));
+                } catch (SecurityServiceException
+                    | InvocationTargetException
+                    | CatalogQueryException e) {
+                  LOGGER.debug("Unable to build the unique attribute index.", e);
+                  return false;
+                }
+              });
+
+      if (loaded && enabled) {
+        snapshot = next;
+        LOGGER.debug(
+            "Built the unique attribute index with {} values for attributes {}.",
+            next.insertions.get(),
+            names);
+      }
+    } finally {
+      loading = null;
+    }
+  }
+
+  private boolean load(Snapshot next) {
+    for (Result result : ResultIterable.resultIterable(catalogFramework, query(next))) {
+      Metacard metacard = result.getMetacard();
+      if (metacard == null) {
+        continue;
+      }
+      for (String attributeName : next.attributeNames) {
+        Attribute attribute = metacard.getAttribute(attributeName);
+        if (attribute != null && attribute.getValues() != null) {
+          for (Serializable value : attribute.getValues()) {
+            if (value != null) {
+              put(next, attributeName, key(attributeName, value));
+            }
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  private QueryRequest query(Snapshot next) {
+    Filter[] filters =
+        next.attributeNames
+            .stream()
+            .map(attributeName -> filterBuilder.attribute(attributeName).is().like().text("*"))
+            .toArray(Filter[]::new);
+    return new QueryRequestImpl(
+        new QueryImpl(
+            filterBuilder.anyOf(filters), 1, PAGE_SIZE, SortBy.NATURAL_ORDER, false, TIMEOUT));
+  }
+
+  private void put(Snapshot target, String attributeName, String key) {
+    if (target != null && target.attributeNames.contains(attributeName)) {
+      long insertions = target.put(key);
+      if (target == snapshot
+          && insertions >= target.capacity
+          && target.rebuildRequested.compareAndSet(false, true)) {
+        LOGGER.debug("The unique attribute index is full. Rebuilding it with more capacity.");
+        scheduleRebuild();
+      }
+    }
+  }
+
+  private void pruneRecentValues(long now) {
+    Iterator<RecentValue> iterator = recentValues.iterator();
+    while (iterator.hasNext() && now - iterator.next().time > RECENT_WINDOW_MILLIS) {
+      iterator.remove();
+    }
+  }
+
+  /**
+   * Values are trimmed, as they are when the validator queries for them, and lower cased, so that a
+   * catalog that matches text without regard to case is never reported as not containing a value.
+   */
+  static String key(String attributeName, Serializable value) {
+    return attributeName + '\u0000' + value.toString().trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static class Snapshot {
+    private final Set<String> attributeNames;
+
+    private final long capacity;
+
+    private final BloomFilter<CharSequence> values;
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final AtomicLong staleCount = new AtomicLong();
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    Snapshot(Set<String> attributeNames, long capacity) {
+      this.attributeNames = attributeNames;
+      this.capacity = capacity;
+      this.values =
+          BloomFilter.create(
+              Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, FALSE_POSITIVE_PROBABILITY);
+    }
+
+    /** @return the approximate number of distinct values in the index */
+    long put(String key) {
+      return values.put(key) ? insertions.incrementAndGet() : insertions.get();
+    }
+
+    boolean mightContain(String key) {
+      return values.mightContain(key);
+    }
+  }
+
+  private static class RecentValue {
+    private final long time;
+
+    private final String attributeName;
+
+    private final String key;
+
+    RecentValue(long time, String attributeName, String key) {
+      this.time = time;
+      this.attributeName = attributeName;
+      this.key = key;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.DeleteResponse;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.plugin.PluginExecutionException;
+import ddf.catalog.plugin.PostIngestPlugin;
+
+/** Keeps the {@link UniqueAttributeIndex} current as metacards are ingested. */
+public class UniqueAttributeIndexPlugin implements PostIngestPlugin {
+
+  private final UniqueAttributeIndex uniqueAttributeIndex;
+
+  public UniqueAttributeIndexPlugin(final UniqueAttributeIndex uniqueAttributeIndex) {
+    this.uniqueAttributeIndex = uniqueAttributeIndex;
+  }
+
+  @Override
+  public CreateResponse process(final CreateResponse input) throws PluginExecutionException {
+    input.getCreatedMetacards().forEach(uniqueAttributeIndex::add);
+    return input;
+  }
+
+  @Override
+  public UpdateResponse process(final UpdateResponse input) throws PluginExecutionException {
+    for (Update update : input.getUpdatedMetacards()) {
+      uniqueAttributeIndex.add(update.getNewMetacard());
+      uniqueAttributeIndex.remove(update.getOldMetacard());
+    }
+    return input;
+  }
+
+  @Override
+  public DeleteResponse process(final DeleteResponse input) throws PluginExecutionException {
+    for (Metacard metacard : input.getDeletedMetacards()) {
+      uniqueAttributeIndex.remove(metacard);
+    }
+    return input;
+  }
+}
@@ -24,6 +24,8 @@
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,6 +46,7 @@
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.report.MetacardValidationReport;
 import ddf.catalog.validation.violation.ValidationViolation;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -244,4 +247,130 @@ public void testValidateMetacardWithMultiValuedAttribute()
               assertThat(violation.getMessage(), containsString(Metacard.TAGS));
             });
   }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidateBatchNullInput() {
+    validator.validateBatch(null);
+  }
+
+  @Test
+  public void testValidateBatchQueriesOnceForAllMetacards() throws Exception {
+    MetacardImpl uniqueMetacard = uniqueMetacard();
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    List<Optional<ValidationException>> results =
+        validator.validateBatch(Arrays.asList(testMetacard, uniqueMetacard, matchingMetacard));
+
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+    assertThat(results, hasSize(3));
+    assertThat(results.get(0).isPresent(), is(true));
+    assertThat(results.get(0).get().getErrors(), hasSize(0));
+    assertThat(results.get(0).get().getWarnings(), hasSize(1));
+    assertThat(results.get(0).get().getWarnings().get(0), containsString(ID));
+    assertThat(results.get(0).get().getWarnings().get(0), containsString(Metacard.CHECKSUM));
+    assertThat(results.get(1).isPresent(), is(false));
+    assertThat(results.get(2).isPresent(), is(false));
+  }
+
+  @Test
+  public void testValidateBatchWithValidationErrorAndWarning() throws Exception {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.TAGS});
+
+    List<Optional<ValidationException>> results =
+        validator.validateBatch(Arrays.asList(testMetacard, uniqueMetacard()));
+
+    verify(mockFramework, times(2)).query(any(QueryRequest.class));
+    assertThat(results.get(0).isPresent(), is(true));
+    assertThat(results.get(0).get().getErrors(), hasSize(1));
+    assertThat(results.get(0).get().getErrors().get(0), containsString(Metacard.TAGS));
+    assertThat(results.get(0).get().getWarnings(), hasSize(1));
+    assertThat(results.get(0).get().getWarnings().get(0), containsString(Metacard.CHECKSUM));
+    assertThat(results.get(1).isPresent(), is(false));
+  }
+
+  @Test
+  public void testValidateBatchMatchesResultsByExactValue() throws Exception {
+    matchingMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "abc"));
+    testMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, " abc "));
+    MetacardImpl upperCaseMetacard = uniqueMetacard();
+    upperCaseMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "ABC"));
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    List<Optional<ValidationException>> results =
+        validator.validateBatch(Arrays.asList(testMetacard, upperCaseMetacard));
+
+    assertThat(results.get(0).isPresent(), is(true));
+    assertThat(results.get(0).get().getWarnings().get(0), containsString(ID));
+    assertThat(results.get(1).isPresent(), is(false));
+  }
+
+  @Test
+  public void testValidateMetacardSkipsQueryWhenIndexRulesOutDuplicates() throws Exception {
+    UniqueAttributeIndex index = mock(UniqueAttributeIndex.class);
+    when(index.isAvailable()).thenReturn(true);
+    validator.setUniqueAttributeIndex(index);
+    validator.setUseIndex(true);
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    Optional<MetacardValidationReport> report = validator.validateMetacard(testMetacard);
+
+    assertThat(report.isPresent(), is(false));
+    verify(mockFramework, never()).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testValidateMetacardQueriesWhenIndexIsNotUsed() throws Exception {
+    UniqueAttributeIndex index = mock(UniqueAttributeIndex.class);
+    when(index.isAvailable()).thenReturn(true);
+    validator.setUniqueAttributeIndex(index);
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    Optional<MetacardValidationReport> report = validator.validateMetacard(testMetacard);
+
+    assertThat(report.isPresent(), is(true));
+    verify(mockFramework).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testValidateBatchOnlyQueriesValuesThatMightBeDuplicates() throws Exception {
+    ArgumentCaptor<String> attributeValueCaptor = ArgumentCaptor.forClass(String.class);
+    when(mockFilterBuilder.attribute(anyString()).equalTo().text(attributeValueCaptor.capture()))
+        .thenReturn(mock(Filter.class));
+    UniqueAttributeIndex index = mock(UniqueAttributeIndex.class);
+    when(index.isAvailable()).thenReturn(true);
+    when(index.mightContain(anyString(), any(Serializable.class))).thenReturn(false);
+    when(index.mightContain(Metacard.CHECKSUM, "checksum-value")).thenReturn(true);
+    validator.setUniqueAttributeIndex(index);
+    validator.setUseIndex(true);
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    List<Optional<ValidationException>> results =
+        validator.validateBatch(Arrays.asList(testMetacard, uniqueMetacard()));
+
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+    assertThat(attributeValueCaptor.getAllValues(), is(Arrays.asList("checksum-value")));
+    assertThat(results.get(0).isPresent(), is(true));
+    assertThat(results.get(1).isPresent(), is(false));
+  }
+
+  @Test
+  public void testIndexIsConfiguredWithAttributes() {
+    UniqueAttributeIndex index = mock(UniqueAttributeIndex.class);
+    validator.setUniqueAttributeIndex(index);
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.TAGS});
+    validator.setUseIndex(true);
+
+    verify(index, times(2))
+        .setAttributeNames(new HashSet<>(Arrays.asList(Metacard.CHECKSUM, Metacard.TAGS)));
+    verify(index).setEnabled(true);
+  }
+
+  private MetacardImpl uniqueMetacard() {
+    MetacardImpl uniqueMetacard = new MetacardImpl();
+    uniqueMetacard.setId("unique metacard ID");
+    uniqueMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "unique-checksum-value"));
+    return uniqueMetacard;
+  }
 }
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.operation.impl.CreateResponseImpl;
+import ddf.catalog.operation.impl.DeleteResponseImpl;
+import ddf.catalog.operation.impl.UpdateImpl;
+import ddf.catalog.operation.impl.UpdateResponseImpl;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UniqueAttributeIndexPluginTest {
+
+  private UniqueAttributeIndex index;
+
+  private UniqueAttributeIndexPlugin plugin;
+
+  @Before
+  public void setUp() {
+    index = mock(UniqueAttributeIndex.class);
+    plugin = new UniqueAttributeIndexPlugin(index);
+  }
+
+  @Test
+  public void testCreatedMetacardsAreAdded() throws Exception {
+    Metacard metacard = new MetacardImpl();
+
+    plugin.process(new CreateResponseImpl(null, null, Collections.singletonList(metacard)));
+
+    verify(index).add(metacard);
+  }
+
+  @Test
+  public void testUpdatedMetacardsAreAddedAndReplacedMetacardsRemoved() throws Exception {
+    Metacard newMetacard = new MetacardImpl();
+    Metacard oldMetacard = new MetacardImpl();
+
+    plugin.process(
+        new UpdateResponseImpl(
+            null, null, Collections.singletonList(new UpdateImpl(newMetacard, oldMetacard))));
+
+    verify(index).add(newMetacard);
+    verify(index).remove(oldMetacard);
+  }
+
+  @Test
+  public void testDeletedMetacardsAreRemoved() throws Exception {
+    Metacard metacard = new MetacardImpl();
+
+    plugin.process(new DeleteResponseImpl(null, null, Collections.singletonList(metacard)));
+
+    verify(index).remove(metacard);
+  }
+}
@@ -0,0 +1,230 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.validator.metacard.duplication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.source.SourceUnavailableException;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.security.Security;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Answers;
+
+public class UniqueAttributeIndexTest {
+
+  private static final String LOADED_CHECKSUM = "loaded-checksum";
+
+  private static final String OTHER_CHECKSUM = "other-checksum";
+
+  private CatalogFramework catalogFramework;
+
+  private ScheduledExecutorService executor;
+
+  private UniqueAttributeIndex index;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    catalogFramework = mock(CatalogFramework.class);
+    QueryResponse response = mock(QueryResponse.class);
+    List<Result> results =
+        Collections.singletonList(new ResultImpl(metacard("1", LOADED_CHECKSUM)));
+    when(response.getResults()).thenReturn(results);
+    when(catalogFramework.query(any(QueryRequest.class))).thenReturn(response);
+
+    Security security = mock(Security.class);
+    when(security.runAsAdmin(any(PrivilegedAction.class)))
+        .thenAnswer(invocation -> ((PrivilegedAction) invocation.getArguments()[0]).run());
+    when(security.runWithSubjectOrElevate(any(Callable.class)))
+        .thenAnswer(invocation -> ((Callable) invocation.getArguments()[0]).call());
+
+    executor = mock(ScheduledExecutorService.class);
+    index =
+        new UniqueAttributeIndex(
+            catalogFramework,
+            mock(FilterBuilder.class, Answers.RETURNS_DEEP_STUBS.get()),
+            security,
+            executor);
+    index.setAttributeNames(Collections.singleton(Metacard.CHECKSUM));
+    index.setEnabled(true);
+  }
+
+  @Test
+  public void testNotAvailableUntilLoaded() {
+    assertThat(index.isAvailable(), is(false));
+    assertThat(index.mightContain(Metacard.CHECKSUM, OTHER_CHECKSUM), is(true));
+
+    index.run();
+
+    assertThat(index.isAvailable(), is(true));
+  }
+
+  @Test
+  public void testLoadedValues() {
+    index.run();
+
+    assertThat(index.mightContain(Metacard.CHECKSUM, LOADED_CHECKSUM), is(true));
+    assertThat(index.mightContain(Metacard.CHECKSUM, " Loaded-Checksum "), is(true));
+    assertThat(index.mightContain(Metacard.CHECKSUM, OTHER_CHECKSUM), is(false));
+  }
+
+  @Test
+  public void testAttributeThatIsNotIndexedMightAlwaysBeContained() {
+    index.run();
+
+    assertThat(index.mightContain(Metacard.TITLE, OTHER_CHECKSUM), is(true));
+  }
+
+  @Test
+  public void testAddedValues() {
+    index.run();
+
+    index.add(metacard("2", OTHER_CHECKSUM));
+
+    assertThat(index.mightContain(Metacard.CHECKSUM, OTHER_CHECKSUM), is(true));
+  }
+
+  @Test
+  public void testRecentlyAddedValuesAreKeptByReload() {
+    index.add(metacard("2", OTHER_CHECKSUM));
+
+    index.run();
+
+    assertThat(index.mightContain(Metacard.CHECKSUM, OTHER_CHECKSUM), is(true));
+  }
+
+  @Test
+  public void testDisabledIndexIsNotLoaded() throws Exception {
+    index.setEnabled(false);
+    index.run();
+
+    assertThat(index.isAvailable(), is(false));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testDisablingDiscardsIndex() {
+    index.run();
+    index.setEnabled(false);
+
+    assertThat(index.isAvailable(), is(false));
+    assertThat(index.mightContain(Metacard.CHECKSUM, OTHER_CHECKSUM), is(true));
+  }
+
+  @Test
+  public void testIndexWithoutAttributesIsNotLoaded() throws Exception {
+    index.setAttributeNames(Collections.emptySet());
+    index.run();
+
+    assertThat(index.isAvailable(), is(false));
+    verify(catalogFramework, never()).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testFailedLoadKeepsPreviousIndex() throws Exception {
+    index.run();
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenThrow(new SourceUnavailableException());
+
+    index.run();
+
+    assertThat(index.isAvailable(), is(true));
+    assertThat(index.mightContain(Metacard.CHECKSUM, LOADED_CHECKSUM), is(true));
+  }
+
+  @Test
+  public void testChangedAttributesAreNotAnsweredUntilReloaded() {
+    index.run();
+    index.setAttributeNames(new HashSet<>(Arrays.asList(Metacard.CHECKSUM, Metacard.TITLE)));
+
+    assertThat(index.mightContain(Metacard.TITLE, OTHER_CHECKSUM), is(true));
+
+    index.run();
+
+    assertThat(index.mightContain(Metacard.TITLE, OTHER_CHECKSUM), is(false));
+  }
+
+  @Test
+  public void testConfigurationSchedulesRefresh() {
+    verify(executor)
+        .scheduleWithFixedDelay(
+            eq(index), anyLong(), eq(TimeUnit.MINUTES.toSeconds(60)), eq(TimeUnit.SECONDS));
+
+    index.setRefreshIntervalMinutes(10);
+
+    verify(executor)
+        .scheduleWithFixedDelay(
+            eq(index), anyLong(), eq(TimeUnit.MINUTES.toSeconds(10)), eq(TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testStaleIndexIsRebuilt() {
+    doReturn(mock(ScheduledFuture.class))
+        .when(executor)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    index.run();
+    Metacard deleted = metacard("1", LOADED_CHECKSUM);
+
+    for (int i = 0; i < 49_999; i++) {
+      index.remove(deleted);
+    }
+    verify(executor, never()).schedule(eq(index), anyLong(), any(TimeUnit.class));
+
+    index.remove(deleted);
+    index.remove(deleted);
+    verify(executor, times(1)).schedule(eq(index), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testDestroyStopsExecutor() {
+    index.destroy();
+
+    verify(executor).shutdownNow();
+  }
+
+  private static Metacard metacard(String id, String checksum) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, checksum));
+    return metacard;
+  }
+}
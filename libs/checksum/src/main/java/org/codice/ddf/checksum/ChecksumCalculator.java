@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.checksum;
+
+/** Calculates a checksum incrementally from chunks of content as they become available. */
+public interface ChecksumCalculator {
+
+  /**
+   * Adds a chunk of content to the checksum.
+   *
+   * @param bytes the buffer holding the chunk
+   * @param offset the offset of the chunk in {@code bytes}
+   * @param length the number of bytes in the chunk
+   */
+  void update(byte[] bytes, int offset, int length);
+
+  /**
+   * Returns the checksum of all the content added so far.
+   *
+   * @return calculated checksum value
+   */
+  String getChecksum();
+}
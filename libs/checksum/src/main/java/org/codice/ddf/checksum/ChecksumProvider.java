@@ -33,4 +33,16 @@ public interface ChecksumProvider {
    * @return checksum algorithm identifier
    */
   String getChecksumAlgorithm();
+
+  /**
+   * Returns a new {@link ChecksumCalculator} that produces the same checksum as {@link
+   * #calculateChecksum(InputStream)} from content handed to it in chunks, so the checksum can be
+   * computed while the content is being read for another purpose.
+   *
+   * @return a new calculator, or {@code null} if this provider cannot calculate checksums
+   *     incrementally
+   */
+  default ChecksumCalculator newChecksumCalculator() {
+    return null;
+  }
 }
@@ -19,6 +19,7 @@
 import java.util.zip.Adler32;
 import java.util.zip.CheckedInputStream;
 import org.codice.ddf.checksum.AbstractChecksumProvider;
+import org.codice.ddf.checksum.ChecksumCalculator;
 
 /**
  * The Adler32 checksum algorithm is nearly as reliable as CRC32 but is significantly faster. For
@@ -51,4 +52,20 @@ public String calculateChecksum(InputStream inputStream)
   public String getChecksumAlgorithm() {
     return DIGEST_ALGORITHM;
   }
+
+  @Override
+  public ChecksumCalculator newChecksumCalculator() {
+    Adler32 adler32 = new Adler32();
+    return new ChecksumCalculator() {
+      @Override
+      public void update(byte[] bytes, int offset, int length) {
+        adler32.update(bytes, offset, length);
+      }
+
+      @Override
+      public String getChecksum() {
+        return Long.toHexString(adler32.getValue());
+      }
+    };
+  }
 }
@@ -16,19 +16,21 @@
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolutionException;
 import ddf.mime.MimeTypeResolver;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.tika.detect.DefaultDetector;
 import org.apache.tika.detect.Detector;
-import org.apache.tika.io.IOUtils;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.mime.MediaType;
-import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +50,8 @@ public class MimeTypeMapperImpl implements MimeTypeMapper {
 
   private static final XMLUtils XML_UTILS = XMLUtils.getInstance();
 
+  private static final int DEFAULT_DETECTION_PREFIX_SIZE = 64 * 1024;
+
   /**
    * The {@link List} of {@link MimeTypeResolver}s configured for this mapper and will be searched
    * on mime type/file extension mapping requests.
@@ -56,6 +60,8 @@ public class MimeTypeMapperImpl implements MimeTypeMapper {
 
   protected MimeTypeResolver mimeTypeResolver;
 
+  private int detectionPrefixSize = DEFAULT_DETECTION_PREFIX_SIZE;
+
   /**
    * Constructs the MimeTypeMapper with a list of {@link MimeTypeResolver}s.
    *
@@ -165,18 +171,17 @@ public String guessMimeType(InputStream is, String fileExtension)
     // from being used when a CustomMimeTypeResolver may be more appropriate.
     List<MimeTypeResolver> sortedResolvers = sortResolvers(mimeTypeResolvers);
 
+    // Detection only ever looks at the start of the content, so read a bounded prefix once
+    // instead of buffering the whole stream
+    byte[] prefix = null;
+
     if (StringUtils.isEmpty(fileExtension)) {
-      try (TemporaryFileBackedOutputStream tfbos = new TemporaryFileBackedOutputStream()) {
-        IOUtils.copy(is, tfbos);
-        try (InputStream inputStream = tfbos.asByteSource().openStream()) {
-          Detector detector = new DefaultDetector();
-          MediaType mediaType = detector.detect(inputStream, new Metadata());
-
-          fileExtension = getFileExtensionForMimeType(mediaType.toString()).replace(".", "");
-        } finally {
-          is = tfbos.asByteSource().openStream();
-        }
+      try {
+        prefix = readPrefix(is);
+        Detector detector = new DefaultDetector();
+        MediaType mediaType = detector.detect(new ByteArrayInputStream(prefix), new Metadata());
 
+        fileExtension = getFileExtensionForMimeType(mediaType.toString()).replace(".", "");
       } catch (Exception e) {
         LOGGER.debug("Failed to guess mimeType for file without extension.");
       }
@@ -187,7 +192,10 @@ public String guessMimeType(InputStream is, String fileExtension)
     String namespace = null;
     if (fileExtension.equals(XML_FILE_EXTENSION)) {
       try {
-        namespace = XML_UTILS.getRootNamespace(IOUtils.toString(is));
+        if (prefix == null) {
+          prefix = readPrefix(is);
+        }
+        namespace = XML_UTILS.getRootNamespace(new String(prefix, Charset.defaultCharset()));
       } catch (IOException ioe) {
         LOGGER.debug("Could not read namespace from input stream.", ioe);
       }
@@ -237,6 +245,26 @@ public String guessMimeType(InputStream is, String fileExtension)
     return mimeType;
   }
 
+  /**
+   * Sets the maximum number of bytes read from the start of the content when guessing its mime
+   * type. The root element of XML content must start within this prefix for its namespace to be
+   * matched against the {@link MimeTypeResolver}s.
+   *
+   * @param detectionPrefixSize the number of bytes to read, must be positive
+   */
+  public void setDetectionPrefixSize(int detectionPrefixSize) {
+    if (detectionPrefixSize <= 0) {
+      throw new IllegalArgumentException("Detection prefix size must be positive");
+    }
+    this.detectionPrefixSize = detectionPrefixSize;
+  }
+
+  private byte[] readPrefix(InputStream is) throws IOException {
+    byte[] buffer = new byte[detectionPrefixSize];
+    int length = IOUtils.read(is, buffer);
+    return Arrays.copyOf(buffer, length);
+  }
+
   /**
    * Sort the list of {@link MimeTypeResolver}s by their descending priority, i.e., the lower the
    * priority the later the {@link MimeTypeResolver} is invoked.
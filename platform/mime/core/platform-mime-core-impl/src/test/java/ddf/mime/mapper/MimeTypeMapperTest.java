@@ -15,16 +15,21 @@
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import ddf.mime.MimeTypeMapper;
 import ddf.mime.MimeTypeResolver;
 import ddf.mime.tika.TikaMimeTypeResolver;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -143,6 +148,28 @@ public void testGuessMimeTypeForXmlIngestNoExtension() throws Exception {
     assertEquals("text/xml", mimeType);
   }
 
+  @Test
+  public void testGuessMimeTypeOnlyReadsPrefix() throws Exception {
+    MimeTypeMapperImpl mapper = new MimeTypeMapperImpl(MOCK_MIME_TYPE_RESOLVERS);
+    mapper.setDetectionPrefixSize(8 * 1024);
+
+    byte[] padding = new byte[1024 * 1024];
+    Arrays.fill(padding, (byte) ' ');
+    CountingInputStream is =
+        new CountingInputStream(
+            new SequenceInputStream(
+                FileUtils.openInputStream(new File(CSW_RECORD_FILE_NO_EXTENSION)),
+                new ByteArrayInputStream(padding)));
+    String mimeType = mapper.guessMimeType(is, "");
+    assertEquals("text/xml;id=csw", mimeType);
+    assertTrue(is.getByteCount() <= 8 * 1024);
+
+    is = new CountingInputStream(FileUtils.openInputStream(new File(CSW_RECORD_FILE)));
+    mimeType = mapper.guessMimeType(is, "xml");
+    assertEquals("text/xml;id=csw", mimeType);
+    assertTrue(is.getByteCount() <= 8 * 1024);
+  }
+
   @Test
   public void testGuessMimeTypeForFileExtension() throws Exception {
     MimeTypeMapper mapper = new MimeTypeMapperImpl(MOCK_MIME_TYPE_RESOLVERS);
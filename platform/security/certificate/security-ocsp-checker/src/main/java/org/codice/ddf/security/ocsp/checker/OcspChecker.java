@@ -32,14 +32,22 @@
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import javax.annotation.Nullable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.Response;
 import org.apache.cxf.jaxrs.client.WebClient;
@@ -70,6 +78,7 @@
 import org.bouncycastle.x509.extension.X509ExtensionUtil;
 import org.codice.ddf.cxf.client.ClientFactoryFactory;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.OcspService;
 import org.codice.ddf.system.alerts.NoticePriority;
 import org.codice.ddf.system.alerts.SystemNotice;
@@ -82,21 +91,35 @@ public class OcspChecker implements OcspService {
   private static final Logger LOGGER = LoggerFactory.getLogger(OcspChecker.class);
   private static final String NOT_VERIFIED_MSG = " The certificate status could not be verified.";
   private static final String CONTINUING_MSG = " Continuing OCSP check.";
+  private static final int MAX_CACHED_STATUSES = 10000;
+  private static final int SHUTDOWN_TIMEOUT_SECONDS = 60;
 
   private final ClientFactoryFactory factory;
   private final EventAdmin eventAdmin;
+  private final ExecutorService requestExecutor;
+
+  // certificate statuses keyed by issuer and serial number
+  private final Map<String, OcspStatus> statusCache = new ConcurrentHashMap<>();
+  private final Map<String, SecureCxfClientFactory> clientFactories = new ConcurrentHashMap<>();
 
   private boolean ocspEnabled; // metatype value
   private List<String> ocspServerUrls = new ArrayList<>(); // metatype value
+  private long statusCacheTtlSeconds = 60; // metatype value
+  private boolean refreshAheadEnabled; // metatype value
 
   public OcspChecker(ClientFactoryFactory factory, EventAdmin eventAdmin) {
     this.factory = factory;
     this.eventAdmin = eventAdmin;
+    this.requestExecutor =
+        Executors.newCachedThreadPool(
+            StandardThreadFactoryBuilder.newThreadFactory("ocspRequestThread"));
   }
 
   /**
    * Checks whether the given {@param certs} are revoked or not against the configured OCSP server
-   * urls + the optionally given OCSP server url in the given {@param certs}.
+   * urls + the optionally given OCSP server url in the given {@param certs}. The servers are
+   * queried in parallel and a definitive status is cached until the {@code nextUpdate} time given
+   * by the server, or for {@code statusCacheTtlSeconds} if the server did not give one.
    *
    * @param certs - an array of certificates to verify.
    * @return true if the certificates are good or if they could not be properly checked against the
@@ -112,19 +135,16 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     LOGGER.debug("OCSP check for {} certificate(s)", certs == null ? "0" : certs.length);
     for (X509Certificate cert : certs) {
       try {
-        Certificate certificate = convertToBouncyCastleCert(cert);
-        OCSPReq ocspRequest = generateOcspRequest(certificate);
-        Map<String, CertificateStatus> ocspStatuses = sendOcspRequests(cert, ocspRequest);
-        String revokedStatusUrl = getFirstRevokedStatusUrl(ocspStatuses);
-        if (revokedStatusUrl != null) {
+        OcspStatus ocspStatus = getOcspStatus(cert);
+        if (ocspStatus.isRevoked()) {
           SecurityLogger.audit(
               "Certificate {} has been revoked by the OCSP server at URL {}.",
               cert,
-              revokedStatusUrl);
+              ocspStatus.getUrl());
           LOGGER.warn(
               "Certificate {} has been revoked by the OCSP server at URL {}.",
               cert,
-              revokedStatusUrl);
+              ocspStatus.getUrl());
           return false;
         }
         LOGGER.debug("No certificates revoked by the OCSP server");
@@ -137,6 +157,89 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     return true;
   }
 
+  /**
+   * Returns the status of the given {@param cert}, from the cache if a definitive status that has
+   * not expired is available. When {@code refreshAheadEnabled} is set, a cached status that is used
+   * in the last fifth of its lifetime is refreshed in the background so frequently used
+   * certificates do not wait on the OCSP servers when it expires.
+   *
+   * @param cert - the {@link X509Certificate} to check.
+   * @return the {@link OcspStatus} of the certificate.
+   * @throws OcspCheckerException if the OCSP request could not be created.
+   */
+  private OcspStatus getOcspStatus(X509Certificate cert) throws OcspCheckerException {
+    String cacheKey = getCacheKey(cert);
+    OcspStatus cachedStatus = statusCache.get(cacheKey);
+    long now = System.currentTimeMillis();
+
+    if (cachedStatus != null && cachedStatus.isValid(now)) {
+      LOGGER.debug("Using cached OCSP status for certificate {}.", cacheKey);
+      if (refreshAheadEnabled && cachedStatus.shouldRefresh(now)) {
+        refreshOcspStatus(cert, cacheKey, cachedStatus);
+      }
+      return cachedStatus;
+    }
+
+    return checkOcspStatus(cert, cacheKey);
+  }
+
+  private OcspStatus checkOcspStatus(X509Certificate cert, String cacheKey)
+      throws OcspCheckerException {
+    Certificate certificate = convertToBouncyCastleCert(cert);
+    OCSPReq ocspRequest = generateOcspRequest(certificate);
+    OcspStatus ocspStatus = combineStatuses(queryOcspServers(cert, ocspRequest, true).values());
+
+    long now = System.currentTimeMillis();
+    if (ocspStatus.isValid(now)) {
+      if (statusCache.size() >= MAX_CACHED_STATUSES) {
+        statusCache.values().removeIf(status -> !status.isValid(now));
+      }
+      if (statusCache.size() < MAX_CACHED_STATUSES) {
+        statusCache.put(cacheKey, ocspStatus);
+      }
+    }
+    return ocspStatus;
+  }
+
+  private void refreshOcspStatus(X509Certificate cert, String cacheKey, OcspStatus cachedStatus) {
+    if (!cachedStatus.startRefresh()) {
+      return;
+    }
+
+    LOGGER.debug("Refreshing cached OCSP status for certificate {}.", cacheKey);
+    requestExecutor.execute(
+        () -> {
+          try {
+            checkOcspStatus(cert, cacheKey);
+          } catch (OcspCheckerException e) {
+            LOGGER.debug("Unable to refresh the OCSP status of certificate {}.", cacheKey, e);
+          }
+        });
+  }
+
+  private static String getCacheKey(X509Certificate cert) {
+    return cert.getIssuerX500Principal().getName() + ":" + cert.getSerialNumber().toString(16);
+  }
+
+  /**
+   * Reduces the statuses returned by each OCSP server to a single status. A revoked status from any
+   * server takes precedence, followed by a good status, which is kept until the earliest time any
+   * server that reported it will have newer information.
+   */
+  private static OcspStatus combineStatuses(Iterable<OcspStatus> ocspStatuses) {
+    OcspStatus goodStatus = null;
+    for (OcspStatus ocspStatus : ocspStatuses) {
+      if (ocspStatus.isRevoked()) {
+        return ocspStatus;
+      }
+      if (ocspStatus.isGood()
+          && (goodStatus == null || ocspStatus.getExpiresAt() < goodStatus.getExpiresAt())) {
+        goodStatus = ocspStatus;
+      }
+    }
+    return goodStatus != null ? goodStatus : OcspStatus.unknown(null);
+  }
+
   /**
    * Converts a {@link java.security.cert.X509Certificate} to a {@link Certificate}.
    *
@@ -281,6 +384,25 @@ private X509CertificateHolder getCertFromTruststoreWithX500Name(
    */
   @VisibleForTesting
   Map<String, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspRequest) {
+    Map<String, CertificateStatus> ocspStatuses = new HashMap<>();
+    queryOcspServers(cert, ocspRequest, false)
+        .forEach((url, ocspStatus) -> ocspStatuses.put(url, ocspStatus.getStatus()));
+    return ocspStatuses;
+  }
+
+  /**
+   * Sends the {@param ocspRequest} to every OCSP server in parallel.
+   *
+   * @param cert - the {@link X509Certificate} to check.
+   * @param ocspRequest - the {@link OCSPReq} to send.
+   * @param stopOnRevoked - whether to stop waiting for the remaining servers once one of them has
+   *     reported the certificate as revoked.
+   * @return a {@link Map} of OCSP server urls to the {@link OcspStatus} they returned. Servers that
+   *     could not be reached or did not answer before the check stopped are given an unknown
+   *     status.
+   */
+  private Map<String, OcspStatus> queryOcspServers(
+      X509Certificate cert, OCSPReq ocspRequest, boolean stopOnRevoked) {
     Set<String> urlsToCheck = new HashSet<>();
     if (ocspServerUrls != null) {
       urlsToCheck.addAll(ocspServerUrls);
@@ -293,42 +415,78 @@ Map<String, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq oc
       logRequest(ocspRequest);
     }
 
-    Map<String, CertificateStatus> ocspStatuses = new HashMap<>();
-
+    CompletionService<OcspStatus> completionService =
+        new ExecutorCompletionService<>(requestExecutor);
+    List<Future<OcspStatus>> futures = new ArrayList<>();
     for (String ocspServerUrl : urlsToCheck) {
-      if (isNotBlank(ocspServerUrl)) {
+      futures.add(
+          completionService.submit(() -> sendOcspRequest(ocspServerUrl, cert, ocspRequest)));
+    }
+
+    Map<String, OcspStatus> ocspStatuses = new HashMap<>();
+    try {
+      for (int i = 0; i < futures.size(); i++) {
         try {
-          SecureCxfClientFactory cxfClientFactory =
-              factory.getSecureCxfClientFactory(ocspServerUrl, WebClient.class);
-          WebClient client =
-              cxfClientFactory
-                  .getWebClient()
-                  .accept("application/ocsp-response")
-                  .type("application/ocsp-request");
-
-          LOGGER.debug("Sending OCSP request to URL: {}", ocspServerUrl);
-          Response response = client.post(ocspRequest.getEncoded());
-          OCSPResp ocspResponse = createOcspResponse(response);
-          if (LOGGER.isTraceEnabled()) {
-            logResponse(ocspResponse);
+          OcspStatus ocspStatus = completionService.take().get();
+          ocspStatuses.put(ocspStatus.getUrl(), ocspStatus);
+          if (stopOnRevoked && ocspStatus.isRevoked()) {
+            break;
           }
-          ocspStatuses.put(ocspServerUrl, getStatusFromOcspResponse(ocspResponse, cert));
-          continue;
-        } catch (IOException | OcspCheckerException | ProcessingException e) {
-          LOGGER.debug(
-              "Problem with the response from the OCSP Server at URL {}." + CONTINUING_MSG,
-              ocspServerUrl,
-              e);
+        } catch (ExecutionException e) {
+          LOGGER.debug("Problem sending the OCSP request." + CONTINUING_MSG, e);
         }
       }
-      ocspStatuses.put(
-          ocspServerUrl,
-          new UnknownStatus()); // if ocspServerUrl is null or if there was an exception
+    } catch (InterruptedException e) {
+      LOGGER.debug("Interrupted while waiting for the OCSP servers." + CONTINUING_MSG, e);
+      Thread.currentThread().interrupt();
+    } finally {
+      futures.forEach(future -> future.cancel(true));
     }
 
+    // if there was an exception or the check stopped before the server answered
+    urlsToCheck.forEach(url -> ocspStatuses.putIfAbsent(url, OcspStatus.unknown(url)));
     return ocspStatuses;
   }
 
+  private OcspStatus sendOcspRequest(
+      String ocspServerUrl, X509Certificate cert, OCSPReq ocspRequest) {
+    if (isNotBlank(ocspServerUrl)) {
+      try {
+        WebClient client =
+            getClientFactory(ocspServerUrl)
+                .getWebClient()
+                .accept("application/ocsp-response")
+                .type("application/ocsp-request");
+
+        LOGGER.debug("Sending OCSP request to URL: {}", ocspServerUrl);
+        Response response = client.post(ocspRequest.getEncoded());
+        OCSPResp ocspResponse = createOcspResponse(response);
+        if (LOGGER.isTraceEnabled()) {
+          logResponse(ocspResponse);
+        }
+        return getStatusFromOcspResponse(ocspServerUrl, ocspResponse, cert);
+      } catch (IOException | OcspCheckerException | ProcessingException e) {
+        LOGGER.debug(
+            "Problem with the response from the OCSP Server at URL {}." + CONTINUING_MSG,
+            ocspServerUrl,
+            e);
+      }
+    }
+    // if ocspServerUrl is null or if there was an exception
+    return OcspStatus.unknown(ocspServerUrl);
+  }
+
+  private SecureCxfClientFactory getClientFactory(String ocspServerUrl) {
+    SecureCxfClientFactory clientFactory = clientFactories.get(ocspServerUrl);
+    if (clientFactory == null) {
+      clientFactory = factory.getSecureCxfClientFactory(ocspServerUrl, WebClient.class);
+      if (clientFactory != null) {
+        clientFactories.put(ocspServerUrl, clientFactory);
+      }
+    }
+    return clientFactory;
+  }
+
   /**
    * Attempts to grab additional OCSP server urls off of the given {@param cert}.
    *
@@ -388,24 +546,25 @@ private OCSPResp createOcspResponse(Response response) throws OcspCheckerExcepti
   }
 
   /**
-   * Gets the {@link CertificateStatus} from the given {@param ocspResponse}.
+   * Gets the {@link OcspStatus} from the given {@param ocspResponse}.
    *
+   * @param ocspServerUrl - the url of the OCSP server that sent the response.
    * @param ocspResponse - the {@link OCSPResp} to get the {@link CertificateStatus} from.
-   * @return the {@link CertificateStatus} from the given {@param ocspResponse}. Returns an {@link
+   * @return the {@link OcspStatus} from the given {@param ocspResponse}. Returns an {@link
    *     UnknownStatus} if the status could not be found.
    */
-  private CertificateStatus getStatusFromOcspResponse(
-      OCSPResp ocspResponse, X509Certificate certificate) {
+  private OcspStatus getStatusFromOcspResponse(
+      String ocspServerUrl, OCSPResp ocspResponse, X509Certificate certificate) {
     try {
       BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
 
       if (basicResponse == null) {
-        return new UnknownStatus();
+        return OcspStatus.unknown(ocspServerUrl);
       }
 
       SingleResp[] singleResps = basicResponse.getResponses();
       if (singleResps == null) {
-        return new UnknownStatus();
+        return OcspStatus.unknown(ocspServerUrl);
       }
       SingleResp response =
           Arrays.stream(singleResps)
@@ -420,33 +579,28 @@ private CertificateStatus getStatusFromOcspResponse(
               .orElse(null);
       if (response == null) {
         LOGGER.debug("Certificate status from OCSP response is unknown.");
-        return new UnknownStatus();
+        return OcspStatus.unknown(ocspServerUrl);
       }
       if (response.getCertStatus() == null) {
         LOGGER.debug("Certificate status from OCSP response is good.");
-        return CertificateStatus.GOOD;
       }
-      return response.getCertStatus();
+      return new OcspStatus(ocspServerUrl, response.getCertStatus(), getExpiry(response));
     } catch (OCSPException e) {
-      return new UnknownStatus();
+      return OcspStatus.unknown(ocspServerUrl);
     }
   }
 
   /**
-   * Check if any {@link CertificateStatus} in the given {@param ocspStatuses} are revoked.
-   *
-   * @param ocspStatuses - a {@link Map} of OCSP URLs and their respective {@link
-   *     CertificateStatus}.
-   * @return the URL of the first revoked status, or null if no revoked status was found.
+   * Returns the time until which the status in the given {@param response} may be cached. A server
+   * that gives no {@code nextUpdate} time always has newer information available, so its status is
+   * only kept for {@code statusCacheTtlSeconds}.
    */
-  private @Nullable String getFirstRevokedStatusUrl(Map<String, CertificateStatus> ocspStatuses) {
-    return ocspStatuses
-        .entrySet()
-        .stream()
-        .filter(entry -> entry.getValue() instanceof RevokedStatus)
-        .map(Entry::getKey)
-        .findFirst()
-        .orElse(null);
+  private long getExpiry(SingleResp response) {
+    Date nextUpdate = response.getNextUpdate();
+    if (nextUpdate != null) {
+      return nextUpdate.getTime();
+    }
+    return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(statusCacheTtlSeconds);
   }
 
   /**
@@ -663,6 +817,88 @@ public void setOcspEnabled(boolean ocspEnabled) {
 
   public void setOcspServerUrls(List<String> ocspServerUrls) {
     this.ocspServerUrls = ocspServerUrls;
+    statusCache.clear();
+    clientFactories.clear();
+  }
+
+  public void setStatusCacheTtlSeconds(long statusCacheTtlSeconds) {
+    this.statusCacheTtlSeconds = statusCacheTtlSeconds;
+  }
+
+  public void setRefreshAheadEnabled(boolean refreshAheadEnabled) {
+    this.refreshAheadEnabled = refreshAheadEnabled;
+  }
+
+  /** Destroy method to shutdown the threads sending OCSP requests. */
+  public void destroy() {
+    requestExecutor.shutdown();
+    try {
+      if (!requestExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        requestExecutor.shutdownNow();
+        if (!requestExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          LOGGER.error("OCSP request threads were unable to terminate successfully.");
+        }
+      }
+    } catch (InterruptedException e) {
+      requestExecutor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The status of a certificate reported by an OCSP server, along with the time until which it can
+   * be reused.
+   */
+  private static class OcspStatus {
+    private final String url;
+    private final CertificateStatus status;
+    private final long receivedAt;
+    private final long expiresAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    OcspStatus(String url, CertificateStatus status, long expiresAt) {
+      this.url = url;
+      this.status = status;
+      this.receivedAt = System.currentTimeMillis();
+      this.expiresAt = expiresAt;
+    }
+
+    static OcspStatus unknown(String url) {
+      return new OcspStatus(url, new UnknownStatus(), 0);
+    }
+
+    String getUrl() {
+      return url;
+    }
+
+    CertificateStatus getStatus() {
+      return status;
+    }
+
+    long getExpiresAt() {
+      return expiresAt;
+    }
+
+    boolean isGood() {
+      return status == CertificateStatus.GOOD;
+    }
+
+    boolean isRevoked() {
+      return status instanceof RevokedStatus;
+    }
+
+    /** Only good and revoked statuses are definitive enough to be reused. */
+    boolean isValid(long now) {
+      return (isGood() || isRevoked()) && now < expiresAt;
+    }
+
+    boolean shouldRefresh(long now) {
+      return now >= expiresAt - (expiresAt - receivedAt) / 5;
+    }
+
+    boolean startRefresh() {
+      return refreshing.compareAndSet(false, true);
+    }
   }
 
   /**
@@ -24,6 +24,9 @@
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.security.SecurityConstants;
@@ -34,6 +37,9 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.security.auth.x500.X500Principal;
 import javax.ws.rs.core.Response;
 import org.apache.cxf.jaxrs.client.WebClient;
@@ -599,6 +605,126 @@ public void testOcspCheckBrokenServerUrls() {
     assertThat(ocspChecker.passesOcspCheck(certs), is(true));
   }
 
+  @Test
+  public void testOcspCheckQueriesServersInParallel() {
+    goodEndpoints.add("https://goodurl:8993");
+    goodEndpoints.add("https://goodurl2:8993");
+    brokenEndpoints.add(EMBEDDED_OCSP_SERVER_URL);
+
+    // each request only completes once both have been sent
+    CountDownLatch requestsSent = new CountDownLatch(goodEndpoints.size());
+    AtomicInteger concurrentRequests = new AtomicInteger();
+    when(goodWebClient.post(any()))
+        .then(
+            invocation -> {
+              requestsSent.countDown();
+              if (requestsSent.await(5, TimeUnit.SECONDS)) {
+                concurrentRequests.incrementAndGet();
+              }
+              return goodResponse;
+            });
+
+    ClientFactoryFactory clientFactoryFactory = mockClientFactory();
+    OcspChecker ocspChecker = new OcspChecker(clientFactoryFactory, eventAdmin);
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(new ArrayList<>(goodEndpoints));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(concurrentRequests.get(), is(2));
+  }
+
+  @Test
+  public void testOcspCheckCachesGoodStatus() {
+    goodEndpoints.add("https://goodurl:8993");
+    brokenEndpoints.add(EMBEDDED_OCSP_SERVER_URL);
+
+    ClientFactoryFactory clientFactoryFactory = mockClientFactory();
+    OcspChecker ocspChecker = new OcspChecker(clientFactoryFactory, eventAdmin);
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(new ArrayList<>(goodEndpoints));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    verify(goodWebClient, times(1)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckCachesRevokedStatus() {
+    revokedEndpoints.add("https://revokedurl:8993");
+    brokenEndpoints.add(EMBEDDED_OCSP_SERVER_URL);
+
+    ClientFactoryFactory clientFactoryFactory = mockClientFactory();
+    OcspChecker ocspChecker = new OcspChecker(clientFactoryFactory, eventAdmin);
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(new ArrayList<>(revokedEndpoints));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(false));
+    verify(revokedWebClient, times(1)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckDoesNotCacheUnknownStatus() {
+    unknownEndpoints.add("https://unknownurl:8993");
+    brokenEndpoints.add(EMBEDDED_OCSP_SERVER_URL);
+
+    ClientFactoryFactory clientFactoryFactory = mockClientFactory();
+    OcspChecker ocspChecker = new OcspChecker(clientFactoryFactory, eventAdmin);
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(new ArrayList<>(unknownEndpoints));
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    verify(unknownWebClient, times(2)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckCachedStatusExpires() {
+    goodEndpoints.add("https://goodurl:8993");
+    brokenEndpoints.add(EMBEDDED_OCSP_SERVER_URL);
+
+    ClientFactoryFactory clientFactoryFactory = mockClientFactory();
+    OcspChecker ocspChecker = new OcspChecker(clientFactoryFactory, eventAdmin);
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(new ArrayList<>(goodEndpoints));
+    ocspChecker.setStatusCacheTtlSeconds(0);
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    verify(goodWebClient, times(2)).post(any());
+  }
+
+  @Test
+  public void testOcspCheckRefreshesStatusAhead() throws Exception {
+    goodEndpoints.add("https://goodurl:8993");
+    brokenEndpoints.add(EMBEDDED_OCSP_SERVER_URL);
+
+    ClientFactoryFactory clientFactoryFactory = mockClientFactory();
+    OcspChecker ocspChecker = new OcspChecker(clientFactoryFactory, eventAdmin);
+    ocspChecker.setOcspEnabled(true);
+    ocspChecker.setOcspServerUrls(new ArrayList<>(goodEndpoints));
+    ocspChecker.setStatusCacheTtlSeconds(2);
+    ocspChecker.setRefreshAheadEnabled(true);
+
+    X509Certificate[] certs = new X509Certificate[] {trustedCertX509};
+
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    // the cached status is used within the last fifth of its lifetime
+    Thread.sleep(1800);
+    assertThat(ocspChecker.passesOcspCheck(certs), is(true));
+    verify(goodWebClient, timeout(5000).times(2)).post(any());
+  }
+
   @Test
   public void testOcspCheckDisabled() throws Exception {
     ClientFactoryFactory clientFactoryFactory = mockClientFactory();
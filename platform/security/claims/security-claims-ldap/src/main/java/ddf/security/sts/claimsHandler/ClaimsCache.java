@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.sts.claimsHandler;
+
+import ddf.security.claims.Claim;
+import ddf.security.claims.ClaimsCollection;
+import ddf.security.claims.impl.ClaimImpl;
+import ddf.security.claims.impl.ClaimsCollectionImpl;
+import java.lang.management.ManagementFactory;
+import java.security.Principal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the claims looked up for each principal for a limited time so that repeated logins and
+ * token requests for the same user do not each search LDAP. Principals without any claims are kept
+ * for a separate, usually shorter, time. Once the cache holds {@code maxSize} principals the least
+ * recently used one is evicted.
+ *
+ * <p>Only complete lookups should be cached: a lookup that failed because LDAP could not be reached
+ * must not be stored as a principal without claims.
+ */
+public class ClaimsCache implements ClaimsCacheMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClaimsCache.class);
+
+  private final long ttlMillis;
+
+  private final long negativeTtlMillis;
+
+  private final Map<String, CachedClaims> entries;
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  private final AtomicLong lookupCount = new AtomicLong();
+
+  private final AtomicLong lookupNanos = new AtomicLong();
+
+  private ObjectName objectName;
+
+  /**
+   * @param ttlSeconds how long claims are kept for a principal, 0 to not cache them
+   * @param negativeTtlSeconds how long a principal without any claims is kept, 0 to not cache it
+   * @param maxSize maximum number of principals kept
+   */
+  public ClaimsCache(long ttlSeconds, long negativeTtlSeconds, final int maxSize) {
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, ttlSeconds));
+    this.negativeTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(0, negativeTtlSeconds));
+    this.entries =
+        new LinkedHashMap<String, CachedClaims>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  /** @return a cache that never keeps any claims but still records lookup statistics */
+  public static ClaimsCache disabled() {
+    return new ClaimsCache(0, 0, 0);
+  }
+
+  /**
+   * @param principal principal to get the claims of
+   * @return a copy of the cached claims, or null if none are cached or they have expired
+   */
+  public ClaimsCollection get(Principal principal) {
+    String key = getKey(principal);
+    CachedClaims cachedClaims;
+    synchronized (entries) {
+      cachedClaims = entries.get(key);
+      if (cachedClaims != null && cachedClaims.expiresAt <= System.currentTimeMillis()) {
+        entries.remove(key);
+        cachedClaims = null;
+      }
+    }
+
+    if (cachedClaims == null) {
+      missCount.incrementAndGet();
+      return null;
+    }
+    hitCount.incrementAndGet();
+    return copy(cachedClaims.claims);
+  }
+
+  /**
+   * Caches a copy of the claims of a principal, replacing any that were cached.
+   *
+   * @param principal principal the claims were looked up for
+   * @param claims complete set of claims of the principal
+   */
+  public void put(Principal principal, ClaimsCollection claims) {
+    long ttl = claims.isEmpty() ? negativeTtlMillis : ttlMillis;
+    if (ttl <= 0) {
+      return;
+    }
+
+    CachedClaims cachedClaims = new CachedClaims(copy(claims), System.currentTimeMillis() + ttl);
+    synchronized (entries) {
+      entries.put(getKey(principal), cachedClaims);
+    }
+  }
+
+  /** @param nanos time taken by an LDAP lookup */
+  public void recordLookup(long nanos) {
+    lookupCount.incrementAndGet();
+    lookupNanos.addAndGet(nanos);
+  }
+
+  /**
+   * Registers this cache's statistics as an MBean, replacing any registered with the same name.
+   *
+   * @param name name identifying the claims handler using this cache
+   */
+  public void registerMBean(String name) {
+    try {
+      objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+      MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+      try {
+        mbeanServer.registerMBean(new StandardMBean(this, ClaimsCacheMBean.class), objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        LOGGER.debug("Re-registering claims cache MBean {}", objectName);
+        mbeanServer.unregisterMBean(objectName);
+        mbeanServer.registerMBean(new StandardMBean(this, ClaimsCacheMBean.class), objectName);
+      }
+    } catch (Exception e) {
+      LOGGER.debug("Could not register claims cache MBean.", e);
+    }
+  }
+
+  /** Unregisters this cache's statistics MBean if it was registered. */
+  public void unregisterMBean() {
+    if (objectName == null) {
+      return;
+    }
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (InstanceNotFoundException e) {
+      LOGGER.debug("Claims cache MBean {} was not registered.", objectName, e);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister claims cache MBean.", e);
+    }
+    objectName = null;
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hits = hitCount.get();
+    long total = hits + missCount.get();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public int getSize() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @Override
+  public long getLdapLookupCount() {
+    return lookupCount.get();
+  }
+
+  @Override
+  public double getAverageLdapLookupMillis() {
+    long lookups = lookupCount.get();
+    if (lookups == 0) {
+      return 0;
+    }
+    return lookupNanos.get() / (double) lookups / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  private static String getKey(Principal principal) {
+    return principal.getClass().getName() + ":" + principal.getName();
+  }
+
+  private static ClaimsCollection copy(ClaimsCollection claims) {
+    ClaimsCollection copy = new ClaimsCollectionImpl();
+    for (Claim claim : claims) {
+      Claim claimCopy = new ClaimImpl(claim.getName());
+      claim.getValues().forEach(claimCopy::addValue);
+      copy.add(claimCopy);
+    }
+    return copy;
+  }
+
+  private static class CachedClaims {
+    private final ClaimsCollection claims;
+
+    private final long expiresAt;
+
+    CachedClaims(ClaimsCollection claims, long expiresAt) {
+      this.claims = claims;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.sts.claimsHandler;
+
+/** Reports how often claims are served from a {@link ClaimsCache} and how long LDAP lookups take. */
+public interface ClaimsCacheMBean {
+
+  String OBJECT_NAME_PREFIX = "ddf.security.sts.claimsHandler:type=ClaimsCache,name=";
+
+  /** @return number of claim requests answered from the cache */
+  long getHitCount();
+
+  /** @return number of claim requests that had to be looked up in LDAP */
+  long getMissCount();
+
+  /** @return fraction of claim requests answered from the cache, or 0 if there were none */
+  double getHitRatio();
+
+  /** @return number of principals currently cached */
+  int getSize();
+
+  /** @return number of LDAP lookups performed */
+  long getLdapLookupCount();
+
+  /** @return average time in milliseconds taken by an LDAP lookup, or 0 if there were none */
+  double getAverageLdapLookupMillis();
+
+  /** Removes every cached entry so that the next request for each principal goes to LDAP. */
+  void clear();
+}
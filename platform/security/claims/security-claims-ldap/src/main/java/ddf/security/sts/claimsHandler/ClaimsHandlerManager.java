@@ -30,6 +30,8 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
@@ -42,6 +44,7 @@
 import org.forgerock.opendj.ldap.LDAPUrl;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.util.Options;
+import org.forgerock.util.time.Duration;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
@@ -86,16 +89,56 @@ public class ClaimsHandlerManager {
 
   public static final String PROPERTY_FILE_LOCATION = "propertyFileLocation";
 
+  public static final String MIN_CONNECTIONS = "minConnections";
+
+  public static final String MAX_CONNECTIONS = "maxConnections";
+
+  public static final String HEALTH_CHECK_INTERVAL = "healthCheckIntervalSeconds";
+
+  public static final String CLAIMS_CACHE_TTL = "claimsCacheTtlSeconds";
+
+  public static final String CLAIMS_CACHE_NEGATIVE_TTL = "claimsCacheNegativeTtlSeconds";
+
+  public static final String CLAIMS_CACHE_SIZE = "claimsCacheSize";
+
   private static final Logger LOGGER = LoggerFactory.getLogger(ClaimsHandlerManager.class);
 
   private static final String PROTOCOL = "TLS";
 
+  private static final int DEFAULT_MIN_CONNECTIONS = 1;
+
+  private static final int DEFAULT_MAX_CONNECTIONS = 10;
+
+  private static final int DEFAULT_HEALTH_CHECK_INTERVAL = 60;
+
+  private static final int DEFAULT_CLAIMS_CACHE_TTL = 60;
+
+  private static final int DEFAULT_CLAIMS_CACHE_NEGATIVE_TTL = 10;
+
+  private static final int DEFAULT_CLAIMS_CACHE_SIZE = 1000;
+
+  private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 300;
+
+  private static final long HEALTH_CHECK_TIMEOUT_SECONDS = 30;
+
+  private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+
+  private final int instanceId = INSTANCE_COUNT.incrementAndGet();
+
   private EncryptionService encryptService;
 
   private ServiceRegistration<ClaimsHandler> roleHandlerRegistration = null;
 
   private ServiceRegistration<ClaimsHandler> ldapHandlerRegistration = null;
 
+  private ConnectionFactory roleConnectionFactory;
+
+  private ConnectionFactory ldapConnectionFactory;
+
+  private ClaimsCache roleClaimsCache;
+
+  private ClaimsCache ldapClaimsCache;
+
   private Map<String, Object> ldapProperties = new HashMap<>();
 
   /**
@@ -161,16 +204,43 @@ public void update(Map<String, Object> props) {
     if (overrideCertDn == null) {
       overrideCertDn = false;
     }
+    int minConnections = getInt(props, MIN_CONNECTIONS, DEFAULT_MIN_CONNECTIONS);
+    int maxConnections = getInt(props, MAX_CONNECTIONS, DEFAULT_MAX_CONNECTIONS);
+    int healthCheckInterval = getInt(props, HEALTH_CHECK_INTERVAL, DEFAULT_HEALTH_CHECK_INTERVAL);
+    int cacheTtl = getInt(props, CLAIMS_CACHE_TTL, DEFAULT_CLAIMS_CACHE_TTL);
+    int cacheNegativeTtl =
+        getInt(props, CLAIMS_CACHE_NEGATIVE_TTL, DEFAULT_CLAIMS_CACHE_NEGATIVE_TTL);
+    int cacheSize = getInt(props, CLAIMS_CACHE_SIZE, DEFAULT_CLAIMS_CACHE_SIZE);
+    ConnectionFactory roleConnection = null;
+    ConnectionFactory ldapConnection = null;
     try {
       if (encryptService != null) {
         password = encryptService.decryptValue(password);
       }
-      ConnectionFactory connection1 =
-          createConnectionFactory(urls, startTls, loadBalancingAlgorithm);
-      ConnectionFactory connection2 =
-          createConnectionFactory(urls, startTls, loadBalancingAlgorithm);
+      roleConnection =
+          createConnectionFactory(
+              urls,
+              startTls,
+              loadBalancingAlgorithm,
+              minConnections,
+              maxConnections,
+              healthCheckInterval);
+      ldapConnection =
+          createConnectionFactory(
+              urls,
+              startTls,
+              loadBalancingAlgorithm,
+              minConnections,
+              maxConnections,
+              healthCheckInterval);
+      unregisterClaimsCaches();
+      roleClaimsCache = new ClaimsCache(cacheTtl, cacheNegativeTtl, cacheSize);
+      roleClaimsCache.registerMBean("RoleClaimsHandler-" + instanceId);
+      ldapClaimsCache = new ClaimsCache(cacheTtl, cacheNegativeTtl, cacheSize);
+      ldapClaimsCache.registerMBean("LdapClaimsHandler-" + instanceId);
       registerRoleClaimsHandler(
-          connection1,
+          roleConnection,
+          roleClaimsCache,
           propertyFileLocation,
           userBaseDn,
           loginUserAttribute,
@@ -184,8 +254,12 @@ public void update(Map<String, Object> props) {
           bindMethod,
           realm,
           kdcAddress);
+      // the previous handler has been unregistered, so its pooled connections can be closed
+      closeConnectionFactory(roleConnectionFactory);
+      roleConnectionFactory = roleConnection;
       registerLdapClaimsHandler(
-          connection2,
+          ldapConnection,
+          ldapClaimsCache,
           propertyFileLocation,
           userBaseDn,
           loginUserAttribute,
@@ -195,11 +269,19 @@ public void update(Map<String, Object> props) {
           bindMethod,
           realm,
           kdcAddress);
+      closeConnectionFactory(ldapConnectionFactory);
+      ldapConnectionFactory = ldapConnection;
 
     } catch (Exception e) {
       LOGGER.warn(
           "Experienced error while configuring claims handlers. Handlers are NOT configured and claim retrieval will not work. Check LDAP configuration.",
           e);
+      if (roleConnection != roleConnectionFactory) {
+        closeConnectionFactory(roleConnection);
+      }
+      if (ldapConnection != ldapConnectionFactory) {
+        closeConnectionFactory(ldapConnection);
+      }
     }
   }
 
@@ -215,27 +297,95 @@ private List<String> getUrls(Map<String, Object> props, String key) {
     return urls;
   }
 
-  public void destroy() {}
+  private int getInt(Map<String, Object> props, String key, int defaultValue) {
+    Object value = props.get(key);
+    if (value instanceof Number) {
+      return ((Number) value).intValue();
+    } else if (value instanceof String && StringUtils.isNotBlank((String) value)) {
+      try {
+        return Integer.parseInt(((String) value).trim());
+      } catch (NumberFormatException e) {
+        LOGGER.debug("Invalid value {} for {}, using {}.", value, key, defaultValue, e);
+      }
+    }
+    return defaultValue;
+  }
+
+  public void destroy() {
+    unregisterClaimsHandler(roleHandlerRegistration);
+    roleHandlerRegistration = null;
+    unregisterClaimsHandler(ldapHandlerRegistration);
+    ldapHandlerRegistration = null;
+    closeConnectionFactory(roleConnectionFactory);
+    roleConnectionFactory = null;
+    closeConnectionFactory(ldapConnectionFactory);
+    ldapConnectionFactory = null;
+    unregisterClaimsCaches();
+  }
+
+  /** Closes the connection pool of a handler, along with its heartbeats and open connections. */
+  private void closeConnectionFactory(ConnectionFactory connectionFactory) {
+    if (connectionFactory != null) {
+      connectionFactory.close();
+    }
+  }
+
+  private void unregisterClaimsCaches() {
+    if (roleClaimsCache != null) {
+      roleClaimsCache.unregisterMBean();
+    }
+    if (ldapClaimsCache != null) {
+      ldapClaimsCache.unregisterMBean();
+    }
+  }
 
+  /**
+   * Creates a connection factory that balances connections across the given LDAP servers. When
+   * {@param maxConnections} is positive, connections are kept open in a pool and reused between
+   * claim lookups.
+   */
   protected ConnectionFactory createConnectionFactory(
-      List<String> urls, Boolean startTls, String loadBalancingAlgorithm) throws LdapException {
+      List<String> urls,
+      Boolean startTls,
+      String loadBalancingAlgorithm,
+      int minConnections,
+      int maxConnections,
+      int healthCheckInterval)
+      throws LdapException {
     List<ConnectionFactory> connectionFactories = new ArrayList<>();
 
     for (String singleUrl : urls) {
       connectionFactories.add(
-          createLdapConnectionFactory(new PropertyResolver(singleUrl).toString(), startTls));
+          createLdapConnectionFactory(
+              new PropertyResolver(singleUrl).toString(), startTls, healthCheckInterval));
     }
 
     Options options = Options.defaultOptions();
+    ConnectionFactory loadBalancer;
     if (FAILOVER.equalsIgnoreCase(loadBalancingAlgorithm)) {
-      return Connections.newFailoverLoadBalancer(connectionFactories, options);
+      loadBalancer = Connections.newFailoverLoadBalancer(connectionFactories, options);
     } else {
-      return Connections.newRoundRobinLoadBalancer(connectionFactories, options);
+      loadBalancer = Connections.newRoundRobinLoadBalancer(connectionFactories, options);
     }
+
+    if (maxConnections <= 0) {
+      return loadBalancer;
+    }
+    return Connections.newCachedConnectionPool(
+        loadBalancer,
+        Math.max(0, Math.min(minConnections, maxConnections)),
+        maxConnections,
+        IDLE_CONNECTION_TIMEOUT_SECONDS,
+        TimeUnit.SECONDS);
   }
 
-  protected LDAPConnectionFactory createLdapConnectionFactory(String url, Boolean startTls)
-      throws LdapException {
+  /**
+   * Creates a connection factory for a single LDAP server. When {@param healthCheckInterval} is
+   * positive, idle connections send a heartbeat every {@param healthCheckInterval} seconds so
+   * broken connections are discarded and unavailable servers are taken out of the load balancer.
+   */
+  protected LDAPConnectionFactory createLdapConnectionFactory(
+      String url, Boolean startTls, int healthCheckInterval) throws LdapException {
     boolean useSsl = url.startsWith("ldaps");
     boolean useTls = !url.startsWith("ldaps") && startTls;
 
@@ -248,6 +398,16 @@ protected LDAPConnectionFactory createLdapConnectionFactory(String url, Boolean
       LOGGER.info("Error encountered while configuring SSL. Secure connection will fail.", e);
     }
 
+    if (healthCheckInterval > 0) {
+      lo.set(LDAPConnectionFactory.HEARTBEAT_ENABLED, true);
+      lo.set(
+          LDAPConnectionFactory.HEARTBEAT_INTERVAL,
+          new Duration((long) healthCheckInterval, TimeUnit.SECONDS));
+      lo.set(
+          LDAPConnectionFactory.HEARTBEAT_TIMEOUT,
+          new Duration(HEALTH_CHECK_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
     lo.set(LDAPConnectionFactory.SSL_USE_STARTTLS, useTls);
     lo.set(
         LDAPConnectionFactory.SSL_ENABLED_CIPHER_SUITES,
@@ -286,6 +446,7 @@ private void auditRemoteConnection(String host) {
    * Registers a new Role-based ClaimsHandler.
    *
    * @param connection LdapTemplate used to query ldap for the roles.
+   * @param claimsCache Cache of the roles looked up for each user.
    * @param propertyFileLoc File location of the property file.
    * @param userBaseDn Base DN to determine the roles.
    * @param loginUserAttribute Identifier that defines the user.
@@ -293,6 +454,7 @@ private void auditRemoteConnection(String host) {
    */
   private void registerRoleClaimsHandler(
       ConnectionFactory connection,
+      ClaimsCache claimsCache,
       String propertyFileLoc,
       String userBaseDn,
       String loginUserAttribute,
@@ -308,6 +470,7 @@ private void registerRoleClaimsHandler(
       String kdcAddress) {
     RoleClaimsHandler roleHandler = new RoleClaimsHandler(new AttributeMapLoader());
     roleHandler.setLdapConnectionFactory(connection);
+    roleHandler.setClaimsCache(claimsCache);
     roleHandler.setPropertyFileLocation(propertyFileLoc);
     roleHandler.setUserBaseDn(userBaseDn);
     roleHandler.setLoginUserAttribute(loginUserAttribute);
@@ -329,12 +492,14 @@ private void registerRoleClaimsHandler(
    * Registers a new Ldap-based Claims Handler.
    *
    * @param connection LdapTemplate used to query ldap for the roles.
+   * @param claimsCache Cache of the claims looked up for each user.
    * @param propertyFileLoc File location of the property file.
    * @param userBaseDn Base DN to determine the roles.
    * @param userNameAttr Identifier that defines the user.
    */
   private void registerLdapClaimsHandler(
       ConnectionFactory connection,
+      ClaimsCache claimsCache,
       String propertyFileLoc,
       String userBaseDn,
       String userNameAttr,
@@ -346,6 +511,7 @@ private void registerLdapClaimsHandler(
       String kdcAddress) {
     LdapClaimsHandler ldapHandler = new LdapClaimsHandler(new AttributeMapLoader());
     ldapHandler.setLdapConnectionFactory(connection);
+    ldapHandler.setClaimsCache(claimsCache);
     ldapHandler.setPropertyFileLocation(propertyFileLoc);
     ldapHandler.setUserBaseDN(userBaseDn);
     ldapHandler.setUserNameAttribute(userNameAttr);
@@ -370,21 +536,22 @@ private ServiceRegistration<ClaimsHandler> registerClaimsHandler(
       ClaimsHandler handler, ServiceRegistration<ClaimsHandler> registration) {
     BundleContext context = getContext();
     if (null != context) {
-      if (registration != null) {
-        ClaimsHandler oldClaimsHandler = context.getService(registration.getReference());
-        if (oldClaimsHandler instanceof RoleClaimsHandler) {
-          ((RoleClaimsHandler) oldClaimsHandler).disconnect();
-        } else if (oldClaimsHandler instanceof LdapClaimsHandler) {
-          ((LdapClaimsHandler) oldClaimsHandler).disconnect();
-        }
-        registration.unregister();
-      }
-
+      unregisterClaimsHandler(registration);
       return context.registerService(ClaimsHandler.class, handler, null);
     }
     return null;
   }
 
+  private void unregisterClaimsHandler(ServiceRegistration<ClaimsHandler> registration) {
+    if (registration != null) {
+      try {
+        registration.unregister();
+      } catch (IllegalStateException e) {
+        LOGGER.debug("Claims handler was already unregistered.", e);
+      }
+    }
+  }
+
   protected BundleContext getContext() {
     Bundle cxfBundle = FrameworkUtil.getBundle(ClaimsHandlerManager.class);
     if (cxfBundle != null) {
@@ -478,6 +645,36 @@ public void setOverrideCertDn(boolean overrideCertDn) {
     ldapProperties.put(OVERRIDE_CERT_DN, overrideCertDn);
   }
 
+  public void setMinConnections(int minConnections) {
+    LOGGER.trace("Setting minConnections: {}", minConnections);
+    ldapProperties.put(MIN_CONNECTIONS, minConnections);
+  }
+
+  public void setMaxConnections(int maxConnections) {
+    LOGGER.trace("Setting maxConnections: {}", maxConnections);
+    ldapProperties.put(MAX_CONNECTIONS, maxConnections);
+  }
+
+  public void setHealthCheckIntervalSeconds(int healthCheckIntervalSeconds) {
+    LOGGER.trace("Setting healthCheckIntervalSeconds: {}", healthCheckIntervalSeconds);
+    ldapProperties.put(HEALTH_CHECK_INTERVAL, healthCheckIntervalSeconds);
+  }
+
+  public void setClaimsCacheTtlSeconds(int claimsCacheTtlSeconds) {
+    LOGGER.trace("Setting claimsCacheTtlSeconds: {}", claimsCacheTtlSeconds);
+    ldapProperties.put(CLAIMS_CACHE_TTL, claimsCacheTtlSeconds);
+  }
+
+  public void setClaimsCacheNegativeTtlSeconds(int claimsCacheNegativeTtlSeconds) {
+    LOGGER.trace("Setting claimsCacheNegativeTtlSeconds: {}", claimsCacheNegativeTtlSeconds);
+    ldapProperties.put(CLAIMS_CACHE_NEGATIVE_TTL, claimsCacheNegativeTtlSeconds);
+  }
+
+  public void setClaimsCacheSize(int claimsCacheSize) {
+    LOGGER.trace("Setting claimsCacheSize: {}", claimsCacheSize);
+    ldapProperties.put(CLAIMS_CACHE_SIZE, claimsCacheSize);
+  }
+
   public void configure() {
     LOGGER.trace("configure method called - calling update");
     update(ldapProperties);
@@ -72,6 +72,8 @@ public class LdapClaimsHandler implements ClaimsHandler {
 
   private boolean x500FilterEnabled = true;
 
+  private ClaimsCache claimsCache = ClaimsCache.disabled();
+
   public LdapClaimsHandler(AttributeMapLoader attributeMapLoader) {
     super();
     this.attributeMapLoader = attributeMapLoader;
@@ -138,6 +140,14 @@ public void setX500FilterEnabled(boolean x500FilterEnabled) {
     this.x500FilterEnabled = x500FilterEnabled;
   }
 
+  public ClaimsCache getClaimsCache() {
+    return claimsCache;
+  }
+
+  public void setClaimsCache(ClaimsCache claimsCache) {
+    this.claimsCache = claimsCache;
+  }
+
   @Override
   public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
 
@@ -150,8 +160,16 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
       return new ClaimsCollectionImpl();
     }
 
+    ClaimsCollection cachedClaims = claimsCache.get(principal);
+    if (cachedClaims != null) {
+      LOGGER.trace("Using cached claims for user {}", user);
+      return cachedClaims;
+    }
+
     ClaimsCollection claimsColl = new ClaimsCollectionImpl();
     Connection connection = null;
+    boolean complete = false;
+    long start = System.nanoTime();
     try {
       AndFilter filter = new AndFilter();
       filter
@@ -218,6 +236,7 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
               entryReader.readReference();
             }
           }
+          complete = true;
         } else {
           LOGGER.info("LDAP Connection failed.");
         }
@@ -234,6 +253,10 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
       if (connection != null) {
         connection.close();
       }
+      claimsCache.recordLookup(System.nanoTime() - start);
+    }
+    if (complete) {
+      claimsCache.put(principal, claimsColl);
     }
     return claimsColl;
   }
@@ -80,6 +80,8 @@ public class RoleClaimsHandler implements ClaimsHandler {
 
   private String kdcAddress;
 
+  private ClaimsCache claimsCache = ClaimsCache.disabled();
+
   public RoleClaimsHandler(AttributeMapLoader attributeMapLoader) {
     this.attributeMapLoader = attributeMapLoader;
   }
@@ -197,21 +199,37 @@ public void setClaimsLdapAttributeMapping(Map<String, String> ldapClaimMapping)
     this.claimsLdapAttributeMapping = ldapClaimMapping;
   }
 
+  public ClaimsCache getClaimsCache() {
+    return claimsCache;
+  }
+
+  public void setClaimsCache(ClaimsCache claimsCache) {
+    this.claimsCache = claimsCache;
+  }
+
   @Override
   public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
     String[] attributes = {groupNameAttribute, memberNameAttribute};
     ClaimsCollection claimsColl = new ClaimsCollectionImpl();
-    Connection connection = null;
-    try {
-      Principal principal = parameters.getPrincipal();
+    Principal principal = parameters.getPrincipal();
 
-      String user = attributeMapLoader.getUser(principal);
-      if (user == null) {
-        LOGGER.info(
-            "Could not determine user name, possible authentication error. Returning no claims.");
-        return new ClaimsCollectionImpl();
-      }
+    String user = attributeMapLoader.getUser(principal);
+    if (user == null) {
+      LOGGER.info(
+          "Could not determine user name, possible authentication error. Returning no claims.");
+      return new ClaimsCollectionImpl();
+    }
+
+    ClaimsCollection cachedClaims = claimsCache.get(principal);
+    if (cachedClaims != null) {
+      LOGGER.trace("Using cached role claims for user {}", user);
+      return cachedClaims;
+    }
 
+    Connection connection = null;
+    boolean complete = false;
+    long start = System.nanoTime();
+    try {
       connection = connectionFactory.getConnection();
       if (connection != null) {
 
@@ -298,6 +316,7 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
               entryReader.readReference();
             }
           }
+          complete = true;
         } else {
           LOGGER.info("LDAP Connection failed.");
         }
@@ -314,6 +333,10 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
       if (connection != null) {
         connection.close();
       }
+      claimsCache.recordLookup(System.nanoTime() - start);
+    }
+    if (complete) {
+      claimsCache.put(principal, claimsColl);
     }
     return claimsColl;
   }
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.sts.claimsHandler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import ddf.security.claims.Claim;
+import ddf.security.claims.ClaimsCollection;
+import ddf.security.claims.impl.ClaimImpl;
+import ddf.security.claims.impl.ClaimsCollectionImpl;
+import org.apache.karaf.jaas.boot.principal.UserPrincipal;
+import org.junit.Test;
+
+public class ClaimsCacheTest {
+
+  private static final String CLAIM_NAME = "role";
+
+  @Test
+  public void testCachesClaims() {
+    ClaimsCache cache = new ClaimsCache(60, 60, 10);
+    cache.put(new UserPrincipal("tstark"), claims("admin"));
+
+    ClaimsCollection cachedClaims = cache.get(new UserPrincipal("tstark"));
+
+    assertThat(cachedClaims, hasSize(1));
+    assertThat(cachedClaims.get(0).getValues(), contains("admin"));
+    assertThat(cache.get(new UserPrincipal("srogers")), is(nullValue()));
+    assertThat(cache.getHitCount(), is(1L));
+    assertThat(cache.getMissCount(), is(1L));
+    assertThat(cache.getHitRatio(), is(0.5));
+  }
+
+  @Test
+  public void testReturnsCopies() {
+    ClaimsCache cache = new ClaimsCache(60, 60, 10);
+    ClaimsCollection claims = claims("admin");
+    cache.put(new UserPrincipal("tstark"), claims);
+    claims.get(0).addValue("guest");
+
+    cache.get(new UserPrincipal("tstark")).get(0).addValue("guest");
+
+    assertThat(cache.get(new UserPrincipal("tstark")).get(0).getValues(), contains("admin"));
+  }
+
+  @Test
+  public void testCachesPrincipalsWithoutClaims() {
+    ClaimsCache cache = new ClaimsCache(60, 60, 10);
+    cache.put(new UserPrincipal("nobody"), new ClaimsCollectionImpl());
+
+    ClaimsCollection cachedClaims = cache.get(new UserPrincipal("nobody"));
+
+    assertThat(cachedClaims, is(notNullValue()));
+    assertThat(cachedClaims, is(empty()));
+  }
+
+  @Test
+  public void testDisabledTtls() {
+    ClaimsCache cache = new ClaimsCache(0, 60, 10);
+    cache.put(new UserPrincipal("tstark"), claims("admin"));
+    cache.put(new UserPrincipal("nobody"), new ClaimsCollectionImpl());
+
+    assertThat(cache.get(new UserPrincipal("tstark")), is(nullValue()));
+    assertThat(cache.get(new UserPrincipal("nobody")), is(notNullValue()));
+
+    cache = new ClaimsCache(60, 0, 10);
+    cache.put(new UserPrincipal("tstark"), claims("admin"));
+    cache.put(new UserPrincipal("nobody"), new ClaimsCollectionImpl());
+
+    assertThat(cache.get(new UserPrincipal("tstark")), is(notNullValue()));
+    assertThat(cache.get(new UserPrincipal("nobody")), is(nullValue()));
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    ClaimsCache cache = new ClaimsCache(60, 60, 2);
+    cache.put(new UserPrincipal("tstark"), claims("admin"));
+    cache.put(new UserPrincipal("srogers"), claims("guest"));
+    cache.get(new UserPrincipal("tstark"));
+    cache.put(new UserPrincipal("bbanner"), claims("guest"));
+
+    assertThat(cache.getSize(), is(2));
+    assertThat(cache.get(new UserPrincipal("srogers")), is(nullValue()));
+    assertThat(cache.get(new UserPrincipal("tstark")), is(notNullValue()));
+    assertThat(cache.get(new UserPrincipal("bbanner")), is(notNullValue()));
+  }
+
+  @Test
+  public void testClear() {
+    ClaimsCache cache = new ClaimsCache(60, 60, 10);
+    cache.put(new UserPrincipal("tstark"), claims("admin"));
+
+    cache.clear();
+
+    assertThat(cache.getSize(), is(0));
+    assertThat(cache.get(new UserPrincipal("tstark")), is(nullValue()));
+  }
+
+  @Test
+  public void testRecordsLookups() {
+    ClaimsCache cache = ClaimsCache.disabled();
+    cache.recordLookup(1000000L);
+    cache.recordLookup(3000000L);
+
+    assertThat(cache.getLdapLookupCount(), is(2L));
+    assertThat(cache.getAverageLdapLookupMillis(), is(2.0));
+  }
+
+  private static ClaimsCollection claims(String value) {
+    Claim claim = new ClaimImpl(CLAIM_NAME);
+    claim.addValue(value);
+    ClaimsCollection claims = new ClaimsCollectionImpl();
+    claims.add(claim);
+    return claims;
+  }
+}
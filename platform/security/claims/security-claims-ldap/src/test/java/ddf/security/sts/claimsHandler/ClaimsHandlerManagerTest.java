@@ -23,7 +23,10 @@
 
 import ddf.security.claims.ClaimsHandler;
 import ddf.security.encryption.EncryptionService;
+import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.List;
+import org.forgerock.opendj.ldap.ConnectionFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
@@ -93,4 +96,48 @@ protected BundleContext getContext() {
             Matchers.<Dictionary<String, Object>>any());
     verify(handlerReg, never()).unregister();
   }
+
+  /** Test that the connection pools of replaced and destroyed handlers are closed. */
+  @Test
+  public void closesConnectionFactories() {
+    List<ConnectionFactory> connectionFactories = new ArrayList<>();
+    ClaimsHandlerManager manager =
+        new ClaimsHandlerManager(encryptService) {
+          @Override
+          protected BundleContext getContext() {
+            return context;
+          }
+
+          @Override
+          protected ConnectionFactory createConnectionFactory(
+              List<String> urls,
+              Boolean startTls,
+              String loadBalancingAlgorithm,
+              int minConnections,
+              int maxConnections,
+              int healthCheckInterval) {
+            ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+            connectionFactories.add(connectionFactory);
+            return connectionFactory;
+          }
+        };
+    manager.setUrl("ldap://ldap:1389");
+    manager.setPassword("secret");
+    manager.setPropertyFileLocation("etc/ws-security/attributeMap.properties");
+
+    manager.configure();
+    manager.configure();
+
+    verify(handlerReg, times(2)).unregister();
+    verify(connectionFactories.get(0)).close();
+    verify(connectionFactories.get(1)).close();
+    verify(connectionFactories.get(2), never()).close();
+    verify(connectionFactories.get(3), never()).close();
+
+    manager.destroy();
+
+    verify(handlerReg, times(4)).unregister();
+    verify(connectionFactories.get(2)).close();
+    verify(connectionFactories.get(3)).close();
+  }
 }
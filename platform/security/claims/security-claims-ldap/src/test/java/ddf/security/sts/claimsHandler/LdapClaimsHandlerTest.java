@@ -35,15 +35,20 @@
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.karaf.jaas.boot.principal.UserPrincipal;
 import org.forgerock.opendj.ldap.Connection;
 import org.forgerock.opendj.ldap.ConnectionFactory;
+import org.forgerock.opendj.ldap.Connections;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.opendj.ldap.LinkedAttribute;
+import org.forgerock.opendj.ldap.MemoryBackend;
 import org.forgerock.opendj.ldap.requests.BindRequest;
 import org.forgerock.opendj.ldap.responses.BindResult;
 import org.forgerock.opendj.ldap.responses.SearchResultEntry;
 import org.forgerock.opendj.ldif.ConnectionEntryReader;
+import org.forgerock.opendj.ldif.LDIFEntryReader;
+import org.forgerock.util.promise.Promise;
 import org.hamcrest.CoreMatchers;
 import org.junit.Before;
 import org.junit.Test;
@@ -143,4 +148,118 @@ public void testRetrieveClaimsValues() throws URISyntaxException, LdapException
     Claim claim = processedClaims.get(0);
     assertThat(claim.getValues(), contains(DUMMY_VALUE));
   }
+
+  @Test
+  public void testRetrieveClaimsFromLdapAreCached() throws Exception {
+    AtomicInteger connectionCount = new AtomicInteger();
+    LdapClaimsHandler handler = createInMemoryLdapHandler(connectionCount, "secret");
+
+    ClaimsCollection claims = handler.retrieveClaims(parameters("tstark"));
+    ClaimsCollection cachedClaims = handler.retrieveClaims(parameters("tstark"));
+
+    assertThat(claims, hasSize(1));
+    assertThat(claims.get(0).getValues(), contains(DUMMY_VALUE));
+    assertThat(cachedClaims, hasSize(1));
+    assertThat(cachedClaims.get(0).getValues(), contains(DUMMY_VALUE));
+    assertThat(connectionCount.get(), is(1));
+    assertThat(handler.getClaimsCache().getHitCount(), is(1L));
+    assertThat(handler.getClaimsCache().getLdapLookupCount(), is(1L));
+  }
+
+  @Test
+  public void testRetrieveClaimsForUnknownUserAreCached() throws Exception {
+    AtomicInteger connectionCount = new AtomicInteger();
+    LdapClaimsHandler handler = createInMemoryLdapHandler(connectionCount, "secret");
+
+    assertThat(handler.retrieveClaims(parameters("nobody")).isEmpty(), is(true));
+    assertThat(handler.retrieveClaims(parameters("nobody")).isEmpty(), is(true));
+    assertThat(connectionCount.get(), is(1));
+  }
+
+  @Test
+  public void testRetrieveClaimsFailuresAreNotCached() throws Exception {
+    AtomicInteger connectionCount = new AtomicInteger();
+    LdapClaimsHandler handler = createInMemoryLdapHandler(connectionCount, "wrong");
+
+    assertThat(handler.retrieveClaims(parameters("tstark")).isEmpty(), is(true));
+    assertThat(handler.retrieveClaims(parameters("tstark")).isEmpty(), is(true));
+    assertThat(connectionCount.get(), is(2));
+  }
+
+  private LdapClaimsHandler createInMemoryLdapHandler(
+      AtomicInteger connectionCount, String bindPassword) throws Exception {
+    MemoryBackend backend =
+        new MemoryBackend(
+            new LDIFEntryReader(
+                "dn: dc=marvel,dc=com",
+                "objectClass: top",
+                "objectClass: domain",
+                "dc: marvel",
+                "",
+                "dn: cn=admin,dc=marvel,dc=com",
+                "objectClass: top",
+                "objectClass: person",
+                "cn: admin",
+                "sn: admin",
+                "userPassword: secret",
+                "",
+                "dn: " + USER_BASE_DN,
+                "objectClass: top",
+                "objectClass: organizationalUnit",
+                "ou: avengers",
+                "",
+                "dn: uid=tstark," + USER_BASE_DN,
+                "objectClass: top",
+                "objectClass: person",
+                "objectClass: inetOrgPerson",
+                "uid: tstark",
+                "cn: " + DUMMY_VALUE,
+                "sn: Stark"));
+    ConnectionFactory inMemoryConnectionFactory = Connections.newInternalConnectionFactory(backend);
+
+    AttributeMapLoader attributeMapLoader = mock(AttributeMapLoader.class);
+    when(attributeMapLoader.getUser(any(Principal.class)))
+        .then(i -> i.getArgumentAt(0, Principal.class).getName());
+    when(attributeMapLoader.getBaseDN(any(Principal.class), anyString(), eq(false)))
+        .then(i -> i.getArgumentAt(1, String.class));
+
+    Map<String, String> map = new HashMap<>();
+    map.put(NAME_IDENTIFIER_CLAIM_URI, ATTRIBUTE_NAME);
+
+    LdapClaimsHandler handler = new LdapClaimsHandler(attributeMapLoader);
+    handler.setLdapConnectionFactory(
+        new ConnectionFactory() {
+          @Override
+          public void close() {
+            inMemoryConnectionFactory.close();
+          }
+
+          @Override
+          public Promise<Connection, LdapException> getConnectionAsync() {
+            connectionCount.incrementAndGet();
+            return inMemoryConnectionFactory.getConnectionAsync();
+          }
+
+          @Override
+          public Connection getConnection() throws LdapException {
+            connectionCount.incrementAndGet();
+            return inMemoryConnectionFactory.getConnection();
+          }
+        });
+    handler.setClaimsLdapAttributeMapping(map);
+    handler.setObjectClass("person");
+    handler.setUserNameAttribute("uid");
+    handler.setUserBaseDN(USER_BASE_DN);
+    handler.setBindMethod(BINDING_TYPE);
+    handler.setBindUserDN("cn=admin,dc=marvel,dc=com");
+    handler.setBindUserCredentials(bindPassword);
+    handler.setClaimsCache(new ClaimsCache(60, 60, 10));
+    return handler;
+  }
+
+  private static ClaimsParameters parameters(String user) {
+    ClaimsParameters parameters = mock(ClaimsParameters.class);
+    when(parameters.getPrincipal()).thenReturn(new UserPrincipal(user));
+    return parameters;
+  }
 }
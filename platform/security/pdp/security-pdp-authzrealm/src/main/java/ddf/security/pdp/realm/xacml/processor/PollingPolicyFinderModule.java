@@ -23,8 +23,10 @@
 import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.commons.io.monitor.FileAlterationListener;
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
@@ -48,6 +50,8 @@ public class PollingPolicyFinderModule extends FileBasedPolicyFinderModule
 
   private Set<String> xacmlPolicyDirectories;
 
+  private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
   /**
    * @param xacmlPolicyDirectories - to search for policies
    * @param pollingInterval - in seconds
@@ -80,6 +84,15 @@ public void start() {
     }
   }
 
+  /**
+   * Adds a listener that is run every time the policies are reloaded.
+   *
+   * @param reloadListener listener to run after the policies have been reloaded
+   */
+  public void addReloadListener(Runnable reloadListener) {
+    reloadListeners.add(reloadListener);
+  }
+
   public void onDirectoryChange(File changedDir) {
     try {
       SecurityLogger.audit("Directory {} changed.", changedDir.getCanonicalPath());
@@ -204,6 +217,7 @@ private FileFilter getXmlFileFilter() {
   public void reloadPolicies() {
     LOGGER.debug("Reloading XACML policies");
     this.loadPolicies();
+    reloadListeners.forEach(Runnable::run);
   }
 
   private static class PrivilegedFileAlterationObserver extends FileAlterationObserver {
@@ -21,16 +21,25 @@
 import com.connexta.arbitro.finder.PolicyFinderModule;
 import com.connexta.arbitro.finder.impl.CurrentEnvModule;
 import com.connexta.arbitro.finder.impl.SelectorModule;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Marshaller;
@@ -39,6 +48,9 @@
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.sax.SAXSource;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeType;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributesType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.ObjectFactory;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.RequestType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.ResponseType;
@@ -59,6 +71,14 @@
 /**
  * Implementation of a XACML Policy Decision Point (PDP). This class acts as a proxy to the real
  * XACML PDP.
+ *
+ * <p>Responses are cached by the attributes of the request they answer, so repeated requests for
+ * the same subject and resource attributes, such as the results of a query sharing the same
+ * security markings, only reach the PDP once. The cache is cleared whenever the policies are
+ * reloaded and entries expire after {@value #DEFAULT_DECISION_CACHE_TTL_SECONDS} seconds by default
+ * so that policies depending on the current time are re-evaluated. The size and time to live can be
+ * set with the {@value #DECISION_CACHE_SIZE_PROPERTY} and {@value #DECISION_CACHE_TTL_PROPERTY}
+ * system properties, and a size of 0 disables the cache.
  */
 public class XacmlClient {
   private static final Logger LOGGER = LoggerFactory.getLogger(XacmlClient.class);
@@ -76,10 +96,30 @@ public class XacmlClient {
 
   private static final XMLUtils XML_UTILS = XMLUtils.getInstance();
 
+  public static final String DECISION_CACHE_SIZE_PROPERTY =
+      "org.codice.ddf.security.pdp.decisionCacheSize";
+
+  public static final String DECISION_CACHE_TTL_PROPERTY =
+      "org.codice.ddf.security.pdp.decisionCacheTtlSeconds";
+
+  private static final long DEFAULT_DECISION_CACHE_SIZE = 10000;
+
+  private static final long DEFAULT_DECISION_CACHE_TTL_SECONDS = 60;
+
   static long defaultPollingIntervalInSeconds = 60;
 
   private PDP pdp;
 
+  private final Cache<HashCode, ResponseType> decisionCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(Long.getLong(DECISION_CACHE_SIZE_PROPERTY, DEFAULT_DECISION_CACHE_SIZE))
+          .expireAfterWrite(
+              Long.getLong(DECISION_CACHE_TTL_PROPERTY, DEFAULT_DECISION_CACHE_TTL_SECONDS),
+              TimeUnit.SECONDS)
+          .build();
+
+  private final AtomicLong policyGeneration = new AtomicLong();
+
   private Set<String> xacmlPolicyDirectories;
 
   private final Parser parser;
@@ -130,13 +170,87 @@ private void initialize(File xacmlPoliciesDirectory) throws PdpException {
   }
 
   /**
-   * Evaluates the XACML request and returns a XACML response.
+   * Evaluates the XACML request and returns a XACML response. Responses are shared between
+   * requests with the same attributes and must not be modified.
    *
    * @param xacmlRequestType XACML request
    * @return XACML response
    * @throws PdpException
    */
   public ResponseType evaluate(RequestType xacmlRequestType) throws PdpException {
+    HashCode decisionKey = getDecisionKey(xacmlRequestType);
+    ResponseType xacmlResponse = decisionCache.getIfPresent(decisionKey);
+    if (xacmlResponse != null) {
+      LOGGER.debug("Using cached XACML response.");
+      return xacmlResponse;
+    }
+
+    long generation = policyGeneration.get();
+    xacmlResponse = evaluateWithPdp(xacmlRequestType);
+    decisionCache.put(decisionKey, xacmlResponse);
+    // the policies may have been reloaded while the PDP was evaluating the request
+    if (generation != policyGeneration.get()) {
+      decisionCache.invalidate(decisionKey);
+    }
+    return xacmlResponse;
+  }
+
+  /** Clears the cached responses, which must be done whenever the policies change. */
+  public void invalidateDecisions() {
+    policyGeneration.incrementAndGet();
+    decisionCache.invalidateAll();
+  }
+
+  /**
+   * Computes a key identifying the attributes of a request. Attribute categories, attributes and
+   * values are sorted first, so requests that only differ in the order of their attributes share
+   * the same key.
+   *
+   * @param xacmlRequestType XACML request
+   * @return hash of the canonical form of the request
+   */
+  static HashCode getDecisionKey(RequestType xacmlRequestType) {
+    List<String> categories = new ArrayList<>();
+    for (AttributesType attributes : xacmlRequestType.getAttributes()) {
+      List<String> attributeStrings = new ArrayList<>();
+      for (AttributeType attribute : attributes.getAttribute()) {
+        List<String> values = new ArrayList<>();
+        for (AttributeValueType value : attribute.getAttributeValue()) {
+          values.add(canonicalize(value.getDataType(), value.getContent()));
+        }
+        values.sort(Comparator.naturalOrder());
+        attributeStrings.add(
+            canonicalize(
+                attribute.getAttributeId(),
+                attribute.getIssuer(),
+                attribute.isIncludeInResult(),
+                values));
+      }
+      attributeStrings.sort(Comparator.naturalOrder());
+      categories.add(canonicalize(attributes.getCategory(), attributeStrings));
+    }
+    categories.sort(Comparator.naturalOrder());
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putBoolean(xacmlRequestType.isReturnPolicyIdList());
+    hasher.putBoolean(xacmlRequestType.isCombinedDecision());
+    for (String category : categories) {
+      hasher.putString(category, StandardCharsets.UTF_8);
+    }
+    return hasher.hash();
+  }
+
+  /** Joins the parts, prefixing each with its length so that no two lists join the same way. */
+  private static String canonicalize(Object... parts) {
+    StringBuilder canonical = new StringBuilder();
+    for (Object part : parts) {
+      String partString = String.valueOf(part);
+      canonical.append(partString.length()).append(':').append(partString);
+    }
+    return canonical.toString();
+  }
+
+  private ResponseType evaluateWithPdp(RequestType xacmlRequestType) throws PdpException {
     String xacmlRequest = this.marshal(xacmlRequestType);
 
     String xacmlResponse = this.callPdp(xacmlRequest);
@@ -184,6 +298,7 @@ private PolicyFinder createPolicyFinder() {
     PolicyFinder policyFinder = new PolicyFinder();
     PollingPolicyFinderModule policyFinderModule =
         new PollingPolicyFinderModule(xacmlPolicyDirectories, defaultPollingIntervalInSeconds);
+    policyFinderModule.addReloadListener(this::invalidateDecisions);
     policyFinderModule.start();
     Set<PolicyFinderModule> policyFinderModules = new HashSet<>(1);
     policyFinderModules.add(policyFinderModule);
@@ -307,7 +422,8 @@ private String marshal(RequestType xacmlRequestType) throws PdpException {
       ctxPath.add(ResponseType.class.getPackage().getName());
       ParserConfigurator configurator =
           parser.configureParser(ctxPath, XacmlClient.class.getClassLoader());
-      configurator.addProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+      // the PDP does not need the whitespace, it only makes the logged request readable
+      configurator.addProperty(Marshaller.JAXB_FORMATTED_OUTPUT, LOGGER.isDebugEnabled());
       ByteArrayOutputStream os = new ByteArrayOutputStream();
       ObjectFactory objectFactory = new ObjectFactory();
       parser.marshal(configurator, objectFactory.createRequest(xacmlRequestType), os);
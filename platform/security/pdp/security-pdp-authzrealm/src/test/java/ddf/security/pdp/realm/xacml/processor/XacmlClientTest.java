@@ -14,6 +14,9 @@
 package ddf.security.pdp.realm.xacml.processor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -21,6 +24,7 @@
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Collections;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Marshaller;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeType;
@@ -440,6 +444,40 @@ public void testIllegalStateException() throws Exception {
     pdp.evaluate(xacmlRequestType);
   }
 
+  @Test
+  public void testEvaluateCachesResponses() throws Exception {
+    testSetup();
+    XacmlClient pdp = new XacmlClient(tempDir.getCanonicalPath(), new XmlParser());
+
+    ResponseType xacmlResponse = pdp.evaluate(createRequest(TEST_USER_1, US_COUNTRY));
+
+    assertEquals(DecisionType.PERMIT, xacmlResponse.getResult().get(0).getDecision());
+    assertSame(xacmlResponse, pdp.evaluate(createRequest(TEST_USER_1, US_COUNTRY)));
+    assertEquals(
+        DecisionType.DENY,
+        pdp.evaluate(createRequest(TEST_USER_1, "CA")).getResult().get(0).getDecision());
+
+    pdp.invalidateDecisions();
+
+    assertNotSame(xacmlResponse, pdp.evaluate(createRequest(TEST_USER_1, US_COUNTRY)));
+  }
+
+  @Test
+  public void testDecisionKeyIgnoresAttributeOrder() {
+    RequestType request = createRequest(TEST_USER_1, US_COUNTRY);
+    RequestType reordered = createRequest(TEST_USER_1, US_COUNTRY);
+    Collections.reverse(reordered.getAttributes());
+    Collections.reverse(reordered.getAttributes().get(1).getAttribute());
+
+    assertEquals(XacmlClient.getDecisionKey(request), XacmlClient.getDecisionKey(reordered));
+    assertNotEquals(
+        XacmlClient.getDecisionKey(request),
+        XacmlClient.getDecisionKey(createRequest(TEST_USER_2, US_COUNTRY)));
+    assertNotEquals(
+        XacmlClient.getDecisionKey(request),
+        XacmlClient.getDecisionKey(createRequest(TEST_USER_1, "CA")));
+  }
+
   @After
   public void cleanup() throws IOException {
     if (tempDir != null && tempDir.exists()) {
@@ -464,6 +502,41 @@ private void testSetup() throws IOException {
     }
   }
 
+  private RequestType createRequest(String user, String country) {
+    RequestType xacmlRequestType = new RequestType();
+    xacmlRequestType.setCombinedDecision(false);
+    xacmlRequestType.setReturnPolicyIdList(false);
+
+    AttributesType actionAttributes = new AttributesType();
+    actionAttributes.setCategory(ACTION_CATEGORY);
+    actionAttributes.getAttribute().add(createAttribute(ACTION_ID, QUERY_ACTION));
+
+    AttributesType subjectAttributes = new AttributesType();
+    subjectAttributes.setCategory(SUBJECT_CATEGORY);
+    subjectAttributes.getAttribute().add(createAttribute(SUBJECT_ID, user));
+    subjectAttributes.getAttribute().add(createAttribute(ROLE_CLAIM, ROLE));
+
+    AttributesType categoryAttributes = new AttributesType();
+    categoryAttributes.setCategory(PERMISSIONS_CATEGORY);
+    categoryAttributes.getAttribute().add(createAttribute(CITIZENSHIP_ATTRIBUTE, country));
+
+    xacmlRequestType.getAttributes().add(actionAttributes);
+    xacmlRequestType.getAttributes().add(subjectAttributes);
+    xacmlRequestType.getAttributes().add(categoryAttributes);
+    return xacmlRequestType;
+  }
+
+  private AttributeType createAttribute(String id, String value) {
+    AttributeType attribute = new AttributeType();
+    attribute.setAttributeId(id);
+    attribute.setIncludeInResult(false);
+    AttributeValueType attributeValue = new AttributeValueType();
+    attributeValue.setDataType(STRING_DATA_TYPE);
+    attributeValue.getContent().add(value);
+    attribute.getAttributeValue().add(attributeValue);
+    return attribute;
+  }
+
   private boolean isDirEmpty(File dir) {
     return ((null != dir)
         && (dir.isDirectory())
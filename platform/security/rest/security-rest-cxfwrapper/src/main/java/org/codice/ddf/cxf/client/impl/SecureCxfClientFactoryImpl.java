@@ -23,8 +23,6 @@
 import ddf.security.liberty.paos.impl.ResponseBuilder;
 import ddf.security.liberty.paos.impl.ResponseMarshaller;
 import ddf.security.liberty.paos.impl.ResponseUnmarshaller;
-import java.io.IOException;
-import java.io.InputStream;
 import java.net.InetAddress;
 import java.net.Socket;
 import java.net.URI;
@@ -33,29 +31,18 @@
 import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.KeyManagementException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.security.PrivateKey;
 import java.security.PrivilegedAction;
 import java.security.SecurityPermission;
-import java.security.UnrecoverableKeyException;
-import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import javax.net.ssl.KeyManager;
-import javax.net.ssl.KeyManagerFactory;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
-import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509KeyManager;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.cxf.Bus;
 import org.apache.cxf.configuration.jsse.TLSClientParameters;
 import org.apache.cxf.interceptor.Interceptor;
@@ -122,6 +109,8 @@
   private static final SecurityPermission CREATE_CLIENT_PERMISSION =
       new SecurityPermission("createCxfClient");
 
+  private static final SslContextCache SSL_CONTEXT_CACHE = new SslContextCache();
+
   private Integer sameUriRedirectMax = SAME_URI_REDIRECT_MAX;
 
   private boolean basicAuth = false;
@@ -797,17 +786,6 @@ private void configureConduit(ClientConfiguration clientConfig) {
       tlsParams.setCipherSuites(Arrays.asList(cipherSuites.split(",")));
     }
 
-    KeyStore keyStore = null;
-    KeyStore trustStore = null;
-    try {
-      keyStore = SecurityConstants.newKeystore();
-      trustStore = SecurityConstants.newTruststore();
-    } catch (KeyStoreException e) {
-      LOGGER.debug(
-          "Unable to create keystore instance of type {}",
-          System.getProperty(SecurityConstants.KEYSTORE_TYPE),
-          e);
-    }
     Path keyStoreFile;
     if (keyInfo != null && StringUtils.isNotBlank(keyInfo.getKeystorePath())) {
       keyStoreFile = Paths.get(keyInfo.getKeystorePath());
@@ -826,8 +804,6 @@ private void configureConduit(ClientConfiguration clientConfig) {
         trustStoreFile = Paths.get(ddfHomePath.toString(), trustStoreFile.toString());
       }
     }
-    String keyStorePassword = SecurityConstants.getKeystorePassword();
-    String trustStorePassword = SecurityConstants.getTruststorePassword();
     if (!Files.isReadable(keyStoreFile) || !Files.isReadable(trustStoreFile)) {
       LOGGER.debug(
           "Unable to read system key/trust store files: [ {} ] [ {} ]",
@@ -835,41 +811,13 @@ private void configureConduit(ClientConfiguration clientConfig) {
           trustStoreFile);
       return;
     }
-    try (InputStream kfis = Files.newInputStream(keyStoreFile)) {
-      if (keyStore != null) {
-        keyStore.load(kfis, keyStorePassword.toCharArray());
-      }
-    } catch (NoSuchAlgorithmException | CertificateException | IOException e) {
-      LOGGER.debug("Unable to load system key file.", e);
-    }
-    try (InputStream tfis = Files.newInputStream(trustStoreFile)) {
-      if (trustStore != null) {
-        trustStore.load(tfis, trustStorePassword.toCharArray());
-      }
-    } catch (NoSuchAlgorithmException | CertificateException | IOException e) {
-      LOGGER.debug("Unable to load system trust file.", e);
+    SslContextCache.StoreManagers storeManagers =
+        SSL_CONTEXT_CACHE.getManagers(keyStoreFile, trustStoreFile);
+    if (storeManagers.getKeyManagers() != null) {
+      tlsParams.setKeyManagers(storeManagers.getKeyManagers());
     }
-
-    KeyManager[] keyManagers = null;
-    try {
-      KeyManagerFactory keyManagerFactory =
-          KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
-      keyManagerFactory.init(keyStore, keyStorePassword.toCharArray());
-      keyManagers = keyManagerFactory.getKeyManagers();
-      tlsParams.setKeyManagers(keyManagers);
-    } catch (NoSuchAlgorithmException | KeyStoreException | UnrecoverableKeyException e) {
-      LOGGER.debug("Unable to initialize KeyManagerFactory.", e);
-    }
-
-    TrustManager[] trustManagers = null;
-    try {
-      TrustManagerFactory trustManagerFactory =
-          TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
-      trustManagerFactory.init(trustStore);
-      trustManagers = trustManagerFactory.getTrustManagers();
-      tlsParams.setTrustManagers(trustManagers);
-    } catch (NoSuchAlgorithmException | KeyStoreException e) {
-      LOGGER.debug("Unable to initialize TrustManagerFactory.", e);
+    if (storeManagers.getTrustManagers() != null) {
+      tlsParams.setTrustManagers(storeManagers.getTrustManagers());
     }
 
     if (keyInfo != null) {
@@ -877,10 +825,6 @@ private void configureConduit(ClientConfiguration clientConfig) {
       tlsParams.setUseHttpsURLConnectionDefaultSslSocketFactory(false);
       tlsParams.setCertAlias(keyInfo.getAlias());
       try {
-        if (keyManagers == null) {
-          throw new KeyManagementException("keyManagers was null");
-        }
-
         boolean validProtocolFound = false;
         String validProtocolsStr = System.getProperty("jdk.tls.client.protocols");
         if (StringUtils.isNotBlank(validProtocolsStr)) {
@@ -901,7 +845,7 @@ private void configureConduit(ClientConfiguration clientConfig) {
         }
         if (validProtocolFound) {
           tlsParams.setSSLSocketFactory(
-              getSSLSocketFactory(sslProtocol, keyInfo.getAlias(), keyManagers, trustManagers));
+              storeManagers.getSocketFactory(sslProtocol, keyInfo.getAlias()));
         }
       } catch (KeyManagementException | NoSuchAlgorithmException e) {
         LOGGER.debug("Unable to override default SSL Socket Factory", e);
@@ -966,24 +910,6 @@ public void addOutInterceptors(Interceptor<? extends Message> inteceptor) {
     this.clientFactory.getOutInterceptors().add(inteceptor);
   }
 
-  private SSLSocketFactory getSSLSocketFactory(
-      String sslProtocol, String alias, KeyManager[] keyManagers, TrustManager[] trustManagers)
-      throws KeyManagementException, NoSuchAlgorithmException {
-
-    if (ArrayUtils.isNotEmpty(keyManagers)) {
-      for (int i = 0; i < keyManagers.length; i++) {
-        if (keyManagers[i] instanceof X509KeyManager) {
-          keyManagers[i] = new AliasSelectorKeyManager((X509KeyManager) keyManagers[i], alias);
-        }
-      }
-    }
-
-    SSLContext context = SSLContext.getInstance(sslProtocol);
-    context.init(keyManagers, trustManagers, null);
-
-    return context.getSocketFactory();
-  }
-
   /**
    * X509 certificate selector for retrieving certificate for a specific alias. Based off of code
    * from
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.cxf.client.impl;
+
+import ddf.security.SecurityConstants;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyManagementException;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509KeyManager;
+import org.codice.ddf.cxf.client.impl.SecureCxfClientFactoryImpl.AliasSelectorKeyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the key and trust managers loaded from the key and trust store files, along with the
+ * socket factories built from them, so that clients do not reload the stores for every request.
+ * Handing every client the same socket factory also lets the JVM keep connections alive between
+ * clients and resume TLS sessions. Entries are reloaded whenever either store file is modified.
+ */
+final class SslContextCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SslContextCache.class);
+
+  private final Map<String, StoreManagers> managers = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the managers for the given stores, loading them if they have not been loaded yet or if
+   * either file has been modified since they were. Stores that fail to load are not cached.
+   *
+   * @param keyStoreFile key store file, which must be readable
+   * @param trustStoreFile trust store file, which must be readable
+   * @return managers for the stores, whose key or trust managers are null if they could not be
+   *     loaded
+   */
+  StoreManagers getManagers(Path keyStoreFile, Path trustStoreFile) {
+    String key = keyStoreFile + "|" + trustStoreFile;
+    FileTime keyStoreModified = getLastModifiedTime(keyStoreFile);
+    FileTime trustStoreModified = getLastModifiedTime(trustStoreFile);
+
+    StoreManagers cached = managers.get(key);
+    if (cached != null && cached.isCurrent(keyStoreModified, trustStoreModified)) {
+      return cached;
+    }
+
+    StoreManagers loaded =
+        new StoreManagers(
+            loadKeyManagers(keyStoreFile),
+            loadTrustManagers(trustStoreFile),
+            keyStoreModified,
+            trustStoreModified);
+    if (loaded.isComplete()) {
+      managers.put(key, loaded);
+    } else {
+      managers.remove(key);
+    }
+    return loaded;
+  }
+
+  private static FileTime getLastModifiedTime(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read modification time of {}.", file, e);
+      return null;
+    }
+  }
+
+  private static KeyManager[] loadKeyManagers(Path keyStoreFile) {
+    String keyStorePassword = SecurityConstants.getKeystorePassword();
+    KeyStore keyStore = null;
+    try {
+      keyStore = SecurityConstants.newKeystore();
+    } catch (KeyStoreException e) {
+      LOGGER.debug(
+          "Unable to create keystore instance of type {}",
+          System.getProperty(SecurityConstants.KEYSTORE_TYPE),
+          e);
+    }
+    try (InputStream kfis = Files.newInputStream(keyStoreFile)) {
+      if (keyStore != null) {
+        keyStore.load(kfis, keyStorePassword.toCharArray());
+      }
+    } catch (NoSuchAlgorithmException | CertificateException | IOException e) {
+      LOGGER.debug("Unable to load system key file.", e);
+    }
+
+    try {
+      KeyManagerFactory keyManagerFactory =
+          KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+      keyManagerFactory.init(keyStore, keyStorePassword.toCharArray());
+      return keyManagerFactory.getKeyManagers();
+    } catch (NoSuchAlgorithmException | KeyStoreException | UnrecoverableKeyException e) {
+      LOGGER.debug("Unable to initialize KeyManagerFactory.", e);
+      return null;
+    }
+  }
+
+  private static TrustManager[] loadTrustManagers(Path trustStoreFile) {
+    KeyStore trustStore = null;
+    try {
+      trustStore = SecurityConstants.newTruststore();
+    } catch (KeyStoreException e) {
+      LOGGER.debug(
+          "Unable to create truststore instance of type {}",
+          System.getProperty(SecurityConstants.TRUSTSTORE_TYPE),
+          e);
+    }
+    try (InputStream tfis = Files.newInputStream(trustStoreFile)) {
+      if (trustStore != null) {
+        trustStore.load(tfis, SecurityConstants.getTruststorePassword().toCharArray());
+      }
+    } catch (NoSuchAlgorithmException | CertificateException | IOException e) {
+      LOGGER.debug("Unable to load system trust file.", e);
+    }
+
+    try {
+      TrustManagerFactory trustManagerFactory =
+          TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+      trustManagerFactory.init(trustStore);
+      return trustManagerFactory.getTrustManagers();
+    } catch (NoSuchAlgorithmException | KeyStoreException e) {
+      LOGGER.debug("Unable to initialize TrustManagerFactory.", e);
+      return null;
+    }
+  }
+
+  /** Key and trust managers loaded from one version of a pair of key and trust store files. */
+  static final class StoreManagers {
+
+    private final KeyManager[] keyManagers;
+
+    private final TrustManager[] trustManagers;
+
+    private final FileTime keyStoreModified;
+
+    private final FileTime trustStoreModified;
+
+    private final Map<String, SSLSocketFactory> socketFactories = new ConcurrentHashMap<>();
+
+    private StoreManagers(
+        KeyManager[] keyManagers,
+        TrustManager[] trustManagers,
+        FileTime keyStoreModified,
+        FileTime trustStoreModified) {
+      this.keyManagers = keyManagers;
+      this.trustManagers = trustManagers;
+      this.keyStoreModified = keyStoreModified;
+      this.trustStoreModified = trustStoreModified;
+    }
+
+    /**
+     * @return a copy of the key managers, which callers such as CXF may modify, or null if the key
+     *     store could not be loaded
+     */
+    KeyManager[] getKeyManagers() {
+      return keyManagers == null ? null : keyManagers.clone();
+    }
+
+    /**
+     * @return a copy of the trust managers, which callers may modify, or null if the trust store
+     *     could not be loaded
+     */
+    TrustManager[] getTrustManagers() {
+      return trustManagers == null ? null : trustManagers.clone();
+    }
+
+    /**
+     * Returns a socket factory that presents the certificate with the given alias. The same
+     * factory is returned for every call with the same protocol and alias, so its connections and
+     * TLS sessions are shared by every client that uses it.
+     *
+     * @param sslProtocol protocol of the {@link SSLContext}
+     * @param alias alias of the client certificate to present
+     * @return the socket factory
+     * @throws KeyManagementException if the key managers could not be loaded or the context could
+     *     not be initialized
+     * @throws NoSuchAlgorithmException if the protocol is not supported
+     */
+    SSLSocketFactory getSocketFactory(String sslProtocol, String alias)
+        throws KeyManagementException, NoSuchAlgorithmException {
+      if (keyManagers == null) {
+        throw new KeyManagementException("keyManagers was null");
+      }
+
+      String key = sslProtocol + "|" + alias;
+      SSLSocketFactory socketFactory = socketFactories.get(key);
+      if (socketFactory == null) {
+        socketFactory = createSocketFactory(sslProtocol, alias);
+        SSLSocketFactory existing = socketFactories.putIfAbsent(key, socketFactory);
+        if (existing != null) {
+          socketFactory = existing;
+        }
+      }
+      return socketFactory;
+    }
+
+    private SSLSocketFactory createSocketFactory(String sslProtocol, String alias)
+        throws KeyManagementException, NoSuchAlgorithmException {
+      // wrap a copy, the managers themselves are shared with every alias
+      KeyManager[] aliasKeyManagers = keyManagers.clone();
+      for (int i = 0; i < aliasKeyManagers.length; i++) {
+        if (aliasKeyManagers[i] instanceof X509KeyManager) {
+          aliasKeyManagers[i] =
+              new AliasSelectorKeyManager((X509KeyManager) aliasKeyManagers[i], alias);
+        }
+      }
+
+      SSLContext context = SSLContext.getInstance(sslProtocol);
+      context.init(aliasKeyManagers, trustManagers, null);
+      return context.getSocketFactory();
+    }
+
+    private boolean isComplete() {
+      return keyManagers != null
+          && trustManagers != null
+          && keyStoreModified != null
+          && trustStoreModified != null;
+    }
+
+    private boolean isCurrent(FileTime keyStoreModified, FileTime trustStoreModified) {
+      return Objects.equals(this.keyStoreModified, keyStoreModified)
+          && Objects.equals(this.trustStoreModified, trustStoreModified);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.cxf.client.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import ddf.security.SecurityConstants;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import org.codice.ddf.cxf.client.impl.SslContextCache.StoreManagers;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SslContextCacheTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path keyStoreFile;
+
+  private Path trustStoreFile;
+
+  private SslContextCache cache = new SslContextCache();
+
+  @Before
+  public void setup() throws IOException {
+    keyStoreFile = copyResource("/serverKeystore.jks");
+    trustStoreFile = copyResource("/serverTruststore.jks");
+
+    System.setProperty(SecurityConstants.KEYSTORE_TYPE, "jks");
+    System.setProperty(SecurityConstants.TRUSTSTORE_TYPE, "jks");
+    System.setProperty(SecurityConstants.KEYSTORE_PASSWORD, "changeit");
+    System.setProperty(SecurityConstants.TRUSTSTORE_PASSWORD, "changeit");
+  }
+
+  @Test
+  public void testManagersAreReused() {
+    StoreManagers managers = cache.getManagers(keyStoreFile, trustStoreFile);
+
+    assertThat(managers.getKeyManagers(), notNullValue());
+    assertThat(managers.getTrustManagers(), notNullValue());
+    assertThat(cache.getManagers(keyStoreFile, trustStoreFile), sameInstance(managers));
+  }
+
+  @Test
+  public void testModifyingReturnedManagersDoesNotChangeCache() {
+    StoreManagers managers = cache.getManagers(keyStoreFile, trustStoreFile);
+
+    managers.getKeyManagers()[0] = null;
+    managers.getTrustManagers()[0] = null;
+
+    assertThat(managers.getKeyManagers()[0], notNullValue());
+    assertThat(managers.getTrustManagers()[0], notNullValue());
+  }
+
+  @Test
+  public void testManagersAreReloadedWhenStoreChanges() throws IOException {
+    StoreManagers managers = cache.getManagers(keyStoreFile, trustStoreFile);
+
+    Files.setLastModifiedTime(
+        keyStoreFile,
+        FileTime.fromMillis(Files.getLastModifiedTime(keyStoreFile).toMillis() + 1000));
+
+    assertThat(cache.getManagers(keyStoreFile, trustStoreFile), not(sameInstance(managers)));
+  }
+
+  @Test
+  public void testSocketFactoryIsReusedPerAlias() throws Exception {
+    StoreManagers managers = cache.getManagers(keyStoreFile, trustStoreFile);
+
+    assertThat(
+        managers.getSocketFactory("TLSv1.2", "localhost"),
+        sameInstance(managers.getSocketFactory("TLSv1.2", "localhost")));
+    assertThat(
+        managers.getSocketFactory("TLSv1.2", "localhost"),
+        not(sameInstance(managers.getSocketFactory("TLSv1.2", "other"))));
+    assertThat(
+        managers.getKeyManagers()[0] instanceof SecureCxfClientFactoryImpl.AliasSelectorKeyManager,
+        is(false));
+  }
+
+  private Path copyResource(String resource) throws IOException {
+    Path file = temporaryFolder.newFile().toPath();
+    try (InputStream inputStream = SslContextCacheTest.class.getResourceAsStream(resource)) {
+      Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return file;
+  }
+}